@@ -307,4 +307,76 @@ public final class ClientProperties {
      * of masking keys.
      */
     public static final String MASKING_KEY_GENERATOR = "org.glassfish.tyrus.client.maskingKeyGenerator";
+
+    /**
+     * Maximal size of the batch of outgoing frames in bytes ({@link Integer} value).
+     * <p>
+     * Used when batching is allowed on {@link javax.websocket.RemoteEndpoint} (see {@link
+     * javax.websocket.RemoteEndpoint#setBatchingAllowed(boolean)}). The batch is written to the connection when its
+     * size reaches this value; frames bigger than this value are not batched.
+     * <p>
+     * The default value is {@value org.glassfish.tyrus.core.ProtocolHandler#DEFAULT_MAX_BATCH_SIZE}.
+     */
+    public static final String MAX_BATCH_SIZE = "org.glassfish.tyrus.maxBatchSize";
+
+    /**
+     * Maximal time in milliseconds a frame can wait in the batch of outgoing frames ({@link Long} value).
+     * <p>
+     * Used when batching is allowed on {@link javax.websocket.RemoteEndpoint} (see {@link
+     * javax.websocket.RemoteEndpoint#setBatchingAllowed(boolean)}). Value {@code 0} means that batch is written only
+     * when it is full or explicitly flushed.
+     * <p>
+     * The default value is {@value org.glassfish.tyrus.core.ProtocolHandler#DEFAULT_MAX_BATCH_DELAY}.
+     */
+    public static final String MAX_BATCH_DELAY = "org.glassfish.tyrus.maxBatchDelay";
+
+    /**
+     * Ordered dispatch of incoming messages ({@link Boolean} value).
+     * <p>
+     * When enabled, message handlers of the client session are invoked one at a time and in the order in which the
+     * messages were received, but on an executor instead of the thread which read the data from the connection.
+     * <p>
+     * The default value is {@code false}.
+     *
+     * @see org.glassfish.tyrus.core.TyrusWebSocketEngine#ORDERED_DISPATCH
+     */
+    public static final String ORDERED_DISPATCH = "org.glassfish.tyrus.orderedDispatch";
+
+    /**
+     * Maximal number of incoming messages waiting for ordered dispatch ({@link Integer} value).
+     * <p>
+     * Reading from the connection is blocked when the limit is reached. Used only when {@link #ORDERED_DISPATCH} is
+     * enabled.
+     * <p>
+     * The default value is {@value org.glassfish.tyrus.core.TyrusWebSocketEngine#DEFAULT_ORDERED_DISPATCH_QUEUE_DEPTH}.
+     */
+    public static final String ORDERED_DISPATCH_QUEUE_DEPTH = "org.glassfish.tyrus.orderedDispatchQueueDepth";
+
+    /**
+     * Maximal number of outgoing bytes handed over to the transport and not yet written ({@link Integer} value).
+     * <p>
+     * When the limit is exceeded, {@link #OUTBOUND_QUEUE_POLICY} is applied. No limit is applied by default.
+     *
+     * @see org.glassfish.tyrus.core.TyrusWebSocketEngine#OUTBOUND_QUEUE_MAX_SIZE
+     */
+    public static final String OUTBOUND_QUEUE_MAX_SIZE = "org.glassfish.tyrus.outboundQueueMaxSize";
+
+    /**
+     * Maximal number of outgoing frames handed over to the transport and not yet written ({@link Integer} value).
+     * <p>
+     * When the limit is exceeded, {@link #OUTBOUND_QUEUE_POLICY} is applied. No limit is applied by default.
+     *
+     * @see org.glassfish.tyrus.core.TyrusWebSocketEngine#OUTBOUND_QUEUE_MAX_FRAMES
+     */
+    public static final String OUTBOUND_QUEUE_MAX_FRAMES = "org.glassfish.tyrus.outboundQueueMaxFrames";
+
+    /**
+     * Policy applied when the outbound queue limits are exceeded ({@link org.glassfish.tyrus.core.OutboundQueuePolicy}
+     * value or its string representation).
+     * <p>
+     * The default value is {@link org.glassfish.tyrus.core.OutboundQueuePolicy#FAIL}.
+     *
+     * @see org.glassfish.tyrus.core.TyrusWebSocketEngine#OUTBOUND_QUEUE_POLICY
+     */
+    public static final String OUTBOUND_QUEUE_POLICY = "org.glassfish.tyrus.outboundQueuePolicy";
 }
@@ -70,11 +70,13 @@ import org.glassfish.tyrus.core.DebugContext;
 import org.glassfish.tyrus.core.Handshake;
 import org.glassfish.tyrus.core.HandshakeException;
 import org.glassfish.tyrus.core.MaskingKeyGenerator;
+import org.glassfish.tyrus.core.OutboundQueuePolicy;
 import org.glassfish.tyrus.core.ProtocolHandler;
 import org.glassfish.tyrus.core.RequestContext;
 import org.glassfish.tyrus.core.TyrusEndpointWrapper;
 import org.glassfish.tyrus.core.TyrusExtension;
 import org.glassfish.tyrus.core.TyrusWebSocket;
+import org.glassfish.tyrus.core.TyrusWebSocketEngine;
 import org.glassfish.tyrus.core.Utils;
 import org.glassfish.tyrus.core.Version;
 import org.glassfish.tyrus.core.WebSocketException;
@@ -152,6 +154,38 @@ public class TyrusClientEngine implements ClientEngine {
                 .MASKING_KEY_GENERATOR, MaskingKeyGenerator.class, null);
         protocolHandler = DEFAULT_VERSION.createHandler(true, maskingKeyGenerator);
 
+        Integer maxBatchSize = Utils.getProperty(properties, ClientProperties.MAX_BATCH_SIZE, Integer.class,
+                                                 ProtocolHandler.DEFAULT_MAX_BATCH_SIZE);
+        if (maxBatchSize == null || maxBatchSize <= 0) {
+            maxBatchSize = ProtocolHandler.DEFAULT_MAX_BATCH_SIZE;
+        }
+        Long maxBatchDelay = Utils.getProperty(properties, ClientProperties.MAX_BATCH_DELAY, Long.class,
+                                               ProtocolHandler.DEFAULT_MAX_BATCH_DELAY);
+        if (maxBatchDelay == null) {
+            maxBatchDelay = ProtocolHandler.DEFAULT_MAX_BATCH_DELAY;
+        }
+        protocolHandler.setBatchingConfiguration(maxBatchSize, maxBatchDelay);
+
+        if (Utils.getProperty(properties, ClientProperties.ORDERED_DISPATCH, Boolean.class, false)) {
+            Integer orderedDispatchQueueDepth =
+                    Utils.getProperty(properties, ClientProperties.ORDERED_DISPATCH_QUEUE_DEPTH, Integer.class,
+                                      TyrusWebSocketEngine.DEFAULT_ORDERED_DISPATCH_QUEUE_DEPTH);
+            if (orderedDispatchQueueDepth == null || orderedDispatchQueueDepth <= 0) {
+                orderedDispatchQueueDepth = TyrusWebSocketEngine.DEFAULT_ORDERED_DISPATCH_QUEUE_DEPTH;
+            }
+            protocolHandler.setOrderedDispatchQueueDepth(orderedDispatchQueueDepth);
+        }
+
+        final Integer outboundQueueMaxSize =
+                Utils.getProperty(properties, ClientProperties.OUTBOUND_QUEUE_MAX_SIZE, Integer.class, 0);
+        final Integer outboundQueueMaxFrames =
+                Utils.getProperty(properties, ClientProperties.OUTBOUND_QUEUE_MAX_FRAMES, Integer.class, 0);
+        protocolHandler.setOutboundQueueLimits(
+                outboundQueueMaxSize == null ? 0 : outboundQueueMaxSize,
+                outboundQueueMaxFrames == null ? 0 : outboundQueueMaxFrames,
+                Utils.getProperty(properties, ClientProperties.OUTBOUND_QUEUE_POLICY, OutboundQueuePolicy.class,
+                                  OutboundQueuePolicy.FAIL));
+
         this.redirectUriHistory = Collections.synchronizedSet(new HashSet<URI>(DEFAULT_REDIRECT_THRESHOLD));
 
         this.redirectEnabled = Utils.getProperty(properties, ClientProperties.REDIRECT_ENABLED, Boolean.class, false);
@@ -40,6 +40,8 @@
 package org.glassfish.tyrus.container.grizzly.client;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -52,6 +54,8 @@ import org.glassfish.grizzly.Connection;
 import org.glassfish.grizzly.EmptyCompletionHandler;
 import org.glassfish.grizzly.WriteHandler;
 import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.CompositeBuffer;
+import org.glassfish.grizzly.memory.MemoryManager;
 
 import static org.glassfish.tyrus.container.grizzly.client.TaskProcessor.Task;
 
@@ -77,7 +81,32 @@ public class GrizzlyWriter extends Writer {
         }
 
         final Buffer message = Buffers.wrap(connection.getTransport().getMemoryManager(), buffer);
+        write(message, buffer, completionHandler);
+    }
+
+    @Override
+    public void write(final ByteBuffer[] buffers, final CompletionHandler<ByteBuffer[]> completionHandler) {
+        if (!connection.isOpen()) {
+            completionHandler.failed(new IllegalStateException("Connection is not open."));
+            return;
+        }
+
+        final MemoryManager memoryManager = connection.getTransport().getMemoryManager();
+        final List<Buffer> messageParts = new ArrayList<Buffer>(buffers.length);
+        for (ByteBuffer buffer : buffers) {
+            if (buffer.hasRemaining()) {
+                messageParts.add(Buffers.wrap(memoryManager, buffer));
+            }
+        }
+
+        // composite buffer is written using a single gathering write, wrapped buffers are not copied.
+        final Buffer message = messageParts.size() == 1
+                ? messageParts.get(0)
+                : CompositeBuffer.newBuffer(memoryManager, messageParts.toArray(new Buffer[messageParts.size()]));
+        write(message, buffers, completionHandler);
+    }
 
+    private <T> void write(final Buffer message, final T result, final CompletionHandler<T> completionHandler) {
         final EmptyCompletionHandler emptyCompletionHandler = new EmptyCompletionHandler() {
             @Override
             public void cancelled() {
@@ -87,9 +116,9 @@ public class GrizzlyWriter extends Writer {
             }
 
             @Override
-            public void completed(Object result) {
+            public void completed(Object o) {
                 if (completionHandler != null) {
-                    completionHandler.completed(buffer);
+                    completionHandler.completed(result);
                 }
             }
 
@@ -100,19 +100,9 @@ public class TaskProcessor {
             return;
         }
 
+        final boolean processed;
         try {
-            while (!taskQueue.isEmpty()) {
-                if (condition != null && !condition.isValid()) {
-                    return;
-                }
-
-                final Task first = taskQueue.poll();
-                if (first == null) {
-                    continue;
-                }
-
-                first.execute();
-            }
+            processed = processQueue();
         } finally {
             taskLock.unlock();
         }
@@ -123,11 +113,71 @@ public class TaskProcessor {
          * might be added to the queue and stay there indefinitely. It is quite improbable, but the thread that has
          * finished processing tasks should try to process more tasks after releasing the lock.
          */
+        if (processed && !taskQueue.isEmpty()) {
+            processTask();
+        }
+    }
+
+    /**
+     * Try to become the thread processing tasks without creating a {@link Task}.
+     * <p>
+     * Tasks already present in the queue are processed first. When {@code true} is returned, the caller can do its
+     * work directly in the current thread - no other task will be processed concurrently - and has to call {@link
+     * #unlock()} when it is done.
+     *
+     * @return {@code true} if the calling thread is now processing tasks, {@code false} if another thread is already
+     * processing tasks or the {@link Condition} is not valid.
+     */
+    public boolean tryLock() {
+        if (!taskLock.tryLock()) {
+            return false;
+        }
+
+        boolean locked = false;
+        try {
+            locked = processQueue();
+            return locked;
+        } finally {
+            if (!locked) {
+                taskLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Stop processing tasks in the current thread after successful {@link #tryLock()} and process tasks added in the
+     * meantime by other threads.
+     */
+    public void unlock() {
+        taskLock.unlock();
+
         if (!taskQueue.isEmpty()) {
             processTask();
         }
     }
 
+    /**
+     * Process all the tasks from the task queue. Has to be called with the task lock held.
+     *
+     * @return {@code false} if the processing was terminated because the {@link Condition} was not valid.
+     */
+    private boolean processQueue() {
+        while (!taskQueue.isEmpty()) {
+            if (condition != null && !condition.isValid()) {
+                return false;
+            }
+
+            final Task first = taskQueue.poll();
+            if (first == null) {
+                continue;
+            }
+
+            first.execute();
+        }
+
+        return true;
+    }
+
     /**
      * Generic task representation.
      */
@@ -0,0 +1,178 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.container.grizzly.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link TaskProcessor#tryLock()} and {@link TaskProcessor#unlock()}.
+ */
+public class TaskProcessorTest {
+
+    @Test
+    public void testTryLockProcessesQueuedTasks() {
+        final AtomicBoolean valid = new AtomicBoolean(false);
+        final TaskProcessor taskProcessor = new TaskProcessor(new TaskProcessor.Condition() {
+            @Override
+            public boolean isValid() {
+                return valid.get();
+            }
+        });
+        final List<Integer> executed = Collections.synchronizedList(new ArrayList<Integer>());
+
+        // condition is not valid, tasks stay in the queue.
+        taskProcessor.processTask(new RecordingTask(executed, 1));
+        taskProcessor.processTask(new RecordingTask(executed, 2));
+        assertTrue(executed.isEmpty());
+        assertFalse(taskProcessor.tryLock());
+
+        valid.set(true);
+        assertTrue(taskProcessor.tryLock());
+        // queued tasks are processed before the caller gets the lock.
+        assertEquals(2, executed.size());
+        assertEquals(1, (int) executed.get(0));
+        assertEquals(2, (int) executed.get(1));
+        taskProcessor.unlock();
+    }
+
+    @Test
+    public void testTryLockHeldByAnotherThread() throws InterruptedException {
+        final TaskProcessor taskProcessor = new TaskProcessor();
+        final List<Integer> executed = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicBoolean locked = new AtomicBoolean(true);
+
+        assertTrue(taskProcessor.tryLock());
+
+        final Thread thread = new Thread() {
+            @Override
+            public void run() {
+                locked.set(taskProcessor.tryLock());
+                // lock is held by the main thread, the task is only queued.
+                taskProcessor.processTask(new RecordingTask(executed, 1));
+            }
+        };
+        thread.start();
+        thread.join(5000);
+
+        assertFalse(locked.get());
+        assertTrue(executed.isEmpty());
+
+        taskProcessor.unlock();
+        assertEquals(1, executed.size());
+
+        // lock was released, another thread can get it.
+        final Thread other = new Thread() {
+            @Override
+            public void run() {
+                locked.set(taskProcessor.tryLock());
+                if (locked.get()) {
+                    taskProcessor.unlock();
+                }
+            }
+        };
+        other.start();
+        other.join(5000);
+        assertTrue(locked.get());
+    }
+
+    @Test
+    public void testTasksEnqueuedDuringFastPath() throws InterruptedException {
+        final TaskProcessor taskProcessor = new TaskProcessor();
+        final List<Integer> executed = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicReference<Thread> executingThread = new AtomicReference<Thread>();
+
+        assertTrue(taskProcessor.tryLock());
+
+        final Thread thread = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 3; i++) {
+                    final int index = i;
+                    taskProcessor.processTask(new TaskProcessor.Task() {
+                        @Override
+                        public void execute() {
+                            executingThread.set(Thread.currentThread());
+                            executed.add(index);
+                        }
+                    });
+                }
+            }
+        };
+        thread.start();
+        thread.join(5000);
+
+        // the main thread is working in the fast path, nothing is processed concurrently.
+        assertTrue(executed.isEmpty());
+
+        // tasks enqueued in the meantime are processed by the thread leaving the fast path, in order.
+        taskProcessor.unlock();
+        assertEquals(3, executed.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, (int) executed.get(i));
+        }
+        assertSame(Thread.currentThread(), executingThread.get());
+    }
+
+    private static class RecordingTask extends TaskProcessor.Task {
+
+        private final List<Integer> executed;
+        private final int index;
+
+        RecordingTask(List<Integer> executed, int index) {
+            this.executed = executed;
+            this.index = index;
+        }
+
+        @Override
+        public void execute() {
+            executed.add(index);
+        }
+    }
+}
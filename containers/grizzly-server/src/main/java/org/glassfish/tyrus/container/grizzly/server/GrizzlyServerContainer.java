@@ -51,7 +51,9 @@ import javax.websocket.server.ServerEndpointConfig;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 
+import org.glassfish.tyrus.core.ByteBufferPool;
 import org.glassfish.tyrus.core.DebugContext;
+import org.glassfish.tyrus.core.OutboundQueuePolicy;
 import org.glassfish.tyrus.core.TyrusWebSocketEngine;
 import org.glassfish.tyrus.core.Utils;
 import org.glassfish.tyrus.core.cluster.ClusterContext;
@@ -63,6 +65,7 @@ import org.glassfish.tyrus.spi.ServerContainer;
 import org.glassfish.tyrus.spi.ServerContainerFactory;
 import org.glassfish.tyrus.spi.WebSocketEngine;
 
+import org.glassfish.grizzly.IOStrategy;
 import org.glassfish.grizzly.http.Method;
 import org.glassfish.grizzly.http.server.HttpHandler;
 import org.glassfish.grizzly.http.server.HttpServer;
@@ -100,6 +103,18 @@ public class GrizzlyServerContainer extends ServerContainerFactory {
     public static final String SELECTOR_THREAD_POOL_CONFIG =
             "org.glassfish.tyrus.container.grizzly.server.selectorThreadPoolConfig";
 
+    /**
+     * Server-side property to set custom Grizzly {@link IOStrategy}.
+     * <p>
+     * Value is expected to be instance of {@link IOStrategy}, for example {@link WorkerThreadIOStrategy},
+     * {@link org.glassfish.grizzly.strategies.SameThreadIOStrategy} or
+     * {@link org.glassfish.grizzly.strategies.LeaderFollowerNIOStrategy}. Strategies processing the incoming data in the
+     * selector thread avoid the handoff to a worker thread, but endpoints must not block when such strategy is used.
+     * <p>
+     * Default value is {@link WorkerThreadIOStrategy}.
+     */
+    public static final String IO_STRATEGY = "org.glassfish.tyrus.container.grizzly.server.ioStrategy";
+
     @Override
     public ServerContainer createContainer(Map<String, Object> properties) {
 
@@ -124,6 +139,25 @@ public class GrizzlyServerContainer extends ServerContainerFactory {
                 Utils.getProperty(localProperties, TyrusWebSocketEngine.MAX_SESSIONS_PER_REMOTE_ADDR, Integer.class);
         final Boolean parallelBroadcastEnabled =
                 Utils.getProperty(localProperties, TyrusWebSocketEngine.PARALLEL_BROADCAST_ENABLED, Boolean.class);
+        final Boolean zeroCopyDecoding =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.ZERO_COPY_DECODING, Boolean.class);
+        final Integer maxBatchSize =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.MAX_BATCH_SIZE, Integer.class);
+        final Long maxBatchDelay =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.MAX_BATCH_DELAY, Long.class);
+        final ByteBufferPool incomingBufferPool =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.INCOMING_BUFFER_POOL, ByteBufferPool.class);
+        final Boolean orderedDispatch =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.ORDERED_DISPATCH, Boolean.class);
+        final Integer orderedDispatchQueueDepth =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.ORDERED_DISPATCH_QUEUE_DEPTH, Integer.class);
+        final Integer outboundQueueMaxSize =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.OUTBOUND_QUEUE_MAX_SIZE, Integer.class);
+        final Integer outboundQueueMaxFrames =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.OUTBOUND_QUEUE_MAX_FRAMES, Integer.class);
+        final OutboundQueuePolicy outboundQueuePolicy =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.OUTBOUND_QUEUE_POLICY,
+                                  OutboundQueuePolicy.class, OutboundQueuePolicy.FAIL);
         final DebugContext.TracingType tracingType =
                 Utils.getProperty(localProperties, TyrusWebSocketEngine.TRACING_TYPE, DebugContext.TracingType.class,
                                   DebugContext.TracingType.OFF);
@@ -141,6 +175,15 @@ public class GrizzlyServerContainer extends ServerContainerFactory {
                                         .maxSessionsPerApp(maxSessionsPerApp)
                                         .maxSessionsPerRemoteAddr(maxSessionsPerRemoteAddr)
                                         .parallelBroadcastEnabled(parallelBroadcastEnabled)
+                                        .zeroCopyDecoding(zeroCopyDecoding)
+                                        .maxBatchSize(maxBatchSize)
+                                        .maxBatchDelay(maxBatchDelay)
+                                        .incomingBufferPool(incomingBufferPool)
+                                        .orderedDispatch(orderedDispatch)
+                                        .orderedDispatchQueueDepth(orderedDispatchQueueDepth)
+                                        .outboundQueueMaxSize(outboundQueueMaxSize)
+                                        .outboundQueueMaxFrames(outboundQueueMaxFrames)
+                                        .outboundQueuePolicy(outboundQueuePolicy)
                                         .tracingType(tracingType)
                                         .tracingThreshold(tracingThreshold)
                                         .build();
@@ -178,6 +221,10 @@ public class GrizzlyServerContainer extends ServerContainerFactory {
                         Utils.getProperty(localProperties, WORKER_THREAD_POOL_CONFIG, ThreadPoolConfig.class);
                 ThreadPoolConfig selectorThreadPoolConfig =
                         Utils.getProperty(localProperties, SELECTOR_THREAD_POOL_CONFIG, ThreadPoolConfig.class);
+                IOStrategy ioStrategy = Utils.getProperty(localProperties, IO_STRATEGY, IOStrategy.class);
+                if (ioStrategy == null) {
+                    ioStrategy = WorkerThreadIOStrategy.getInstance();
+                }
 
                 // TYRUS-287: configurable server thread pools
                 if (workerThreadPoolConfig != null || selectorThreadPoolConfig != null) {
@@ -188,11 +235,11 @@ public class GrizzlyServerContainer extends ServerContainerFactory {
                     if (selectorThreadPoolConfig != null) {
                         transportBuilder.setSelectorThreadPoolConfig(selectorThreadPoolConfig);
                     }
-                    transportBuilder.setIOStrategy(WorkerThreadIOStrategy.getInstance());
+                    transportBuilder.setIOStrategy(ioStrategy);
                     server.getListener("grizzly").setTransport(transportBuilder.build());
                 } else {
-                    // if no configuration is set, just update IO Strategy to worker thread strat.
-                    server.getListener("grizzly").getTransport().setIOStrategy(WorkerThreadIOStrategy.getInstance());
+                    // if no configuration is set, just update IO Strategy (worker thread strategy by default).
+                    server.getListener("grizzly").getTransport().setIOStrategy(ioStrategy);
                 }
 
                 // idle timeout set to indefinite.
@@ -211,7 +211,25 @@ class GrizzlyServerFilter extends BaseFilter {
             message.recycle();
             final ReadHandler readHandler = tyrusConnection.getReadHandler();
             TaskProcessor taskProcessor = getTaskProcessor(ctx);
-            if (!buffer.isComposite()) {
+            if (taskProcessor.tryLock()) {
+                // no other thread is processing data of this connection - no need to create and queue tasks.
+                try {
+                    if (!buffer.isComposite()) {
+                        readHandler.handle(buffer.toByteBuffer());
+                    } else {
+                        final ByteBufferArray byteBufferArray = buffer.toByteBufferArray();
+                        final ByteBuffer[] array = byteBufferArray.getArray();
+
+                        for (int i = 0; i < byteBufferArray.size(); i++) {
+                            readHandler.handle(array[i]);
+                        }
+
+                        byteBufferArray.recycle();
+                    }
+                } finally {
+                    taskProcessor.unlock();
+                }
+            } else if (!buffer.isComposite()) {
                 taskProcessor.processTask(new ProcessTask(buffer.toByteBuffer(), readHandler));
             } else {
                 final ByteBufferArray byteBufferArray = buffer.toByteBufferArray();
@@ -41,32 +41,33 @@ package org.glassfish.tyrus.container.inmemory;
 
 import java.io.IOException;
 import java.net.URI;
-import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 import javax.websocket.ClientEndpointConfig;
 import javax.websocket.DeploymentException;
 import javax.websocket.server.ServerApplicationConfig;
-import javax.websocket.server.ServerEndpointConfig;
 
-import org.glassfish.tyrus.client.ClientManager;
 import org.glassfish.tyrus.core.RequestContext;
-import org.glassfish.tyrus.core.TyrusUpgradeResponse;
 import org.glassfish.tyrus.core.TyrusWebSocketEngine;
-import org.glassfish.tyrus.server.TyrusServerContainer;
+import org.glassfish.tyrus.core.Utils;
 import org.glassfish.tyrus.spi.ClientContainer;
 import org.glassfish.tyrus.spi.ClientEngine;
-import org.glassfish.tyrus.spi.CompletionHandler;
-import org.glassfish.tyrus.spi.Connection;
-import org.glassfish.tyrus.spi.ReadHandler;
 import org.glassfish.tyrus.spi.UpgradeRequest;
-import org.glassfish.tyrus.spi.WebSocketEngine;
-import org.glassfish.tyrus.spi.Writer;
 
 /**
  * In-Memory {@link org.glassfish.tyrus.spi.ClientContainer} implementation.
+ * <p>
+ * Server endpoints are deployed once per {@link ServerApplicationConfig} instance - all the open connections using
+ * the same config instance share one server container and {@link org.glassfish.tyrus.spi.WebSocketEngine}. The server
+ * is stopped when the last of these connections is closed or when {@link #shutdown(ServerApplicationConfig)} is
+ * called, the next connection deploys the endpoints again.
+ * <p>
+ * Zero-copy decoding of the frames received by the server can be enabled by setting
+ * {@link TyrusWebSocketEngine#ZERO_COPY_DECODING} user property of the {@link ClientEndpointConfig} to {@code true};
+ * the value passed by the connection which deploys the server applies to all the connections sharing it. When enabled,
+ * binary messages are passed to the server endpoints as read-only {@link java.nio.ByteBuffer} views valid only during
+ * the message handler invocation, so endpoints which retain the received buffers must not be used with it. It is
+ * disabled by default.
  *
  * @author Pavel Bucek (pavel.bucek at oracle.com)
  */
@@ -80,49 +81,22 @@ public class InMemoryClientContainer implements ClientContainer {
      */
     public static final String SERVER_CONFIG = "org.glassfish.tyrus.container.inmemory.ServerConfig";
 
+    /**
+     * Close all the open in-memory connections to the endpoints deployed from the given config and undeploy them.
+     * <p>
+     * Next connection using the same config will deploy the endpoints again.
+     *
+     * @param serverApplicationConfig config previously passed as {@link #SERVER_CONFIG} user property.
+     */
+    public static void shutdown(ServerApplicationConfig serverApplicationConfig) {
+        InMemoryServer.shutdown(serverApplicationConfig);
+    }
+
     @Override
     public void openClientSocket(ClientEndpointConfig cec, Map<String, Object> properties,
                                  final ClientEngine clientEngine) throws DeploymentException, IOException {
         final UpgradeRequest upgradeRequest = clientEngine.createUpgradeRequest(null);
 
-        final ServerApplicationConfig serverApplicationConfig = getServerApplicationConfig(cec);
-        final TyrusServerContainer tyrusServerContainer = new TyrusServerContainer(serverApplicationConfig) {
-            private final WebSocketEngine webSocketEngine = TyrusWebSocketEngine.builder(this).build();
-
-            private ClientManager clientManager = null;
-
-            @Override
-            public void register(Class<?> endpointClass) throws DeploymentException {
-                webSocketEngine.register(endpointClass, "/");
-            }
-
-            @Override
-            public void register(ServerEndpointConfig serverEndpointConfig) throws DeploymentException {
-                webSocketEngine.register(serverEndpointConfig, "/");
-            }
-
-            @Override
-            public WebSocketEngine getWebSocketEngine() {
-                return webSocketEngine;
-            }
-
-            // This has to be overridden, because Grizzly container is used by default
-            @Override
-            protected synchronized ClientManager getClientManager() {
-                if (clientManager == null) {
-                    clientManager = ClientManager.createClient(InMemoryClientContainer.class.getName(), this);
-                }
-
-                return clientManager;
-            }
-        };
-
-        tyrusServerContainer.doneDeployment();
-        // placeholder values, not used anywhere in this case.
-        tyrusServerContainer.start("/inmemory", 0);
-
-        final TyrusUpgradeResponse upgradeResponse = new TyrusUpgradeResponse();
-
         StringBuilder sb = new StringBuilder();
         sb.append(upgradeRequest.getRequestURI().getPath());
         if (upgradeRequest.getRequestURI().getQuery() != null) {
@@ -136,42 +110,11 @@ public class InMemoryClientContainer implements ClientContainer {
                 new RequestContext.Builder().requestURI(URI.create(sb.toString())).build();
         requestContext.getHeaders().putAll(upgradeRequest.getHeaders());
 
-        final WebSocketEngine.UpgradeInfo upgradeInfo =
-                tyrusServerContainer.getWebSocketEngine().upgrade(requestContext, upgradeResponse);
-        switch (upgradeInfo.getStatus()) {
-            case HANDSHAKE_FAILED:
-                tyrusServerContainer.shutdown();
-                throw new DeploymentException("");
-            case NOT_APPLICABLE:
-                tyrusServerContainer.shutdown();
-                throw new DeploymentException("");
-            case SUCCESS:
-
-                final InMemoryWriter clientWriter = new InMemoryWriter() {
-                    @Override
-                    public void close() throws IOException {
-                        tyrusServerContainer.shutdown();
-                    }
-                };
-                final InMemoryWriter serverWriter = new InMemoryWriter() {
-                    @Override
-                    public void close() throws IOException {
-                        tyrusServerContainer.shutdown();
-                    }
-                };
-
-                final Connection serverConnection = upgradeInfo.createConnection(serverWriter, null);
-                final ClientEngine.ClientUpgradeInfo clientClientUpgradeInfo =
-                        clientEngine.processResponse(upgradeResponse, clientWriter, null);
-                final Connection clientConnection = clientClientUpgradeInfo.createConnection();
-
-                if (clientConnection == null) {
-                    throw new DeploymentException("");
-                }
-
-                serverWriter.setReadHandler(clientConnection.getReadHandler());
-                clientWriter.setReadHandler(serverConnection.getReadHandler());
-        }
+        final Boolean zeroCopyDecoding =
+                Utils.getProperty(cec.getUserProperties(), TyrusWebSocketEngine.ZERO_COPY_DECODING, Boolean.class);
+        final InMemoryServer server = InMemoryServer.acquire(getServerApplicationConfig(cec),
+                                                             zeroCopyDecoding != null && zeroCopyDecoding);
+        server.connect(requestContext, clientEngine);
     }
 
     private ServerApplicationConfig getServerApplicationConfig(ClientEndpointConfig clientEndpointConfig) throws
@@ -183,32 +126,4 @@ public class InMemoryClientContainer implements ClientContainer {
 
         throw new DeploymentException("ServerApplicationConfig not present.");
     }
-
-    private abstract static class InMemoryWriter extends Writer {
-
-        private final List<ByteBuffer> cache = new ArrayList<ByteBuffer>();
-        private volatile ReadHandler readHandler = null;
-
-        @Override
-        public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
-            synchronized (cache) {
-                if (readHandler == null) {
-                    cache.add(buffer);
-                } else {
-                    readHandler.handle(buffer);
-                }
-
-                completionHandler.completed(buffer);
-            }
-        }
-
-        private void setReadHandler(ReadHandler readHandler) {
-            synchronized (cache) {
-                for (ByteBuffer buffer : cache) {
-                    readHandler.handle(buffer);
-                }
-                this.readHandler = readHandler;
-            }
-        }
-    }
 }
@@ -0,0 +1,275 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.container.inmemory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.websocket.DeploymentException;
+import javax.websocket.server.ServerApplicationConfig;
+import javax.websocket.server.ServerEndpointConfig;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.core.CloseReasons;
+import org.glassfish.tyrus.core.RequestContext;
+import org.glassfish.tyrus.core.TyrusUpgradeResponse;
+import org.glassfish.tyrus.core.TyrusWebSocketEngine;
+import org.glassfish.tyrus.server.TyrusServerContainer;
+import org.glassfish.tyrus.spi.ClientEngine;
+import org.glassfish.tyrus.spi.Connection;
+import org.glassfish.tyrus.spi.WebSocketEngine;
+
+/**
+ * In-memory server - {@link TyrusServerContainer} and {@link WebSocketEngine} deployed once per
+ * {@link ServerApplicationConfig} and shared by all the in-memory connections using that config.
+ * <p>
+ * The server is deployed when the first connection is being opened and it is stopped when the last connection is
+ * closed.
+ */
+class InMemoryServer {
+
+    // guarded by itself, as well as the reference counts of the registered servers.
+    private static final Map<ServerApplicationConfig, InMemoryServer> SERVERS =
+            new IdentityHashMap<ServerApplicationConfig, InMemoryServer>();
+
+    private final ServerApplicationConfig serverApplicationConfig;
+    private final boolean zeroCopyDecoding;
+    private final TyrusServerContainer serverContainer;
+    // client side writers of the open connections mapped to the server side connections.
+    private final Map<InMemoryWriter, Connection> connections = new ConcurrentHashMap<InMemoryWriter, Connection>();
+
+    // number of open connections and connections being opened.
+    private int references = 0;
+
+    /**
+     * Get the server deploying the given config, deploy it when there is none, and reserve it for a new connection.
+     * <p>
+     * The reservation is released when the connection opened by {@link #connect(RequestContext, ClientEngine)} is
+     * closed or when the connection cannot be opened.
+     *
+     * @param serverApplicationConfig config containing the endpoints to be deployed.
+     * @param zeroCopyDecoding        {@code true} if the server should decode the incoming frames in place, used only
+     *                                when the server is deployed by this call.
+     * @return server deploying the given config.
+     * @throws DeploymentException when the endpoints cannot be deployed.
+     */
+    static InMemoryServer acquire(ServerApplicationConfig serverApplicationConfig, boolean zeroCopyDecoding)
+            throws DeploymentException {
+        synchronized (SERVERS) {
+            InMemoryServer server = SERVERS.get(serverApplicationConfig);
+            if (server == null) {
+                server = new InMemoryServer(serverApplicationConfig, zeroCopyDecoding);
+                SERVERS.put(serverApplicationConfig, server);
+            }
+
+            server.references++;
+            return server;
+        }
+    }
+
+    /**
+     * Close all the open connections to the server deploying the given config and stop it.
+     *
+     * @param serverApplicationConfig config containing the deployed endpoints.
+     */
+    static void shutdown(ServerApplicationConfig serverApplicationConfig) {
+        final InMemoryServer server;
+        synchronized (SERVERS) {
+            server = SERVERS.remove(serverApplicationConfig);
+        }
+
+        if (server != null) {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * Get information whether a server deploying the given config is running.
+     *
+     * @param serverApplicationConfig config containing the endpoints.
+     * @return {@code true} if the endpoints from the given config are deployed, {@code false} otherwise.
+     */
+    static boolean isDeployed(ServerApplicationConfig serverApplicationConfig) {
+        synchronized (SERVERS) {
+            return SERVERS.containsKey(serverApplicationConfig);
+        }
+    }
+
+    /**
+     * Create and start new in-memory server.
+     *
+     * @param serverApplicationConfig config containing the endpoints to be deployed.
+     * @param zeroCopyDecoding        {@code true} if the server should decode the incoming frames in place.
+     * @throws DeploymentException when the endpoints cannot be deployed.
+     */
+    private InMemoryServer(ServerApplicationConfig serverApplicationConfig, final boolean zeroCopyDecoding)
+            throws DeploymentException {
+        this.serverApplicationConfig = serverApplicationConfig;
+        this.zeroCopyDecoding = zeroCopyDecoding;
+        serverContainer = new TyrusServerContainer(serverApplicationConfig) {
+            // frames are received in buffers created for a single write, so they can be unmasked in place if enabled.
+            private final WebSocketEngine webSocketEngine =
+                    TyrusWebSocketEngine.builder(this).zeroCopyDecoding(zeroCopyDecoding).build();
+
+            private ClientManager clientManager = null;
+
+            @Override
+            public void register(Class<?> endpointClass) throws DeploymentException {
+                webSocketEngine.register(endpointClass, "/");
+            }
+
+            @Override
+            public void register(ServerEndpointConfig serverEndpointConfig) throws DeploymentException {
+                webSocketEngine.register(serverEndpointConfig, "/");
+            }
+
+            @Override
+            public WebSocketEngine getWebSocketEngine() {
+                return webSocketEngine;
+            }
+
+            // This has to be overridden, because Grizzly container is used by default
+            @Override
+            protected synchronized ClientManager getClientManager() {
+                if (clientManager == null) {
+                    clientManager = ClientManager.createClient(InMemoryClientContainer.class.getName(), this);
+                }
+
+                return clientManager;
+            }
+        };
+
+        serverContainer.doneDeployment();
+        try {
+            // placeholder values, not used anywhere in this case.
+            serverContainer.start("/inmemory", 0);
+        } catch (IOException e) {
+            throw new DeploymentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Perform the handshake and connect the client to the server endpoint.
+     *
+     * @param requestContext upgrade request.
+     * @param clientEngine   client engine of the connecting client.
+     * @throws DeploymentException when the handshake fails.
+     */
+    void connect(RequestContext requestContext, ClientEngine clientEngine) throws DeploymentException {
+        final TyrusUpgradeResponse upgradeResponse = new TyrusUpgradeResponse();
+
+        final WebSocketEngine.UpgradeInfo upgradeInfo =
+                serverContainer.getWebSocketEngine().upgrade(requestContext, upgradeResponse);
+        if (upgradeInfo.getStatus() != WebSocketEngine.UpgradeStatus.SUCCESS) {
+            release();
+            throw new DeploymentException("");
+        }
+
+        final InMemoryWriter clientWriter = new InMemoryWriter(zeroCopyDecoding) {
+            @Override
+            public void close() {
+                super.close();
+                disconnect(this);
+            }
+        };
+        final InMemoryWriter serverWriter = new InMemoryWriter(false) {
+            @Override
+            public void close() {
+                super.close();
+                disconnect(clientWriter);
+            }
+        };
+
+        final Connection serverConnection = upgradeInfo.createConnection(serverWriter, null);
+        connections.put(clientWriter, serverConnection);
+
+        final ClientEngine.ClientUpgradeInfo clientUpgradeInfo =
+                clientEngine.processResponse(upgradeResponse, clientWriter, null);
+        final Connection clientConnection = clientUpgradeInfo.createConnection();
+
+        if (clientConnection == null) {
+            clientWriter.connect(serverConnection);
+            clientWriter.close();
+            throw new DeploymentException("");
+        }
+
+        serverWriter.connect(clientConnection);
+        clientWriter.connect(serverConnection);
+    }
+
+    private void disconnect(InMemoryWriter clientWriter) {
+        // the connection is closed by both the sides, only the first close releases it.
+        if (connections.remove(clientWriter) != null) {
+            release();
+        }
+    }
+
+    /**
+     * Release a reservation made by {@link #acquire(ServerApplicationConfig, boolean)}, the last one stops the server.
+     */
+    private void release() {
+        synchronized (SERVERS) {
+            // the server could have been already shut down.
+            if (--references > 0 || SERVERS.get(serverApplicationConfig) != this) {
+                return;
+            }
+            SERVERS.remove(serverApplicationConfig);
+        }
+
+        serverContainer.stop();
+    }
+
+    /**
+     * Close all the open connections and release resources held by the server container.
+     */
+    private void shutdown() {
+        final List<Connection> open = new ArrayList<Connection>(connections.values());
+        connections.clear();
+        for (Connection connection : open) {
+            connection.close(CloseReasons.GOING_AWAY.getCloseReason());
+        }
+
+        serverContainer.stop();
+    }
+}
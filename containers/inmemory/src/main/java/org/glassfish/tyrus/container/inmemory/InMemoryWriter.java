@@ -0,0 +1,256 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.container.inmemory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import org.glassfish.tyrus.core.CloseReasons;
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Connection;
+import org.glassfish.tyrus.spi.Writer;
+
+/**
+ * {@link Writer} passing written buffers directly to the {@link org.glassfish.tyrus.spi.ReadHandler} of the peer
+ * connection.
+ * <p>
+ * Buffers are handed over without copying whenever possible. The only exceptions are buffers which cannot be
+ * delivered immediately - written before the peer connection is known or while another buffer is being delivered
+ * (from another thread or reentrantly from the peer read handler); those are copied and queued, because the writing
+ * side may reuse them as soon as the write completes. Buffers are always delivered in the order in which they were
+ * written and the peer read handler is never invoked concurrently.
+ * <p>
+ * Closing the writer closes the peer connection once all the previously written buffers are delivered.
+ */
+class InMemoryWriter extends Writer {
+
+    private static final Object CLOSE = new Object();
+
+    private final Object lock = new Object();
+    private final Queue<Object> pending = new ArrayDeque<Object>();
+    private final boolean inPlaceDecoding;
+
+    private Connection peer = null;
+    private boolean draining = false;
+    private boolean closed = false;
+
+    /**
+     * Create new writer.
+     *
+     * @param inPlaceDecoding {@code true} when the peer decodes the received buffers in place, so read-only buffers
+     *                        have to be copied before they are delivered.
+     */
+    InMemoryWriter(boolean inPlaceDecoding) {
+        this.inPlaceDecoding = inPlaceDecoding;
+    }
+
+    /**
+     * Set the connection which receives the written data and deliver all the buffers written so far.
+     *
+     * @param peer connection receiving the data written to this writer.
+     */
+    void connect(Connection peer) {
+        synchronized (lock) {
+            this.peer = peer;
+            if (draining || pending.isEmpty()) {
+                return;
+            }
+            draining = true;
+        }
+
+        drain();
+    }
+
+    @Override
+    public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+        if (deliver(buffer, false)) {
+            if (completionHandler != null) {
+                completionHandler.completed(buffer);
+            }
+        } else if (completionHandler != null) {
+            completionHandler.failed(new IOException("Writer closed."));
+        }
+    }
+
+    @Override
+    public void write(ByteBuffer[] buffers, CompletionHandler<ByteBuffer[]> completionHandler) {
+        final boolean delivered;
+        if (buffers.length == 1) {
+            delivered = deliver(buffers[0], false);
+        } else if (buffers.length == 2 && contiguous(buffers[0], buffers[1])) {
+            // client frame - header and masked payload are stored in one array.
+            final ByteBuffer header = buffers[0];
+            delivered = deliver(ByteBuffer.wrap(header.array(), header.arrayOffset() + header.position(),
+                                                header.remaining() + buffers[1].remaining()), false);
+        } else {
+            delivered = deliver(merge(buffers), true);
+        }
+
+        if (completionHandler != null) {
+            if (delivered) {
+                completionHandler.completed(buffers);
+            } else {
+                completionHandler.failed(new IOException("Writer closed."));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.add(CLOSE);
+            if (draining || peer == null) {
+                return;
+            }
+            draining = true;
+        }
+
+        drain();
+    }
+
+    /**
+     * Deliver the buffer to the peer read handler or queue it, when it cannot be delivered right now.
+     *
+     * @param buffer buffer to be delivered.
+     * @param owned  {@code true} when the buffer is not referenced by the writing side, so it does not need to be
+     *               copied before it is queued.
+     * @return {@code false} when the writer is already closed and the buffer was dropped.
+     */
+    private boolean deliver(ByteBuffer buffer, boolean owned) {
+        if (inPlaceDecoding && buffer.isReadOnly()) {
+            buffer = copy(buffer);
+            owned = true;
+        }
+
+        synchronized (lock) {
+            if (closed) {
+                return false;
+            }
+
+            if (draining || peer == null) {
+                pending.add(owned ? buffer : copy(buffer));
+                return true;
+            }
+            draining = true;
+        }
+
+        boolean completed = false;
+        try {
+            peer.getReadHandler().handle(buffer);
+            completed = true;
+        } finally {
+            if (!completed) {
+                stopDraining();
+            }
+        }
+
+        drain();
+        return true;
+    }
+
+    /**
+     * Deliver all the queued buffers. Must be called only by the thread which set {@link #draining}.
+     */
+    private void drain() {
+        boolean completed = false;
+        try {
+            while (true) {
+                final Object next;
+                synchronized (lock) {
+                    next = pending.poll();
+                    if (next == null) {
+                        draining = false;
+                        completed = true;
+                        return;
+                    }
+                }
+
+                if (next == CLOSE) {
+                    // no-op when the peer has already been closed by the closing handshake.
+                    peer.close(CloseReasons.CLOSED_ABNORMALLY.getCloseReason());
+                } else {
+                    peer.getReadHandler().handle((ByteBuffer) next);
+                }
+            }
+        } finally {
+            if (!completed) {
+                stopDraining();
+            }
+        }
+    }
+
+    private void stopDraining() {
+        synchronized (lock) {
+            draining = false;
+        }
+    }
+
+    private static boolean contiguous(ByteBuffer first, ByteBuffer second) {
+        return first.hasArray() && second.hasArray() && first.array() == second.array()
+                && first.arrayOffset() + first.limit() == second.arrayOffset() + second.position();
+    }
+
+    private static ByteBuffer merge(ByteBuffer[] buffers) {
+        int length = 0;
+        for (ByteBuffer buffer : buffers) {
+            length += buffer.remaining();
+        }
+
+        final ByteBuffer merged = ByteBuffer.allocate(length);
+        for (ByteBuffer buffer : buffers) {
+            merged.put(buffer.duplicate());
+        }
+        merged.flip();
+        return merged;
+    }
+
+    private static ByteBuffer copy(ByteBuffer buffer) {
+        final ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+        copy.put(buffer.duplicate());
+        copy.flip();
+        return copy;
+    }
+}
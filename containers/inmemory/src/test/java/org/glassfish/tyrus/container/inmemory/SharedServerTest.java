@@ -0,0 +1,317 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.container.inmemory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.websocket.ClientEndpointConfig;
+import javax.websocket.CloseReason;
+import javax.websocket.ContainerProvider;
+import javax.websocket.DeploymentException;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.MessageHandler;
+import javax.websocket.OnMessage;
+import javax.websocket.Session;
+import javax.websocket.WebSocketContainer;
+import javax.websocket.server.ServerApplicationConfig;
+import javax.websocket.server.ServerEndpoint;
+import javax.websocket.server.ServerEndpointConfig;
+
+import org.glassfish.tyrus.core.TyrusWebSocketEngine;
+import org.glassfish.tyrus.server.TyrusServerConfiguration;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the server shared by in-memory connections using the same {@link ServerApplicationConfig}.
+ */
+public class SharedServerTest {
+
+    private static final int CLIENTS = 10;
+
+    @Test
+    public void testSharedServer() throws IOException, DeploymentException, InterruptedException {
+        final WebSocketContainer webSocketContainer = ContainerProvider.getWebSocketContainer();
+        final ServerApplicationConfig serverConfig = createServerConfig();
+
+        final CountDownLatch closeLatch = new CountDownLatch(CLIENTS);
+        final List<Session> sessions = new ArrayList<Session>();
+        try {
+            for (int i = 0; i < CLIENTS; i++) {
+                final CountDownLatch messageLatch = new CountDownLatch(1);
+                final AtomicReference<String> response = new AtomicReference<String>();
+
+                final Session session = webSocketContainer.connectToServer(new Endpoint() {
+                    @Override
+                    public void onOpen(Session session, EndpointConfig config) {
+                        session.addMessageHandler(new MessageHandler.Whole<String>() {
+                            @Override
+                            public void onMessage(String message) {
+                                response.set(message);
+                                messageLatch.countDown();
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void onClose(Session session, CloseReason closeReason) {
+                        if (closeReason.getCloseCode() == CloseReason.CloseCodes.GOING_AWAY) {
+                            closeLatch.countDown();
+                        }
+                    }
+                }, createClientConfig(serverConfig), URI.create("ws://inmemory/shared"));
+                sessions.add(session);
+
+                session.getBasicRemote().sendText("count");
+                assertTrue(messageLatch.await(1, TimeUnit.SECONDS));
+                // all the connections are handled by the same engine.
+                assertEquals(String.valueOf(i + 1), response.get());
+            }
+        } finally {
+            InMemoryClientContainer.shutdown(serverConfig);
+        }
+
+        assertTrue(closeLatch.await(1, TimeUnit.SECONDS));
+        for (Session session : sessions) {
+            assertFalse(session.isOpen());
+        }
+    }
+
+    @Test
+    public void testBinaryEcho() throws IOException, DeploymentException, InterruptedException {
+        final WebSocketContainer webSocketContainer = ContainerProvider.getWebSocketContainer();
+        final ServerApplicationConfig serverConfig = createServerConfig();
+
+        final byte[] data = new byte[100 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        final CountDownLatch messageLatch = new CountDownLatch(1);
+        final AtomicReference<byte[]> response = new AtomicReference<byte[]>();
+        try {
+            final Session session = webSocketContainer.connectToServer(new Endpoint() {
+                @Override
+                public void onOpen(Session session, EndpointConfig config) {
+                    session.addMessageHandler(new MessageHandler.Whole<byte[]>() {
+                        @Override
+                        public void onMessage(byte[] message) {
+                            response.set(message);
+                            messageLatch.countDown();
+                        }
+                    });
+                }
+            }, createClientConfig(serverConfig), URI.create("ws://inmemory/shared"));
+
+            session.getBasicRemote().sendBinary(ByteBuffer.wrap(data));
+            assertTrue(messageLatch.await(1, TimeUnit.SECONDS));
+            assertArrayEquals(data, response.get());
+            session.close();
+        } finally {
+            InMemoryClientContainer.shutdown(serverConfig);
+        }
+    }
+
+    @Test
+    public void testServerReleased() throws IOException, DeploymentException, InterruptedException {
+        final WebSocketContainer webSocketContainer = ContainerProvider.getWebSocketContainer();
+        final ServerApplicationConfig serverConfig = createServerConfig();
+
+        try {
+            final Session first = connect(webSocketContainer, serverConfig, "/shared");
+            final Session second = connect(webSocketContainer, serverConfig, "/shared");
+            assertTrue(InMemoryServer.isDeployed(serverConfig));
+
+            first.close();
+            assertTrue(second.isOpen());
+            assertTrue(InMemoryServer.isDeployed(serverConfig));
+
+            // the last connection stops the server.
+            second.close();
+            assertTrue(awaitUndeployed(serverConfig));
+
+            // and the next one deploys it again.
+            final Session third = connect(webSocketContainer, serverConfig, "/shared");
+            assertTrue(InMemoryServer.isDeployed(serverConfig));
+            assertEquals("1", sendText(third, "count"));
+            third.close();
+            assertTrue(awaitUndeployed(serverConfig));
+        } finally {
+            InMemoryClientContainer.shutdown(serverConfig);
+        }
+    }
+
+    @Test
+    public void testZeroCopyDecoding() throws IOException, DeploymentException, InterruptedException {
+        final WebSocketContainer webSocketContainer = ContainerProvider.getWebSocketContainer();
+        final ServerApplicationConfig serverConfig = createServerConfig();
+
+        try {
+            // disabled by default, server endpoints get buffers they can retain.
+            final Session session = connect(webSocketContainer, serverConfig, "/buffer");
+            assertEquals("false", sendBinary(session));
+            session.close();
+            assertTrue(awaitUndeployed(serverConfig));
+
+            final ClientEndpointConfig cec = createClientConfig(serverConfig);
+            cec.getUserProperties().put(TyrusWebSocketEngine.ZERO_COPY_DECODING, true);
+            final Session zeroCopySession =
+                    webSocketContainer.connectToServer(new Endpoint() {
+                        @Override
+                        public void onOpen(Session session, EndpointConfig config) {
+                        }
+                    }, cec, URI.create("ws://inmemory/buffer"));
+            assertEquals("true", sendBinary(zeroCopySession));
+            zeroCopySession.close();
+        } finally {
+            InMemoryClientContainer.shutdown(serverConfig);
+        }
+    }
+
+    private static Session connect(WebSocketContainer webSocketContainer, ServerApplicationConfig serverConfig,
+                                   String path) throws IOException, DeploymentException {
+        return webSocketContainer.connectToServer(new Endpoint() {
+            @Override
+            public void onOpen(Session session, EndpointConfig config) {
+            }
+        }, createClientConfig(serverConfig), URI.create("ws://inmemory" + path));
+    }
+
+    private static String sendText(Session session, String text) throws IOException, InterruptedException {
+        final Response response = new Response(session);
+        session.getBasicRemote().sendText(text);
+        return response.get();
+    }
+
+    private static String sendBinary(Session session) throws IOException, InterruptedException {
+        final Response response = new Response(session);
+        session.getBasicRemote().sendBinary(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        return response.get();
+    }
+
+    private static boolean awaitUndeployed(ServerApplicationConfig serverConfig) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 1000;
+        while (InMemoryServer.isDeployed(serverConfig)) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+
+        return true;
+    }
+
+    private static ServerApplicationConfig createServerConfig() {
+        return new TyrusServerConfiguration(
+                new HashSet<Class<?>>(Arrays.<Class<?>>asList(SharedEndpoint.class, BufferEndpoint.class)),
+                Collections.<ServerEndpointConfig>emptySet());
+    }
+
+    private static ClientEndpointConfig createClientConfig(ServerApplicationConfig serverConfig) {
+        final ClientEndpointConfig cec = ClientEndpointConfig.Builder.create().build();
+        cec.getUserProperties().put(InMemoryClientContainer.SERVER_CONFIG, serverConfig);
+        return cec;
+    }
+
+    @ServerEndpoint("/shared")
+    public static class SharedEndpoint {
+
+        @OnMessage
+        public String onMessage(String message, Session session) {
+            return String.valueOf(session.getOpenSessions().size());
+        }
+
+        @OnMessage
+        public byte[] onMessage(byte[] message) {
+            return message;
+        }
+    }
+
+    @ServerEndpoint("/buffer")
+    public static class BufferEndpoint {
+
+        @OnMessage
+        public String onMessage(ByteBuffer message) {
+            return String.valueOf(message.isReadOnly());
+        }
+    }
+
+    /**
+     * Text message received by a client session.
+     */
+    private static class Response implements MessageHandler.Whole<String> {
+
+        private final Session session;
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile String message = null;
+
+        Response(Session session) {
+            this.session = session;
+            session.addMessageHandler(this);
+        }
+
+        @Override
+        public void onMessage(String message) {
+            this.message = message;
+            latch.countDown();
+        }
+
+        String get() throws InterruptedException {
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+            session.removeMessageHandler(this);
+            return message;
+        }
+    }
+}
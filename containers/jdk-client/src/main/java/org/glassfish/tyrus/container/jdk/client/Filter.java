@@ -74,6 +74,41 @@ class Filter {
     void write(ByteBuffer data, CompletionHandler<ByteBuffer> completionHandler) {
     }
 
+    /**
+     * Perform gathering write operation for this filter and invokes write method on the next filter in the filter
+     * chain.
+     * <p/>
+     * Default implementation copies all the buffers into a single one and passes it to {@link #write(ByteBuffer,
+     * CompletionHandler)}. Filters, which can process the buffers without merging them, should override this method.
+     *
+     * @param data              on which write operation is performed.
+     * @param completionHandler will be invoked when the write operation is completed or has failed.
+     */
+    void write(final ByteBuffer[] data, final CompletionHandler<ByteBuffer[]> completionHandler) {
+        int length = 0;
+        for (ByteBuffer buffer : data) {
+            length += buffer.remaining();
+        }
+
+        final ByteBuffer merged = ByteBuffer.allocate(length);
+        for (ByteBuffer buffer : data) {
+            merged.put(buffer);
+        }
+        merged.flip();
+
+        write(merged, new CompletionHandler<ByteBuffer>() {
+            @Override
+            public void failed(Throwable throwable) {
+                completionHandler.failed(throwable);
+            }
+
+            @Override
+            public void completed(ByteBuffer result) {
+                completionHandler.completed(data);
+            }
+        });
+    }
+
     /**
      * Close the filter, invokes close operation on the next filter in the filter chain.
      * <p/>
@@ -40,6 +40,7 @@
 package org.glassfish.tyrus.container.jdk.client;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -81,6 +82,14 @@ class TaskQueueFilter extends Filter {
         }
     }
 
+    @Override
+    void write(ByteBuffer[] data, CompletionHandler<ByteBuffer[]> completionHandler) {
+        taskQueue.offer(new GatheringWriteTask(data, completionHandler));
+        if (taskLock.compareAndSet(false, true)) {
+            processTask();
+        }
+    }
+
     private void processTask() {
         final Task task = taskQueue.poll();
         if (task == null) {
@@ -190,4 +199,47 @@ class TaskQueueFilter extends Filter {
             return "WriteTask{data=" + data + ", completionHandler=" + completionHandler + '}';
         }
     }
+
+    /**
+     * A task that writes a sequence of buffers to the downstreamFilter using a single gathering write.
+     */
+    static class GatheringWriteTask implements Task {
+        private final ByteBuffer[] data;
+        private final CompletionHandler<ByteBuffer[]> completionHandler;
+
+        GatheringWriteTask(ByteBuffer[] data, CompletionHandler<ByteBuffer[]> completionHandler) {
+            this.data = data;
+            this.completionHandler = completionHandler;
+        }
+
+        @Override
+        public void execute(final TaskQueueFilter queueFilter) {
+            queueFilter.downstreamFilter.write(data, new CompletionHandler<ByteBuffer[]>() {
+
+                @Override
+                public void failed(Throwable throwable) {
+                    completionHandler.failed(throwable);
+                    queueFilter.processTask();
+                }
+
+                @Override
+                public void completed(ByteBuffer[] result) {
+                    for (ByteBuffer buffer : result) {
+                        if (buffer.hasRemaining()) {
+                            execute(queueFilter);
+                            return;
+                        }
+                    }
+
+                    completionHandler.completed(data);
+                    queueFilter.processTask();
+                }
+            });
+        }
+
+        @Override
+        public String toString() {
+            return "GatheringWriteTask{data=" + Arrays.toString(data) + ", completionHandler=" + completionHandler + '}';
+        }
+    }
 }
@@ -148,6 +148,31 @@ class TransportFilter extends Filter {
         });
     }
 
+    @Override
+    void write(final ByteBuffer[] data,
+               final org.glassfish.tyrus.spi.CompletionHandler<ByteBuffer[]> completionHandler) {
+        // gathering write, no timeout.
+        socketChannel.write(data, 0, data.length, 0, TimeUnit.MILLISECONDS, data,
+                            new CompletionHandler<Long, ByteBuffer[]>() {
+
+            @Override
+            public void completed(Long result, ByteBuffer[] buffers) {
+                for (ByteBuffer buffer : buffers) {
+                    if (buffer.hasRemaining()) {
+                        write(buffers, completionHandler);
+                        return;
+                    }
+                }
+                completionHandler.completed(buffers);
+            }
+
+            @Override
+            public void failed(Throwable exc, ByteBuffer[] buffers) {
+                completionHandler.failed(exc);
+            }
+        });
+    }
+
     @Override
     synchronized void close() {
         if (!socketChannel.isOpen()) {
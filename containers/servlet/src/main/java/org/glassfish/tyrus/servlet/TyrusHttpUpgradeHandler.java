@@ -54,7 +54,9 @@ import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpUpgradeHandler;
 import javax.servlet.http.WebConnection;
 
+import org.glassfish.tyrus.core.ByteBufferPool;
 import org.glassfish.tyrus.core.CloseReasons;
+import org.glassfish.tyrus.core.SizeClassByteBufferPool;
 import org.glassfish.tyrus.spi.Connection;
 import org.glassfish.tyrus.spi.WebSocketEngine;
 import org.glassfish.tyrus.spi.Writer;
@@ -71,18 +73,42 @@ public class TyrusHttpUpgradeHandler implements HttpUpgradeHandler, ReadListener
 
     public static final String FRAME_BUFFER_SIZE = "org.glassfish.tyrus.servlet.incoming-buffer-size";
 
+    /**
+     * Maximal number of bytes of queued outgoing frames written to the {@link ServletOutputStream} before it is
+     * flushed.
+     * <p>
+     * Frames which cannot be written immediately are queued and written once the container reports that the stream
+     * is ready. Contiguous queued frames are then coalesced into a single flush. The value is set as a context
+     * parameter, the default value is {@code 65536}; values lower than {@code 1} flush the stream after every frame.
+     */
+    public static final String MAX_COALESCED_WRITE_SIZE = "org.glassfish.tyrus.servlet.max-coalesced-write-size";
+
     private final CountDownLatch connectionLatch = new CountDownLatch(1);
 
     private ServletInputStream is;
     private ServletOutputStream os;
     private WebConnection wc;
-    private ByteBuffer buf;
+    /**
+     * Buffer with data left unconsumed by the read handler, {@code null} when there are no such data.
+     */
+    private ByteBuffer pendingBuffer = null;
 
     private volatile boolean closed = false;
     private int incomingBufferSize = 4194315; // 4M (payload) + 11 (frame overhead)
 
     private static final Logger LOGGER = Logger.getLogger(TyrusHttpUpgradeHandler.class.getName());
 
+    /**
+     * Size of the buffer used for reading from the {@link ServletInputStream}.
+     */
+    private static final int READ_BUFFER_SIZE = 16384;
+
+    /**
+     * Pool of read buffers shared by all the connections. Buffer is taken when data are available and returned when
+     * the input stream is not ready anymore, so idle connections do not hold any.
+     */
+    private static final ByteBufferPool READ_BUFFER_POOL = new SizeClassByteBufferPool(false);
+
     private Connection connection;
     private WebSocketEngine.UpgradeInfo upgradeInfo;
     private Writer writer;
@@ -135,99 +161,75 @@ public class TyrusHttpUpgradeHandler implements HttpUpgradeHandler, ReadListener
             // do nothing.
         }
 
-        do {
-            try {
-                int available = is.available();
-                if (available == 0) {
-                    // tomcat impl returns always 0
-                    available = 16384;
-                }
+        ByteBuffer readBuffer = pendingBuffer;
+        pendingBuffer = null;
+        if (readBuffer == null) {
+            readBuffer = READ_BUFFER_POOL.take(Math.min(READ_BUFFER_SIZE, incomingBufferSize));
+            readBuffer.limit(0);
+        }
 
-                int toRead;
-                if (buf == null) {
-                    if (available > incomingBufferSize) {
-                        toRead = incomingBufferSize;
-                    } else {
-                        toRead = available;
-                    }
-                } else {
-                    if (buf.remaining() + available > incomingBufferSize) {
-                        toRead = incomingBufferSize - buf.remaining();
-                    } else {
-                        toRead = buf.remaining() + available;
-                    }
-                }
+        try {
+            do {
+                readBuffer = prepareForRead(readBuffer);
 
-                if (toRead == 0) {
-                    throw new IOException(String.format("Tyrus input buffer exceeded. Current buffer size is %s bytes.",
-                                                        incomingBufferSize));
+                final int len = is.read(readBuffer.array(), readBuffer.arrayOffset() + readBuffer.position(),
+                                        readBuffer.remaining());
+                if (len > 0) {
+                    readBuffer.position(readBuffer.position() + len);
                 }
+                readBuffer.flip();
 
-                available -= fillBuf(toRead);
-
-                if (buf != null) {
-
-                    LOGGER.finest(String.format("Remaining Data = %d", buf.remaining()));
+                if (len < 0) {
+                    // end of stream, onAllDataRead will be invoked.
+                    break;
+                }
 
-                    if (buf.hasRemaining()) {
-                        connection.getReadHandler().handle(buf);
-                    }
+                if (readBuffer.hasRemaining()) {
+                    connection.getReadHandler().handle(readBuffer);
                 }
-            } catch (IOException e) {
-                connection.close(CloseReasons.CANNOT_ACCEPT.getCloseReason());
+            } while (!closed && is.isReady());
+        } catch (IOException e) {
+            // buffered data are dropped, the connection is being closed.
+            readBuffer.position(0);
+            readBuffer.limit(0);
+            connection.close(CloseReasons.CANNOT_ACCEPT.getCloseReason());
+        } finally {
+            if (readBuffer.hasRemaining()) {
+                // read handler left some data unconsumed, they have to be passed again with the next data.
+                pendingBuffer = readBuffer;
+            } else {
+                READ_BUFFER_POOL.recycle(readBuffer);
             }
-        } while (!closed && is.isReady());
+        }
     }
 
     /**
-     * Fill the buf with some more websocket protocol data.
+     * Prepare buffer for reading from the input stream.
+     * <p>
+     * Unconsumed data are moved to the beginning of the buffer; when the buffer is full, bigger one is taken from the
+     * pool.
      *
-     * @param length length of data available to read.
-     * @return legth of actually read data.
-     * @throws IOException if some other I/O error occurs.
+     * @param readBuffer buffer with unconsumed data between its position and limit.
+     * @return buffer with unconsumed data at the beginning and position set after them.
+     * @throws IOException when the unconsumed data exceed the incoming buffer size.
      */
-    private int fillBuf(int length) throws IOException {
-        byte[] data = new byte[length];
-        int len = is.read(data);
-        if (len == 0) {
-            return 0;
+    private ByteBuffer prepareForRead(ByteBuffer readBuffer) throws IOException {
+        readBuffer.compact();
+        if (readBuffer.hasRemaining()) {
+            return readBuffer;
         }
-        if (buf == null) {
-            LOGGER.finest("No Buffer. Allocating new one");
-            buf = ByteBuffer.wrap(data);
-            buf.limit(len);
-        } else {
-            int limit = buf.limit();
-            int capacity = buf.capacity();
-            int remaining = buf.remaining();
-
-            if (capacity - limit >= len) {
-                // Remaining data need not be changed. New data is just appended
-                LOGGER.finest("Remaining data need not be moved. New data is just appended");
-                buf.mark();
-                buf.position(limit);
-                buf.limit(capacity);
-                buf.put(data, 0, len);
-                buf.limit(limit + len);
-                buf.reset();
-            } else if (remaining + len < capacity) {
-                // Remaining data is moved to left. Then new data is appended
-                LOGGER.finest("Remaining data is moved to left. Then new data is appended");
-                buf.compact();
-                buf.put(data, 0, len);
-                buf.flip();
-            } else {
-                // Remaining data + new > capacity. So allocate new one
-                LOGGER.finest("Remaining data + new > capacity. So allocate new one");
-                byte[] array = new byte[remaining + len];
-                buf.get(array, 0, remaining);
-                System.arraycopy(data, 0, array, remaining, len);
-                buf = ByteBuffer.wrap(array);
-                buf.limit(remaining + len);
-            }
+
+        final int length = readBuffer.position();
+        if (length >= incomingBufferSize) {
+            throw new IOException(String.format("Tyrus input buffer exceeded. Current buffer size is %s bytes.",
+                                                incomingBufferSize));
         }
 
-        return len;
+        final ByteBuffer result = READ_BUFFER_POOL.take(Math.min(length + READ_BUFFER_SIZE, incomingBufferSize));
+        readBuffer.flip();
+        result.put(readBuffer);
+        READ_BUFFER_POOL.recycle(readBuffer);
+        return result;
     }
 
     @Override
@@ -60,6 +60,7 @@ import javax.servlet.ServletException;
 import javax.servlet.annotation.HandlesTypes;
 
 import org.glassfish.tyrus.core.DebugContext;
+import org.glassfish.tyrus.core.OutboundQueuePolicy;
 import org.glassfish.tyrus.core.TyrusWebSocketEngine;
 import org.glassfish.tyrus.core.monitoring.ApplicationEventListener;
 import org.glassfish.tyrus.server.TyrusServerContainer;
@@ -100,6 +101,16 @@ public class TyrusServletContainerInitializer implements ServletContainerInitial
                 ctx, TyrusWebSocketEngine.MAX_SESSIONS_PER_REMOTE_ADDR);
         final Boolean parallelBroadcastEnabled = getBooleanContextParam(
                 ctx, TyrusWebSocketEngine.PARALLEL_BROADCAST_ENABLED);
+        final Boolean zeroCopyDecoding = getBooleanContextParam(ctx, TyrusWebSocketEngine.ZERO_COPY_DECODING);
+        final Integer maxBatchSize = getIntContextParam(ctx, TyrusWebSocketEngine.MAX_BATCH_SIZE);
+        final Integer maxBatchDelay = getIntContextParam(ctx, TyrusWebSocketEngine.MAX_BATCH_DELAY);
+        final Boolean orderedDispatch = getBooleanContextParam(ctx, TyrusWebSocketEngine.ORDERED_DISPATCH);
+        final Integer orderedDispatchQueueDepth =
+                getIntContextParam(ctx, TyrusWebSocketEngine.ORDERED_DISPATCH_QUEUE_DEPTH);
+        final Integer outboundQueueMaxSize = getIntContextParam(ctx, TyrusWebSocketEngine.OUTBOUND_QUEUE_MAX_SIZE);
+        final Integer outboundQueueMaxFrames = getIntContextParam(ctx, TyrusWebSocketEngine.OUTBOUND_QUEUE_MAX_FRAMES);
+        final OutboundQueuePolicy outboundQueuePolicy = getEnumContextParam(
+                ctx, TyrusWebSocketEngine.OUTBOUND_QUEUE_POLICY, OutboundQueuePolicy.class, OutboundQueuePolicy.FAIL);
         final DebugContext.TracingType tracingType = getEnumContextParam(
                 ctx, TyrusWebSocketEngine.TRACING_TYPE, DebugContext.TracingType.class, DebugContext.TracingType.OFF);
         final DebugContext.TracingThreshold tracingThreshold =
@@ -116,6 +127,14 @@ public class TyrusServletContainerInitializer implements ServletContainerInitial
                                         .maxSessionsPerApp(maxSessionsPerApp)
                                         .maxSessionsPerRemoteAddr(maxSessionsPerRemoteAddr)
                                         .parallelBroadcastEnabled(parallelBroadcastEnabled)
+                                        .zeroCopyDecoding(zeroCopyDecoding)
+                                        .maxBatchSize(maxBatchSize)
+                                        .maxBatchDelay(maxBatchDelay == null ? null : maxBatchDelay.longValue())
+                                        .orderedDispatch(orderedDispatch)
+                                        .orderedDispatchQueueDepth(orderedDispatchQueueDepth)
+                                        .outboundQueueMaxSize(outboundQueueMaxSize)
+                                        .outboundQueueMaxFrames(outboundQueueMaxFrames)
+                                        .outboundQueuePolicy(outboundQueuePolicy)
                                         .tracingType(tracingType)
                                         .tracingThreshold(tracingThreshold)
                                         .build();
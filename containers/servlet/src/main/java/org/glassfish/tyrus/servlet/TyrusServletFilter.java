@@ -268,6 +268,11 @@ class TyrusServletFilter implements Filter, HttpSessionListener {
                     if (frameBufferSize != null) {
                         handler.setIncomingBufferSize(Integer.parseInt(frameBufferSize));
                     }
+                    final String maxCoalescedWriteSize = request.getServletContext().getInitParameter(
+                            TyrusHttpUpgradeHandler.MAX_COALESCED_WRITE_SIZE);
+                    if (maxCoalescedWriteSize != null) {
+                        webSocketConnection.setMaxCoalescedWriteSize(Integer.parseInt(maxCoalescedWriteSize));
+                    }
 
                     handler.preInit(upgradeInfo, webSocketConnection, httpServletRequest.getUserPrincipal() != null);
 
@@ -41,8 +41,10 @@ package org.glassfish.tyrus.servlet;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -60,10 +62,20 @@ import org.glassfish.tyrus.spi.Writer;
 class TyrusServletWriter extends Writer implements WriteListener {
 
     private final TyrusHttpUpgradeHandler tyrusHttpUpgradeHandler;
-    private final Deque<QueuedFrame> queue = new LinkedList<QueuedFrame>();
+    private final Deque<QueuedFrame<?>> queue = new LinkedList<QueuedFrame<?>>();
 
     private static final Logger LOGGER = Logger.getLogger(TyrusServletWriter.class.getName());
 
+    /**
+     * Maximal size of the chunk used when writing buffers not backed by an accessible array.
+     */
+    private static final int COPY_CHUNK_SIZE = 8192;
+
+    /**
+     * Default maximal number of bytes of queued frames written to the stream before it is flushed.
+     */
+    static final int DEFAULT_MAX_COALESCED_WRITE_SIZE = 65536;
+
     /**
      * ServletOutputStream is not thread safe, must be synchronized.
      * <p/>
@@ -74,13 +86,43 @@ class TyrusServletWriter extends Writer implements WriteListener {
 
     private boolean isListenerSet;
 
-    private static class QueuedFrame {
-        public final CompletionHandler<ByteBuffer> completionHandler;
-        public final ByteBuffer dataFrame;
+    private int maxCoalescedWriteSize = DEFAULT_MAX_COALESCED_WRITE_SIZE;
+
+    /**
+     * Frames taken from the queue and not flushed yet, reused by all the drain cycles. Only the last one can be
+     * written partially.
+     */
+    private final List<QueuedFrame<?>> coalesced = new ArrayList<QueuedFrame<?>>();
+
+    /**
+     * Number of bytes written to the stream since the last flush.
+     */
+    private long coalescedSize = 0;
+
+    /**
+     * Lazily created array used for copying buffers not backed by an accessible array to the output stream.
+     */
+    private byte[] copyChunk = null;
+
+    private static class QueuedFrame<T> {
+        public final CompletionHandler<T> completionHandler;
+        public final ByteBuffer[] dataFrames;
+        public final T result;
+
+        /**
+         * Index of the buffer to be written next.
+         */
+        int index = 0;
 
-        QueuedFrame(CompletionHandler<ByteBuffer> completionHandler, ByteBuffer dataFrame) {
+        /**
+         * Number of bytes of the buffer to be written next which have already been written.
+         */
+        int offset = 0;
+
+        QueuedFrame(CompletionHandler<T> completionHandler, ByteBuffer[] dataFrames, T result) {
             this.completionHandler = completionHandler;
-            this.dataFrame = dataFrame;
+            this.dataFrames = dataFrames;
+            this.result = result;
         }
     }
 
@@ -93,30 +135,48 @@ class TyrusServletWriter extends Writer implements WriteListener {
         this.tyrusHttpUpgradeHandler = tyrusHttpUpgradeHandler;
     }
 
+    /**
+     * Set maximal number of bytes of queued frames written to the stream before it is flushed.
+     *
+     * @param maxCoalescedWriteSize maximal coalesced size in bytes, values lower than {@code 1} disable coalescing.
+     * @see TyrusHttpUpgradeHandler#MAX_COALESCED_WRITE_SIZE
+     */
+    synchronized void setMaxCoalescedWriteSize(int maxCoalescedWriteSize) {
+        this.maxCoalescedWriteSize = maxCoalescedWriteSize;
+    }
+
     @Override
     public synchronized void onWritePossible() throws IOException {
         LOGGER.log(Level.FINEST, "OnWritePossible called");
 
-        while (!queue.isEmpty() && servletOutputStream.isReady()) {
-            final QueuedFrame queuedFrame = queue.poll();
-            assert queuedFrame != null;
-
-            _write(queuedFrame.dataFrame, queuedFrame.completionHandler);
-        }
+        drain();
     }
 
     @Override
     public synchronized void onError(Throwable t) {
         LOGGER.log(Level.WARNING, "TyrusServletWriter.onError", t);
 
-        QueuedFrame queuedFrame;
+        failCoalesced(0, t);
+
+        QueuedFrame<?> queuedFrame;
         while ((queuedFrame = queue.poll()) != null) {
-            queuedFrame.completionHandler.failed(t);
+            if (queuedFrame.completionHandler != null) {
+                queuedFrame.completionHandler.failed(t);
+            }
         }
     }
 
     @Override
     public synchronized void write(final ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+        write(new QueuedFrame<ByteBuffer>(completionHandler, new ByteBuffer[]{buffer}, buffer));
+    }
+
+    @Override
+    public synchronized void write(final ByteBuffer[] buffers, CompletionHandler<ByteBuffer[]> completionHandler) {
+        write(new QueuedFrame<ByteBuffer[]>(completionHandler, buffers, buffers));
+    }
+
+    private void write(QueuedFrame<?> queuedFrame) {
 
         // first write
         if (servletOutputStream == null) {
@@ -124,47 +184,145 @@ class TyrusServletWriter extends Writer implements WriteListener {
                 servletOutputStream = tyrusHttpUpgradeHandler.getWebConnection().getOutputStream();
             } catch (IOException e) {
                 LOGGER.log(Level.CONFIG, "ServletOutputStream cannot be obtained", e);
-                completionHandler.failed(e);
+                if (queuedFrame.completionHandler != null) {
+                    queuedFrame.completionHandler.failed(e);
+                }
                 return;
             }
         }
 
-        if (queue.isEmpty() && servletOutputStream.isReady()) {
-            _write(buffer, completionHandler);
-        } else {
-            final QueuedFrame queuedFrame = new QueuedFrame(completionHandler, buffer);
-            queue.offer(queuedFrame);
+        queue.offer(queuedFrame);
+
+        // nothing else is being written, so the frame is written and flushed directly; otherwise it is written by
+        // the drain cycle in progress or in onWritePossible.
+        if (queue.size() == 1 && coalesced.isEmpty() && servletOutputStream.isReady()) {
+            drain();
+        }
+
+        if (!isListenerSet && (!queue.isEmpty() || !coalesced.isEmpty())) {
+            isListenerSet = true;
+            servletOutputStream.setWriteListener(this);
+        }
+    }
+
+    /**
+     * Write queued frames.
+     * <p>
+     * Contiguous queued frames are written to the stream until their size reaches the maximal coalesced size, then the
+     * stream is flushed once and completion handlers of all the written frames are invoked in the order in which the
+     * frames were queued. Readiness of the stream is checked before every write and before the flush; when the stream
+     * is not ready, writing stops and continues from the same byte in the next {@link #onWritePossible()}, so a frame
+     * is completed only once all its bytes are written and flushed.
+     */
+    private void drain() {
+        while (true) {
+            try {
+                // finish the frame which was being written when the stream stopped being ready.
+                if (!coalesced.isEmpty() && !writeFrame(coalesced.get(coalesced.size() - 1))) {
+                    return;
+                }
+
+                while (!queue.isEmpty() && (coalesced.isEmpty() || coalescedSize < maxCoalescedWriteSize)) {
+                    final QueuedFrame<?> queuedFrame = queue.poll();
+                    coalesced.add(queuedFrame);
+                    if (!writeFrame(queuedFrame)) {
+                        return;
+                    }
+                }
 
-            if (!isListenerSet) {
-                isListenerSet = true;
-                servletOutputStream.setWriteListener(this);
+                if (coalesced.isEmpty() || !servletOutputStream.isReady()) {
+                    return;
+                }
+
+                servletOutputStream.flush();
+            } catch (IOException e) {
+                failCoalesced(0, e);
+                continue;
             }
+
+            completeCoalesced();
         }
     }
 
-    private void _write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+    /**
+     * Write remaining bytes of a frame, as long as the stream is ready.
+     *
+     * @param queuedFrame frame to be written.
+     * @return {@code true} if the whole frame has been written, {@code false} if the stream is not ready.
+     * @throws IOException when the write fails.
+     */
+    private boolean writeFrame(QueuedFrame<?> queuedFrame) throws IOException {
+        final ByteBuffer[] buffers = queuedFrame.dataFrames;
 
-        try {
+        while (queuedFrame.index < buffers.length) {
+            final ByteBuffer buffer = buffers[queuedFrame.index];
+            final int remaining = buffer.remaining() - queuedFrame.offset;
+            if (remaining == 0) {
+                queuedFrame.index++;
+                queuedFrame.offset = 0;
+                continue;
+            }
+
+            if (!servletOutputStream.isReady()) {
+                return false;
+            }
+
+            final int length;
             if (buffer.hasArray()) {
-                byte[] array = buffer.array();
-                servletOutputStream.write(array, buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                length = remaining;
+                servletOutputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position() + queuedFrame.offset,
+                                          length);
             } else {
-                final int remaining = buffer.remaining();
-                final byte[] array = new byte[remaining];
-                buffer.get(array);
-                servletOutputStream.write(array);
+                if (copyChunk == null) {
+                    copyChunk = new byte[COPY_CHUNK_SIZE];
+                }
+
+                length = Math.min(remaining, copyChunk.length);
+                final ByteBuffer source = buffer.duplicate();
+                source.position(buffer.position() + queuedFrame.offset);
+                source.get(copyChunk, 0, length);
+                servletOutputStream.write(copyChunk, 0, length);
             }
 
-            servletOutputStream.flush();
+            queuedFrame.offset += length;
+            coalescedSize += length;
+        }
+
+        return true;
+    }
 
-            if (completionHandler != null) {
-                completionHandler.completed(buffer);
+    private void completeCoalesced() {
+        // number of coalesced frames which completion handlers have been invoked.
+        int notified = 0;
+        try {
+            while (notified < coalesced.size()) {
+                completed(coalesced.get(notified++));
             }
-        } catch (Exception e) {
-            if (completionHandler != null) {
-                completionHandler.failed(e);
+        } catch (RuntimeException e) {
+            // frames already notified (including the one which handler has thrown the exception) are skipped.
+            failCoalesced(notified, e);
+        } finally {
+            coalesced.clear();
+            coalescedSize = 0;
+        }
+    }
+
+    private void failCoalesced(int from, Throwable t) {
+        for (int i = from; i < coalesced.size(); i++) {
+            final QueuedFrame<?> queuedFrame = coalesced.get(i);
+            if (queuedFrame.completionHandler != null) {
+                queuedFrame.completionHandler.failed(t);
             }
         }
+
+        coalesced.clear();
+        coalescedSize = 0;
+    }
+
+    private static <T> void completed(QueuedFrame<T> queuedFrame) {
+        if (queuedFrame.completionHandler != null) {
+            queuedFrame.completionHandler.completed(queuedFrame.result);
+        }
     }
 
     @Override
@@ -0,0 +1,338 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.servlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.WebConnection;
+
+import org.glassfish.tyrus.spi.CompletionHandler;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests coalescing of queued writes in {@link TyrusServletWriter}.
+ * <p>
+ * The test stream fails any write or flush done when it is not ready, as the Servlet containers do in non-blocking mode.
+ */
+public class TyrusServletWriterTest {
+
+    private final TestOutputStream outputStream = new TestOutputStream();
+    private final TyrusServletWriter writer = new TyrusServletWriter(new TyrusHttpUpgradeHandler() {
+        @Override
+        WebConnection getWebConnection() {
+            return new WebConnection() {
+                @Override
+                public ServletInputStream getInputStream() {
+                    return null;
+                }
+
+                @Override
+                public ServletOutputStream getOutputStream() {
+                    return outputStream;
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    });
+
+    @Test
+    public void testCoalescedWrite() throws IOException {
+        outputStream.ready = false;
+
+        final List<ResultHandler> handlers = new ArrayList<ResultHandler>();
+        for (int i = 0; i < 3; i++) {
+            final ResultHandler handler = new ResultHandler();
+            writer.write(ByteBuffer.wrap(new byte[]{(byte) i, (byte) (10 + i)}), handler);
+            handlers.add(handler);
+        }
+        assertSame(writer, outputStream.writeListener);
+        assertEquals(0, outputStream.data.size());
+
+        outputStream.ready = true;
+        writer.onWritePossible();
+
+        // all the queued frames are written with a single flush.
+        assertArrayEquals(new byte[]{0, 10, 1, 11, 2, 12}, outputStream.data.toByteArray());
+        assertEquals(1, outputStream.flushes);
+        for (ResultHandler handler : handlers) {
+            assertEquals(1, handler.completed);
+            assertNull(handler.failure);
+        }
+    }
+
+    @Test
+    public void testCompletionHandlerException() throws IOException {
+        outputStream.ready = false;
+
+        final ResultHandler first = new ResultHandler();
+        final ResultHandler throwing = new ResultHandler() {
+            @Override
+            public void completed(ByteBuffer result) {
+                super.completed(result);
+                throw new IllegalStateException();
+            }
+        };
+        final ResultHandler last = new ResultHandler();
+        writer.write(ByteBuffer.wrap(new byte[]{1}), first);
+        writer.write(ByteBuffer.wrap(new byte[]{2}), throwing);
+        writer.write(ByteBuffer.wrap(new byte[]{3}), last);
+
+        outputStream.ready = true;
+        writer.onWritePossible();
+
+        // handlers are notified exactly once.
+        assertEquals(1, first.completed);
+        assertNull(first.failure);
+        assertEquals(1, throwing.completed);
+        assertNull(throwing.failure);
+        assertEquals(0, last.completed);
+        assertSame(IllegalStateException.class, last.failure.getClass());
+    }
+
+    @Test
+    public void testPartiallyWrittenFrame() throws IOException {
+        // the stream accepts only the frame header.
+        outputStream.writesUntilNotReady = 1;
+
+        final ArrayHandler handler = new ArrayHandler();
+        final ByteBuffer[] frame = new ByteBuffer[]{ByteBuffer.wrap(new byte[]{1, 2}), ByteBuffer.wrap(new byte[]{3})};
+        writer.write(frame, handler);
+
+        assertArrayEquals(new byte[]{1, 2}, outputStream.data.toByteArray());
+        assertSame(writer, outputStream.writeListener);
+        assertEquals(0, outputStream.flushes);
+        assertEquals(0, handler.completed);
+
+        // frames written later wait for the partially written one.
+        final ResultHandler next = new ResultHandler();
+        writer.write(ByteBuffer.wrap(new byte[]{4}), next);
+        assertEquals(2, outputStream.data.size());
+
+        outputStream.ready = true;
+        writer.onWritePossible();
+
+        assertArrayEquals(new byte[]{1, 2, 3, 4}, outputStream.data.toByteArray());
+        assertEquals(1, outputStream.flushes);
+        assertEquals(1, handler.completed);
+        assertNull(handler.failure);
+        assertEquals(1, next.completed);
+        assertNull(next.failure);
+    }
+
+    @Test
+    public void testPartiallyWrittenBufferWithoutArray() throws IOException {
+        final byte[] payload = new byte[20000];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+
+        // read-only buffer does not expose its array, it is copied in chunks.
+        outputStream.writesUntilNotReady = 1;
+        final ResultHandler handler = new ResultHandler();
+        writer.write(ByteBuffer.wrap(payload).asReadOnlyBuffer(), handler);
+
+        while (handler.completed == 0) {
+            assertEquals(0, outputStream.flushes);
+            outputStream.ready = true;
+            outputStream.writesUntilNotReady = 1;
+            writer.onWritePossible();
+        }
+
+        assertArrayEquals(payload, outputStream.data.toByteArray());
+        assertEquals(3, outputStream.writes);
+        assertEquals(1, outputStream.flushes);
+        assertEquals(1, handler.completed);
+        assertNull(handler.failure);
+    }
+
+    @Test
+    public void testCompletedAfterFlush() throws IOException {
+        outputStream.ready = false;
+
+        final ResultHandler first = new ResultHandler();
+        final ResultHandler second = new ResultHandler();
+        writer.write(ByteBuffer.wrap(new byte[]{1}), first);
+        writer.write(ByteBuffer.wrap(new byte[]{2}), second);
+
+        // both frames are written, but the stream is not ready to be flushed.
+        outputStream.ready = true;
+        outputStream.writesUntilNotReady = 2;
+        writer.onWritePossible();
+
+        assertArrayEquals(new byte[]{1, 2}, outputStream.data.toByteArray());
+        assertEquals(0, outputStream.flushes);
+        assertEquals(0, first.completed);
+        assertEquals(0, second.completed);
+
+        outputStream.ready = true;
+        writer.onWritePossible();
+
+        assertEquals(2, outputStream.data.size());
+        assertEquals(1, outputStream.flushes);
+        assertEquals(1, first.completed);
+        assertEquals(1, second.completed);
+    }
+
+    @Test
+    public void testWriteFailure() throws IOException {
+        outputStream.ready = false;
+
+        final ResultHandler first = new ResultHandler();
+        final ResultHandler second = new ResultHandler();
+        writer.write(ByteBuffer.wrap(new byte[]{1}), first);
+        writer.write(ByteBuffer.wrap(new byte[]{2}), second);
+
+        outputStream.ready = true;
+        outputStream.failure = new IOException();
+        writer.onWritePossible();
+
+        assertEquals(0, first.completed);
+        assertSame(outputStream.failure, first.failure);
+        assertEquals(0, second.completed);
+        assertSame(outputStream.failure, second.failure);
+    }
+
+    private static class ArrayHandler extends CompletionHandler<ByteBuffer[]> {
+
+        private int completed = 0;
+        private Throwable failure = null;
+
+        @Override
+        public void failed(Throwable throwable) {
+            failure = throwable;
+        }
+
+        @Override
+        public void completed(ByteBuffer[] result) {
+            completed++;
+        }
+    }
+
+    private static class ResultHandler extends CompletionHandler<ByteBuffer> {
+
+        private int completed = 0;
+        private Throwable failure = null;
+
+        @Override
+        public void failed(Throwable throwable) {
+            failure = throwable;
+        }
+
+        @Override
+        public void completed(ByteBuffer result) {
+            completed++;
+        }
+    }
+
+    private static class TestOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        private boolean ready = true;
+        private int flushes = 0;
+        private int writes = 0;
+        private WriteListener writeListener = null;
+
+        /**
+         * Number of writes after which the stream is not ready, {@code -1} when the stream stays ready.
+         */
+        private int writesUntilNotReady = -1;
+
+        /**
+         * Exception thrown by writes, {@code null} when the writes succeed.
+         */
+        private IOException failure = null;
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            this.writeListener = writeListener;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkReady();
+            if (failure != null) {
+                throw failure;
+            }
+
+            data.write(b, off, len);
+            writes++;
+            if (writesUntilNotReady > 0 && --writesUntilNotReady == 0) {
+                ready = false;
+            }
+        }
+
+        @Override
+        public void flush() {
+            checkReady();
+            flushes++;
+        }
+
+        private void checkReady() {
+            if (!ready) {
+                throw new IllegalStateException("Stream is not ready.");
+            }
+        }
+    }
+}
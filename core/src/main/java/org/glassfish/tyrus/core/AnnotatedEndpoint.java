@@ -40,7 +40,6 @@
 package org.glassfish.tyrus.core;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -89,12 +88,9 @@ public class AnnotatedEndpoint extends Endpoint {
 
     private final Object annotatedInstance;
     private final Class<?> annotatedClass;
-    private final Method onOpenMethod;
-    private final Method onCloseMethod;
-    private final Method onErrorMethod;
-    private final ParameterExtractor[] onOpenParameters;
-    private final ParameterExtractor[] onCloseParameters;
-    private final ParameterExtractor[] onErrorParameters;
+    private final CallbackInvoker onOpenInvoker;
+    private final CallbackInvoker onCloseInvoker;
+    private final CallbackInvoker onErrorInvoker;
     private final EndpointConfig configuration;
     private final ComponentProviderService componentProvider;
     private final EndpointEventListener endpointEventListener;
@@ -246,8 +242,9 @@ public class AnnotatedEndpoint extends Endpoint {
                     if (unknownParams.size() == 1) {
                         Map.Entry<Integer, Class<?>> entry = unknownParams.entrySet().iterator().next();
                         extractors[entry.getKey()] = new ParamValue(0);
-                        handlerFactory = new WholeHandler(componentProvider.getInvocableMethod(m), extractors,
-                                                          entry.getValue(), maxMessageSize);
+                        handlerFactory = new WholeHandler(
+                                CallbackInvoker.create(componentProvider.getInvocableMethod(m), extractors),
+                                entry.getValue(), maxMessageSize);
                         messageHandlerFactories.add(handlerFactory);
                         validityChecker.checkOnMessageParams(m, handlerFactory.create(null));
                     } else if (unknownParams.size() == 2) {
@@ -263,8 +260,9 @@ public class AnnotatedEndpoint extends Endpoint {
                         extractors[message.getKey()] = new ParamValue(0);
                         extractors[last.getKey()] = new ParamValue(1);
                         if (last.getValue() == boolean.class || last.getValue() == Boolean.class) {
-                            handlerFactory = new PartialHandler(componentProvider.getInvocableMethod(m), extractors,
-                                                                message.getValue(), maxMessageSize);
+                            handlerFactory = new PartialHandler(
+                                    CallbackInvoker.create(componentProvider.getInvocableMethod(m), extractors),
+                                    message.getValue(), maxMessageSize);
                             messageHandlerFactories.add(handlerFactory);
                             validityChecker.checkOnMessageParams(m, handlerFactory.create(null));
                         } else {
@@ -279,12 +277,12 @@ public class AnnotatedEndpoint extends Endpoint {
             }
         }
 
-        this.onOpenMethod = onOpen == null ? null : componentProvider.getInvocableMethod(onOpen);
-        this.onErrorMethod = onError == null ? null : componentProvider.getInvocableMethod(onError);
-        this.onCloseMethod = onClose == null ? null : componentProvider.getInvocableMethod(onClose);
-        this.onOpenParameters = onOpenParameters;
-        this.onErrorParameters = onErrorParameters;
-        this.onCloseParameters = onCloseParameters;
+        this.onOpenInvoker = onOpen == null
+                ? null : CallbackInvoker.create(componentProvider.getInvocableMethod(onOpen), onOpenParameters);
+        this.onErrorInvoker = onError == null
+                ? null : CallbackInvoker.create(componentProvider.getInvocableMethod(onError), onErrorParameters);
+        this.onCloseInvoker = onClose == null
+                ? null : CallbackInvoker.create(componentProvider.getInvocableMethod(onClose), onCloseParameters);
     }
 
     private EndpointConfig createEndpointConfig(Class<?> annotatedClass, boolean isServerEndpoint, ErrorCollector
@@ -456,12 +454,7 @@ public class AnnotatedEndpoint extends Endpoint {
                 } else {
                     sessionPresent = true;
                 }
-                result[i] = new ParameterExtractor() {
-                    @Override
-                    public Object value(Session session, Object... values) {
-                        return session;
-                    }
-                };
+                result[i] = SESSION_VALUE;
             } else if (type == EndpointConfig.class) {
                 result[i] = new ParameterExtractor() {
                     @Override
@@ -499,10 +492,9 @@ public class AnnotatedEndpoint extends Endpoint {
         return null;
     }
 
-    private Object callMethod(Method method, ParameterExtractor[] extractors, Session session, boolean callOnError,
-                              Object... params) {
+    private Object callMethod(CallbackInvoker invoker, Session session, boolean callOnError, Object first,
+                              Object second) {
         ErrorCollector collector = new ErrorCollector();
-        Object[] paramValues = new Object[extractors.length];
 
         try {
             final Object endpoint = annotatedInstance != null
@@ -527,16 +519,12 @@ public class AnnotatedEndpoint extends Endpoint {
                 throw collector.composeComprehensiveException();
             }
 
-            for (int i = 0; i < paramValues.length; i++) {
-                paramValues[i] = extractors[i].value(session, params);
-            }
-
-            return method.invoke(endpoint, paramValues);
-        } catch (Exception e) {
+            return invoker.invoke(endpoint, session, first, second);
+        } catch (Throwable t) {
             if (callOnError) {
-                onError(session, (e instanceof InvocationTargetException ? e.getCause() : e));
+                onError(session, t);
             } else {
-                LOGGER.log(Level.INFO, LocalizationMessages.ENDPOINT_EXCEPTION_FROM_ON_ERROR(method), e);
+                LOGGER.log(Level.INFO, LocalizationMessages.ENDPOINT_EXCEPTION_FROM_ON_ERROR(invoker.getMethod()), t);
             }
         }
 
@@ -545,8 +533,8 @@ public class AnnotatedEndpoint extends Endpoint {
 
     void onClose(CloseReason closeReason, Session session) {
         try {
-            if (onCloseMethod != null) {
-                callMethod(onCloseMethod, onCloseParameters, session, true, closeReason);
+            if (onCloseInvoker != null) {
+                callMethod(onCloseInvoker, session, true, closeReason, null);
             }
         } finally {
             componentProvider.removeSession(session);
@@ -560,8 +548,8 @@ public class AnnotatedEndpoint extends Endpoint {
 
     @Override
     public void onError(Session session, Throwable thr) {
-        if (onErrorMethod != null) {
-            callMethod(onErrorMethod, onErrorParameters, session, false, thr);
+        if (onErrorInvoker != null) {
+            callMethod(onErrorInvoker, session, false, thr, null);
         } else {
             LOGGER.log(Level.INFO,
                        LocalizationMessages.ENDPOINT_UNHANDLED_EXCEPTION(annotatedClass.getCanonicalName()), thr);
@@ -580,8 +568,8 @@ public class AnnotatedEndpoint extends Endpoint {
             session.addMessageHandler(f.create(session));
         }
 
-        if (onOpenMethod != null) {
-            callMethod(onOpenMethod, onOpenParameters, session, true);
+        if (onOpenInvoker != null) {
+            callMethod(onOpenInvoker, session, true, null, null);
         }
     }
 
@@ -589,6 +577,16 @@ public class AnnotatedEndpoint extends Endpoint {
         Object value(Session session, Object... paramValues) throws DecodeException;
     }
 
+    /**
+     * Extractor of the {@link Session} parameter.
+     */
+    static final ParameterExtractor SESSION_VALUE = new ParameterExtractor() {
+        @Override
+        public Object value(Session session, Object... paramValues) {
+            return session;
+        }
+    };
+
     static class ParamValue implements ParameterExtractor {
         private final int index;
 
@@ -596,6 +594,10 @@ public class AnnotatedEndpoint extends Endpoint {
             this.index = index;
         }
 
+        int getIndex() {
+            return index;
+        }
+
         @Override
         public Object value(Session session, Object... paramValues) {
             return paramValues[index];
@@ -603,14 +605,12 @@ public class AnnotatedEndpoint extends Endpoint {
     }
 
     private abstract class MessageHandlerFactory {
-        final Method method;
-        final ParameterExtractor[] extractors;
+        final CallbackInvoker invoker;
         final Class<?> type;
         final long maxMessageSize;
 
-        MessageHandlerFactory(Method method, ParameterExtractor[] extractors, Class<?> type, long maxMessageSize) {
-            this.method = method;
-            this.extractors = extractors;
+        MessageHandlerFactory(CallbackInvoker invoker, Class<?> type, long maxMessageSize) {
+            this.invoker = invoker;
             this.type = (PrimitivesToWrappers.getPrimitiveWrapper(type) == null)
                     ? type
                     : PrimitivesToWrappers.getPrimitiveWrapper(type);
@@ -621,8 +621,8 @@ public class AnnotatedEndpoint extends Endpoint {
     }
 
     private class WholeHandler extends MessageHandlerFactory {
-        WholeHandler(Method method, ParameterExtractor[] extractors, Class<?> type, long maxMessageSize) {
-            super(method, extractors, type, maxMessageSize);
+        WholeHandler(CallbackInvoker invoker, Class<?> type, long maxMessageSize) {
+            super(invoker, type, maxMessageSize);
         }
 
         @Override
@@ -630,7 +630,7 @@ public class AnnotatedEndpoint extends Endpoint {
             return new BasicMessageHandler() {
                 @Override
                 public void onMessage(Object message) {
-                    Object result = callMethod(method, extractors, session, true, message);
+                    Object result = callMethod(invoker, session, true, message, null);
                     if (result != null) {
                         try {
                             session.getBasicRemote().sendObject(result);
@@ -654,8 +654,8 @@ public class AnnotatedEndpoint extends Endpoint {
     }
 
     private class PartialHandler extends MessageHandlerFactory {
-        PartialHandler(Method method, ParameterExtractor[] extractors, Class<?> type, long maxMessageSize) {
-            super(method, extractors, type, maxMessageSize);
+        PartialHandler(CallbackInvoker invoker, Class<?> type, long maxMessageSize) {
+            super(invoker, type, maxMessageSize);
         }
 
         @Override
@@ -664,7 +664,7 @@ public class AnnotatedEndpoint extends Endpoint {
 
                 @Override
                 public void onMessage(Object partialMessage, boolean last) {
-                    Object result = callMethod(method, extractors, session, true, partialMessage, last);
+                    Object result = callMethod(invoker, session, true, partialMessage, last);
                     if (result != null) {
                         try {
                             session.getBasicRemote().sendObject(result);
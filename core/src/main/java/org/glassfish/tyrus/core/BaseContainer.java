@@ -42,8 +42,11 @@ package org.glassfish.tyrus.core;
 import java.lang.reflect.Method;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -60,6 +63,12 @@ import javax.websocket.WebSocketContainer;
 public abstract class BaseContainer extends ExecutorServiceProvider implements WebSocketContainer {
 
     private static final Logger LOGGER = Logger.getLogger(BaseContainer.class.getName());
+    private static final int DISPATCH_POOL_SIZE = Math.max(8, 4 * Runtime.getRuntime().availableProcessors());
+    /**
+     * Each connection has at most one task in the dispatch queue (see {@link OrderedExecutor}), so the limit applies to
+     * the number of connections waiting for a dispatch thread.
+     */
+    private static final int DISPATCH_QUEUE_SIZE = 64 * DISPATCH_POOL_SIZE;
 
     private final ExecutorService managedExecutorService;
     private final ScheduledExecutorService managedScheduledExecutorService;
@@ -73,6 +82,8 @@ public abstract class BaseContainer extends ExecutorServiceProvider implements W
 
     private volatile ExecutorService executorService = null;
     private volatile ScheduledExecutorService scheduledExecutorService = null;
+    private volatile ExecutorService dispatchExecutorService = null;
+    private volatile boolean virtualThreadDispatch = false;
 
     public BaseContainer() {
         this.managedExecutorService = lookupManagedExecutorService();
@@ -137,11 +148,66 @@ public abstract class BaseContainer extends ExecutorServiceProvider implements W
         return scheduledExecutorService;
     }
 
+    /**
+     * Returns an {@link java.util.concurrent.ExecutorService} used for ordered dispatch of incoming messages (see
+     * {@link TyrusWebSocketEngine#ORDERED_DISPATCH}).
+     * <p>
+     * Container-managed executor service is used when available. Otherwise, a virtual thread per task executor is
+     * created when the runtime supports virtual threads, and a bounded thread pool managed by this instance of {@link
+     * org.glassfish.tyrus.core.BaseContainer} when it does not.
+     * <p>
+     * The queue of the thread pool is bounded as well. When it is full, tasks are rejected with {@link
+     * java.util.concurrent.RejectedExecutionException} and {@link OrderedExecutor} runs the tasks of the connection on
+     * the submitting thread instead, which slows down reading from the connection.
+     *
+     * @return dispatch executor service.
+     */
+    ExecutorService getDispatchExecutorService() {
+        if (managedExecutorService != null) {
+            return managedExecutorService;
+        }
+
+        if (dispatchExecutorService == null) {
+            synchronized (EXECUTORS_CLEAN_UP_LOCK) {
+                if (dispatchExecutorService == null) {
+                    final ExecutorService virtualThreadExecutor = createVirtualThreadExecutor();
+                    if (virtualThreadExecutor != null) {
+                        virtualThreadDispatch = true;
+                        dispatchExecutorService = virtualThreadExecutor;
+                    } else {
+                        final ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                                DISPATCH_POOL_SIZE, DISPATCH_POOL_SIZE, 60, TimeUnit.SECONDS,
+                                new LinkedBlockingQueue<Runnable>(DISPATCH_QUEUE_SIZE), threadFactory,
+                                new ThreadPoolExecutor.AbortPolicy());
+                        pool.allowCoreThreadTimeOut(true);
+                        dispatchExecutorService = pool;
+                    }
+                }
+            }
+        }
+
+        return dispatchExecutorService;
+    }
+
+    /**
+     * Get information whether {@link #getDispatchExecutorService()} runs each task on a new virtual thread.
+     * <p>
+     * Blocking tasks, like reading of streamed messages, can be run on such executor without exhausting it.
+     *
+     * @return {@code true} when the dispatch executor service uses virtual threads, {@code false} otherwise.
+     */
+    boolean isVirtualThreadDispatch() {
+        getDispatchExecutorService();
+        return virtualThreadDispatch;
+    }
+
     /**
      * Release executor services managed by this instance. Executor services obtained via JNDI lookup won't be
      * shut down.
      */
     public void shutdown() {
+        getTimingWheel().stop();
+
         if (executorService != null) {
             executorService.shutdown();
             executorService = null;
@@ -151,6 +217,12 @@ public abstract class BaseContainer extends ExecutorServiceProvider implements W
             scheduledExecutorService.shutdownNow();
             scheduledExecutorService = null;
         }
+
+        if (dispatchExecutorService != null) {
+            dispatchExecutorService.shutdown();
+            dispatchExecutorService = null;
+            virtualThreadDispatch = false;
+        }
     }
 
     /**
@@ -191,6 +263,21 @@ public abstract class BaseContainer extends ExecutorServiceProvider implements W
         return null;
     }
 
+    private static ExecutorService createVirtualThreadExecutor() {
+        // virtual threads are available since JDK 21, the method has to be looked up reflectively.
+        try {
+            final Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factoryMethod.invoke(null);
+        } catch (Exception e) {
+            // ignore - virtual threads are not supported, bounded thread pool will be used.
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, e.getMessage(), e);
+            }
+        }
+
+        return null;
+    }
+
     private ScheduledExecutorService lookupManagedScheduledExecutorService() {
         try {
             // TYRUS-256: Tyrus client on Android
@@ -71,7 +71,8 @@ class BinaryBuffer {
 
         if ((currentlyBuffered + message.remaining()) <= bufferSize) {
             currentlyBuffered += message.remaining();
-            list.add(message);
+            // views created by zero-copy decoding are valid only during the frame processing.
+            list.add(message.isReadOnly() ? ByteBuffer.wrap(Utils.getRemainingArray(message)) : message);
         } else {
             final MessageTooBigException messageTooBigException = new MessageTooBigException(
                     LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW());
@@ -0,0 +1,268 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+
+import org.glassfish.tyrus.core.frame.Frame;
+import org.glassfish.tyrus.core.l10n.LocalizationMessages;
+import org.glassfish.tyrus.spi.CompletionHandler;
+
+/**
+ * Sends a binary message as a sequence of fragments.
+ * <p>
+ * The data are never materialized as a single frame. Each fragment is read into its own array, which is handed over
+ * to the transport without further copying (the client masks it when the frame is encoded), and the next fragment is
+ * read while the previous ones are being written. The number of fragments not yet written is limited, so the memory
+ * used for sending is bounded by {@code fragmentSize * maxFramesInFlight} regardless of the message size.
+ */
+class BinaryStreamSender {
+
+    /**
+     * Default size of a fragment in bytes.
+     */
+    static final int DEFAULT_FRAGMENT_SIZE = 64 * 1024;
+
+    /**
+     * Default maximal number of fragments not yet written.
+     */
+    static final int DEFAULT_MAX_FRAMES_IN_FLIGHT = 4;
+
+    private final TyrusWebSocket socket;
+    private final int fragmentSize;
+    private final int maxFramesInFlight;
+    private final Semaphore inFlight;
+
+    private volatile Throwable failure = null;
+
+    /**
+     * Create new sender.
+     *
+     * @param socket            socket used for sending the fragments.
+     * @param fragmentSize      size of a fragment in bytes.
+     * @param maxFramesInFlight maximal number of fragments not yet written.
+     */
+    BinaryStreamSender(TyrusWebSocket socket, int fragmentSize, int maxFramesInFlight) {
+        if (fragmentSize <= 0) {
+            throw new IllegalArgumentException("fragmentSize");
+        }
+        if (maxFramesInFlight <= 0) {
+            throw new IllegalArgumentException("maxFramesInFlight");
+        }
+
+        this.socket = socket;
+        this.fragmentSize = fragmentSize;
+        this.maxFramesInFlight = maxFramesInFlight;
+        this.inFlight = new Semaphore(maxFramesInFlight);
+    }
+
+    /**
+     * Get the size of a fragment.
+     *
+     * @return fragment size in bytes.
+     */
+    int getFragmentSize() {
+        return fragmentSize;
+    }
+
+    /**
+     * Send all the data from the stream as one binary message and wait until it is written.
+     *
+     * @param inputStream source of the message. The stream is not closed.
+     * @throws IOException when the stream cannot be read or the message cannot be sent.
+     */
+    void send(InputStream inputStream) throws IOException {
+        byte[] fragment = read(inputStream);
+        // short fragment means end of the stream has been reached.
+        while (fragment.length == fragmentSize) {
+            final byte[] next = read(inputStream);
+            if (next.length == 0) {
+                break;
+            }
+            sendFragment(fragment, false);
+            fragment = next;
+        }
+
+        sendFragment(fragment, true);
+        awaitCompletion();
+    }
+
+    /**
+     * Send all the data from the channel as one binary message and wait until it is written.
+     *
+     * @param channel source of the message, has to be in blocking mode. The channel is not closed.
+     * @throws IOException when the channel cannot be read or the message cannot be sent.
+     */
+    void send(ReadableByteChannel channel) throws IOException {
+        byte[] fragment = read(channel);
+        while (fragment.length == fragmentSize) {
+            final byte[] next = read(channel);
+            if (next.length == 0) {
+                break;
+            }
+            sendFragment(fragment, false);
+            fragment = next;
+        }
+
+        sendFragment(fragment, true);
+        awaitCompletion();
+    }
+
+    /**
+     * Send the remaining content of the buffer as one binary message and wait until it is written.
+     * <p>
+     * Only {@code maxFramesInFlight} fragments are copied at a time, the buffer position is moved to its limit.
+     *
+     * @param buffer source of the message.
+     * @throws IOException when the message cannot be sent.
+     */
+    void send(ByteBuffer buffer) throws IOException {
+        do {
+            final byte[] fragment = new byte[Math.min(fragmentSize, buffer.remaining())];
+            buffer.get(fragment);
+            sendFragment(fragment, !buffer.hasRemaining());
+        } while (buffer.hasRemaining());
+
+        awaitCompletion();
+    }
+
+    /**
+     * Send a fragment of the message.
+     * <p>
+     * Blocks while the maximal number of fragments is being written.
+     *
+     * @param fragment fragment payload. The array must not be modified after it is passed to this method.
+     * @param last     {@code true} if the fragment is the last one of the message.
+     * @throws IOException when some of the previous fragments failed or the thread was interrupted.
+     */
+    void sendFragment(byte[] fragment, boolean last) throws IOException {
+        checkFailure();
+
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+
+        try {
+            socket.streamBinary(fragment, last, new CompletionHandler<Frame>() {
+                @Override
+                public void cancelled() {
+                    failure = new IOException(LocalizationMessages.FRAME_WRITE_CANCELLED());
+                    inFlight.release();
+                }
+
+                @Override
+                public void failed(Throwable throwable) {
+                    failure = throwable;
+                    inFlight.release();
+                }
+
+                @Override
+                public void completed(Frame result) {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Wait until all the fragments are written.
+     *
+     * @throws IOException when some of the fragments failed or the thread was interrupted.
+     */
+    void awaitCompletion() throws IOException {
+        try {
+            inFlight.acquire(maxFramesInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        inFlight.release(maxFramesInFlight);
+
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        final Throwable throwable = failure;
+        if (throwable instanceof IOException) {
+            throw (IOException) throwable;
+        } else if (throwable != null) {
+            throw new IOException(throwable);
+        }
+    }
+
+    private byte[] read(InputStream inputStream) throws IOException {
+        final byte[] fragment = new byte[fragmentSize];
+        int length = 0;
+        while (length < fragmentSize) {
+            final int read = inputStream.read(fragment, length, fragmentSize - length);
+            if (read < 0) {
+                return Arrays.copyOf(fragment, length);
+            }
+            length += read;
+        }
+
+        return fragment;
+    }
+
+    private byte[] read(ReadableByteChannel channel) throws IOException {
+        final byte[] fragment = new byte[fragmentSize];
+        final ByteBuffer buffer = ByteBuffer.wrap(fragment);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return Arrays.copyOf(fragment, buffer.position());
+            }
+        }
+
+        return fragment;
+    }
+}
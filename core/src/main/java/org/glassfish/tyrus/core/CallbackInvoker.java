@@ -0,0 +1,248 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.websocket.Session;
+
+/**
+ * Invoker of an annotated endpoint callback method ({@link javax.websocket.OnOpen}, {@link javax.websocket.OnMessage},
+ * {@link javax.websocket.OnClose} or {@link javax.websocket.OnError}).
+ * <p>
+ * Created once per method when the endpoint is deployed. The method is bound to a {@link MethodHandle}; when all its
+ * parameters are the passed values (message, last flag, close reason, throwable) or the {@link Session}, the handle is
+ * adapted so that it takes them directly and no parameter array is created per invocation. Methods with other
+ * parameters (path parameters, {@link javax.websocket.EndpointConfig}) use {@link AnnotatedEndpoint.ParameterExtractor
+ * parameter extractors}. Reflection is used only when the method handle cannot be obtained.
+ */
+abstract class CallbackInvoker {
+
+    private static final Logger LOGGER = Logger.getLogger(CallbackInvoker.class.getName());
+
+    private static final MethodType DIRECT_TYPE =
+            MethodType.methodType(Object.class, Object.class, Session.class, Object.class, Object.class);
+    private static final MethodType SPREAD_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final Method method;
+
+    private CallbackInvoker(Method method) {
+        this.method = method;
+    }
+
+    /**
+     * Create invoker of given method.
+     *
+     * @param method     callback method.
+     * @param extractors extractors of the method parameters, one per parameter.
+     * @return new invoker.
+     */
+    static CallbackInvoker create(Method method, AnnotatedEndpoint.ParameterExtractor[] extractors) {
+        final MethodHandle handle = unreflect(method);
+        if (handle == null) {
+            return new ReflectiveInvoker(method, extractors);
+        }
+
+        final int[] sources = getDirectSources(extractors);
+        if (sources != null) {
+            return new DirectInvoker(method, handle, sources);
+        }
+
+        return new SpreadInvoker(method, handle, extractors);
+    }
+
+    /**
+     * Get the invoked method.
+     *
+     * @return invoked method.
+     */
+    Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Invoke the method.
+     * <p>
+     * Exceptions thrown by the invoked method are rethrown as they are, not wrapped.
+     *
+     * @param endpoint endpoint instance.
+     * @param session  session the callback is invoked for.
+     * @param first    first passed value (message, close reason or throwable), {@code null} if there is none.
+     * @param second   second passed value (last flag of a partial message), {@code null} if there is none.
+     * @return value returned by the method, {@code null} for {@code void} methods.
+     * @throws Throwable when the method or parameter extraction throws it.
+     */
+    abstract Object invoke(Object endpoint, Session session, Object first, Object second) throws Throwable;
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            if (!method.isAccessible()) {
+                method.setAccessible(true);
+            }
+
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                // static callbacks are invoked with the endpoint instance as well, it is ignored.
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return handle;
+        } catch (Exception e) {
+            // security manager does not allow to bypass access checks, reflection will be used instead.
+            LOGGER.log(Level.FINE, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Map method parameters to the arguments of {@link #invoke(Object, Session, Object, Object)}.
+     *
+     * @param extractors parameter extractors.
+     * @return index of the invoke argument for each parameter (shifted by one for the endpoint instance) or {@code null}
+     * when some of the parameters needs to be extracted.
+     */
+    private static int[] getDirectSources(AnnotatedEndpoint.ParameterExtractor[] extractors) {
+        final int[] sources = new int[extractors.length];
+        for (int i = 0; i < extractors.length; i++) {
+            final AnnotatedEndpoint.ParameterExtractor extractor = extractors[i];
+            if (extractor == AnnotatedEndpoint.SESSION_VALUE) {
+                sources[i] = 1;
+            } else if (extractor instanceof AnnotatedEndpoint.ParamValue
+                    && ((AnnotatedEndpoint.ParamValue) extractor).getIndex() < 2) {
+                sources[i] = 2 + ((AnnotatedEndpoint.ParamValue) extractor).getIndex();
+            } else {
+                return null;
+            }
+        }
+        return sources;
+    }
+
+    private static Object[] extract(AnnotatedEndpoint.ParameterExtractor[] extractors, Session session, Object first,
+                                    Object second) throws Exception {
+        final Object[] values = {first, second};
+        final Object[] paramValues = new Object[extractors.length];
+        for (int i = 0; i < paramValues.length; i++) {
+            paramValues[i] = extractors[i].value(session, values);
+        }
+        return paramValues;
+    }
+
+    /**
+     * Invokes method handle adapted to take the arguments of {@link #invoke(Object, Session, Object, Object)}.
+     */
+    private static final class DirectInvoker extends CallbackInvoker {
+
+        private final MethodHandle handle;
+
+        DirectInvoker(Method method, MethodHandle handle, int[] sources) {
+            super(method);
+
+            final Class<?>[] parameterTypes = new Class<?>[sources.length + 1];
+            final int[] reorder = new int[sources.length + 1];
+            parameterTypes[0] = Object.class;
+            reorder[0] = 0;
+            for (int i = 0; i < sources.length; i++) {
+                parameterTypes[i + 1] = sources[i] == 1 ? Session.class : Object.class;
+                reorder[i + 1] = sources[i];
+            }
+
+            // casts and unboxes the passed values to the parameter types, void result is converted to null.
+            final MethodHandle adapted = handle.asType(MethodType.methodType(Object.class, parameterTypes));
+            this.handle = MethodHandles.permuteArguments(adapted, DIRECT_TYPE, reorder);
+        }
+
+        @Override
+        Object invoke(Object endpoint, Session session, Object first, Object second) throws Throwable {
+            return handle.invokeExact(endpoint, session, first, second);
+        }
+    }
+
+    /**
+     * Invokes method handle with the parameters obtained from {@link AnnotatedEndpoint.ParameterExtractor}s.
+     */
+    private static final class SpreadInvoker extends CallbackInvoker {
+
+        private final MethodHandle handle;
+        private final AnnotatedEndpoint.ParameterExtractor[] extractors;
+
+        SpreadInvoker(Method method, MethodHandle handle, AnnotatedEndpoint.ParameterExtractor[] extractors) {
+            super(method);
+            final MethodType type = handle.type().changeReturnType(Object.class).changeParameterType(0, Object.class);
+            this.handle = handle.asType(type).asSpreader(Object[].class, extractors.length).asType(SPREAD_TYPE);
+            this.extractors = extractors;
+        }
+
+        @Override
+        Object invoke(Object endpoint, Session session, Object first, Object second) throws Throwable {
+            final Object[] paramValues = extract(extractors, session, first, second);
+            return handle.invokeExact(endpoint, paramValues);
+        }
+    }
+
+    /**
+     * Invokes the method using reflection.
+     */
+    private static final class ReflectiveInvoker extends CallbackInvoker {
+
+        private final AnnotatedEndpoint.ParameterExtractor[] extractors;
+
+        ReflectiveInvoker(Method method, AnnotatedEndpoint.ParameterExtractor[] extractors) {
+            super(method);
+            this.extractors = extractors;
+        }
+
+        @Override
+        Object invoke(Object endpoint, Session session, Object first, Object second) throws Throwable {
+            final Object[] paramValues = extract(extractors, session, first, second);
+            try {
+                return getMethod().invoke(endpoint, paramValues);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
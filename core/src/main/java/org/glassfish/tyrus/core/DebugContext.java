@@ -59,6 +59,10 @@ import org.glassfish.tyrus.spi.UpgradeResponse;
  * <p>
  * Log records are provided with a session ID, so that log records from a single upgrade request can be easily linked
  * together in a log of a busy server or client.
+ * <p>
+ * The methods accepting up to four message parts do not allocate anything when the message is neither logged nor
+ * traced, so they can be used on hot paths (message handling, endpoint matching). Callers with more message parts
+ * should check {@link #isEnabled(java.util.logging.Logger, java.util.logging.Level)} first.
  *
  * @author Petr Janouch (petr.janouch at oracle.com)
  */
@@ -69,7 +73,7 @@ public class DebugContext {
     // is not thread safe - it is assumed that it will be used only in the "handshake phase"
     private Map<String, List<String>> tracingHeaders = new HashMap<String, List<String>>();
     private final long startTimestamp;
-    private final Level tracingLevel;
+    private final int tracingLevel;
     private String sessionId = null;
 
     /**
@@ -80,9 +84,9 @@ public class DebugContext {
     public DebugContext(TracingThreshold tracingThreshold) {
         startTimestamp = System.nanoTime();
         if (TracingThreshold.SUMMARY == tracingThreshold) {
-            tracingLevel = Level.FINE;
+            tracingLevel = Level.FINE.intValue();
         } else {
-            tracingLevel = Level.FINER;
+            tracingLevel = Level.FINER.intValue();
         }
     }
 
@@ -91,7 +95,18 @@ public class DebugContext {
      */
     public DebugContext() {
         startTimestamp = System.nanoTime();
-        this.tracingLevel = Level.OFF;
+        this.tracingLevel = Level.OFF.intValue();
+    }
+
+    /**
+     * Check whether a message of the given level would be logged or added to the tracing headers.
+     *
+     * @param logger       logger to be used to log the message.
+     * @param loggingLevel message level.
+     * @return {@code true} if the message would be logged or traced.
+     */
+    public boolean isEnabled(Logger logger, Level loggingLevel) {
+        return isTraced(loggingLevel) || logger.isLoggable(loggingLevel);
     }
 
     /**
@@ -107,6 +122,72 @@ public class DebugContext {
         appendLogMessageWithThrowable(logger, loggingLevel, type, null, messageParts);
     }
 
+    /**
+     * Append a message to the log, see {@link #appendLogMessage(Logger, Level, Type, Object...)}.
+     *
+     * @param logger       logger to be used to log the message.
+     * @param loggingLevel message level.
+     * @param type         type of the message.
+     * @param messagePart  the log message.
+     */
+    public void appendLogMessage(Logger logger, Level loggingLevel, Type type, Object messagePart) {
+        if (logger.isLoggable(loggingLevel)) {
+            log(logger, loggingLevel, type, null, String.valueOf(messagePart));
+        }
+    }
+
+    /**
+     * Append a message to the log, see {@link #appendLogMessage(Logger, Level, Type, Object...)}.
+     *
+     * @param logger       logger to be used to log the message.
+     * @param loggingLevel message level.
+     * @param type         type of the message.
+     * @param messagePart1 first part of the log message.
+     * @param messagePart2 second part of the log message.
+     */
+    public void appendLogMessage(Logger logger, Level loggingLevel, Type type, Object messagePart1,
+                                 Object messagePart2) {
+        if (logger.isLoggable(loggingLevel)) {
+            log(logger, loggingLevel, type, null, stringifyMessageParts(messagePart1, messagePart2));
+        }
+    }
+
+    /**
+     * Append a message to the log, see {@link #appendLogMessage(Logger, Level, Type, Object...)}.
+     *
+     * @param logger       logger to be used to log the message.
+     * @param loggingLevel message level.
+     * @param type         type of the message.
+     * @param messagePart1 first part of the log message.
+     * @param messagePart2 second part of the log message.
+     * @param messagePart3 third part of the log message.
+     */
+    public void appendLogMessage(Logger logger, Level loggingLevel, Type type, Object messagePart1,
+                                 Object messagePart2, Object messagePart3) {
+        if (logger.isLoggable(loggingLevel)) {
+            log(logger, loggingLevel, type, null, stringifyMessageParts(messagePart1, messagePart2, messagePart3));
+        }
+    }
+
+    /**
+     * Append a message to the log, see {@link #appendLogMessage(Logger, Level, Type, Object...)}.
+     *
+     * @param logger       logger to be used to log the message.
+     * @param loggingLevel message level.
+     * @param type         type of the message.
+     * @param messagePart1 first part of the log message.
+     * @param messagePart2 second part of the log message.
+     * @param messagePart3 third part of the log message.
+     * @param messagePart4 fourth part of the log message.
+     */
+    public void appendLogMessage(Logger logger, Level loggingLevel, Type type, Object messagePart1,
+                                 Object messagePart2, Object messagePart3, Object messagePart4) {
+        if (logger.isLoggable(loggingLevel)) {
+            log(logger, loggingLevel, type, null,
+                stringifyMessageParts(messagePart1, messagePart2, messagePart3, messagePart4));
+        }
+    }
+
     /**
      * Append a message to the log and to the list of trace messages that are sent in handshake response.
      * The logging will be postponed until the message can be provided with a session ID. Randomly generated session ID
@@ -121,6 +202,76 @@ public class DebugContext {
         appendTraceMessageWithThrowable(logger, loggingLevel, type, null, messageParts);
     }
 
+    /**
+     * Append a message to the log and to the list of trace messages, see
+     * {@link #appendTraceMessage(Logger, Level, Type, Object...)}.
+     *
+     * @param logger       logger to be used to log the message.
+     * @param loggingLevel message level.
+     * @param type         type of the message.
+     * @param messagePart  the trace message.
+     */
+    public void appendTraceMessage(Logger logger, Level loggingLevel, Type type, Object messagePart) {
+        if (isEnabled(logger, loggingLevel)) {
+            trace(logger, loggingLevel, type, null, String.valueOf(messagePart));
+        }
+    }
+
+    /**
+     * Append a message to the log and to the list of trace messages, see
+     * {@link #appendTraceMessage(Logger, Level, Type, Object...)}.
+     *
+     * @param logger       logger to be used to log the message.
+     * @param loggingLevel message level.
+     * @param type         type of the message.
+     * @param messagePart1 first part of the trace message.
+     * @param messagePart2 second part of the trace message.
+     */
+    public void appendTraceMessage(Logger logger, Level loggingLevel, Type type, Object messagePart1,
+                                   Object messagePart2) {
+        if (isEnabled(logger, loggingLevel)) {
+            trace(logger, loggingLevel, type, null, stringifyMessageParts(messagePart1, messagePart2));
+        }
+    }
+
+    /**
+     * Append a message to the log and to the list of trace messages, see
+     * {@link #appendTraceMessage(Logger, Level, Type, Object...)}.
+     *
+     * @param logger       logger to be used to log the message.
+     * @param loggingLevel message level.
+     * @param type         type of the message.
+     * @param messagePart1 first part of the trace message.
+     * @param messagePart2 second part of the trace message.
+     * @param messagePart3 third part of the trace message.
+     */
+    public void appendTraceMessage(Logger logger, Level loggingLevel, Type type, Object messagePart1,
+                                   Object messagePart2, Object messagePart3) {
+        if (isEnabled(logger, loggingLevel)) {
+            trace(logger, loggingLevel, type, null, stringifyMessageParts(messagePart1, messagePart2, messagePart3));
+        }
+    }
+
+    /**
+     * Append a message to the log and to the list of trace messages, see
+     * {@link #appendTraceMessage(Logger, Level, Type, Object...)}.
+     *
+     * @param logger       logger to be used to log the message.
+     * @param loggingLevel message level.
+     * @param type         type of the message.
+     * @param messagePart1 first part of the trace message.
+     * @param messagePart2 second part of the trace message.
+     * @param messagePart3 third part of the trace message.
+     * @param messagePart4 fourth part of the trace message.
+     */
+    public void appendTraceMessage(Logger logger, Level loggingLevel, Type type, Object messagePart1,
+                                   Object messagePart2, Object messagePart3, Object messagePart4) {
+        if (isEnabled(logger, loggingLevel)) {
+            trace(logger, loggingLevel, type, null,
+                  stringifyMessageParts(messagePart1, messagePart2, messagePart3, messagePart4));
+        }
+    }
+
     /**
      * Append a message to the log, the logging will be postponed until the message can be provided with a session ID.
      * Randomly generated session ID is used if a session has not been created.
@@ -134,18 +285,7 @@ public class DebugContext {
     public void appendLogMessageWithThrowable(Logger logger, Level loggingLevel, Type type, Throwable t,
                                               Object... messageParts) {
         if (logger.isLoggable(loggingLevel)) {
-
-            String message = stringifyMessageParts(messageParts);
-
-            if (sessionId == null) {
-                logRecords.add(new LogRecord(logger, loggingLevel, type, message, t, false));
-            } else {
-                if (t != null) {
-                    logger.log(loggingLevel, formatLogMessage(message, type, System.nanoTime()), t);
-                } else {
-                    logger.log(loggingLevel, formatLogMessage(message, type, System.nanoTime()));
-                }
-            }
+            log(logger, loggingLevel, type, t, stringifyMessageParts(messageParts));
         }
     }
 
@@ -162,12 +302,9 @@ public class DebugContext {
      */
     public void appendTraceMessageWithThrowable(Logger logger, Level loggingLevel, Type type, Throwable t,
                                                 Object... messageParts) {
-        if (this.tracingLevel.intValue() <= loggingLevel.intValue()) {
-            String message = stringifyMessageParts(messageParts);
-            appendTracingHeader(message);
+        if (isEnabled(logger, loggingLevel)) {
+            trace(logger, loggingLevel, type, t, stringifyMessageParts(messageParts));
         }
-
-        appendLogMessageWithThrowable(logger, loggingLevel, type, t, messageParts);
     }
 
     /**
@@ -232,6 +369,38 @@ public class DebugContext {
         return tracingHeaders;
     }
 
+    private boolean isTraced(Level loggingLevel) {
+        return tracingLevel <= loggingLevel.intValue();
+    }
+
+    /**
+     * Append an already stringified message to the tracing headers and to the log, if enabled for the level.
+     */
+    private void trace(Logger logger, Level loggingLevel, Type type, Throwable t, String message) {
+        if (isTraced(loggingLevel)) {
+            appendTracingHeader(message);
+        }
+
+        if (logger.isLoggable(loggingLevel)) {
+            log(logger, loggingLevel, type, t, message);
+        }
+    }
+
+    /**
+     * Log an already stringified message or postpone its logging until a session ID is set.
+     */
+    private void log(Logger logger, Level loggingLevel, Type type, Throwable t, String message) {
+        if (sessionId == null) {
+            logRecords.add(new LogRecord(logger, loggingLevel, type, message, t, false));
+        } else {
+            if (t != null) {
+                logger.log(loggingLevel, formatLogMessage(message, type, System.nanoTime()), t);
+            } else {
+                logger.log(loggingLevel, formatLogMessage(message, type, System.nanoTime()));
+            }
+        }
+    }
+
     private void appendTracingHeader(String message) {
         String headerName = UpgradeResponse.TRACING_HEADER_PREFIX + String.format("%02d", tracingHeaders.size());
         tracingHeaders.put(headerName,
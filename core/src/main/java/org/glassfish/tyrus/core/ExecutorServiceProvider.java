@@ -48,6 +48,8 @@ import java.util.concurrent.ScheduledExecutorService;
  */
 public abstract class ExecutorServiceProvider {
 
+    private final TimingWheel timingWheel = new TimingWheel(this);
+
     /**
      * Get the {@link ExecutorService}.
      *
@@ -61,4 +63,15 @@ public abstract class ExecutorServiceProvider {
      * @return scheduled executor service.
      */
     public abstract ScheduledExecutorService getScheduledExecutorService();
+
+    /**
+     * Get {@link TimingWheel} used for session idle timeouts and heartbeats.
+     * <p>
+     * The wheel runs on the {@link #getScheduledExecutorService() scheduled executor service} of this provider.
+     *
+     * @return timing wheel of this provider.
+     */
+    TimingWheel getTimingWheel() {
+        return timingWheel;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,203 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Buffer accumulating encoded outgoing frames of a single connection, so they can be written to the transport at once.
+ * <p>
+ * Instances are not thread safe, access has to be synchronized on the batch instance by the caller ({@link
+ * ProtocolHandler}). Flush counters and the write failure are the only exception, they can be accessed by any thread,
+ * because batches can be written asynchronously.
+ */
+class FrameBatch {
+
+    private final int maxSize;
+    private final long maxDelay;
+    private final Map<BatchFlushCause, AtomicLong> flushCounts =
+            new EnumMap<BatchFlushCause, AtomicLong>(BatchFlushCause.class);
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+    private ByteBuffer buffer = null;
+    private long generation = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize  maximal size of the batch in bytes. Batch is flushed when its size reaches this value.
+     * @param maxDelay maximal time in milliseconds the first frame can wait in the batch, non-positive value
+     *                 disables time based flushing.
+     */
+    FrameBatch(int maxSize, long maxDelay) {
+        this.maxSize = maxSize;
+        this.maxDelay = maxDelay;
+
+        for (BatchFlushCause cause : BatchFlushCause.values()) {
+            flushCounts.put(cause, new AtomicLong());
+        }
+    }
+
+    /**
+     * Get maximal size of the batch.
+     *
+     * @return maximal size of the batch in bytes.
+     */
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Get maximal delay of the first frame in the batch.
+     *
+     * @return maximal delay in milliseconds.
+     */
+    long getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * Get the batch generation.
+     * <p>
+     * The generation is incremented with every flush, so it can be used for detecting whether the batch was flushed
+     * since some point in time.
+     *
+     * @return current batch generation.
+     */
+    long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Get number of bytes in the batch.
+     *
+     * @return number of bytes waiting to be flushed.
+     */
+    int size() {
+        return buffer == null ? 0 : buffer.position();
+    }
+
+    /**
+     * Get information whether there is any frame in the batch.
+     *
+     * @return {@code true} when there is no frame in the batch.
+     */
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Get information whether the frame with given size fits into the batch.
+     *
+     * @param length frame size in bytes.
+     * @return {@code true} when the frame can be added without flushing the batch first.
+     */
+    boolean fits(int length) {
+        return size() + length <= maxSize;
+    }
+
+    /**
+     * Copy encoded frame into the batch.
+     * <p>
+     * Frame has to {@link #fits(int) fit} into the batch. Positions of the passed buffers are not changed.
+     *
+     * @param frame encoded frame.
+     */
+    void add(ByteBuffer[] frame) {
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(maxSize);
+        }
+
+        for (ByteBuffer part : frame) {
+            buffer.put(part.duplicate());
+        }
+    }
+
+    /**
+     * Remove all frames from the batch.
+     *
+     * @param cause reason of the flush.
+     * @return buffer containing all the batched frames, ready to be written.
+     */
+    ByteBuffer flush(BatchFlushCause cause) {
+        final ByteBuffer result = buffer;
+        result.flip();
+
+        buffer = null;
+        generation++;
+        flushCounts.get(cause).incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Get number of flushes caused by given {@link BatchFlushCause}.
+     *
+     * @param cause flush cause.
+     * @return number of flushes.
+     */
+    long getFlushCount(BatchFlushCause cause) {
+        return flushCounts.get(cause).get();
+    }
+
+    /**
+     * Record that a flushed batch could not be written.
+     * <p>
+     * Only the first failure is kept until it is {@link #takeFailure() taken}.
+     *
+     * @param throwable cause of the failure.
+     */
+    void setFailure(Throwable throwable) {
+        failure.compareAndSet(null, throwable);
+    }
+
+    /**
+     * Get the failure of a batch written since the last call of this method and clear it.
+     *
+     * @return cause of the write failure or {@code null} if all the batches have been written.
+     */
+    Throwable takeFailure() {
+        return failure.getAndSet(null);
+    }
+}
@@ -159,7 +159,9 @@ class InputStreamBuffer {
         try {
             currentlyBuffered += message.remaining();
             if (currentlyBuffered <= bufferSize) {
-                bufferedFragments.add(message);
+                // views created by zero-copy decoding are valid only during the frame processing.
+                bufferedFragments.add(
+                        message.isReadOnly() ? ByteBuffer.wrap(Utils.getRemainingArray(message)) : message);
             } else {
                 final MessageTooBigException messageTooBigException =
                         new MessageTooBigException(LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW());
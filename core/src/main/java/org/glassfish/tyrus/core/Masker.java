@@ -41,8 +41,18 @@
 package org.glassfish.tyrus.core;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
+/**
+ * Masking and unmasking of frame payloads (RFC 6455, section 5.3).
+ * <p>
+ * Payloads are XORed with the mask eight bytes at a time; only the unaligned head and the tail shorter than eight
+ * bytes are processed byte by byte.
+ */
 class Masker {
+
+    private static final ByteOrder NATIVE_ORDER = ByteOrder.nativeOrder();
+
     private volatile ByteBuffer buffer;
     private volatile byte[] mask;
     private volatile int index = 0;
@@ -72,20 +82,51 @@ class Masker {
     public byte[] unmask(int count) {
         byte[] bytes = get(count);
         if (mask != null) {
-            for (int i = 0; i < bytes.length; i++) {
-                bytes[i] ^= mask[index++ % ProtocolHandler.MASK_SIZE];
-            }
+            final int localIndex = index;
+            mask(mask, localIndex, bytes, 0, bytes, 0, count);
+            index = localIndex + count;
         }
 
         return bytes;
     }
 
+    /**
+     * Unmask next {@code count} bytes directly in the underlying buffer.
+     * <p>
+     * The underlying buffer is modified and its position is moved after the unmasked bytes.
+     *
+     * @param count number of bytes to be unmasked.
+     * @return view over the unmasked bytes.
+     */
+    ByteBuffer unmaskInPlace(int count) {
+        final int position = buffer.position();
+        if (mask != null) {
+            final int localIndex = index;
+            if (buffer.hasArray()) {
+                final byte[] array = buffer.array();
+                final int offset = buffer.arrayOffset() + position;
+                mask(mask, localIndex, array, offset, array, offset, count);
+            } else {
+                mask(mask, localIndex, buffer, position, count);
+            }
+            index = localIndex + count;
+        }
+
+        final ByteBuffer view = buffer.slice();
+        view.limit(count);
+        buffer.position(position + count);
+
+        return view;
+    }
+
     public void mask(byte[] target, int location, byte[] bytes, int length) {
         if (bytes != null && target != null) {
-            for (int i = 0; i < length; i++) {
-                target[location + i] = mask == null
-                        ? bytes[i]
-                        : (byte) (bytes[i] ^ mask[index++ % ProtocolHandler.MASK_SIZE]);
+            if (mask == null) {
+                System.arraycopy(bytes, 0, target, location, length);
+            } else {
+                final int localIndex = index;
+                mask(mask, localIndex, bytes, 0, target, location, length);
+                index = localIndex + length;
             }
         }
     }
@@ -101,4 +142,92 @@ class Masker {
     public void readMask() {
         mask = get(ProtocolHandler.MASK_SIZE);
     }
+
+    /**
+     * XOR {@code length} bytes from {@code source} with the mask and store them to {@code target}.
+     * <p>
+     * {@code source} and {@code target} can be the same array (in place masking).
+     *
+     * @param mask         masking key.
+     * @param maskIndex    index of the masking key byte which will be applied to the first byte.
+     * @param source       source array.
+     * @param sourceOffset index of the first byte in {@code source}.
+     * @param target       target array.
+     * @param targetOffset index of the first byte in {@code target}.
+     * @param length       number of bytes to be processed.
+     */
+    static void mask(byte[] mask, int maskIndex, byte[] source, int sourceOffset, byte[] target, int targetOffset,
+                     int length) {
+        int i = 0;
+
+        if (length >= 16) {
+            final ByteBuffer sourceBuffer = ByteBuffer.wrap(source).order(NATIVE_ORDER);
+            final ByteBuffer targetBuffer = source == target ? sourceBuffer : ByteBuffer.wrap(target).order(NATIVE_ORDER);
+
+            // head - process bytes until the target offset is aligned to 8 bytes.
+            final int head = (8 - (targetOffset & 7)) & 7;
+            for (; i < head; i++) {
+                target[targetOffset + i] = (byte) (source[sourceOffset + i] ^ mask[(maskIndex + i) & 3]);
+            }
+
+            final long longMask = longMask(mask, maskIndex + i);
+            for (final int end = length - 8; i <= end; i += 8) {
+                targetBuffer.putLong(targetOffset + i, sourceBuffer.getLong(sourceOffset + i) ^ longMask);
+            }
+        }
+
+        // tail
+        for (; i < length; i++) {
+            target[targetOffset + i] = (byte) (source[sourceOffset + i] ^ mask[(maskIndex + i) & 3]);
+        }
+    }
+
+    /**
+     * XOR {@code length} bytes of the buffer starting at {@code offset} with the mask in place.
+     * <p>
+     * Position, limit and byte order of the buffer are not changed.
+     *
+     * @param mask      masking key.
+     * @param maskIndex index of the masking key byte which will be applied to the first byte.
+     * @param buffer    buffer to be masked.
+     * @param offset    index of the first byte in {@code buffer}.
+     * @param length    number of bytes to be processed.
+     */
+    static void mask(byte[] mask, int maskIndex, ByteBuffer buffer, int offset, int length) {
+        int i = 0;
+
+        if (length >= 16) {
+            final ByteBuffer longBuffer = buffer.duplicate().order(NATIVE_ORDER);
+
+            final int head = (8 - (offset & 7)) & 7;
+            for (; i < head; i++) {
+                buffer.put(offset + i, (byte) (buffer.get(offset + i) ^ mask[(maskIndex + i) & 3]));
+            }
+
+            final long longMask = longMask(mask, maskIndex + i);
+            for (final int end = length - 8; i <= end; i += 8) {
+                longBuffer.putLong(offset + i, longBuffer.getLong(offset + i) ^ longMask);
+            }
+        }
+
+        for (; i < length; i++) {
+            buffer.put(offset + i, (byte) (buffer.get(offset + i) ^ mask[(maskIndex + i) & 3]));
+        }
+    }
+
+    /**
+     * Create 64-bit mask which, read or written in native byte order, applies {@code mask[maskIndex % 4]} to the
+     * first byte.
+     *
+     * @param mask      masking key.
+     * @param maskIndex index of the masking key byte which will be applied to the first byte.
+     * @return 64-bit mask.
+     */
+    private static long longMask(byte[] mask, int maskIndex) {
+        final ByteBuffer longMask = ByteBuffer.allocate(8).order(NATIVE_ORDER);
+        for (int i = 0; i < 8; i++) {
+            longMask.put(mask[(maskIndex + i) & 3]);
+        }
+        return longMask.getLong(0);
+    }
 }
@@ -91,6 +91,7 @@ public class MessageHandlerManager {
     private final List<Class<? extends Decoder>> decoders;
 
     private Set<MessageHandler> messageHandlerCache;
+    private List<Map.Entry<Class<?>, MessageHandler>> orderedWholeMessageHandlerCache;
 
     /**
      * Construct manager with no decoders.
@@ -265,6 +266,7 @@ public class MessageHandlerManager {
         }
 
         messageHandlerCache = null;
+        orderedWholeMessageHandlerCache = null;
     }
 
     private void throwException(String text) throws IllegalStateException {
@@ -286,6 +288,7 @@ public class MessageHandlerManager {
                 handlerClass = next.getKey();
                 iterator.remove();
                 messageHandlerCache = null;
+                orderedWholeMessageHandlerCache = null;
                 break;
             }
         }
@@ -338,15 +341,26 @@ public class MessageHandlerManager {
         return messageHandlerCache;
     }
 
+    /**
+     * Get registered {@link MessageHandler.Whole} handlers ordered by their type, most specific first.
+     * <p>
+     * The list is computed once and reused until a handler is added or removed.
+     *
+     * @return unmodifiable ordered {@link List} of registered whole message handlers and their types.
+     */
     public List<Map.Entry<Class<?>, MessageHandler>> getOrderedWholeMessageHandlers() {
-        List<Map.Entry<Class<?>, MessageHandler>> result = new ArrayList<Map.Entry<Class<?>, MessageHandler>>();
-        for (final Map.Entry<Class<?>, MessageHandler> entry : registeredHandlers.entrySet()) {
-            if (entry.getValue() instanceof MessageHandler.Whole) {
-                result.add(entry);
+        if (orderedWholeMessageHandlerCache == null) {
+            List<Map.Entry<Class<?>, MessageHandler>> result = new ArrayList<Map.Entry<Class<?>, MessageHandler>>();
+            for (final Map.Entry<Class<?>, MessageHandler> entry : registeredHandlers.entrySet()) {
+                if (entry.getValue() instanceof MessageHandler.Whole) {
+                    result.add(entry);
+                }
             }
+            Collections.sort(result, new MessageHandlerComparator());
+            orderedWholeMessageHandlerCache = Collections.unmodifiableList(result);
         }
-        Collections.sort(result, new MessageHandlerComparator());
-        return result;
+
+        return orderedWholeMessageHandlerCache;
     }
 
     static Class<?> getHandlerType(MessageHandler handler) {
@@ -0,0 +1,185 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serial executor which runs submitted tasks one at a time and in the submission order on top of a shared
+ * {@link Executor}.
+ * <p>
+ * One instance is created for each connection when ordered dispatch is enabled (see {@link
+ * TyrusWebSocketEngine#ORDERED_DISPATCH}), so the message handlers of a session are invoked sequentially and, unless
+ * the shared executor rejects them, not on the transport thread. Number of tasks waiting for execution is limited; {@link #execute(Runnable)} blocks the
+ * submitting (reading) thread when the limit is reached, which pushes back on the remote endpoint.
+ * <p>
+ * Tasks are run in batches, after {@value #MAX_BATCH} tasks the executor yields the thread of the shared executor to
+ * other connections.
+ */
+class OrderedExecutor implements Executor {
+
+    private static final Logger LOGGER = Logger.getLogger(OrderedExecutor.class.getName());
+    private static final int MAX_BATCH = 16;
+
+    private final Executor executor;
+    private final Semaphore permits;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+    private final AtomicInteger pending = new AtomicInteger(0);
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            drain(true);
+        }
+    };
+
+    private volatile Thread runner = null;
+
+    /**
+     * Constructor.
+     *
+     * @param executor   shared executor the tasks are run on.
+     * @param queueDepth maximal number of tasks waiting for execution, must be positive.
+     */
+    OrderedExecutor(Executor executor, int queueDepth) {
+        if (queueDepth <= 0) {
+            throw new IllegalArgumentException("queueDepth");
+        }
+
+        this.executor = executor;
+        this.permits = new Semaphore(queueDepth);
+    }
+
+    /**
+     * Submit a task, block while the queue is full.
+     * <p>
+     * Submitting thread is not blocked when it is the thread currently running tasks of this executor, a task
+     * cannot wait for itself.
+     *
+     * @param task task to be run.
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (Thread.currentThread() == runner) {
+            submit(task, false);
+        } else {
+            permits.acquireUninterruptibly();
+            submit(task, true);
+        }
+    }
+
+    /**
+     * Submit a task regardless of the queue depth limit.
+     * <p>
+     * Used for tasks which must not be delayed by the remote endpoint, like connection close notification.
+     *
+     * @param task task to be run.
+     */
+    void executeUnbounded(Runnable task) {
+        submit(task, false);
+    }
+
+    /**
+     * Get the number of tasks submitted and not completed yet.
+     *
+     * @return number of pending tasks.
+     */
+    int getPendingCount() {
+        return pending.get();
+    }
+
+    private void submit(final Runnable task, final boolean permit) {
+        tasks.offer(permit ? new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            }
+        } : task);
+
+        if (pending.getAndIncrement() == 0) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        try {
+            executor.execute(drain);
+        } catch (RejectedExecutionException e) {
+            // shared executor is saturated or was shut down, the tasks still have to be run to release blocked
+            // readers. All the pending tasks are run here, yielding could recursively end up here again.
+            LOGGER.log(Level.FINE, "Executor rejected ordered dispatch, running tasks on the calling thread.", e);
+            drain(false);
+        }
+    }
+
+    private void drain(boolean yield) {
+        final Thread current = Thread.currentThread();
+        for (int i = 0; !yield || i < MAX_BATCH; i++) {
+            final Runnable task = tasks.poll();
+            runner = current;
+            try {
+                task.run();
+            } catch (Throwable t) {
+                LOGGER.log(Level.WARNING, t.getMessage(), t);
+            } finally {
+                // cleared before the task is counted as done, next drain might already run on another thread then.
+                runner = null;
+            }
+
+            if (pending.decrementAndGet() == 0) {
+                return;
+            }
+        }
+
+        // more tasks are pending, let other connections use the thread.
+        schedule();
+    }
+}
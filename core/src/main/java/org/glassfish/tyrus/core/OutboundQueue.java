@@ -0,0 +1,579 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Writer;
+
+/**
+ * {@link Writer} which limits the amount of outgoing data handed over to the transport and not yet written.
+ * <p>
+ * Every write passed to this writer counts as one frame, even when it contains a batch of frames. Writes exceeding
+ * the limits are handled according to the {@link OutboundQueuePolicy}. The limits are applied only when a message
+ * starts - control frames and continuation frames of a message whose first frame has been accepted are never rejected
+ * nor discarded, because that would break the framing, but they are counted as any other frame. The same applies to
+ * batches of frames written by {@link #writeBatch(ByteBuffer, CompletionHandler)}.
+ */
+class OutboundQueue extends Writer {
+
+    private static final Logger LOGGER = Logger.getLogger(OutboundQueue.class.getName());
+
+    private final Writer writer;
+    private final long maxBytes;
+    private final int maxFrames;
+    private final OutboundQueuePolicy policy;
+    private final Runnable closeAction;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<Entry<?>> waiting = new ArrayDeque<Entry<?>>();
+    private final List<Runnable> writableListeners = new ArrayList<Runnable>();
+
+    // all the following fields are guarded by lock.
+    private long inFlightBytes = 0;
+    private int inFlightFrames = 0;
+    private long waitingBytes = 0;
+    private long droppedFrames = 0;
+    private long rejectedFrames = 0;
+    private boolean draining = false;
+    private boolean closing = false;
+    // whether the last accepted data frame was not final.
+    private boolean fragmenting = false;
+
+    /**
+     * Create new outbound queue.
+     *
+     * @param writer      transport writer.
+     * @param maxBytes    maximal number of bytes handed over to the transport and not yet written. Non-positive value
+     *                    means no limit.
+     * @param maxFrames   maximal number of frames handed over to the transport and not yet written. Non-positive value
+     *                    means no limit.
+     * @param policy      policy applied when the limits are exceeded.
+     * @param closeAction action closing the connection, used by {@link OutboundQueuePolicy#CLOSE}.
+     */
+    OutboundQueue(Writer writer, long maxBytes, int maxFrames, OutboundQueuePolicy policy, Runnable closeAction) {
+        this.writer = writer;
+        this.maxBytes = maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+        this.maxFrames = maxFrames > 0 ? maxFrames : Integer.MAX_VALUE;
+        this.policy = policy == null ? OutboundQueuePolicy.FAIL : policy;
+        this.closeAction = closeAction;
+    }
+
+    @Override
+    public void write(final ByteBuffer buffer, final CompletionHandler<ByteBuffer> completionHandler) {
+        submit(new Entry<ByteBuffer>(completionHandler, buffer, buffer.remaining(), false) {
+            @Override
+            void write() {
+                writer.write(buffer, this);
+            }
+        });
+    }
+
+    @Override
+    public void write(final ByteBuffer[] buffers, final CompletionHandler<ByteBuffer[]> completionHandler) {
+        long length = 0;
+        for (ByteBuffer buffer : buffers) {
+            length += buffer.remaining();
+        }
+
+        submit(new Entry<ByteBuffer[]>(completionHandler, buffers.length > 0 ? buffers[0] : null, length, false) {
+            @Override
+            void write() {
+                writer.write(buffers, this);
+            }
+        });
+    }
+
+    /**
+     * Write a batch of frames without applying the limits.
+     * <p>
+     * Sending of a batched frame is reported as completed as soon as the frame is added to the batch, so the batch
+     * must not be rejected or discarded once it is written. It is counted and ordered as any other write.
+     *
+     * @param buffer            batch of whole frames.
+     * @param completionHandler completion handler.
+     */
+    void writeBatch(final ByteBuffer buffer, final CompletionHandler<ByteBuffer> completionHandler) {
+        submit(new Entry<ByteBuffer>(completionHandler, buffer, buffer.remaining(), true) {
+            @Override
+            void write() {
+                writer.write(buffer, this);
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        final List<Entry<?>> discarded;
+        synchronized (lock) {
+            discarded = new ArrayList<Entry<?>>(waiting);
+            waiting.clear();
+            waitingBytes = 0;
+        }
+
+        for (Entry<?> entry : discarded) {
+            entry.fail(new IOException("Connection closed before the message was sent."));
+        }
+
+        writer.close();
+    }
+
+    /**
+     * Get the state of the queue.
+     *
+     * @return {@code true} when a message can be sent without exceeding the limits, {@code false} otherwise.
+     */
+    boolean isWritable() {
+        synchronized (lock) {
+            return isWritableInternal();
+        }
+    }
+
+    /**
+     * Register a one-shot listener, which is invoked when the queue becomes writable.
+     * <p>
+     * The listener is invoked immediately when the queue is writable, otherwise it is invoked by the thread which
+     * completes the write which makes the queue writable.
+     *
+     * @param listener listener to be invoked.
+     */
+    void onWritable(Runnable listener) {
+        synchronized (lock) {
+            if (!isWritableInternal()) {
+                writableListeners.add(listener);
+                return;
+            }
+        }
+
+        invoke(listener);
+    }
+
+    /**
+     * Get the number of bytes handed over to the transport and not yet written, including waiting messages.
+     *
+     * @return number of queued bytes.
+     */
+    long getQueuedBytes() {
+        synchronized (lock) {
+            return inFlightBytes + waitingBytes;
+        }
+    }
+
+    /**
+     * Get the number of frames handed over to the transport and not yet written, including waiting messages.
+     *
+     * @return number of queued frames.
+     */
+    int getQueuedFrames() {
+        synchronized (lock) {
+            return inFlightFrames + waiting.size();
+        }
+    }
+
+    /**
+     * Get the number of waiting messages discarded by {@link OutboundQueuePolicy#DROP_OLDEST}.
+     *
+     * @return number of discarded messages.
+     */
+    long getDroppedFrames() {
+        synchronized (lock) {
+            return droppedFrames;
+        }
+    }
+
+    /**
+     * Get the number of messages rejected because of exceeded limits.
+     *
+     * @return number of rejected messages.
+     */
+    long getRejectedFrames() {
+        synchronized (lock) {
+            return rejectedFrames;
+        }
+    }
+
+    private void submit(Entry<?> entry) {
+        final List<Entry<?>> discarded = new ArrayList<Entry<?>>(0);
+        boolean write = false;
+        boolean enqueued = false;
+        boolean close = false;
+
+        synchronized (lock) {
+            final boolean accepted = entry.batch || entry.control || (entry.continuation && fragmenting);
+            if (entry.continuation && !fragmenting && !entry.batch) {
+                // the first frame of the message was rejected, sending the rest would break the framing.
+                rejectedFrames++;
+                discarded.add(entry);
+            } else if (waiting.isEmpty() && !draining && (accepted || fits(entry.length))) {
+                inFlightBytes += entry.length;
+                inFlightFrames++;
+                write = true;
+            } else if (accepted) {
+                // only DROP_OLDEST policy keeps waiting messages, accepted frames have to keep their order.
+                waiting.add(entry);
+                waitingBytes += entry.length;
+                enqueued = true;
+            } else if (policy == OutboundQueuePolicy.DROP_OLDEST) {
+                final Iterator<Entry<?>> iterator = waiting.iterator();
+                while (iterator.hasNext() && !hasWaitingRoom(entry.length)) {
+                    final Entry<?> oldest = iterator.next();
+                    if (oldest.droppable) {
+                        iterator.remove();
+                        waitingBytes -= oldest.length;
+                        droppedFrames++;
+                        discarded.add(oldest);
+                    }
+                }
+
+                if (hasWaitingRoom(entry.length)) {
+                    waiting.add(entry);
+                    waitingBytes += entry.length;
+                    enqueued = true;
+                } else {
+                    rejectedFrames++;
+                    discarded.add(entry);
+                }
+            } else {
+                rejectedFrames++;
+                discarded.add(entry);
+                if (policy == OutboundQueuePolicy.CLOSE && !closing) {
+                    closing = true;
+                    close = true;
+                }
+            }
+
+            if (write || enqueued) {
+                fragmenting = isFragmenting(entry.header, fragmenting);
+            }
+        }
+
+        for (Entry<?> discardedEntry : discarded) {
+            discardedEntry.fail(new OutboundQueueFullException(
+                    "Outbound queue limits exceeded (" + maxBytes + " bytes, " + maxFrames + " frames)."));
+        }
+
+        if (write) {
+            entry.write();
+        } else if (enqueued) {
+            drain();
+        }
+
+        if (close && closeAction != null) {
+            closeAction.run();
+        }
+    }
+
+    /**
+     * Write waiting messages in the order in which they were submitted until the limits are reached.
+     */
+    private void drain() {
+        synchronized (lock) {
+            if (draining) {
+                // the thread which is currently draining will see the change.
+                return;
+            }
+            draining = true;
+        }
+
+        while (true) {
+            final Entry<?> entry;
+            synchronized (lock) {
+                entry = waiting.peek();
+                if (entry == null || !fits(entry.length)) {
+                    draining = false;
+                    break;
+                }
+
+                waiting.poll();
+                waitingBytes -= entry.length;
+                inFlightBytes += entry.length;
+                inFlightFrames++;
+            }
+
+            try {
+                entry.write();
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    draining = false;
+                }
+                throw e;
+            }
+        }
+
+        notifyWritable();
+    }
+
+    private void written(Entry<?> entry) {
+        synchronized (lock) {
+            inFlightBytes -= entry.length;
+            inFlightFrames--;
+        }
+    }
+
+    private void notifyWritable() {
+        final List<Runnable> listeners;
+        synchronized (lock) {
+            if (writableListeners.isEmpty() || !isWritableInternal()) {
+                return;
+            }
+
+            listeners = new ArrayList<Runnable>(writableListeners);
+            writableListeners.clear();
+        }
+
+        for (Runnable listener : listeners) {
+            invoke(listener);
+        }
+    }
+
+    private static void invoke(Runnable listener) {
+        try {
+            listener.run();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Outbound queue listener failed.", e);
+        }
+    }
+
+    /**
+     * Has to be called with the lock held.
+     */
+    private boolean fits(long length) {
+        return inFlightFrames == 0 || (inFlightFrames < maxFrames && inFlightBytes + length <= maxBytes);
+    }
+
+    /**
+     * Has to be called with the lock held.
+     */
+    private boolean hasWaitingRoom(long length) {
+        return waiting.isEmpty() || (waiting.size() < maxFrames && waitingBytes + length <= maxBytes);
+    }
+
+    /**
+     * Has to be called with the lock held.
+     */
+    private boolean isWritableInternal() {
+        return waiting.isEmpty() && inFlightFrames < maxFrames && inFlightBytes < maxBytes;
+    }
+
+    /**
+     * Determine whether the given buffer starts with a control frame.
+     *
+     * @param header first buffer of the write.
+     * @return {@code true} if the first frame of the write is a control frame.
+     */
+    static boolean isControlFrame(ByteBuffer header) {
+        return header != null && header.hasRemaining() && (header.get(header.position()) & 0x08) != 0;
+    }
+
+    /**
+     * Determine whether the write contains exactly one whole text or binary message.
+     *
+     * @param header first buffer of the write, which has to contain the whole frame header.
+     * @param length length of the write in bytes.
+     * @return {@code true} if the write contains a single final text or binary frame and nothing else.
+     */
+    static boolean isWholeMessage(ByteBuffer header, long length) {
+        if (header == null || !header.hasRemaining()) {
+            return false;
+        }
+
+        final int position = header.position();
+        final byte first = header.get(position);
+        final int opcode = first & 0x0f;
+        if ((first & 0x80) == 0 || (opcode != 0x01 && opcode != 0x02)) {
+            return false;
+        }
+
+        return frameLength(header, position) == length;
+    }
+
+    /**
+     * Determine whether the write starts with a continuation frame.
+     *
+     * @param header first buffer of the write.
+     * @return {@code true} if the first frame of the write is a continuation frame.
+     */
+    static boolean isContinuationFrame(ByteBuffer header) {
+        return header != null && header.hasRemaining() && (header.get(header.position()) & 0x0f) == 0x00;
+    }
+
+    /**
+     * Determine whether a fragmented message is being sent after the frames from the buffer are written.
+     * <p>
+     * All the frames with the header fully contained in the buffer are inspected, so the buffer can contain either a
+     * frame header only or several whole frames (batch).
+     *
+     * @param buffer      first buffer of the write.
+     * @param fragmenting whether a fragmented message is being sent before the write.
+     * @return {@code true} if the last data frame of the write is not final.
+     */
+    static boolean isFragmenting(ByteBuffer buffer, boolean fragmenting) {
+        if (buffer == null) {
+            return fragmenting;
+        }
+
+        long position = buffer.position();
+        while (position < buffer.limit()) {
+            final long frameLength = frameLength(buffer, (int) position);
+            if (frameLength < 0) {
+                break;
+            }
+
+            final byte first = buffer.get((int) position);
+            if ((first & 0x08) == 0) {
+                // data frame
+                fragmenting = (first & 0x80) == 0;
+            }
+            position += frameLength;
+        }
+
+        return fragmenting;
+    }
+
+    /**
+     * Get the length of the frame (header and payload) starting at the given position.
+     *
+     * @param buffer   buffer containing the frame header.
+     * @param position position of the frame in the buffer.
+     * @return length of the frame in bytes or {@code -1} if the buffer does not contain the whole frame header.
+     */
+    private static long frameLength(ByteBuffer buffer, int position) {
+        final int available = buffer.limit() - position;
+        if (available < 2) {
+            return -1;
+        }
+
+        final byte second = buffer.get(position + 1);
+        long payloadLength = second & 0x7f;
+        int headerLength = 2;
+        if (payloadLength == 126 || payloadLength == 127) {
+            final int lengthBytes = payloadLength == 126 ? 2 : 8;
+            if (available < 2 + lengthBytes) {
+                return -1;
+            }
+
+            payloadLength = 0;
+            for (int i = 0; i < lengthBytes; i++) {
+                payloadLength = (payloadLength << 8) | (buffer.get(position + 2 + i) & 0xff);
+            }
+            headerLength += lengthBytes;
+        }
+
+        if ((second & 0x80) != 0) {
+            // masking key
+            headerLength += 4;
+        }
+
+        return headerLength + payloadLength;
+    }
+
+    /**
+     * Write submitted to the queue. Instance is passed to the transport as completion handler.
+     */
+    private abstract class Entry<T> extends CompletionHandler<T> {
+
+        private final CompletionHandler<T> completionHandler;
+        private final ByteBuffer header;
+        private final long length;
+        private final boolean control;
+        private final boolean continuation;
+        private final boolean batch;
+        private final boolean droppable;
+
+        Entry(CompletionHandler<T> completionHandler, ByteBuffer header, long length, boolean batch) {
+            this.completionHandler = completionHandler;
+            this.header = header;
+            this.length = length;
+            this.control = isControlFrame(header);
+            this.continuation = isContinuationFrame(header);
+            this.batch = batch;
+            this.droppable = !control && !batch && isWholeMessage(header, length);
+        }
+
+        abstract void write();
+
+        void fail(Throwable throwable) {
+            if (completionHandler != null) {
+                completionHandler.failed(throwable);
+            }
+        }
+
+        @Override
+        public void cancelled() {
+            written(this);
+            if (completionHandler != null) {
+                completionHandler.cancelled();
+            }
+            drain();
+        }
+
+        @Override
+        public void failed(Throwable throwable) {
+            written(this);
+            fail(throwable);
+            drain();
+        }
+
+        @Override
+        public void completed(T result) {
+            written(this);
+            if (completionHandler != null) {
+                completionHandler.completed(result);
+            }
+            drain();
+        }
+
+        @Override
+        public void updated(T result) {
+            if (completionHandler != null) {
+                completionHandler.updated(result);
+            }
+        }
+    }
+}
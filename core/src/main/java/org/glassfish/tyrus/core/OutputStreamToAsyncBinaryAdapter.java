@@ -41,19 +41,26 @@ package org.glassfish.tyrus.core;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.Arrays;
 
 /**
  * Simple Writer that writes its data to an async sink.
+ * <p>
+ * Written data are collected into fragments of configured size, which are sent without waiting for the previous
+ * fragments to be written (up to the configured number of fragments). {@link #flush()} sends the collected data and
+ * waits until all the fragments are written.
  *
  * @author Danny Coward (danny.coward at oracle.com)
  */
 class OutputStreamToAsyncBinaryAdapter extends OutputStream {
-    private final TyrusWebSocket socket;
+    private final BinaryStreamSender sender;
 
-    public OutputStreamToAsyncBinaryAdapter(TyrusWebSocket socket) {
-        this.socket = socket;
+    private byte[] fragment = null;
+    private int count = 0;
+    private boolean closed = false;
+
+    public OutputStreamToAsyncBinaryAdapter(TyrusWebSocket socket, int fragmentSize, int maxFramesInFlight) {
+        this.sender = new BinaryStreamSender(socket, fragmentSize, maxFramesInFlight);
     }
 
     @Override
@@ -66,34 +73,69 @@ class OutputStreamToAsyncBinaryAdapter extends OutputStream {
             return;
         }
 
-        final Future<?> future = socket.sendBinary(b, off, len, false);
-        try {
-            future.get();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } catch (ExecutionException e) {
-            if (e.getCause() instanceof IOException) {
-                throw (IOException) e.getCause();
-            } else {
-                throw new IOException(e.getCause());
+        checkClosed();
+
+        while (len > 0) {
+            if (fragment == null) {
+                fragment = new byte[sender.getFragmentSize()];
+            } else if (count == fragment.length) {
+                // full fragment is sent only when there are more data, so that close can send it as the last one.
+                sendFragment(false);
+                fragment = new byte[sender.getFragmentSize()];
             }
+
+            final int length = Math.min(len, fragment.length - count);
+            System.arraycopy(b, off, fragment, count, length);
+            count += length;
+            off += length;
+            len -= length;
         }
     }
 
     @Override
     public void write(int i) throws IOException {
-        byte[] byteArray = new byte[]{(byte) i};
-
-        write(byteArray, 0, byteArray.length);
+        write(new byte[]{(byte) i}, 0, 1);
     }
 
     @Override
     public void flush() throws IOException {
-        // do nothing.
+        checkClosed();
+
+        if (count > 0) {
+            sendFragment(false);
+        }
+        sender.awaitCompletion();
     }
 
     @Override
     public void close() throws IOException {
-        socket.sendBinary(new byte[]{}, true);
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        sendFragment(true);
+        sender.awaitCompletion();
+    }
+
+    private void sendFragment(boolean last) throws IOException {
+        final byte[] payload;
+        if (fragment == null) {
+            payload = new byte[0];
+        } else if (count < fragment.length) {
+            payload = Arrays.copyOf(fragment, count);
+        } else {
+            payload = fragment;
+        }
+
+        fragment = null;
+        count = 0;
+        sender.sendFragment(payload, last);
+    }
+
+    private void checkClosed() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed.");
+        }
     }
 }
@@ -43,9 +43,12 @@ package org.glassfish.tyrus.core;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
@@ -61,6 +64,7 @@ import javax.websocket.SendResult;
 import javax.websocket.server.HandshakeRequest;
 
 import org.glassfish.tyrus.core.extension.ExtendedExtension;
+import org.glassfish.tyrus.core.extension.SharedOutgoingExtension;
 import org.glassfish.tyrus.core.frame.BinaryFrame;
 import org.glassfish.tyrus.core.frame.CloseFrame;
 import org.glassfish.tyrus.core.frame.Frame;
@@ -88,6 +92,16 @@ public final class ProtocolHandler {
     private static final Logger LOGGER = Logger.getLogger(ProtocolHandler.class.getName());
     private static final int SEND_TIMEOUT = 3000; // millis.
 
+    /**
+     * Default maximal size of the batch of outgoing frames in bytes.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 8192;
+
+    /**
+     * Default maximal delay of the first frame in the batch of outgoing frames in milliseconds.
+     */
+    public static final long DEFAULT_MAX_BATCH_DELAY = 10;
+
     private final boolean client;
     private final MaskingKeyGenerator maskingKeyGenerator;
     private final ParsingState parsingState = new ParsingState();
@@ -100,10 +114,26 @@ public final class ProtocolHandler {
     private volatile String subProtocol = null;
     private volatile List<Extension> extensions;
     private volatile ExtendedExtension.ExtensionContext extensionContext;
-    private volatile ByteBuffer remainder = null;
+    private final Utf8Decoder utf8Decoder = new Utf8Decoder();
     private volatile boolean hasExtensions = false;
     private volatile MessageEventListener messageEventListener = MessageEventListener.NO_OP;
     private volatile SendingFragmentState sendingFragment = SendingFragmentState.IDLE;
+    private volatile boolean zeroCopyDecoding = false;
+    private volatile int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private volatile long maxBatchDelay = DEFAULT_MAX_BATCH_DELAY;
+    private volatile int orderedDispatchQueueDepth = 0;
+    private volatile int maxOutboundQueueSize = 0;
+    private volatile int maxOutboundQueueFrames = 0;
+    private volatile OutboundQueuePolicy outboundQueuePolicy = OutboundQueuePolicy.FAIL;
+    private volatile OutboundQueue outboundQueue = null;
+    private volatile boolean batchingAllowed = false;
+    private volatile ScheduledExecutorService batchFlushService = null;
+
+    /**
+     * Batch of outgoing frames, created when batching is allowed for the first time. Once created, all writes are
+     * synchronized on this instance to keep the frame order.
+     */
+    private volatile FrameBatch batch = null;
 
     /**
      * Synchronizes all public send* (including stream variants) methods.
@@ -180,7 +210,20 @@ public final class ProtocolHandler {
      * @param writer {@link Writer} to be set.
      */
     public void setWriter(Writer writer) {
-        this.writer = writer;
+        if (maxOutboundQueueSize > 0 || maxOutboundQueueFrames > 0) {
+            final OutboundQueue queue = new OutboundQueue(writer, maxOutboundQueueSize, maxOutboundQueueFrames,
+                                                          outboundQueuePolicy, new Runnable() {
+                @Override
+                public void run() {
+                    close(CloseReason.CloseCodes.TRY_AGAIN_LATER.getCode(), "Outbound queue limits exceeded.");
+                }
+            });
+            this.outboundQueue = queue;
+            this.writer = queue;
+        } else {
+            this.outboundQueue = null;
+            this.writer = writer;
+        }
     }
 
     /**
@@ -217,6 +260,49 @@ public final class ProtocolHandler {
         return extensions;
     }
 
+    /**
+     * Get the key identifying outgoing processing of negotiated extensions.
+     * <p>
+     * Outgoing frames processed by connections with equal keys are identical, so the processing can be done once and
+     * its result shared by all of them.
+     *
+     * @return key of the negotiated extensions configuration or {@code null} when some of the negotiated extensions
+     * processes outgoing frames depending on a per-connection state.
+     * @see SharedOutgoingExtension
+     */
+    /* package */ Object getSharedOutgoingKey() {
+        final List<Extension> extensions = this.extensions;
+        if (extensions == null) {
+            return Collections.emptyList();
+        }
+
+        final List<Object> key = new ArrayList<Object>(extensions.size());
+        for (Extension extension : extensions) {
+            if (extension instanceof SharedOutgoingExtension) {
+                final Object extensionKey;
+                try {
+                    extensionKey = ((SharedOutgoingExtension) extension).getSharedOutgoingKey(extensionContext);
+                } catch (Throwable t) {
+                    LOGGER.log(Level.FINE, LocalizationMessages.EXTENSION_EXCEPTION(extension.getName(), t
+                            .getMessage()), t);
+                    return null;
+                }
+
+                if (extensionKey == null) {
+                    return null;
+                }
+                key.add(extensionKey);
+            } else if (extension instanceof ExtendedExtension) {
+                return null;
+            } else {
+                // extension without any outgoing processing.
+                key.add(extension.getName());
+            }
+        }
+
+        return key;
+    }
+
     /**
      * Client side. Set extensions negotiated for this WebSocket session/connection.
      *
@@ -258,6 +344,165 @@ public final class ProtocolHandler {
         this.messageEventListener = messageEventListener;
     }
 
+    /**
+     * Set zero-copy decoding mode.
+     * <p>
+     * When enabled, {@link #unframe(ByteBuffer)} unmasks the payload directly in the passed buffer and returns frames
+     * which are only views over it (see {@link Frame#isPayloadView()}). The caller has to own the buffer and must not
+     * reuse its content until the returned frame is processed.
+     *
+     * @param zeroCopyDecoding {@code true} when zero-copy decoding should be used, {@code false} otherwise.
+     */
+    public void setZeroCopyDecoding(boolean zeroCopyDecoding) {
+        this.zeroCopyDecoding = zeroCopyDecoding;
+    }
+
+    /**
+     * Set batching configuration.
+     * <p>
+     * Configuration is used when batching is allowed for the first time, see {@link #setBatchingAllowed(boolean,
+     * ScheduledExecutorService)}.
+     *
+     * @param maxBatchSize  maximal size of the batch in bytes. Batch is written when its size reaches this value;
+     *                      frames bigger than this value are never batched.
+     * @param maxBatchDelay maximal time in milliseconds a frame can wait in the batch. Non-positive value means that
+     *                      the batch is written only when it is full or explicitly flushed.
+     */
+    public void setBatchingConfiguration(int maxBatchSize, long maxBatchDelay) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize");
+        }
+
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelay = maxBatchDelay;
+    }
+
+    /**
+     * Set ordered dispatch of incoming messages.
+     * <p>
+     * Has to be set before the {@link TyrusWebSocket} is created. When enabled, the message handlers are invoked one
+     * at a time on an executor instead of the thread which passed the data to {@link #unframe(ByteBuffer)} and the
+     * reading thread is blocked when the given number of messages is waiting for their handlers.
+     *
+     * @param queueDepth maximal number of messages waiting for dispatch. Non-positive value disables ordered dispatch.
+     */
+    public void setOrderedDispatchQueueDepth(int queueDepth) {
+        this.orderedDispatchQueueDepth = queueDepth;
+    }
+
+    /**
+     * Get maximal number of messages waiting for ordered dispatch.
+     *
+     * @return maximal number of waiting messages, non-positive value when ordered dispatch is disabled.
+     * @see #setOrderedDispatchQueueDepth(int)
+     */
+    int getOrderedDispatchQueueDepth() {
+        return orderedDispatchQueueDepth;
+    }
+
+    /**
+     * Set limits of outgoing data handed over to the {@link Writer} and not yet written.
+     * <p>
+     * Has to be set before the {@link #setWriter(Writer)} is called. When at least one of the limits is set, the writer
+     * is wrapped into a queue which enforces the limits and the given policy.
+     *
+     * @param maxSize   maximal number of bytes not yet written. Non-positive value means no limit.
+     * @param maxFrames maximal number of frames not yet written. Non-positive value means no limit.
+     * @param policy    policy applied when the limits are exceeded. If {@code null}, {@link OutboundQueuePolicy#FAIL}
+     *                  is used.
+     */
+    public void setOutboundQueueLimits(int maxSize, int maxFrames, OutboundQueuePolicy policy) {
+        this.maxOutboundQueueSize = maxSize;
+        this.maxOutboundQueueFrames = maxFrames;
+        this.outboundQueuePolicy = policy == null ? OutboundQueuePolicy.FAIL : policy;
+    }
+
+    /**
+     * Get the queue enforcing the outbound limits.
+     *
+     * @return outbound queue or {@code null} when no limit is set.
+     * @see #setOutboundQueueLimits(int, int, OutboundQueuePolicy)
+     */
+    OutboundQueue getOutboundQueue() {
+        return outboundQueue;
+    }
+
+    /**
+     * Allow or disallow batching of outgoing frames.
+     * <p>
+     * When batching is allowed, outgoing data frames are copied into a per-connection batch, which is written to the
+     * {@link Writer} when it is full, when the maximal batch delay expires or when {@link #flushBatch()} is called.
+     * Sending of a batched frame is considered completed as soon as the frame is added to the batch. Control frames
+     * are never batched.
+     * <p>
+     * When the batch cannot be written, the frames it contains are lost although their sending has been completed, so
+     * the connection is closed (the session is closed with {@link CloseReason.CloseCodes#CLOSED_ABNORMALLY}) and the
+     * next {@link #flushBatch()} fails with the cause of the failure.
+     * <p>
+     * Disallowing batching does not flush the frames which are already in the batch, {@link #flushBatch()} has to be
+     * called.
+     *
+     * @param batchingAllowed  {@code true} when outgoing frames can be batched.
+     * @param executorService executor service used for writing the batch after the maximal batch delay. If {@code
+     *                        null}, batch is written only when it is full or explicitly flushed.
+     */
+    public synchronized void setBatchingAllowed(boolean batchingAllowed, ScheduledExecutorService executorService) {
+        if (batchingAllowed && batch == null) {
+            batch = new FrameBatch(maxBatchSize, maxBatchDelay);
+        }
+
+        this.batchFlushService = executorService;
+        this.batchingAllowed = batchingAllowed;
+    }
+
+    /**
+     * Get information whether the outgoing frames can be batched.
+     *
+     * @return {@code true} when batching is allowed.
+     */
+    public boolean isBatchingAllowed() {
+        return batchingAllowed;
+    }
+
+    /**
+     * Write all the batched frames to the {@link Writer}.
+     *
+     * @return future completed when the batched frames are written, failed when they cannot be written or when any
+     * batch written since the previous call of this method could not be written.
+     */
+    public Future<Frame> flushBatch() {
+        final FrameBatch localBatch = batch;
+        final TyrusFuture<Frame> future = new TyrusFuture<Frame>();
+
+        if (localBatch == null) {
+            future.setResult(null);
+        } else {
+            synchronized (localBatch) {
+                final Throwable failure = localBatch.takeFailure();
+                if (failure == null) {
+                    flushBatch(localBatch, BatchFlushCause.EXPLICIT,
+                               new CompletionHandlerWrapper<ByteBuffer>(null, future, null));
+                } else {
+                    flushBatch(localBatch, BatchFlushCause.EXPLICIT, null);
+                    future.setFailure(failure);
+                }
+            }
+        }
+
+        return future;
+    }
+
+    /**
+     * Get number of batch flushes caused by given {@link BatchFlushCause}.
+     *
+     * @param cause flush cause.
+     * @return number of batch flushes.
+     */
+    public long getBatchFlushCount(BatchFlushCause cause) {
+        final FrameBatch localBatch = batch;
+        return localBatch == null ? 0 : localBatch.getFlushCount(cause);
+    }
+
     /**
      * Not message frames - ping/pong/...
      */
@@ -358,6 +603,24 @@ public final class ProtocolHandler {
         }
     }
 
+    /**
+     * Raw frame is always whole (not partial).
+     *
+     * @param data              serialized frame.
+     * @param completionHandler completion handler notified about the write result.
+     */
+    /* package */ void sendRawFrame(ByteBuffer data, CompletionHandler<Frame> completionHandler) {
+        lock.lock();
+
+        try {
+            checkSendingFragment();
+
+            send(data, completionHandler, true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Check whether current {@link ProtocolHandler} is sending a partial message.
      * <p>
@@ -389,13 +652,24 @@ public final class ProtocolHandler {
     }
 
     public Future<Frame> stream(boolean last, byte[] bytes, int off, int len) {
+        return stream(last, Arrays.copyOfRange(bytes, off, off + len), null);
+    }
+
+    /**
+     * Send a fragment of a binary message without copying the payload.
+     *
+     * @param last              {@code true} if the fragment is the last one of the message.
+     * @param payload           fragment payload. The array must not be modified after it is passed to this method.
+     * @param completionHandler completion handler notified about the write result, can be {@code null}.
+     * @return send future.
+     */
+    /* package */ Future<Frame> stream(boolean last, byte[] payload, CompletionHandler<Frame> completionHandler) {
         lock.lock();
 
         try {
             switch (sendingFragment) {
                 case SENDING_BINARY:
-                    Future<Frame> frameFuture = send(
-                            new BinaryFrame(Arrays.copyOfRange(bytes, off, off + len), true, last));
+                    Future<Frame> frameFuture = send(new BinaryFrame(payload, true, last), completionHandler, true);
                     if (last) {
                         sendingFragment = SendingFragmentState.IDLE;
                         idleCondition.signalAll();
@@ -405,12 +679,12 @@ public final class ProtocolHandler {
                 case SENDING_TEXT:
                     checkSendingFragment();
                     sendingFragment = (last ? SendingFragmentState.IDLE : SendingFragmentState.SENDING_BINARY);
-                    return send(new BinaryFrame(Arrays.copyOfRange(bytes, off, off + len), false, last));
+                    return send(new BinaryFrame(payload, false, last), completionHandler, true);
 
                 default:
                     // IDLE
                     sendingFragment = (last ? SendingFragmentState.IDLE : SendingFragmentState.SENDING_BINARY);
-                    return send(new BinaryFrame(Arrays.copyOfRange(bytes, off, off + len), false, last));
+                    return send(new BinaryFrame(payload, false, last), completionHandler, true);
             }
 
         } finally {
@@ -480,13 +754,152 @@ public final class ProtocolHandler {
             throw new IllegalStateException(LocalizationMessages.CONNECTION_NULL());
         }
 
-        final ByteBuffer byteBuffer = frame(frame);
-        localWriter.write(byteBuffer, new CompletionHandlerWrapper(completionHandler, future, frame));
+        final FrameBatch localBatch = batch;
+        if (localBatch == null) {
+            final ByteBuffer[] buffers = encode(frame);
+            localWriter.write(buffers, this.<ByteBuffer[]>writeHandler(completionHandler, future, frame));
+        } else {
+            synchronized (localBatch) {
+                writeBatched(localWriter, localBatch, frame, completionHandler, future);
+            }
+        }
         messageEventListener.onFrameSent(frame.getFrameType(), frame.getPayloadLength());
 
         return future;
     }
 
+    /**
+     * Add the frame to the batch or write it directly, when it cannot be batched.
+     * <p>
+     * Has to be called with the batch lock held.
+     */
+    private void writeBatched(final Writer localWriter, final FrameBatch localBatch, final TyrusFrame frame,
+                              final CompletionHandler<Frame> completionHandler, final TyrusFuture<Frame> future) {
+        final ByteBuffer[] buffers = encode(frame);
+
+        int length = 0;
+        for (ByteBuffer buffer : buffers) {
+            length += buffer.remaining();
+        }
+
+        if (!batchingAllowed || frame.isControlFrame() || length >= localBatch.getMaxSize()) {
+            flushBatch(localBatch, BatchFlushCause.NON_BATCHED_FRAME, null);
+            localWriter.write(buffers, this.<ByteBuffer[]>writeHandler(completionHandler, future, frame));
+            return;
+        }
+
+        if (!localBatch.fits(length)) {
+            flushBatch(localBatch, BatchFlushCause.SIZE, null);
+        }
+
+        final boolean scheduleFlush = localBatch.isEmpty();
+        localBatch.add(buffers);
+
+        if (!localBatch.fits(1)) {
+            // the batch is full - sending is completed when the batch is written.
+            flushBatch(localBatch, BatchFlushCause.SIZE,
+                       new CompletionHandlerWrapper<ByteBuffer>(completionHandler, future, frame));
+            return;
+        }
+
+        if (scheduleFlush) {
+            scheduleBatchFlush(localBatch);
+        }
+
+        // frame is in the batch, which is considered as completed send.
+        new CompletionHandlerWrapper<ByteBuffer>(completionHandler, future, frame).completed(null);
+    }
+
+    /**
+     * Create a handler passed to the {@link Writer} for a frame written directly (not batched).
+     * <p>
+     * The write is timed only when there is a message event listener to report to.
+     */
+    private <T> CompletionHandler<T> writeHandler(CompletionHandler<Frame> completionHandler,
+                                                  TyrusFuture<Frame> future, TyrusFrame frame) {
+        final MessageEventListener listener = messageEventListener;
+        if (listener == MessageEventListener.NO_OP) {
+            return new CompletionHandlerWrapper<T>(completionHandler, future, frame);
+        }
+
+        return new TimedCompletionHandlerWrapper<T>(completionHandler, future, frame, listener, System.nanoTime());
+    }
+
+    private void scheduleBatchFlush(final FrameBatch localBatch) {
+        final ScheduledExecutorService executorService = batchFlushService;
+        if (executorService == null || localBatch.getMaxDelay() <= 0) {
+            return;
+        }
+
+        final long generation = localBatch.getGeneration();
+        executorService.schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (localBatch) {
+                    // batch was already flushed for other reason.
+                    if (localBatch.getGeneration() == generation) {
+                        flushBatch(localBatch, BatchFlushCause.DEADLINE, null);
+                    }
+                }
+            }
+        }, localBatch.getMaxDelay(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Write the batched frames.
+     * <p>
+     * Has to be called with the batch lock held.
+     *
+     * @param localBatch        batch to be flushed.
+     * @param cause             flush cause.
+     * @param completionHandler completion handler, {@code null} if the caller is not interested in the result.
+     */
+    private void flushBatch(final FrameBatch localBatch, final BatchFlushCause cause,
+                            final CompletionHandler<ByteBuffer> completionHandler) {
+        final Writer localWriter = writer;
+
+        if (localBatch.isEmpty() || localWriter == null) {
+            if (completionHandler != null) {
+                completionHandler.completed(null);
+            }
+            return;
+        }
+
+        final ByteBuffer buffer = localBatch.flush(cause);
+        final CompletionHandler<ByteBuffer> handler = new CompletionHandler<ByteBuffer>() {
+            @Override
+            public void completed(ByteBuffer result) {
+                if (completionHandler != null) {
+                    completionHandler.completed(result);
+                }
+            }
+
+            @Override
+            public void failed(Throwable throwable) {
+                // sending of the batched frames has already been completed, closing the connection is the only way
+                // how to let the application know that they were lost.
+                LOGGER.log(Level.FINE, "Batch of frames cannot be written.", throwable);
+                localBatch.setFailure(throwable);
+                try {
+                    localWriter.close();
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, "Connection cannot be closed.", e);
+                }
+
+                if (completionHandler != null) {
+                    completionHandler.failed(throwable);
+                }
+            }
+        };
+
+        if (localWriter instanceof OutboundQueue) {
+            // batched frames were already reported as sent, so the batch is not subject to the queue limits.
+            ((OutboundQueue) localWriter).writeBatch(buffer, handler);
+        } else {
+            localWriter.write(buffer, handler);
+        }
+    }
+
     private Future<Frame> write(final ByteBuffer frame, final CompletionHandler<Frame> completionHandler,
                                 boolean useTimeout) {
         final Writer localWriter = writer;
@@ -496,7 +909,15 @@ public final class ProtocolHandler {
             throw new IllegalStateException(LocalizationMessages.CONNECTION_NULL());
         }
 
-        localWriter.write(frame, new CompletionHandlerWrapper(completionHandler, future, null));
+        final FrameBatch localBatch = batch;
+        if (localBatch == null) {
+            localWriter.write(frame, new CompletionHandlerWrapper<ByteBuffer>(completionHandler, future, null));
+        } else {
+            synchronized (localBatch) {
+                flushBatch(localBatch, BatchFlushCause.NON_BATCHED_FRAME, null);
+                localWriter.write(frame, new CompletionHandlerWrapper<ByteBuffer>(completionHandler, future, null));
+            }
+        }
 
         return future;
     }
@@ -521,7 +942,7 @@ public final class ProtocolHandler {
      * @param length the payload size
      * @return the array
      */
-    private byte[] encodeLength(final long length) {
+    private static byte[] encodeLength(final long length) {
         byte[] lengthBytes;
         if (length <= 125) {
             lengthBytes = new byte[1];
@@ -586,6 +1007,28 @@ public final class ProtocolHandler {
     }
 
     /* package */ ByteBuffer frame(Frame frame) {
+        final ByteBuffer[] encoded = encode(frame);
+        final ByteBuffer header = encoded[0];
+        final ByteBuffer payload = encoded[1];
+
+        final byte[] packet = new byte[header.remaining() + payload.remaining()];
+        header.get(packet, 0, header.remaining());
+        payload.get(packet, packet.length - payload.remaining(), payload.remaining());
+        return ByteBuffer.wrap(packet);
+    }
+
+    /**
+     * Encode the frame as a pair of buffers suitable for gathering write - frame header (including masking key) and
+     * the payload.
+     * <p>
+     * Payload of frames sent by the server is not copied - returned buffer is backed by the frame payload array, so the
+     * payload must not be modified until the write completes. Client has to mask the payload, so the second
+     * buffer contains a masked copy of the frame payload, stored in the same array right after the header.
+     *
+     * @param frame frame to be encoded.
+     * @return two element array, header buffer followed by payload buffer.
+     */
+    /* package */ ByteBuffer[] encode(Frame frame) {
 
         if (client) {
             frame = Frame.builder(frame).maskingKey(maskingKeyGenerator.nextInt()).mask(true).build();
@@ -616,18 +1059,16 @@ public final class ProtocolHandler {
             opcode |= 0x10;
         }
 
-        final byte[] bytes = frame.getPayloadData();
         final byte[] lengthBytes = encodeLength(frame.getPayloadLength());
 
         // TODO - length limited to int, it should be long (see RFC 9788, chapter 5.2)
-        // TODO - in that case, we will need to NOT store dataframe inmemory - introduce maskingByteStream or
-        // TODO   maskingByteBuffer
+        // large payloads are not meant to be sent as a single frame, see BinaryStreamSender.
         final int payloadLength = (int) frame.getPayloadLength();
-        int length = 1 + lengthBytes.length + payloadLength + (client ? MASK_SIZE : 0);
-        int payloadStart = 1 + lengthBytes.length + (client ? MASK_SIZE : 0);
-        final byte[] packet = new byte[length];
-        packet[0] = opcode;
-        System.arraycopy(lengthBytes, 0, packet, 1, lengthBytes.length);
+        final byte[] header = new byte[1 + lengthBytes.length + (client ? MASK_SIZE : 0)];
+        header[0] = opcode;
+        System.arraycopy(lengthBytes, 0, header, 1, lengthBytes.length);
+
+        final ByteBuffer payload;
         // if client, then we need to mask data.
         if (client) {
             Integer maskingKey = frame.getMaskingKey();
@@ -636,13 +1077,57 @@ public final class ProtocolHandler {
                 // TODO: related to ExtendedExtension
                 throw new ProtocolException("Masking key cannot be null when sending message from client to server.");
             }
-            Masker masker = new Masker(maskingKey);
-            packet[1] |= 0x80;
-            masker.mask(packet, payloadStart, bytes, payloadLength);
-            System.arraycopy(masker.getMask(), 0, packet, payloadStart - MASK_SIZE, MASK_SIZE);
+            final byte[] mask = new Masker(maskingKey).getMask();
+            header[1] |= 0x80;
+            System.arraycopy(mask, 0, header, header.length - MASK_SIZE, MASK_SIZE);
+
+            // header and masked payload share one array, so the writer can pass them on without merging.
+            final byte[] packet = new byte[header.length + payloadLength];
+            System.arraycopy(header, 0, packet, 0, header.length);
+            frame.getPayloadBuffer().get(packet, header.length, payloadLength);
+            Masker.mask(mask, 0, packet, header.length, packet, header.length, payloadLength);
+
+            return new ByteBuffer[]{ByteBuffer.wrap(packet, 0, header.length),
+                    ByteBuffer.wrap(packet, header.length, payloadLength).slice()};
+        } else if (frame.isPayloadView()) {
+            // view of an incoming buffer is valid only until the frame is processed; the write may complete later.
+            payload = ByteBuffer.wrap(frame.getPayloadData());
         } else {
-            System.arraycopy(bytes, 0, packet, payloadStart, payloadLength);
+            payload = frame.getPayloadBuffer();
+        }
+
+        return new ByteBuffer[]{ByteBuffer.wrap(header), payload};
+    }
+
+    /**
+     * Serialize a final (not fragmented) unmasked frame without applying any negotiated extension.
+     * <p>
+     * Used on the server side for broadcasting, where the same serialized frame is written to all the connections
+     * without negotiated extensions.
+     *
+     * @param frame frame to be serialized. Must be final frame of a message.
+     * @return buffer containing the serialized frame, backed by an array, so that writers can pass it on without
+     * copying; it must not be modified.
+     */
+    /* package */ static ByteBuffer encodeUnmasked(Frame frame) {
+        byte opcode = (byte) (frame.getOpcode() | 0x80);
+        if (frame.isRsv1()) {
+            opcode |= 0x40;
+        }
+        if (frame.isRsv2()) {
+            opcode |= 0x20;
         }
+        if (frame.isRsv3()) {
+            opcode |= 0x10;
+        }
+
+        final byte[] lengthBytes = encodeLength(frame.getPayloadLength());
+        final ByteBuffer payload = frame.getPayloadBuffer();
+
+        final byte[] packet = new byte[1 + lengthBytes.length + payload.remaining()];
+        packet[0] = opcode;
+        System.arraycopy(lengthBytes, 0, packet, 1, lengthBytes.length);
+        payload.get(packet, 1 + lengthBytes.length, payload.remaining());
         return ByteBuffer.wrap(packet);
     }
 
@@ -720,20 +1205,25 @@ public final class ProtocolHandler {
                         }
 
                         parsingState.masker.setBuffer(buffer);
-                        final byte[] data = parsingState.masker.unmask((int) parsingState.length);
-                        if (data.length != parsingState.length) {
-                            throw new ProtocolException(
-                                    LocalizationMessages.DATA_UNEXPECTED_LENGTH(data.length, parsingState.length));
+                        final Frame.Builder builder = Frame.builder();
+                        if (zeroCopyDecoding) {
+                            builder.payloadData(parsingState.masker.unmaskInPlace((int) parsingState.length));
+                        } else {
+                            final byte[] data = parsingState.masker.unmask((int) parsingState.length);
+                            if (data.length != parsingState.length) {
+                                throw new ProtocolException(
+                                        LocalizationMessages.DATA_UNEXPECTED_LENGTH(data.length, parsingState.length));
+                            }
+                            builder.payloadData(data);
                         }
 
-                        final Frame frame = Frame.builder().fin(parsingState.finalFragment)
-                                                 .rsv1(isBitSet(parsingState.opcode, 6))
-                                                 .rsv2(isBitSet(parsingState.opcode, 5))
-                                                 .rsv3(isBitSet(parsingState.opcode, 4))
-                                                 .opcode((byte) (parsingState.opcode & 0xf))
-                                                 .payloadLength(parsingState.length)
-                                                 .payloadData(data)
-                                                 .build();
+                        final Frame frame = builder.fin(parsingState.finalFragment)
+                                                   .rsv1(isBitSet(parsingState.opcode, 6))
+                                                   .rsv2(isBitSet(parsingState.opcode, 5))
+                                                   .rsv3(isBitSet(parsingState.opcode, 4))
+                                                   .opcode((byte) (parsingState.opcode & 0xf))
+                                                   .payloadLength(parsingState.length)
+                                                   .build();
 
                         parsingState.recycle();
 
@@ -784,13 +1274,8 @@ public final class ProtocolHandler {
             }
         }
 
-        TyrusFrame tyrusFrame = TyrusFrame.wrap(frame, inFragmentedType, remainder);
-
-        // TODO - utf8 decoder needs this state to be shared among decoded frames.
-        // TODO - investigate whether it can be removed; (this effectively denies lazy decoding)
-        if (tyrusFrame instanceof TextFrame) {
-            remainder = ((TextFrame) tyrusFrame).getRemainder();
-        }
+        // text payload is decoded lazily, utf8Decoder keeps the state shared among the frames of a partial message.
+        TyrusFrame tyrusFrame = TyrusFrame.wrap(frame, inFragmentedType, utf8Decoder);
 
         // server should not allow receiving 1012 or 1013 from the client
         // (SERVICE_RESTART and TRY_AGAIN_LATER does not make sense from the client side.
@@ -823,7 +1308,7 @@ public final class ProtocolHandler {
     /**
      * Handler passed to the {@link org.glassfish.tyrus.spi.Writer}.
      */
-    private static class CompletionHandlerWrapper extends CompletionHandler<ByteBuffer> {
+    private static class CompletionHandlerWrapper<T> extends CompletionHandler<T> {
 
         private final CompletionHandler<Frame> frameCompletionHandler;
         private final TyrusFuture<Frame> future;
@@ -859,7 +1344,7 @@ public final class ProtocolHandler {
         }
 
         @Override
-        public void completed(ByteBuffer result) {
+        public void completed(T result) {
             if (frameCompletionHandler != null) {
                 frameCompletionHandler.completed(frame);
             }
@@ -870,13 +1355,39 @@ public final class ProtocolHandler {
         }
 
         @Override
-        public void updated(ByteBuffer result) {
+        public void updated(T result) {
             if (frameCompletionHandler != null) {
                 frameCompletionHandler.updated(frame);
             }
         }
     }
 
+    /**
+     * Handler passed to the {@link org.glassfish.tyrus.spi.Writer}, which reports the time elapsed between submitting
+     * the frame and completion of the write to the {@link MessageEventListener}.
+     */
+    private static class TimedCompletionHandlerWrapper<T> extends CompletionHandlerWrapper<T> {
+
+        private final MessageEventListener listener;
+        private final TyrusFrame.FrameType frameType;
+        private final long start;
+
+        private TimedCompletionHandlerWrapper(CompletionHandler<Frame> frameCompletionHandler,
+                                              TyrusFuture<Frame> future, TyrusFrame frame,
+                                              MessageEventListener listener, long start) {
+            super(frameCompletionHandler, future, frame);
+            this.listener = listener;
+            this.frameType = frame.getFrameType();
+            this.start = start;
+        }
+
+        @Override
+        public void completed(T result) {
+            listener.onFrameWritten(frameType, System.nanoTime() - start);
+            super.completed(result);
+        }
+    }
+
     private static class ParsingState {
         final AtomicInteger state = new AtomicInteger(0);
         volatile byte opcode = (byte) -1;
@@ -0,0 +1,200 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.websocket.CloseReason;
+
+import org.glassfish.tyrus.core.monitoring.ApplicationEventListener;
+
+/**
+ * {@link org.glassfish.tyrus.core.TyrusEndpointWrapper.SessionListener} enforcing the maximal number of open sessions
+ * per application and per remote address and reporting the admission decisions to {@link ApplicationEventListener}.
+ * <p>
+ * Counters are updated by compare-and-set, so concurrent session opening and closing does not serialize on a lock.
+ * A counter is never incremented past the limit, so the limit holds at any moment, not only eventually.
+ * <p>
+ * Remote address counters are kept in a {@link ConcurrentHashMap} and removed when they drop to zero. A counter that
+ * has reached zero is considered dead - it is never incremented again and a thread finding it in the map removes it
+ * and installs a fresh one, so a concurrent close and open from the same address cannot lose an update.
+ */
+class SessionAdmissionListener extends TyrusEndpointWrapper.SessionListener {
+
+    // used as the key for sessions without remote address, ConcurrentHashMap does not accept null keys.
+    private static final String UNKNOWN_REMOTE_ADDR = "";
+
+    private final Integer maxSessionsPerApp;
+    private final Integer maxSessionsPerRemoteAddr;
+    private final ApplicationEventListener applicationEventListener;
+
+    private final AtomicInteger counter = new AtomicInteger(0);
+    private final ConcurrentMap<String, AtomicInteger> remoteAddressCounters =
+            new ConcurrentHashMap<String, AtomicInteger>();
+
+    /**
+     * Create new session admission listener.
+     *
+     * @param maxSessionsPerApp        maximal number of open sessions per application. If {@code null}, no limit is
+     *                                 applied.
+     * @param maxSessionsPerRemoteAddr maximal number of open sessions per remote address. If {@code null}, no limit is
+     *                                 applied.
+     * @param applicationEventListener listener notified about accepted and rejected sessions.
+     */
+    SessionAdmissionListener(Integer maxSessionsPerApp, Integer maxSessionsPerRemoteAddr,
+                             ApplicationEventListener applicationEventListener) {
+        this.maxSessionsPerApp = maxSessionsPerApp;
+        this.maxSessionsPerRemoteAddr = maxSessionsPerRemoteAddr;
+        this.applicationEventListener = applicationEventListener;
+    }
+
+    @Override
+    public OnOpenResult onOpen(final TyrusSession session) {
+        if (maxSessionsPerApp != null && !tryIncrement(counter, maxSessionsPerApp)) {
+            applicationEventListener.onSessionRejected(ApplicationEventListener.RejectionReason.MAX_SESSIONS_PER_APP);
+            return OnOpenResult.MAX_SESSIONS_PER_APP_EXCEEDED;
+        }
+
+        if (maxSessionsPerRemoteAddr != null && !tryIncrementRemoteAddr(remoteAddrKey(session))) {
+            // the session will not be closed through this listener, so the application slot has to be released now.
+            if (maxSessionsPerApp != null) {
+                counter.decrementAndGet();
+            }
+            applicationEventListener.onSessionRejected(
+                    ApplicationEventListener.RejectionReason.MAX_SESSIONS_PER_REMOTE_ADDR);
+            return OnOpenResult.MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED;
+        }
+
+        applicationEventListener.onSessionAccepted();
+        return OnOpenResult.SESSION_ALLOWED;
+    }
+
+    @Override
+    public void onOpenRefused(final TyrusSession session, final OnOpenResult result) {
+        if (result == OnOpenResult.MAX_SESSIONS_PER_ENDPOINT_EXCEEDED) {
+            applicationEventListener.onSessionRejected(
+                    ApplicationEventListener.RejectionReason.MAX_SESSIONS_PER_ENDPOINT);
+        }
+    }
+
+    @Override
+    public void onClose(final TyrusSession session, final CloseReason closeReason) {
+        if (maxSessionsPerApp != null) {
+            counter.decrementAndGet();
+        }
+
+        if (maxSessionsPerRemoteAddr != null) {
+            final String remoteAddr = remoteAddrKey(session);
+            final AtomicInteger remoteAddressCounter = remoteAddressCounters.get(remoteAddr);
+            // the counter cannot be dead (or missing) here, the closed session is still counted in it.
+            if (remoteAddressCounter != null && remoteAddressCounter.decrementAndGet() == 0) {
+                remoteAddressCounters.remove(remoteAddr, remoteAddressCounter);
+            }
+        }
+    }
+
+    /**
+     * Get the number of sessions currently counted against the application limit.
+     *
+     * @return number of open sessions, {@code 0} if the application limit is not set.
+     */
+    int getOpenSessionsCount() {
+        return counter.get();
+    }
+
+    /**
+     * Get the number of sessions currently counted against the limit of given remote address.
+     *
+     * @param remoteAddr remote address.
+     * @return number of open sessions from the remote address.
+     */
+    int getOpenSessionsCount(String remoteAddr) {
+        final AtomicInteger remoteAddressCounter =
+                remoteAddressCounters.get(remoteAddr == null ? UNKNOWN_REMOTE_ADDR : remoteAddr);
+        return remoteAddressCounter == null ? 0 : remoteAddressCounter.get();
+    }
+
+    private boolean tryIncrementRemoteAddr(String remoteAddr) {
+        while (true) {
+            final AtomicInteger remoteAddressCounter = remoteAddressCounters.get(remoteAddr);
+
+            if (remoteAddressCounter == null) {
+                if (remoteAddressCounters.putIfAbsent(remoteAddr, new AtomicInteger(1)) == null) {
+                    return true;
+                }
+                // lost the race for the first session from the address, try again with the installed counter.
+                continue;
+            }
+
+            final int current = remoteAddressCounter.get();
+            if (current == 0) {
+                // dead counter - the last session from the address is being closed; help removing it.
+                remoteAddressCounters.remove(remoteAddr, remoteAddressCounter);
+                continue;
+            }
+            if (current >= maxSessionsPerRemoteAddr) {
+                return false;
+            }
+            if (remoteAddressCounter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static boolean tryIncrement(AtomicInteger counter, int max) {
+        while (true) {
+            final int current = counter.get();
+            if (current >= max) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static String remoteAddrKey(TyrusSession session) {
+        final String remoteAddr = session.getRemoteAddr();
+        return remoteAddr == null ? UNKNOWN_REMOTE_ADDR : remoteAddr;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sessions of an endpoint divided into fixed number of shards.
+ * <p>
+ * Shards are maintained incrementally when sessions are opened and closed, so the broadcast can process them in
+ * parallel without creating a snapshot of all the sessions for every message.
+ */
+class SessionShards {
+
+    private final Map<TyrusWebSocket, TyrusSession>[] shards;
+
+    /**
+     * Constructor.
+     *
+     * @param shardCount number of shards.
+     */
+    @SuppressWarnings("unchecked")
+    SessionShards(int shardCount) {
+        shards = new Map[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new ConcurrentHashMap<TyrusWebSocket, TyrusSession>();
+        }
+    }
+
+    /**
+     * Add a session.
+     *
+     * @param socket  socket of the session.
+     * @param session session to be added.
+     */
+    void add(TyrusWebSocket socket, TyrusSession session) {
+        getShardFor(socket).put(socket, session);
+    }
+
+    /**
+     * Remove a session.
+     *
+     * @param socket socket of the session to be removed.
+     */
+    void remove(TyrusWebSocket socket) {
+        getShardFor(socket).remove(socket);
+    }
+
+    /**
+     * Get number of shards.
+     *
+     * @return number of shards.
+     */
+    int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Get sessions in a shard.
+     *
+     * @param index shard index.
+     * @return live view of the shard. Iteration is weakly consistent, concurrently opened or closed sessions may or
+     * may not be included.
+     */
+    Map<TyrusWebSocket, TyrusSession> getShard(int index) {
+        return shards[index];
+    }
+
+    private Map<TyrusWebSocket, TyrusSession> getShardFor(TyrusWebSocket socket) {
+        return shards[(System.identityHashCode(socket) & Integer.MAX_VALUE) % shards.length];
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ByteBufferPool} with buffers of fixed size classes.
+ * <p>
+ * Capacities of the pooled buffers are powers of two between the minimal and the maximal pooled size; a request is
+ * served by a buffer from the smallest class that fits. Requests bigger than the maximal pooled size are served by
+ * newly allocated buffers, which are not pooled when returned. Number of retained buffers in every size class is
+ * limited, superfluous returned buffers are left to the garbage collector.
+ */
+@Beta
+public class SizeClassByteBufferPool implements ByteBufferPool {
+
+    /**
+     * Default capacity of the smallest size class.
+     */
+    public static final int DEFAULT_MIN_POOLED_SIZE = 512;
+
+    /**
+     * Default capacity of the biggest size class.
+     */
+    public static final int DEFAULT_MAX_POOLED_SIZE = 65536;
+
+    /**
+     * Default maximal number of retained buffers per size class.
+     */
+    public static final int DEFAULT_MAX_BUFFERS_PER_CLASS = 256;
+
+    private final int minPooledSize;
+    private final int maxPooledSize;
+    private final int maxBuffersPerClass;
+    private final boolean direct;
+    private final SizeClass[] sizeClasses;
+
+    /**
+     * Create new pool with default size classes.
+     *
+     * @param direct {@code true} if the pool should allocate direct (off-heap) buffers.
+     */
+    public SizeClassByteBufferPool(boolean direct) {
+        this(DEFAULT_MIN_POOLED_SIZE, DEFAULT_MAX_POOLED_SIZE, DEFAULT_MAX_BUFFERS_PER_CLASS, direct);
+    }
+
+    /**
+     * Create new pool.
+     *
+     * @param minPooledSize      capacity of the smallest size class. Rounded up to the nearest power of two.
+     * @param maxPooledSize      capacity of the biggest size class. Rounded up to the nearest power of two.
+     * @param maxBuffersPerClass maximal number of retained buffers per size class.
+     * @param direct             {@code true} if the pool should allocate direct (off-heap) buffers.
+     */
+    public SizeClassByteBufferPool(int minPooledSize, int maxPooledSize, int maxBuffersPerClass, boolean direct) {
+        if (minPooledSize <= 0 || maxPooledSize < minPooledSize || maxBuffersPerClass < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.minPooledSize = roundToPowerOfTwo(minPooledSize);
+        this.maxPooledSize = roundToPowerOfTwo(maxPooledSize);
+        this.maxBuffersPerClass = maxBuffersPerClass;
+        this.direct = direct;
+
+        final int classCount =
+                Integer.numberOfTrailingZeros(this.maxPooledSize) - Integer.numberOfTrailingZeros(this.minPooledSize)
+                        + 1;
+        sizeClasses = new SizeClass[classCount];
+        for (int i = 0; i < classCount; i++) {
+            sizeClasses[i] = new SizeClass();
+        }
+    }
+
+    @Override
+    public ByteBuffer take(int capacity) {
+        if (capacity > maxPooledSize) {
+            return allocate(capacity);
+        }
+
+        final int classCapacity = capacity <= minPooledSize ? minPooledSize : roundToPowerOfTwo(capacity);
+        final SizeClass sizeClass = sizeClasses[classIndex(classCapacity)];
+        final ByteBuffer buffer = sizeClass.buffers.poll();
+
+        if (buffer == null) {
+            return allocate(classCapacity);
+        }
+
+        sizeClass.count.decrementAndGet();
+        return buffer;
+    }
+
+    @Override
+    public void recycle(ByteBuffer buffer) {
+        final int capacity = buffer.capacity();
+
+        if (buffer.isDirect() != direct || buffer.isReadOnly() || capacity < minPooledSize
+                || capacity > maxPooledSize || Integer.bitCount(capacity) != 1) {
+            // not allocated by this pool.
+            return;
+        }
+
+        final SizeClass sizeClass = sizeClasses[classIndex(capacity)];
+        if (sizeClass.count.incrementAndGet() > maxBuffersPerClass) {
+            sizeClass.count.decrementAndGet();
+            return;
+        }
+
+        buffer.clear();
+        sizeClass.buffers.offer(buffer);
+    }
+
+    /**
+     * Get the number of buffers currently retained by the pool.
+     *
+     * @return number of buffers retained by the pool.
+     */
+    public int getPooledBuffersCount() {
+        int result = 0;
+        for (SizeClass sizeClass : sizeClasses) {
+            result += sizeClass.count.get();
+        }
+        return result;
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private int classIndex(int classCapacity) {
+        return Integer.numberOfTrailingZeros(classCapacity) - Integer.numberOfTrailingZeros(minPooledSize);
+    }
+
+    private static int roundToPowerOfTwo(int value) {
+        final int highestOneBit = Integer.highestOneBit(value);
+        return highestOneBit == value ? value : highestOneBit << 1;
+    }
+
+    private static class SizeClass {
+
+        private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+
+        // ConcurrentLinkedQueue#size() is not a constant-time operation.
+        private final AtomicInteger count = new AtomicInteger(0);
+    }
+}
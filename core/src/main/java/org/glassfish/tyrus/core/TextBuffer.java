@@ -40,40 +40,115 @@
 
 package org.glassfish.tyrus.core;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.glassfish.tyrus.core.l10n.LocalizationMessages;
 
 /**
+ * Buffer for partial text messages delivered to a whole message handler.
+ * <p>
+ * Fragments are accumulated as received bytes and the message is decoded once, when it is complete. The array is
+ * reused for subsequent messages unless it grows over {@value #MAX_RETAINED_CAPACITY} bytes.
+ *
  * @author Stepan Kopriva (stepan.kopriva at oracle.com)
  */
 class TextBuffer {
-    private StringBuffer buffer;
-    private int bufferSize;
+
+    /**
+     * Maximal capacity of the buffer kept for next messages.
+     */
+    static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    // UTF-16 code unit never takes more than three bytes in UTF-8.
+    private static final int MAX_BYTES_PER_CHAR = 3;
+
     private static final Logger LOGGER = Logger.getLogger(BinaryBuffer.class.getName());
 
-    void appendMessagePart(String message) {
-        if (message == null || message.length() == 0) {
+    private byte[] buffer;
+    private int length;
+    private int bufferSize;
+    private boolean ascii;
+    private Utf8Decoder decoder;
+
+    void appendMessagePart(ByteBuffer messagePart) {
+        final int partLength = messagePart.remaining();
+        if (partLength == 0) {
             return;
         }
 
-        if (buffer.length() + message.length() <= bufferSize) {
-            buffer.append(message);
-        } else {
-            final MessageTooBigException messageTooBigException =
-                    new MessageTooBigException(LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW());
-            LOGGER.log(Level.FINE, LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW(), messageTooBigException);
-            throw messageTooBigException;
+        // size limit is in characters; while all the bytes are ASCII, their number is the number of characters.
+        final long newLength = (long) length + partLength;
+        if (newLength > (long) bufferSize * MAX_BYTES_PER_CHAR || (ascii && newLength > bufferSize
+                && isAscii(messagePart))) {
+            throw messageTooBig();
+        }
+
+        ensureCapacity((int) newLength);
+        messagePart.get(buffer, length, partLength);
+        if (ascii) {
+            ascii = Utf8Decoder.isAscii(buffer, length, partLength);
         }
+        length = (int) newLength;
     }
 
     String getBufferedContent() {
-        return buffer.toString();
+        final String content;
+        if (length == 0) {
+            content = "";
+        } else if (ascii) {
+            content = new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+        } else {
+            if (decoder == null) {
+                decoder = new Utf8Decoder();
+            }
+            content = decoder.decode(buffer, 0, length, true);
+        }
+
+        if (buffer != null && buffer.length > MAX_RETAINED_CAPACITY) {
+            buffer = null;
+        }
+        length = 0;
+
+        if (content.length() > bufferSize) {
+            throw messageTooBig();
+        }
+
+        return content;
     }
 
     void resetBuffer(int bufferSize) {
         this.bufferSize = bufferSize;
-        this.buffer = new StringBuffer();
+        this.length = 0;
+        this.ascii = true;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (buffer == null) {
+            buffer = new byte[capacity];
+        } else if (buffer.length < capacity) {
+            final long newCapacity = Math.max(capacity, 2L * buffer.length);
+            final byte[] newBuffer = new byte[(int) Math.min(newCapacity, Integer.MAX_VALUE)];
+            System.arraycopy(buffer, 0, newBuffer, 0, length);
+            buffer = newBuffer;
+        }
+    }
+
+    private static boolean isAscii(ByteBuffer messagePart) {
+        for (int i = messagePart.position(); i < messagePart.limit(); i++) {
+            if (messagePart.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageTooBigException messageTooBig() {
+        final MessageTooBigException messageTooBigException =
+                new MessageTooBigException(LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW());
+        LOGGER.log(Level.FINE, LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW(), messageTooBigException);
+        return messageTooBigException;
     }
 }
@@ -0,0 +1,289 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hashed timing wheel used for session idle timeouts and heartbeats.
+ * <p>
+ * One wheel is shared by all the sessions of a container and it is driven by a single periodic task ("tick") running
+ * on the container {@link ScheduledExecutorService}. Deadlines of scheduled {@link Timeout}s are evaluated lazily,
+ * when the wheel bucket containing the timeout is processed; a timeout which deadline has moved to the future in the
+ * meantime (typically because of session activity) is just moved to another bucket. Updating a deadline thus does not
+ * require any interaction with the wheel.
+ * <p>
+ * The tick is cancelled when the wheel becomes empty, so an idle container is not woken up, and it is started again when
+ * a timeout is scheduled.
+ * <p>
+ * Expired timeouts are executed on the container {@link ScheduledExecutorService}, so a long running timeout does not
+ * delay the tick.
+ */
+class TimingWheel {
+
+    /**
+     * Duration of one tick in milliseconds.
+     */
+    static final long TICK_DURATION = 10;
+
+    /**
+     * Number of buckets; one revolution of the wheel takes {@code WHEEL_SIZE * TICK_DURATION} milliseconds.
+     */
+    static final int WHEEL_SIZE = 2048;
+
+    private static final Logger LOGGER = Logger.getLogger(TimingWheel.class.getName());
+
+    private final ExecutorServiceProvider executorServiceProvider;
+
+    // timeouts are passed to the tick through this queue, buckets are accessed only by the tick.
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<Timeout>();
+    private final Object lock = new Object();
+
+    private volatile Tick tick = null;
+
+    /**
+     * Create new timing wheel.
+     *
+     * @param executorServiceProvider provider of the {@link ScheduledExecutorService} used for running the tick and the
+     *                                expired timeouts.
+     */
+    TimingWheel(ExecutorServiceProvider executorServiceProvider) {
+        this.executorServiceProvider = executorServiceProvider;
+    }
+
+    /**
+     * Schedule a timeout.
+     * <p>
+     * The timeout is executed once, when its deadline is reached, unless it is cancelled before. Same instance can be
+     * scheduled again after it has been executed.
+     *
+     * @param timeout timeout to be scheduled.
+     */
+    void schedule(Timeout timeout) {
+        pending.add(timeout);
+
+        if (tick == null) {
+            synchronized (lock) {
+                if (tick == null) {
+                    final ScheduledExecutorService scheduler =
+                            executorServiceProvider.getScheduledExecutorService();
+                    final Tick newTick = new Tick(scheduler);
+                    newTick.future = scheduler.scheduleAtFixedRate(newTick, TICK_DURATION, TICK_DURATION,
+                                                                   TimeUnit.MILLISECONDS);
+                    tick = newTick;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop the wheel; all scheduled timeouts are discarded.
+     * <p>
+     * Wheel is started again when a timeout is scheduled.
+     */
+    void stop() {
+        synchronized (lock) {
+            final Tick currentTick = tick;
+            if (currentTick != null) {
+                currentTick.future.cancel(false);
+                tick = null;
+            }
+            pending.clear();
+        }
+    }
+
+    /**
+     * Get information whether the tick is running.
+     *
+     * @return {@code true} if the tick is scheduled, {@code false} otherwise.
+     */
+    boolean isRunning() {
+        return tick != null;
+    }
+
+    /**
+     * Cancel the tick if no timeout has been scheduled in the meantime.
+     * <p>
+     * Called by the tick itself when there are no timeouts in the wheel.
+     *
+     * @param idleTick tick to be cancelled.
+     */
+    private void stopIdle(Tick idleTick) {
+        synchronized (lock) {
+            if (tick != idleTick || idleTick.future == null) {
+                return;
+            }
+
+            // a timeout added to pending before this write is seen below, one added after it starts a new tick.
+            tick = null;
+            if (!pending.isEmpty()) {
+                tick = idleTick;
+                return;
+            }
+
+            idleTick.future.cancel(false);
+        }
+    }
+
+    /**
+     * Timeout scheduled in {@link TimingWheel}.
+     * <p>
+     * {@link #run()} is invoked when the deadline is reached.
+     */
+    abstract static class Timeout implements Runnable {
+
+        /**
+         * Get current deadline of the timeout.
+         * <p>
+         * The deadline can change any time and it is evaluated lazily.
+         *
+         * @return deadline in {@link System#nanoTime()} units.
+         */
+        abstract long getDeadline();
+
+        /**
+         * Check whether the timeout has been cancelled; cancelled timeout is removed from the wheel.
+         *
+         * @return {@code true} if the timeout should not be executed anymore, {@code false} otherwise.
+         */
+        abstract boolean isCancelled();
+    }
+
+    private class Tick implements Runnable {
+
+        private final long tickDuration = TimeUnit.MILLISECONDS.toNanos(TICK_DURATION);
+        private final long startTime = System.nanoTime();
+        @SuppressWarnings("unchecked")
+        private final List<Timeout>[] buckets = new List[WHEEL_SIZE];
+        private final ScheduledExecutorService scheduler;
+
+        private volatile ScheduledFuture<?> future;
+
+        // last processed tick, bucket of this tick is "behind the hand".
+        private long processedTick = 0;
+        // number of timeouts in the buckets.
+        private int size = 0;
+
+        Tick(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public void run() {
+            try {
+                final long now = System.nanoTime();
+
+                Timeout timeout;
+                while ((timeout = pending.poll()) != null) {
+                    if (!timeout.isCancelled()) {
+                        place(timeout, timeout.getDeadline());
+                    }
+                }
+
+                final long currentTick = (now - startTime) / tickDuration;
+                while (processedTick < currentTick) {
+                    processedTick++;
+                    process(processedTick, now);
+                }
+
+                if (size == 0) {
+                    stopIdle(this);
+                }
+            } catch (Throwable t) {
+                // exception would stop the periodic execution.
+                LOGGER.log(Level.WARNING, t.getMessage(), t);
+            }
+        }
+
+        private void process(long tick, long now) {
+            final int index = (int) (tick & (WHEEL_SIZE - 1));
+            final List<Timeout> bucket = buckets[index];
+            if (bucket == null || bucket.isEmpty()) {
+                return;
+            }
+
+            buckets[index] = new ArrayList<Timeout>();
+            size -= bucket.size();
+
+            for (Timeout timeout : bucket) {
+                if (timeout.isCancelled()) {
+                    continue;
+                }
+
+                final long deadline = timeout.getDeadline();
+                if (deadline - now <= 0) {
+                    try {
+                        scheduler.execute(timeout);
+                    } catch (RejectedExecutionException e) {
+                        LOGGER.log(Level.FINE, "Timeout could not be executed.", e);
+                    }
+                } else {
+                    place(timeout, deadline);
+                }
+            }
+        }
+
+        private void place(Timeout timeout, long deadline) {
+            // ceiling; the bucket is processed no sooner than the deadline.
+            long tick = (deadline - startTime + tickDuration - 1) / tickDuration;
+            if (tick <= processedTick) {
+                tick = processedTick + 1;
+            }
+
+            final int index = (int) (tick & (WHEEL_SIZE - 1));
+            List<Timeout> bucket = buckets[index];
+            if (bucket == null) {
+                bucket = new ArrayList<Timeout>();
+                buckets[index] = bucket;
+            }
+            bucket.add(timeout);
+            size++;
+        }
+    }
+}
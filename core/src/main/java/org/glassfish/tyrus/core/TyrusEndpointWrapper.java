@@ -62,9 +62,13 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -102,6 +106,7 @@ import org.glassfish.tyrus.core.frame.TextFrame;
 import org.glassfish.tyrus.core.frame.TyrusFrame;
 import org.glassfish.tyrus.core.l10n.LocalizationMessages;
 import org.glassfish.tyrus.core.monitoring.EndpointEventListener;
+import org.glassfish.tyrus.spi.CompletionHandler;
 import org.glassfish.tyrus.spi.UpgradeRequest;
 import org.glassfish.tyrus.spi.UpgradeResponse;
 
@@ -133,11 +138,19 @@ public class TyrusEndpointWrapper {
     private final String serverEndpointPath;
     private final List<CoderWrapper<Decoder>> decoders = new ArrayList<CoderWrapper<Decoder>>();
     private final List<CoderWrapper<Encoder>> encoders = new ArrayList<CoderWrapper<Encoder>>();
+    // coder routing tables, computed from decoders and encoders once the endpoint is created.
+    private final List<CoderRoute<Decoder>> textDecoderRoutes = new ArrayList<CoderRoute<Decoder>>();
+    private final List<CoderRoute<Decoder>> binaryDecoderRoutes = new ArrayList<CoderRoute<Decoder>>();
+    private final List<CoderRoute<Encoder>> encoderRoutes = new ArrayList<CoderRoute<Encoder>>();
+    private final ConcurrentMap<Class<?>, CoderRoute<Encoder>> encoderRouteCache =
+            new ConcurrentHashMap<Class<?>, CoderRoute<Encoder>>();
+    private final int coderInstanceCount;
     private final EndpointConfig configuration;
     private final Class<? extends Endpoint> endpointClass;
     private final Endpoint endpoint;
     private final Map<TyrusWebSocket, TyrusSession> webSocketToSession =
             new ConcurrentHashMap<TyrusWebSocket, TyrusSession>();
+    private final SessionShards sessionShards = new SessionShards(Runtime.getRuntime().availableProcessors());
     private final Map<String, RemoteSession> clusteredSessions =
             new ConcurrentHashMap<String, RemoteSession>();
     private final ComponentProviderService componentProvider;
@@ -344,6 +357,8 @@ public class TyrusEndpointWrapper {
         encoders.add(new CoderWrapper<Encoder>(new NoOpByteArrayCoder(), byte[].class));
         encoders.add(new CoderWrapper<Encoder>(new ToStringEncoder(), Object.class));
 
+        coderInstanceCount = initCoderRoutes();
+
         // clustered mode
         if (clusterContext != null) {
             clusterContext
@@ -405,6 +420,69 @@ public class TyrusEndpointWrapper {
         }
     }
 
+    /**
+     * Compute the coder routing tables.
+     * <p>
+     * Kind of each coder is resolved here, so that routing of a message does not need to inspect coder classes.
+     * Decoders are split by the kind of message they can decode, keeping their order of precedence. Coders
+     * registered by class get an index into the per-session cache of coder instances, see
+     * {@link TyrusSession#getCoderInstances(TyrusEndpointWrapper)}.
+     *
+     * @return number of coders instantiated per session.
+     */
+    private int initCoderRoutes() {
+        int instanceCount = 0;
+
+        for (CoderWrapper<Decoder> decoder : decoders) {
+            final Class<? extends Decoder> decoderClass = decoder.getCoderClass();
+            final int instanceIndex = decoder.getCoder() == null ? instanceCount++ : -1;
+
+            if (Decoder.Text.class.isAssignableFrom(decoderClass)) {
+                textDecoderRoutes.add(new CoderRoute<Decoder>(decoder, CoderRoute.Kind.TEXT, instanceIndex));
+            } else if (Decoder.TextStream.class.isAssignableFrom(decoderClass)) {
+                textDecoderRoutes.add(new CoderRoute<Decoder>(decoder, CoderRoute.Kind.TEXT_STREAM, instanceIndex));
+            }
+
+            if (Decoder.Binary.class.isAssignableFrom(decoderClass)) {
+                binaryDecoderRoutes.add(new CoderRoute<Decoder>(decoder, CoderRoute.Kind.BINARY, instanceIndex));
+            } else if (Decoder.BinaryStream.class.isAssignableFrom(decoderClass)) {
+                binaryDecoderRoutes
+                        .add(new CoderRoute<Decoder>(decoder, CoderRoute.Kind.BINARY_STREAM, instanceIndex));
+            }
+        }
+
+        for (CoderWrapper<Encoder> encoder : encoders) {
+            final Class<? extends Encoder> encoderClass = encoder.getCoderClass();
+            final CoderRoute.Kind kind;
+
+            if (Encoder.Binary.class.isAssignableFrom(encoderClass)) {
+                kind = CoderRoute.Kind.BINARY;
+            } else if (Encoder.Text.class.isAssignableFrom(encoderClass)) {
+                kind = CoderRoute.Kind.TEXT;
+            } else if (Encoder.BinaryStream.class.isAssignableFrom(encoderClass)) {
+                kind = CoderRoute.Kind.BINARY_STREAM;
+            } else if (Encoder.TextStream.class.isAssignableFrom(encoderClass)) {
+                kind = CoderRoute.Kind.TEXT_STREAM;
+            } else {
+                continue;
+            }
+
+            encoderRoutes.add(new CoderRoute<Encoder>(encoder, kind,
+                                                      encoder.getCoder() == null ? instanceCount++ : -1));
+        }
+
+        return instanceCount;
+    }
+
+    /**
+     * Get the number of coders instantiated per session.
+     *
+     * @return size of the per-session coder instance cache.
+     */
+    int getCoderInstanceCount() {
+        return coderInstanceCount;
+    }
+
     private <T> Object getCoderInstance(Session session, CoderWrapper<T> wrapper) {
         final Object coder = wrapper.getCoder();
         if (coder == null) {
@@ -423,135 +501,121 @@ public class TyrusEndpointWrapper {
         return coder;
     }
 
-    Object decodeCompleteMessage(TyrusSession session, Object message, Class<?> type,
-                                 CoderWrapper<Decoder> selectedDecoder) throws DecodeException, IOException {
-        final Class<? extends Decoder> decoderClass = selectedDecoder.getCoderClass();
-
-        if (Decoder.Text.class.isAssignableFrom(decoderClass)) {
-            if (type != null && type.isAssignableFrom(selectedDecoder.getType())) {
-                final Decoder.Text decoder = (Decoder.Text) getCoderInstance(session, selectedDecoder);
-
-                session.getDebugContext()
-                       .appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_IN, "Decoding with ",
-                                         selectedDecoder);
-
-                // TYRUS-210: willDecode was already called
-                return decoder.decode((String) message);
-            }
-        } else if (Decoder.Binary.class.isAssignableFrom(decoderClass)) {
-            if (type != null && type.isAssignableFrom(selectedDecoder.getType())) {
-                final Decoder.Binary decoder = (Decoder.Binary) getCoderInstance(session, selectedDecoder);
-
-                session.getDebugContext()
-                       .appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_IN, "Decoding with ",
-                                         selectedDecoder);
-                // TYRUS-210: willDecode was already called
-                return decoder.decode((ByteBuffer) message);
-            }
-        } else if (Decoder.TextStream.class.isAssignableFrom(decoderClass)) {
-            if (type != null && type.isAssignableFrom(selectedDecoder.getType())) {
-
-                session.getDebugContext()
-                       .appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_IN, "Decoding with ",
-                                         selectedDecoder);
-
-                return ((Decoder.TextStream) getCoderInstance(session, selectedDecoder))
-                        .decode(new StringReader((String) message));
-            }
-        } else if (Decoder.BinaryStream.class.isAssignableFrom(decoderClass)) {
-            if (type != null && type.isAssignableFrom(selectedDecoder.getType())) {
-                byte[] array = ((ByteBuffer) message).array();
+    private Object getCoderInstance(Session session, CoderRoute<?> route) {
+        if (route.instanceIndex < 0) {
+            return route.coderWrapper.getCoder();
+        }
 
-                session.getDebugContext()
-                       .appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_IN, "Decoding with ",
-                                         selectedDecoder);
+        final AtomicReferenceArray<Object> instances =
+                session instanceof TyrusSession ? ((TyrusSession) session).getCoderInstances(this) : null;
+        if (instances == null) {
+            return getCoderInstance(session, route.coderWrapper);
+        }
 
-                return ((Decoder.BinaryStream) getCoderInstance(session, selectedDecoder))
-                        .decode(new ByteArrayInputStream(array));
+        Object instance = instances.get(route.instanceIndex);
+        if (instance == null) {
+            // component provider keeps one instance per session and coder class, so a racing thread gets the same one.
+            instance = getCoderInstance(session, route.coderWrapper);
+            if (instance != null) {
+                instances.lazySet(route.instanceIndex, instance);
             }
         }
-
-        return null;
+        return instance;
     }
 
-    private ArrayList<CoderWrapper<Decoder>> findApplicableDecoders(TyrusSession session, Object message,
-                                                                    boolean isString) {
-        ArrayList<CoderWrapper<Decoder>> result = new ArrayList<CoderWrapper<Decoder>>();
-
-        for (CoderWrapper<Decoder> dec : decoders) {
-            if (isString && (Decoder.Text.class.isAssignableFrom(dec.getCoderClass()))) {
-                final Decoder.Text decoder = (Decoder.Text) getCoderInstance(session, dec);
-
-                if (decoder.willDecode((String) message)) {
-                    result.add(dec);
-                }
-            } else if (!isString && (Decoder.Binary.class.isAssignableFrom(dec.getCoderClass()))) {
-                final Decoder.Binary decoder = (Decoder.Binary) getCoderInstance(session, dec);
+    boolean willDecode(TyrusSession session, CoderRoute<Decoder> route, Object message) {
+        switch (route.kind) {
+            case TEXT:
+                return ((Decoder.Text) getCoderInstance(session, route)).willDecode((String) message);
+            case BINARY:
+                return ((Decoder.Binary) getCoderInstance(session, route)).willDecode((ByteBuffer) message);
+            default:
+                // stream decoders are always applicable.
+                return true;
+        }
+    }
 
-                if (decoder.willDecode((ByteBuffer) message)) {
-                    result.add(dec);
-                }
-            } else if (isString && (Decoder.TextStream.class.isAssignableFrom(dec.getCoderClass()))) {
-                result.add(dec);
-            } else if (!isString && (Decoder.BinaryStream.class.isAssignableFrom(dec.getCoderClass()))) {
-                result.add(dec);
-            }
+    Object decodeCompleteMessage(TyrusSession session, Object message, Class<?> type,
+                                 CoderRoute<Decoder> selectedDecoder) throws DecodeException, IOException {
+        if (type == null || !type.isAssignableFrom(selectedDecoder.getType())) {
+            return null;
         }
 
         session.getDebugContext()
-               .appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_IN, "Applicable decoders: ", result);
+               .appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_IN, "Decoding with ",
+                                 selectedDecoder);
 
-        return result;
+        switch (selectedDecoder.kind) {
+            case TEXT:
+                // TYRUS-210: willDecode was already called
+                return ((Decoder.Text) getCoderInstance(session, selectedDecoder)).decode((String) message);
+            case BINARY:
+                // TYRUS-210: willDecode was already called
+                return ((Decoder.Binary) getCoderInstance(session, selectedDecoder)).decode((ByteBuffer) message);
+            case TEXT_STREAM:
+                return ((Decoder.TextStream) getCoderInstance(session, selectedDecoder))
+                        .decode(new StringReader((String) message));
+            case BINARY_STREAM:
+                return ((Decoder.BinaryStream) getCoderInstance(session, selectedDecoder))
+                        .decode(new ByteArrayInputStream(Utils.getArray((ByteBuffer) message)));
+            default:
+                return null;
+        }
     }
 
     @SuppressWarnings("unchecked")
     public Object doEncode(Session session, Object message) throws EncodeException, IOException {
-        for (CoderWrapper<Encoder> enc : encoders) {
-            final Class<? extends Encoder> encoderClass = enc.getCoderClass();
-
-            if (Encoder.Binary.class.isAssignableFrom(encoderClass)) {
-                if (enc.getType().isAssignableFrom(message.getClass())) {
-                    final Encoder.Binary encoder = (Encoder.Binary) getCoderInstance(session, enc);
-
-                    logUsedEncoder(enc, session);
-
-                    return encoder.encode(message);
-                }
-            } else if (Encoder.Text.class.isAssignableFrom(encoderClass)) {
-                if (enc.getType().isAssignableFrom(message.getClass())) {
-                    final Encoder.Text encoder = (Encoder.Text) getCoderInstance(session, enc);
+        final CoderRoute<Encoder> route = getEncoderRoute(message.getClass());
 
-                    logUsedEncoder(enc, session);
+        if (route != null) {
+            logUsedEncoder(route, session);
 
-                    return encoder.encode(message);
-                }
-            } else if (Encoder.BinaryStream.class.isAssignableFrom(encoderClass)) {
-                if (enc.getType().isAssignableFrom(message.getClass())) {
+            switch (route.kind) {
+                case BINARY:
+                    return ((Encoder.Binary) getCoderInstance(session, route)).encode(message);
+                case TEXT:
+                    return ((Encoder.Text) getCoderInstance(session, route)).encode(message);
+                case BINARY_STREAM:
                     final ByteArrayOutputStream stream = new ByteArrayOutputStream();
-                    final Encoder.BinaryStream encoder = (Encoder.BinaryStream) getCoderInstance(session, enc);
-
-                    logUsedEncoder(enc, session);
-
-                    encoder.encode(message, stream);
+                    ((Encoder.BinaryStream) getCoderInstance(session, route)).encode(message, stream);
                     return stream;
-                }
-            } else if (Encoder.TextStream.class.isAssignableFrom(encoderClass)) {
-                if (enc.getType().isAssignableFrom(message.getClass())) {
+                case TEXT_STREAM:
                     final Writer writer = new StringWriter();
-                    final Encoder.TextStream encoder = (Encoder.TextStream) getCoderInstance(session, enc);
+                    ((Encoder.TextStream) getCoderInstance(session, route)).encode(message, writer);
+                    return writer;
+                default:
+                    break;
+            }
+        }
 
-                    logUsedEncoder(enc, session);
+        throw new EncodeException(message, LocalizationMessages.ENCODING_FAILED());
+    }
 
-                    encoder.encode(message, writer);
-                    return writer;
+    /**
+     * Get the first registered encoder able to encode instances of given class.
+     * <p>
+     * The result is cached per class; the last registered encoder accepts any object, so the cache is bounded by the
+     * number of distinct classes sent through this endpoint.
+     *
+     * @param messageClass class of the message to be encoded.
+     * @return encoder route or {@code null} if there is no applicable encoder.
+     */
+    private CoderRoute<Encoder> getEncoderRoute(Class<?> messageClass) {
+        CoderRoute<Encoder> route = encoderRouteCache.get(messageClass);
+
+        if (route == null) {
+            for (CoderRoute<Encoder> candidate : encoderRoutes) {
+                if (candidate.getType().isAssignableFrom(messageClass)) {
+                    encoderRouteCache.putIfAbsent(messageClass, candidate);
+                    return candidate;
                 }
             }
         }
 
-        throw new EncodeException(message, LocalizationMessages.ENCODING_FAILED());
+        return route;
     }
 
-    private void logUsedEncoder(CoderWrapper<Encoder> encoder, Session session) {
+    private void logUsedEncoder(CoderRoute<Encoder> encoder, Session session) {
         if (LOGGER.isLoggable(Level.FINEST)) {
             if (session instanceof TyrusSession) {
                 ((TyrusSession) session).getDebugContext()
@@ -659,7 +723,7 @@ public class TyrusEndpointWrapper {
                                                       Collections.<String, String>emptyMap(), null,
                                                       Collections.<String, List<String>>emptyMap(), null, null, null,
                                                       debugContext);
-        webSocketToSession.put(socket, session);
+        addSession(socket, session);
         return session;
     }
 
@@ -667,6 +731,16 @@ public class TyrusEndpointWrapper {
         return webSocketToSession.get(socket);
     }
 
+    private void addSession(TyrusWebSocket socket, TyrusSession session) {
+        webSocketToSession.put(socket, session);
+        sessionShards.add(socket, session);
+    }
+
+    private void removeSession(TyrusWebSocket socket) {
+        webSocketToSession.remove(socket);
+        sessionShards.remove(socket);
+    }
+
     /**
      * Called by the provider when the web socket connection is established.
      *
@@ -695,35 +769,42 @@ public class TyrusEndpointWrapper {
                                        upgradeRequest.getUserPrincipal(),
                                        upgradeRequest.getParameterMap(), clusterContext, connectionId,
                                        ((RequestContext) upgradeRequest).getRemoteAddr(), debugContext);
-            webSocketToSession.put(socket, session);
+            addSession(socket, session);
 
             // max open session per endpoint exceeded?
             boolean maxSessionPerEndpointExceeded = configuration instanceof TyrusServerEndpointConfig
                     && ((TyrusServerEndpointConfig) configuration).getMaxSessions() > 0
                     && webSocketToSession.size() > ((TyrusServerEndpointConfig) configuration).getMaxSessions();
 
-            SessionListener.OnOpenResult onOpenResult = sessionListener.onOpen(session);
+            // the session listener is not consulted when the endpoint refuses the session by itself, so that
+            // it does not need to be notified of the close.
+            SessionListener.OnOpenResult onOpenResult;
+            if (maxSessionPerEndpointExceeded) {
+                onOpenResult = SessionListener.OnOpenResult.MAX_SESSIONS_PER_ENDPOINT_EXCEEDED;
+                sessionListener.onOpenRefused(session, onOpenResult);
+            } else {
+                onOpenResult = sessionListener.onOpen(session);
+            }
 
             // test max open sessions per endpoint and per application
-            if (maxSessionPerEndpointExceeded || !onOpenResult.equals(SessionListener.OnOpenResult.SESSION_ALLOWED)) {
+            if (!onOpenResult.equals(SessionListener.OnOpenResult.SESSION_ALLOWED)) {
                 try {
-                    webSocketToSession.remove(socket);
+                    removeSession(socket);
                     String refuseDetail;
 
-                    if (maxSessionPerEndpointExceeded) {
-                        refuseDetail = LocalizationMessages.MAX_SESSIONS_PER_ENDPOINT_EXCEEDED();
-                    } else {
-                        switch (onOpenResult) {
-                            case MAX_SESSIONS_PER_APP_EXCEEDED:
-                                refuseDetail = LocalizationMessages.MAX_SESSIONS_PER_APP_EXCEEDED();
-                                break;
-                            case MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED:
-                                refuseDetail = LocalizationMessages.MAX_SESSIONS_PER_REMOTEADDR_EXCEEDED();
-                                break;
-                            default:
-                                // should not happen.
-                                refuseDetail = null;
-                        }
+                    switch (onOpenResult) {
+                        case MAX_SESSIONS_PER_ENDPOINT_EXCEEDED:
+                            refuseDetail = LocalizationMessages.MAX_SESSIONS_PER_ENDPOINT_EXCEEDED();
+                            break;
+                        case MAX_SESSIONS_PER_APP_EXCEEDED:
+                            refuseDetail = LocalizationMessages.MAX_SESSIONS_PER_APP_EXCEEDED();
+                            break;
+                        case MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED:
+                            refuseDetail = LocalizationMessages.MAX_SESSIONS_PER_REMOTEADDR_EXCEEDED();
+                            break;
+                        default:
+                            // should not happen.
+                            refuseDetail = null;
                     }
 
                     debugContext.appendLogMessage(LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN,
@@ -753,7 +834,7 @@ public class TyrusEndpointWrapper {
                 debugContext.appendLogMessageWithThrowable(LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN, t,
                                                            t.getMessage());
             }
-            webSocketToSession.remove(socket);
+            removeSession(socket);
             sessionListener.onClose(session, CloseReasons.UNEXPECTED_CONDITION.getCloseReason());
             try {
                 session.close(CloseReasons.UNEXPECTED_CONDITION.getCloseReason());
@@ -815,13 +896,13 @@ public class TyrusEndpointWrapper {
                .appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_IN, "Received binary message");
 
         try {
-            session.restartIdleTimeoutExecutor();
+            session.updateLastActivity();
             final TyrusSession.State state = session.getState();
             if (state == TyrusSession.State.RECEIVING_BINARY || state == TyrusSession.State.RECEIVING_TEXT) {
                 session.setState(TyrusSession.State.RUNNING);
             }
             if (session.isWholeBinaryHandlerPresent()) {
-                session.notifyMessageHandlers(messageBytes, findApplicableDecoders(session, messageBytes, false));
+                session.notifyMessageHandlers(messageBytes, binaryDecoderRoutes);
             } else if (session.isPartialBinaryHandlerPresent()) {
                 session.notifyMessageHandlers(messageBytes, true);
             } else {
@@ -870,13 +951,13 @@ public class TyrusEndpointWrapper {
                .appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_IN, "Received text message");
 
         try {
-            session.restartIdleTimeoutExecutor();
+            session.updateLastActivity();
             final TyrusSession.State state = session.getState();
             if (state == TyrusSession.State.RECEIVING_BINARY || state == TyrusSession.State.RECEIVING_TEXT) {
                 session.setState(TyrusSession.State.RUNNING);
             }
             if (session.isWholeTextHandlerPresent()) {
-                session.notifyMessageHandlers(messageString, findApplicableDecoders(session, messageString, true));
+                session.notifyMessageHandlers(messageString, textDecoderRoutes);
             } else if (session.isPartialTextHandlerPresent()) {
                 session.notifyMessageHandlers(messageString, true);
             } else {
@@ -913,11 +994,12 @@ public class TyrusEndpointWrapper {
      * does not support streaming, it will need to reconstruct the message here and pass the whole
      * thing along.
      *
-     * @param socket        {@link TyrusWebSocket} who sent the message.
-     * @param partialString the String message.
-     * @param last          to indicate if this is the last partial string in the sequence
+     * @param socket {@link TyrusWebSocket} who sent the message.
+     * @param frame  the text frame. Payload is decoded only when it is passed to a partial message handler, whole
+     *               message is buffered as bytes and decoded once the last fragment is received.
+     * @param last   to indicate if this is the last partial string in the sequence
      */
-    void onPartialMessage(TyrusWebSocket socket, String partialString, boolean last) {
+    void onPartialMessage(TyrusWebSocket socket, TextFrame frame, boolean last) {
         TyrusSession session = getSession(socket);
 
         if (session == null) {
@@ -929,10 +1011,10 @@ public class TyrusEndpointWrapper {
                .appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_IN, "Received partial text message");
 
         try {
-            session.restartIdleTimeoutExecutor();
+            session.updateLastActivity();
             final TyrusSession.State state = session.getState();
             if (session.isPartialTextHandlerPresent()) {
-                session.notifyMessageHandlers(partialString, last);
+                session.notifyMessageHandlers(frame.getTextPayload(), last);
                 if (state == TyrusSession.State.RECEIVING_BINARY || state == TyrusSession.State.RECEIVING_TEXT) {
                     session.setState(TyrusSession.State.RUNNING);
                 }
@@ -941,17 +1023,16 @@ public class TyrusEndpointWrapper {
                 switch (state) {
                     case RUNNING:
                         if (buffer == null) {
-                            // TODO:
-                            buffer = new ReaderBuffer(((BaseContainer) container).getExecutorService());
+                            buffer = new ReaderBuffer(getStreamExecutorService(socket));
                             session.setReaderBuffer(buffer);
                         }
                         buffer.resetBuffer(session.getMaxTextMessageBufferSize());
                         buffer.setMessageHandler((session.getMessageHandler(Reader.class)));
-                        buffer.appendMessagePart(partialString, last);
+                        buffer.appendMessagePart(frame.getTextPayload(), last);
                         session.setState(TyrusSession.State.RECEIVING_TEXT);
                         break;
                     case RECEIVING_TEXT:
-                        buffer.appendMessagePart(partialString, last);
+                        buffer.appendMessagePart(frame.getTextPayload(), last);
                         if (last) {
                             session.setState(TyrusSession.State.RUNNING);
                         }
@@ -967,14 +1048,14 @@ public class TyrusEndpointWrapper {
                 switch (state) {
                     case RUNNING:
                         session.getTextBuffer().resetBuffer(session.getMaxTextMessageBufferSize());
-                        session.getTextBuffer().appendMessagePart(partialString);
+                        session.getTextBuffer().appendMessagePart(frame.getPayloadBuffer());
                         session.setState(TyrusSession.State.RECEIVING_TEXT);
                         break;
                     case RECEIVING_TEXT:
-                        session.getTextBuffer().appendMessagePart(partialString);
+                        session.getTextBuffer().appendMessagePart(frame.getPayloadBuffer());
                         if (last) {
                             final String message = session.getTextBuffer().getBufferedContent();
-                            session.notifyMessageHandlers(message, findApplicableDecoders(session, message, true));
+                            session.notifyMessageHandlers(message, textDecoderRoutes);
                             session.setState(TyrusSession.State.RUNNING);
                         }
                         break;
@@ -985,6 +1066,9 @@ public class TyrusEndpointWrapper {
                         throw new IllegalStateException(LocalizationMessages.TEXT_MESSAGE_OUT_OF_ORDER(session));
                 }
             }
+        } catch (Utf8DecodingException e) {
+            // fails the connection, same as invalid payload of a whole message.
+            throw e;
         } catch (Throwable t) {
             if (!processThrowable(t, session)) {
                 ErrorCollector collector = new ErrorCollector();
@@ -1032,7 +1116,7 @@ public class TyrusEndpointWrapper {
                .appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_IN, "Received partial binary message");
 
         try {
-            session.restartIdleTimeoutExecutor();
+            session.updateLastActivity();
             final TyrusSession.State state = session.getState();
             if (session.isPartialBinaryHandlerPresent()) {
                 session.notifyMessageHandlers(partialBytes, last);
@@ -1044,8 +1128,7 @@ public class TyrusEndpointWrapper {
                 switch (state) {
                     case RUNNING:
                         if (buffer == null) {
-                            // TODO
-                            buffer = new InputStreamBuffer(((BaseContainer) container).getExecutorService());
+                            buffer = new InputStreamBuffer(getStreamExecutorService(socket));
                             session.setInputStreamBuffer(buffer);
                         }
                         buffer.resetBuffer(session.getMaxBinaryMessageBufferSize());
@@ -1077,7 +1160,7 @@ public class TyrusEndpointWrapper {
                         session.getBinaryBuffer().appendMessagePart(partialBytes);
                         if (last) {
                             ByteBuffer bb = session.getBinaryBuffer().getBufferedContent();
-                            session.notifyMessageHandlers(bb, findApplicableDecoders(session, bb, false));
+                            session.notifyMessageHandlers(bb, binaryDecoderRoutes);
                             session.setState(TyrusSession.State.RUNNING);
                         }
                         break;
@@ -1157,7 +1240,7 @@ public class TyrusEndpointWrapper {
         session.getDebugContext()
                .appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_IN, "Received pong message");
 
-        session.restartIdleTimeoutExecutor();
+        session.updateLastActivity();
 
         if (session.isPongHandlerPresent()) {
             try {
@@ -1221,7 +1304,7 @@ public class TyrusEndpointWrapper {
         session.getDebugContext()
                .appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_IN, "Received ping message");
 
-        session.restartIdleTimeoutExecutor();
+        session.updateLastActivity();
         try {
             session.getBasicRemote().sendPong(bytes);
         } catch (IOException e) {
@@ -1292,7 +1375,7 @@ public class TyrusEndpointWrapper {
 
             session.setState(TyrusSession.State.CLOSED);
 
-            webSocketToSession.remove(socket);
+            removeSession(socket);
             endpointEventListener.onSessionClosed(session.getId());
             componentProvider.removeSession(session);
             sessionListener.onClose(session, closeReason);
@@ -1330,32 +1413,8 @@ public class TyrusEndpointWrapper {
                 return new HashMap<Session, Future<?>>();
             }
 
-            TyrusWebSocket webSocket = webSocketToSession.keySet().iterator().next();
-            final Frame dataFrame = new TextFrame(message, false, true);
-            final ByteBuffer byteBuffer = webSocket.getProtocolHandler().frame(dataFrame);
-            final byte[] frame = new byte[byteBuffer.remaining()];
-            byteBuffer.get(frame);
-            final long payloadLength = dataFrame.getPayloadLength();
-
-            SessionCallable broadcastCallable = new SessionCallable() {
-
-                @Override
-                public Future<?> call(TyrusWebSocket webSocket, TyrusSession session) {
-                    final ProtocolHandler protocolHandler = webSocket.getProtocolHandler();
-
-                    // we need to let protocol handler execute extensions if there are any
-                    if (protocolHandler.hasExtensions()) {
-                        final Frame dataFrame = new TextFrame(message, false, true);
-                        return sendBroadcast(webSocket, dataFrame, TyrusFrame.FrameType.TEXT);
-                    } else {
-                        final Future<Frame> frameFuture = webSocket.sendRawFrame(ByteBuffer.wrap(frame));
-                        webSocket.getMessageEventListener().onFrameSent(TyrusFrame.FrameType.TEXT, payloadLength);
-                        return frameFuture;
-                    }
-                }
-            };
-
-            return broadcast(broadcastCallable);
+            return broadcast(new BroadcastMessage(new TextFrame(message, false, true), TyrusFrame.FrameType.TEXT,
+                                                  isMonitored()));
         }
     }
 
@@ -1384,158 +1443,362 @@ public class TyrusEndpointWrapper {
                 return new HashMap<Session, Future<?>>();
             }
 
-            TyrusWebSocket webSocket = webSocketToSession.keySet().iterator().next();
-            final Frame dataFrame = new BinaryFrame(byteArrayMessage, false, true);
-            final ByteBuffer byteBuffer = webSocket.getProtocolHandler().frame(dataFrame);
-            final byte[] frame = new byte[byteBuffer.remaining()];
-            byteBuffer.get(frame);
-            final long payloadLength = dataFrame.getPayloadLength();
+            return broadcast(new BroadcastMessage(new BinaryFrame(byteArrayMessage, false, true),
+                                                  TyrusFrame.FrameType.BINARY, isMonitored()));
+        }
+    }
 
-            SessionCallable broadcastCallable = new SessionCallable() {
+    /**
+     * Broadcasts text message to all connected clients without tracking the individual sends.
+     *
+     * @param message message to be broadcasted.
+     * @return future completed when the message was written to all the local sessions; its value is the number of
+     * sessions the message was successfully written to. Messages send from other cluster nodes are not included.
+     */
+    Future<Integer> broadcastAsync(final String message) {
+        if (clusterContext != null) {
+            clusterContext.broadcastText(getEndpointPath(), message);
+            return completedBroadcast();
+        }
 
-                @Override
-                public Future<?> call(TyrusWebSocket webSocket, TyrusSession session) {
-                    final ProtocolHandler protocolHandler = webSocket.getProtocolHandler();
+        if (webSocketToSession.isEmpty()) {
+            return completedBroadcast();
+        }
 
-                    // we need to let protocol handler execute extensions if there are any
-                    if (protocolHandler.hasExtensions()) {
-                        final Frame dataFrame = new BinaryFrame(byteArrayMessage, false, true);
-                        return sendBroadcast(webSocket, dataFrame, TyrusFrame.FrameType.BINARY);
-                    } else {
-                        final Future<Frame> frameFuture = webSocket.sendRawFrame(ByteBuffer.wrap(frame));
-                        webSocket.getMessageEventListener().onFrameSent(TyrusFrame.FrameType.BINARY, payloadLength);
-                        return frameFuture;
-                    }
-                }
-            };
+        return broadcastAsync(new BroadcastMessage(new TextFrame(message, false, true), TyrusFrame.FrameType.TEXT,
+                                                   isMonitored()));
+    }
 
-            return broadcast(broadcastCallable);
+    /**
+     * Broadcasts binary message to all connected clients without tracking the individual sends.
+     *
+     * @param message message to be broadcasted.
+     * @return future completed when the message was written to all the local sessions; its value is the number of
+     * sessions the message was successfully written to. Messages send from other cluster nodes are not included.
+     */
+    Future<Integer> broadcastAsync(final ByteBuffer message) {
+        final byte[] byteArrayMessage = Utils.getRemainingArray(message);
+
+        if (clusterContext != null) {
+            clusterContext.broadcastBinary(getEndpointPath(), byteArrayMessage);
+            return completedBroadcast();
+        }
+
+        if (webSocketToSession.isEmpty()) {
+            return completedBroadcast();
         }
+
+        return broadcastAsync(new BroadcastMessage(new BinaryFrame(byteArrayMessage, false, true),
+                                                   TyrusFrame.FrameType.BINARY, isMonitored()));
+    }
+
+    private static Future<Integer> completedBroadcast() {
+        final TyrusFuture<Integer> future = new TyrusFuture<Integer>();
+        future.setResult(0);
+        return future;
     }
 
     /**
      * Perform broadcast.
      *
-     * @param broadcastCallable callable which serializes a frame to byte[] and passes it to
-     *                          {@link org.glassfish.tyrus.core.TyrusWebSocket}. The {@link
-     *                          org.glassfish.tyrus.core.TyrusEndpointWrapper.SessionCallable} also handles extensions,
-     *                          if any.
+     * @param message message serialized once for all the sessions, it also handles extensions, if any.
      * @return map of send futures.
      * @see #broadcast(java.nio.ByteBuffer)
      * @see #broadcast(java.lang.String)
      */
-    private Map<Session, Future<?>> broadcast(SessionCallable broadcastCallable) {
-        if (parallelBroadcastEnabled) {
-            return executeInParallel(broadcastCallable);
-        }
+    private Map<Session, Future<?>> broadcast(BroadcastMessage message) {
+        final Map<Session, Future<?>> futures;
 
-        Map<Session, Future<?>> futures = new HashMap<Session, Future<?>>();
+        if (parallelBroadcastEnabled && webSocketToSession.size() >= 2 * MIN_SESSIONS_PER_THREAD) {
+            futures = executeInParallel(message);
+        } else {
+            futures = new HashMap<Session, Future<?>>();
 
-        for (Map.Entry<TyrusWebSocket, TyrusSession> e : webSocketToSession.entrySet()) {
-            if (e.getValue().isOpen()) {
-                Future<?> future = broadcastCallable.call(e.getKey(), e.getValue());
-                futures.put(e.getValue(), future);
+            for (Map.Entry<TyrusWebSocket, TyrusSession> e : webSocketToSession.entrySet()) {
+                if (e.getValue().isOpen()) {
+                    Future<?> future = message.send(e.getKey());
+                    futures.put(e.getValue(), future);
+                }
             }
         }
 
+        message.reportSent(endpointEventListener);
+        message.report(endpointEventListener);
         return futures;
     }
 
     /**
-     * Serialize dataframe and send it to {@link org.glassfish.tyrus.core.TyrusWebSocket}.
+     * Process {@link #sessionShards} in parallel, each shard in its own task.
      *
-     * @param webSocket {@link org.glassfish.tyrus.core.TyrusWebSocket} instance used for sending the frame.
-     * @param dataFrame frame to be sent.
-     * @param frameType type of the frame (monitoring).
-     * @return future representing outcome of the send operation.
+     * @param message message to be sent to open sessions.
+     * @return futures of the operations executed on each session.
      */
-    private Future<?> sendBroadcast(TyrusWebSocket webSocket, Frame dataFrame, TyrusFrame.FrameType frameType) {
-        byte[] tempFrame;
-        final ByteBuffer byteBuffer = webSocket.getProtocolHandler().frame(dataFrame);
-        tempFrame = new byte[byteBuffer.remaining()];
-        byteBuffer.get(tempFrame);
-
-        final Future<Frame> frameFuture = webSocket.sendRawFrame(ByteBuffer.wrap(tempFrame));
-        webSocket.getMessageEventListener()
-                 .onFrameSent(frameType, dataFrame.getPayloadLength());
-        return frameFuture;
+    private Map<Session, Future<?>> executeInParallel(final BroadcastMessage message) {
+        final ExecutorService executor = ((BaseContainer) container).getExecutorService();
+        final Map<Future<Map<Session, Future<?>>>, Map<TyrusWebSocket, TyrusSession>> submitFutures =
+                new HashMap<Future<Map<Session, Future<?>>>, Map<TyrusWebSocket, TyrusSession>>();
+
+        for (int i = 0; i < sessionShards.getShardCount(); i++) {
+            final Map<TyrusWebSocket, TyrusSession> shard = sessionShards.getShard(i);
+            if (shard.isEmpty()) {
+                continue;
+            }
+
+            Future<Map<Session, Future<?>>> submitFuture = executor.submit(new Callable<Map<Session, Future<?>>>() {
+
+                @Override
+                public Map<Session, Future<?>> call() throws Exception {
+                    Map<Session, Future<?>> futures = new HashMap<Session, Future<?>>();
+
+                    for (Map.Entry<TyrusWebSocket, TyrusSession> e : shard.entrySet()) {
+                        if (e.getValue().isOpen()) {
+                            futures.put(e.getValue(), message.send(e.getKey()));
+                        }
+                    }
+                    return futures;
+                }
+            });
+
+            submitFutures.put(submitFuture, shard);
+        }
+
+        final Map<Session, Future<?>> futures = new HashMap<Session, Future<?>>();
+
+        for (Map.Entry<Future<Map<Session, Future<?>>>, Map<TyrusWebSocket, TyrusSession>> e
+                : submitFutures.entrySet()) {
+            try {
+                futures.putAll(e.getKey().get());
+            } catch (InterruptedException ex) {
+                handleSubmitException(futures, e.getValue(), ex);
+            } catch (ExecutionException ex) {
+                handleSubmitException(futures, e.getValue(), ex);
+            }
+        }
+
+        return futures;
+    }
+
+    private void handleSubmitException(Map<Session, Future<?>> futures, Map<TyrusWebSocket, TyrusSession> shard,
+                                       Exception e) {
+
+        for (TyrusSession session : shard.values()) {
+            if (!futures.containsKey(session)) {
+                TyrusFuture<Void> future = new TyrusFuture<Void>();
+                future.setFailure(e);
+                futures.put(session, future);
+            }
+        }
     }
 
     /**
-     * Divides open sessions into subsets on which an operation passed as {@code broadcastCallable} will be executed in
-     * parallel.
+     * Perform broadcast without tracking individual sends.
+     * <p>
+     * When parallel broadcast is enabled, each session shard is processed in its own task and this method does not
+     * wait for the tasks to complete.
      *
-     * @param broadcastCallable operation to be executed on open sessions.
-     * @return futures of the operations executed on each session.
+     * @param message message serialized once for all the sessions.
+     * @return aggregate completion of the broadcast.
      */
-    private Map<Session, Future<?>> executeInParallel(final SessionCallable broadcastCallable) {
-        final List<Map.Entry<TyrusWebSocket, TyrusSession>> sessions =
-                new ArrayList<Map.Entry<TyrusWebSocket, TyrusSession>>();
+    private Future<Integer> broadcastAsync(final BroadcastMessage message) {
+        final BroadcastCompletion completion = new BroadcastCompletion(message);
+
+        if (parallelBroadcastEnabled && webSocketToSession.size() >= 2 * MIN_SESSIONS_PER_THREAD) {
+            final ExecutorService executor = ((BaseContainer) container).getExecutorService();
 
-        for (Map.Entry<TyrusWebSocket, TyrusSession> e : webSocketToSession.entrySet()) {
+            for (int i = 0; i < sessionShards.getShardCount(); i++) {
+                final Map<TyrusWebSocket, TyrusSession> shard = sessionShards.getShard(i);
+                if (shard.isEmpty()) {
+                    continue;
+                }
+
+                // keeps the completion pending until the shard is processed.
+                completion.dispatchStarted();
+                final Runnable task = new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            sendAll(shard, message, completion);
+                        } finally {
+                            completion.dispatchFinished();
+                        }
+                    }
+                };
+
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    task.run();
+                }
+            }
+        } else {
+            sendAll(webSocketToSession, message, completion);
+        }
+
+        completion.dispatchFinished();
+        return completion.getFuture();
+    }
+
+    private static void sendAll(Map<TyrusWebSocket, TyrusSession> sessions, BroadcastMessage message,
+                                BroadcastCompletion completion) {
+        for (Map.Entry<TyrusWebSocket, TyrusSession> e : sessions.entrySet()) {
             if (e.getValue().isOpen()) {
-                sessions.add(e);
+                completion.dispatched();
+                try {
+                    message.send(e.getKey(), completion);
+                } catch (RuntimeException ex) {
+                    completion.failed(ex);
+                }
             }
         }
+    }
 
-        if (sessions.isEmpty()) {
-            return new HashMap<Session, Future<?>>();
+    /**
+     * Message serialized once for all the recipients of a broadcast.
+     * <p>
+     * All sessions without negotiated extensions share one buffer containing the serialized frame, only a duplicate
+     * (independent position and limit) is created for each of them. The buffer is backed by an array, so that writers
+     * can pass it on without copying; writers never modify the data they write. Sessions with negotiated extensions
+     * are grouped by {@link ProtocolHandler#getSharedOutgoingKey()}, the frame is processed by extensions once per
+     * group and shared by all the group members. Sessions with extensions depending on a per-connection state
+     * have to serialize the frame on their own.
+     */
+    private static class BroadcastMessage {
+
+        private final Frame dataFrame;
+        private final TyrusFrame.FrameType frameType;
+        private final ByteBuffer frame;
+        private final Map<Object, ByteBuffer> processedFrames = new ConcurrentHashMap<Object, ByteBuffer>();
+        private final AtomicInteger processedCount = new AtomicInteger(0);
+        private final AtomicInteger reusedCount = new AtomicInteger(0);
+        private final AtomicInteger recipientCount = new AtomicInteger(0);
+        private final boolean timed;
+        private final long start;
+
+        BroadcastMessage(Frame dataFrame, TyrusFrame.FrameType frameType, boolean timed) {
+            this.dataFrame = dataFrame;
+            this.frameType = frameType;
+            this.frame = ProtocolHandler.encodeUnmasked(dataFrame);
+            this.timed = timed;
+            this.start = timed ? System.nanoTime() : 0;
         }
 
-        ExecutorService executor = ((BaseContainer) sessions.get(0).getValue().getContainer()).getExecutorService();
-        Map<Future<Map<Session, Future<?>>>, int[]> submitFutures =
-                new HashMap<Future<Map<Session, Future<?>>>, int[]>();
+        Future<?> send(TyrusWebSocket webSocket) {
+            final Future<Frame> frameFuture = webSocket.sendRawFrame(serialize(webSocket));
+            recipientCount.incrementAndGet();
+            webSocket.getMessageEventListener().onFrameSent(frameType, dataFrame.getPayloadLength());
+            return frameFuture;
+        }
 
-        int sessionCount = sessions.size();
-        int maxThreadCount = sessionCount / MIN_SESSIONS_PER_THREAD == 0 ? 1 : sessionCount / MIN_SESSIONS_PER_THREAD;
-        int threadCount = Math.min(Runtime.getRuntime().availableProcessors(), maxThreadCount);
+        void send(TyrusWebSocket webSocket, CompletionHandler<Frame> completionHandler) {
+            webSocket.sendRawFrame(serialize(webSocket), completionHandler);
+            recipientCount.incrementAndGet();
+            webSocket.getMessageEventListener().onFrameSent(frameType, dataFrame.getPayloadLength());
+        }
 
-        for (int i = 0; i < threadCount; i++) {
+        private ByteBuffer serialize(TyrusWebSocket webSocket) {
+            final ProtocolHandler protocolHandler = webSocket.getProtocolHandler();
 
-            final int lowerBound = (sessionCount + threadCount - 1) / threadCount * i;
-            final int upperBound = Math.min((sessionCount + threadCount - 1) / threadCount * (i + 1), sessionCount);
+            if (!protocolHandler.hasExtensions()) {
+                return frame.duplicate();
+            }
 
-            Future<Map<Session, Future<?>>> submitFuture = executor.submit(new Callable<Map<Session, Future<?>>>() {
+            // we need to let protocol handler execute extensions
+            final Object key = protocolHandler.getSharedOutgoingKey();
+            if (key == null) {
+                processedCount.incrementAndGet();
+                return protocolHandler.frame(dataFrame);
+            }
 
-                @Override
-                public Map<Session, Future<?>> call() throws Exception {
-                    Map<Session, Future<?>> futures = new HashMap<Session, Future<?>>();
+            ByteBuffer processed = processedFrames.get(key);
+            if (processed == null) {
+                // concurrent shards may process the same group more than once; any of the results can be shared.
+                processedCount.incrementAndGet();
+                processed = protocolHandler.frame(dataFrame);
+                processedFrames.putIfAbsent(key, processed);
+            } else {
+                reusedCount.incrementAndGet();
+            }
 
-                    for (int j = lowerBound; j < upperBound; j++) {
-                        Map.Entry<TyrusWebSocket, TyrusSession> e = sessions.get(j);
-                        Future<?> future = broadcastCallable.call(e.getKey(), e.getValue());
-                        futures.put(e.getValue(), future);
-                    }
-                    return futures;
-                }
-            });
+            return processed.duplicate();
+        }
 
-            submitFutures.put(submitFuture, new int[]{lowerBound, upperBound});
+        void reportSent(EndpointEventListener endpointEventListener) {
+            if (timed) {
+                endpointEventListener.onBroadcastSent(recipientCount.get(), System.nanoTime() - start);
+            }
         }
 
-        final Map<Session, Future<?>> futures = new HashMap<Session, Future<?>>();
+        void report(EndpointEventListener endpointEventListener) {
+            final int processed = processedCount.get();
+            final int reused = reusedCount.get();
 
-        for (Future<Map<Session, Future<?>>> submitFuture : submitFutures.keySet()) {
-            try {
-                futures.putAll(submitFuture.get());
-            } catch (InterruptedException e) {
-                handleSubmitException(futures, sessions, submitFutures.get(submitFuture), e);
-            } catch (ExecutionException e) {
-                handleSubmitException(futures, sessions, submitFutures.get(submitFuture), e);
+            if (processed + reused > 0) {
+                endpointEventListener.onBroadcastExtensionsProcessed(processed, reused);
             }
         }
-
-        return futures;
     }
 
-    private void handleSubmitException(Map<Session, Future<?>> futures,
-                                       List<Map.Entry<TyrusWebSocket, TyrusSession>> sessions,
-                                       int[] bounds, Exception e) {
+    /**
+     * Aggregate completion of a broadcast.
+     * <p>
+     * Counts pending sends; the future is completed when all the dispatched sends are completed and dispatching is
+     * finished. Every dispatching thread holds one pending "send" until it calls {@link #dispatchFinished()}; the
+     * fan-out is reported when the last dispatching thread finishes.
+     */
+    private class BroadcastCompletion extends CompletionHandler<Frame> {
+
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicInteger dispatching = new AtomicInteger(1);
+        private final AtomicInteger succeeded = new AtomicInteger(0);
+        private final TyrusFuture<Integer> future = new TyrusFuture<Integer>();
+        private final BroadcastMessage message;
 
-        for (int j = bounds[0]; j < bounds[1]; j++) {
-            TyrusFuture<Void> future = new TyrusFuture<Void>();
-            future.setFailure(e);
-            futures.put(sessions.get(j).getValue(), future);
+        BroadcastCompletion(BroadcastMessage message) {
+            this.message = message;
+        }
+
+        void dispatched() {
+            pending.incrementAndGet();
+        }
+
+        void dispatchStarted() {
+            dispatching.incrementAndGet();
+            pending.incrementAndGet();
+        }
+
+        void dispatchFinished() {
+            if (dispatching.decrementAndGet() == 0) {
+                message.reportSent(endpointEventListener);
+            }
+            decrement();
+        }
+
+        @Override
+        public void completed(Frame result) {
+            succeeded.incrementAndGet();
+            decrement();
+        }
+
+        @Override
+        public void failed(Throwable throwable) {
+            LOGGER.log(Level.FINEST, "Broadcast message cannot be sent.", throwable);
+            decrement();
+        }
+
+        @Override
+        public void cancelled() {
+            decrement();
+        }
+
+        Future<Integer> getFuture() {
+            return future;
+        }
+
+        private void decrement() {
+            if (pending.decrementAndGet() == 0) {
+                message.report(endpointEventListener);
+                future.setResult(succeeded.get());
+            }
         }
     }
 
@@ -1606,6 +1869,52 @@ public class TyrusEndpointWrapper {
         return false;
     }
 
+    /**
+     * Get listener of endpoint-level monitoring events.
+     *
+     * @return endpoint event listener, {@link EndpointEventListener#NO_OP} when monitoring is not enabled.
+     */
+    EndpointEventListener getEndpointEventListener() {
+        return endpointEventListener;
+    }
+
+    /**
+     * Check whether endpoint-level monitoring events are listened to.
+     *
+     * @return {@code true} when an endpoint event listener other than {@link EndpointEventListener#NO_OP} is set.
+     */
+    private boolean isMonitored() {
+        return endpointEventListener != EndpointEventListener.NO_OP;
+    }
+
+    /**
+     * Get executor service used for ordered dispatch of incoming messages.
+     *
+     * @return dispatch executor service of the container.
+     * @see BaseContainer#getDispatchExecutorService()
+     */
+    ExecutorService getDispatchExecutorService() {
+        return ((BaseContainer) container).getDispatchExecutorService();
+    }
+
+    /**
+     * Get executor service used to invoke {@link java.io.Reader} and {@link java.io.InputStream} message handlers,
+     * which block the invoking thread until the whole message is read.
+     * <p>
+     * Handlers are invoked on virtual threads when ordered dispatch is enabled and the runtime supports them, otherwise
+     * the container executor service is used, so that blocked handlers cannot exhaust the bounded dispatch pool.
+     *
+     * @param socket socket which received the message.
+     * @return executor service for streamed messages.
+     */
+    private ExecutorService getStreamExecutorService(TyrusWebSocket socket) {
+        final BaseContainer baseContainer = (BaseContainer) container;
+        if (socket.isOrderedDispatch() && baseContainer.isVirtualThreadDispatch()) {
+            return baseContainer.getDispatchExecutorService();
+        }
+        return baseContainer.getExecutorService();
+    }
+
     /**
      * Factory method to create new {@link TyrusWebSocket} instances.  Developers may
      * wish to override this to return customized {@link TyrusWebSocket} implementations.
@@ -1706,6 +2015,46 @@ public class TyrusEndpointWrapper {
         return sb.toString();
     }
 
+    /**
+     * Routing information of a registered coder, resolved once per endpoint.
+     *
+     * @param <T> {@link Decoder} or {@link Encoder}.
+     */
+    static final class CoderRoute<T> {
+
+        /**
+         * Kind of the messages the coder works with.
+         */
+        enum Kind {
+            TEXT, BINARY, TEXT_STREAM, BINARY_STREAM
+        }
+
+        private final CoderWrapper<T> coderWrapper;
+        private final Kind kind;
+        // index into the per-session coder instance cache, -1 if the coder instance is shared by all the sessions.
+        private final int instanceIndex;
+
+        private CoderRoute(CoderWrapper<T> coderWrapper, Kind kind, int instanceIndex) {
+            this.coderWrapper = coderWrapper;
+            this.kind = kind;
+            this.instanceIndex = instanceIndex;
+        }
+
+        /**
+         * Get the return type of the encode / decode method.
+         *
+         * @return return type of the encode / decode method.
+         */
+        Class<?> getType() {
+            return coderWrapper.getType();
+        }
+
+        @Override
+        public String toString() {
+            return coderWrapper.toString();
+        }
+    }
+
     /**
      * Session listener.
      * <p>
@@ -1731,7 +2080,12 @@ public class TyrusEndpointWrapper {
             /**
              * Session cannot be opened - the maximal number of open session per remote address exceeded.
              */
-            MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED
+            MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED,
+
+            /**
+             * Session cannot be opened - the maximal number of open session per endpoint exceeded.
+             */
+            MAX_SESSIONS_PER_ENDPOINT_EXCEEDED
         }
 
         /**
@@ -1749,6 +2103,18 @@ public class TyrusEndpointWrapper {
             return OnOpenResult.SESSION_ALLOWED;
         }
 
+        /**
+         * Invoked instead of {@link #onOpen(TyrusSession)} when the endpoint refuses to open the session before the
+         * listener is consulted.
+         * <p>
+         * {@link #onClose(TyrusSession, CloseReason)} is not invoked for refused sessions.
+         *
+         * @param session session which will not be opened.
+         * @param result  reason why the session will not be opened.
+         */
+        public void onOpenRefused(final TyrusSession session, final OnOpenResult result) {
+        }
+
         /**
          * Invoked after {@link javax.websocket.OnClose} annotated method
          * or {@link Endpoint#onClose(javax.websocket.Session, javax.websocket.CloseReason)} execution.
@@ -1900,9 +2266,4 @@ public class TyrusEndpointWrapper {
             return null;
         }
     };
-
-    private static interface SessionCallable {
-
-        Future<?> call(TyrusWebSocket tyrusWebSocket, TyrusSession session);
-    }
 }
@@ -47,6 +47,7 @@ import java.io.Writer;
 import java.nio.ByteBuffer;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
@@ -102,7 +103,7 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
             try {
                 processFuture(future);
             } finally {
-                session.restartIdleTimeoutExecutor();
+                session.updateLastActivity();
             }
         }
 
@@ -117,7 +118,7 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
             try {
                 processFuture(future);
             } finally {
-                session.restartIdleTimeoutExecutor();
+                session.updateLastActivity();
             }
         }
 
@@ -132,7 +133,7 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
             try {
                 processFuture(future);
             } finally {
-                session.restartIdleTimeoutExecutor();
+                session.updateLastActivity();
             }
         }
 
@@ -147,31 +148,7 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
             try {
                 processFuture(future);
             } finally {
-                session.restartIdleTimeoutExecutor();
-            }
-        }
-
-        /**
-         * Wait for the future to be completed.
-         * <p>
-         * {@link java.util.concurrent.Future#get()} will be invoked and exception processed (if thrown).
-         *
-         * @param future to be processed.
-         * @throws IOException when {@link java.io.IOException} is the cause of thrown {@link
-         *                     java.util.concurrent.ExecutionException} it will be extracted and rethrown. Otherwise
-         *                     whole ExecutionException will be rethrown wrapped in {@link java.io.IOException}.
-         */
-        private void processFuture(Future<?> future) throws IOException {
-            try {
-                future.get();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            } catch (ExecutionException e) {
-                if (e.getCause() instanceof IOException) {
-                    throw (IOException) e.getCause();
-                } else {
-                    throw new IOException(e.getCause());
-                }
+                session.updateLastActivity();
             }
         }
 
@@ -192,12 +169,13 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
                     throw new IOException(e.getCause());
                 }
             }
-            session.restartIdleTimeoutExecutor();
+            session.updateLastActivity();
         }
 
         @Override
         public OutputStream getSendStream() throws IOException {
-            return new OutputStreamToAsyncBinaryAdapter(webSocket);
+            return new OutputStreamToAsyncBinaryAdapter(webSocket, session.getStreamFragmentSize(),
+                                                        session.getMaxStreamFramesInFlight());
         }
 
         @Override
@@ -221,21 +199,21 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
         public void sendText(String text, SendHandler handler) {
             checkNotNull(text, "text");
             checkNotNull(handler, "handler");
-            session.restartIdleTimeoutExecutor();
+            session.updateLastActivity();
             sendAsync(text, handler, AsyncMessageType.TEXT);
         }
 
         @Override
         public Future<Void> sendText(String text) {
             checkNotNull(text, "text");
-            session.restartIdleTimeoutExecutor();
+            session.updateLastActivity();
             return sendAsync(text, AsyncMessageType.TEXT);
         }
 
         @Override
         public Future<Void> sendBinary(ByteBuffer data) {
             checkNotNull(data, "data");
-            session.restartIdleTimeoutExecutor();
+            session.updateLastActivity();
             return sendAsync(data, AsyncMessageType.BINARY);
         }
 
@@ -243,7 +221,7 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
         public void sendBinary(ByteBuffer data, SendHandler handler) {
             checkNotNull(data, "data");
             checkNotNull(handler, "handler");
-            session.restartIdleTimeoutExecutor();
+            session.updateLastActivity();
             sendAsync(data, handler, AsyncMessageType.BINARY);
         }
 
@@ -251,14 +229,14 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
         public void sendObject(Object data, SendHandler handler) {
             checkNotNull(data, "data");
             checkNotNull(handler, "handler");
-            session.restartIdleTimeoutExecutor();
+            session.updateLastActivity();
             sendAsync(data, handler, AsyncMessageType.OBJECT);
         }
 
         @Override
         public Future<Void> sendObject(Object data) {
             checkNotNull(data, "data");
-            session.restartIdleTimeoutExecutor();
+            session.updateLastActivity();
             return sendAsync(data, AsyncMessageType.OBJECT);
         }
 
@@ -457,7 +435,7 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
         if (applicationData != null && applicationData.remaining() > 125) {
             throw new IllegalArgumentException(LocalizationMessages.APPLICATION_DATA_TOO_LONG("Ping"));
         }
-        session.restartIdleTimeoutExecutor();
+        session.updateLastActivity();
         webSocket.sendPing(Utils.getRemainingArray(applicationData));
     }
 
@@ -466,7 +444,7 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
         if (applicationData != null && applicationData.remaining() > 125) {
             throw new IllegalArgumentException(LocalizationMessages.APPLICATION_DATA_TOO_LONG("Pong"));
         }
-        session.restartIdleTimeoutExecutor();
+        session.updateLastActivity();
         webSocket.sendPong(Utils.getRemainingArray(applicationData));
     }
 
@@ -475,19 +453,82 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
         return "Wrapped: " + getClass().getSimpleName();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Batching is a property of the underlying connection, so it is shared by {@link javax.websocket.RemoteEndpoint
+     * .Basic} and {@link javax.websocket.RemoteEndpoint.Async} instances of the same session. Batch is written when
+     * its size reaches configured maximal batch size, when the first frame in the batch waits longer than configured
+     * maximal batch delay or when {@link #flushBatch()} is called.
+     * <p>
+     * Sending of a batched message completes once the message is in the batch. When a batch cannot be written, the
+     * session is closed with {@link javax.websocket.CloseReason.CloseCodes#CLOSED_ABNORMALLY} and the next {@link
+     * #flushBatch()} throws {@link IOException}.
+     *
+     * @see TyrusWebSocketEngine#MAX_BATCH_SIZE
+     * @see TyrusWebSocketEngine#MAX_BATCH_DELAY
+     */
     @Override
-    public void setBatchingAllowed(boolean allowed) {
-        // TODO: Implement.
+    public void setBatchingAllowed(boolean allowed) throws IOException {
+        final ProtocolHandler protocolHandler = webSocket.getProtocolHandler();
+
+        ScheduledExecutorService executorService = null;
+        if (allowed && session.getContainer() instanceof ExecutorServiceProvider) {
+            executorService = ((ExecutorServiceProvider) session.getContainer()).getScheduledExecutorService();
+        }
+
+        protocolHandler.setBatchingAllowed(allowed, executorService);
+
+        if (!allowed) {
+            processFuture(protocolHandler.flushBatch());
+        }
     }
 
     @Override
     public boolean getBatchingAllowed() {
-        return false;  // TODO: Implement.
+        return webSocket.getProtocolHandler().isBatchingAllowed();
     }
 
     @Override
-    public void flushBatch() {
-        // TODO: Implement.
+    public void flushBatch() throws IOException {
+        processFuture(webSocket.getProtocolHandler().flushBatch());
+    }
+
+    /**
+     * Get number of batch flushes caused by given {@link BatchFlushCause}.
+     * <p>
+     * Counters are shared by all remote endpoints of the same session.
+     *
+     * @param cause flush cause.
+     * @return number of batch flushes.
+     */
+    @Beta
+    public long getBatchFlushCount(BatchFlushCause cause) {
+        return webSocket.getProtocolHandler().getBatchFlushCount(cause);
+    }
+
+    /**
+     * Wait for the future to be completed.
+     * <p>
+     * {@link java.util.concurrent.Future#get()} will be invoked and exception processed (if thrown).
+     *
+     * @param future to be processed.
+     * @throws IOException when {@link java.io.IOException} is the cause of thrown {@link
+     *                     java.util.concurrent.ExecutionException} it will be extracted and rethrown. Otherwise
+     *                     whole ExecutionException will be rethrown wrapped in {@link java.io.IOException}.
+     */
+    private static void processFuture(Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else {
+                throw new IOException(e.getCause());
+            }
+        }
     }
 
     public void close(CloseReason cr) {
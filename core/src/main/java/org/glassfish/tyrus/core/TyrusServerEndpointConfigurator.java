@@ -48,6 +48,7 @@ import javax.websocket.server.HandshakeRequest;
 import javax.websocket.server.ServerEndpointConfig;
 
 import org.glassfish.tyrus.core.extension.ExtendedExtension;
+import org.glassfish.tyrus.core.extension.SharedOutgoingExtension;
 import org.glassfish.tyrus.core.frame.Frame;
 
 /**
@@ -109,7 +110,7 @@ public class TyrusServerEndpointConfigurator extends ServerEndpointConfig.Config
                         if (!alreadyAdded) {
                             if (extension instanceof ExtendedExtension) {
                                 final ExtendedExtension extendedExtension = (ExtendedExtension) extension;
-                                result.add(new ExtendedExtension() {
+                                result.add(new SharedOutgoingExtension() {
                                     @Override
                                     public Frame processIncoming(ExtensionContext context, Frame frame) {
                                         return extendedExtension.processIncoming(context, frame);
@@ -144,6 +145,16 @@ public class TyrusServerEndpointConfigurator extends ServerEndpointConfig.Config
                                         extendedExtension.destroy(context);
                                     }
 
+                                    @Override
+                                    public Object getSharedOutgoingKey(ExtensionContext context) {
+                                        if (extendedExtension instanceof SharedOutgoingExtension) {
+                                            return ((SharedOutgoingExtension) extendedExtension)
+                                                    .getSharedOutgoingKey(context);
+                                        }
+
+                                        return null;
+                                    }
+
                                     @Override
                                     public String getName() {
                                         return name;
@@ -41,8 +41,10 @@ package org.glassfish.tyrus.core;
 
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.security.Principal;
 import java.util.Collections;
@@ -53,10 +55,9 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -73,7 +74,6 @@ import org.glassfish.tyrus.core.cluster.ClusterContext;
 import org.glassfish.tyrus.core.cluster.DistributedSession;
 import org.glassfish.tyrus.core.cluster.RemoteSession;
 import org.glassfish.tyrus.core.cluster.SessionEventListener;
-import org.glassfish.tyrus.core.coder.CoderWrapper;
 import org.glassfish.tyrus.core.l10n.LocalizationMessages;
 
 /**
@@ -98,7 +98,6 @@ public class TyrusSession implements Session, DistributedSession {
     private final Map<String, String> pathParameters;
     private final Principal userPrincipal;
     private final Map<String, List<String>> requestParameterMap;
-    private final Object idleTimeoutLock = new Object();
     private final String id;
     private final String connectionId;
     private final Map<String, Object> userProperties;
@@ -110,19 +109,24 @@ public class TyrusSession implements Session, DistributedSession {
     private final String negotiatedSubprotocol;
     private final String remoteAddr;
     private final DebugContext debugContext;
+    private final AtomicReferenceArray<Object> coderInstances;
+    private final TyrusWebSocket socket;
 
     private final Map<RemoteSession.DistributedMapKey, Object> distributedPropertyMap;
     private final Map<String, Object> distributedUserProperties;
 
     private volatile long maxIdleTimeout = 0;
-    private volatile ScheduledFuture<?> idleTimeoutFuture = null;
+    private volatile IdleTimeout idleTimeout = null;
+    private volatile long lastActivity = System.nanoTime();
     private int maxBinaryMessageBufferSize = Integer.MAX_VALUE;
     private int maxTextMessageBufferSize = Integer.MAX_VALUE;
-    private ScheduledExecutorService service;
+    private TimingWheel timingWheel;
     private ReaderBuffer readerBuffer;
     private InputStreamBuffer inputStreamBuffer;
     private volatile long heartbeatInterval;
-    private volatile ScheduledFuture<?> heartbeatTask;
+    private volatile Heartbeat heartbeat;
+    private volatile int streamFragmentSize = BinaryStreamSender.DEFAULT_FRAGMENT_SIZE;
+    private volatile int maxStreamFramesInFlight = BinaryStreamSender.DEFAULT_MAX_FRAMES_IN_FLIGHT;
 
     TyrusSession(WebSocketContainer container, TyrusWebSocket socket, TyrusEndpointWrapper endpointWrapper,
                  String subprotocol, List<Extension> extensions, boolean isSecure,
@@ -139,9 +143,11 @@ public class TyrusSession implements Session, DistributedSession {
         this.queryString = queryString;
         this.pathParameters = pathParameters == null ? Collections.<String, String>emptyMap()
                 : Collections.unmodifiableMap(new HashMap<String, String>(pathParameters));
+        this.socket = socket;
         this.basicRemote = new TyrusRemoteEndpoint.Basic(this, socket, endpointWrapper);
         this.asyncRemote = new TyrusRemoteEndpoint.Async(this, socket, endpointWrapper);
         this.handlerManager = MessageHandlerManager.fromDecoderInstances(endpointWrapper.getDecoders());
+        this.coderInstances = new AtomicReferenceArray<Object>(endpointWrapper.getCoderInstanceCount());
         this.userPrincipal = principal;
         this.requestParameterMap = requestParameterMap == null ? Collections.<String, List<String>>emptyMap()
                 : Collections.unmodifiableMap(new HashMap<String, List<String>>(requestParameterMap));
@@ -152,7 +158,7 @@ public class TyrusSession implements Session, DistributedSession {
         if (container != null) {
             maxTextMessageBufferSize = container.getDefaultMaxTextMessageBufferSize();
             maxBinaryMessageBufferSize = container.getDefaultMaxBinaryMessageBufferSize();
-            service = ((ExecutorServiceProvider) container).getScheduledExecutorService();
+            timingWheel = ((ExecutorServiceProvider) container).getTimingWheel();
             setMaxIdleTimeout(container.getDefaultMaxSessionIdleTimeout());
         }
 
@@ -313,7 +319,7 @@ public class TyrusSession implements Session, DistributedSession {
     public void setMaxIdleTimeout(long maxIdleTimeout) {
         checkConnectionState(State.CLOSED);
         this.maxIdleTimeout = maxIdleTimeout;
-        restartIdleTimeoutExecutor();
+        scheduleIdleTimeout();
         if (distributedPropertyMap != null) {
             distributedPropertyMap.put(RemoteSession.DistributedMapKey.MAX_IDLE_TIMEOUT, maxIdleTimeout);
         }
@@ -474,6 +480,232 @@ public class TyrusSession implements Session, DistributedSession {
         return endpointWrapper.broadcast(message);
     }
 
+    /**
+     * Broadcasts text message to all connected clients, without tracking the status of the message per session.
+     * <p>
+     * The message is serialized only once and the serialized frame is shared by all the sessions without negotiated
+     * extensions. The broadcast can be executed in parallel, which can be enabled by setting
+     * {@link org.glassfish.tyrus.core.TyrusWebSocketEngine#PARALLEL_BROADCAST_ENABLED}
+     * to {@code true} in server properties.
+     *
+     * @param message message to be broadcasted.
+     * @return future completed when the message was written to all local sessions. The value of the future is the
+     * number of local sessions the message was successfully written to.
+     */
+    @Beta
+    public Future<Integer> broadcastAsync(String message) {
+        return endpointWrapper.broadcastAsync(message);
+    }
+
+    /**
+     * Broadcasts binary message to all connected clients, without tracking the status of the message per session.
+     * <p>
+     * The message is serialized only once and the serialized frame is shared by all the sessions without negotiated
+     * extensions. The broadcast can be executed in parallel, which can be enabled by setting
+     * {@link org.glassfish.tyrus.core.TyrusWebSocketEngine#PARALLEL_BROADCAST_ENABLED}
+     * to {@code true} in server properties.
+     *
+     * @param message message to be broadcasted.
+     * @return future completed when the message was written to all local sessions. The value of the future is the
+     * number of local sessions the message was successfully written to.
+     */
+    @Beta
+    public Future<Integer> broadcastAsync(ByteBuffer message) {
+        return endpointWrapper.broadcastAsync(message);
+    }
+
+    /**
+     * Get information whether a message can be sent without exceeding the outbound queue limits.
+     * <p>
+     * Producers can use this method (together with {@link #onWritable(Runnable)}) to throttle sending instead of
+     * having messages rejected or discarded according to {@link OutboundQueuePolicy}. Always {@code true} when no
+     * outbound queue limit is configured.
+     *
+     * @return {@code true} if the session is writable, {@code false} otherwise.
+     * @see TyrusWebSocketEngine#OUTBOUND_QUEUE_MAX_SIZE
+     * @see TyrusWebSocketEngine#OUTBOUND_QUEUE_MAX_FRAMES
+     */
+    @Beta
+    public boolean isWritable() {
+        final OutboundQueue outboundQueue = getOutboundQueue();
+        return outboundQueue == null || outboundQueue.isWritable();
+    }
+
+    /**
+     * Register a one-shot listener invoked when the session becomes writable.
+     * <p>
+     * The listener is invoked immediately by the calling thread when the session is writable, otherwise it is
+     * invoked by the thread which completes the write that brings the outbound queue under its limits. The listener
+     * should not block.
+     *
+     * @param listener listener to be invoked.
+     * @see #isWritable()
+     */
+    @Beta
+    public void onWritable(Runnable listener) {
+        if (listener == null) {
+            throw new NullPointerException();
+        }
+
+        final OutboundQueue outboundQueue = getOutboundQueue();
+        if (outboundQueue == null) {
+            listener.run();
+        } else {
+            outboundQueue.onWritable(listener);
+        }
+    }
+
+    /**
+     * Get the number of outgoing bytes which were not written yet.
+     *
+     * @return number of queued bytes, {@code 0} when no outbound queue limit is configured.
+     */
+    @Beta
+    public long getOutboundQueueSize() {
+        final OutboundQueue outboundQueue = getOutboundQueue();
+        return outboundQueue == null ? 0 : outboundQueue.getQueuedBytes();
+    }
+
+    /**
+     * Get the number of outgoing frames (or batches of frames) which were not written yet.
+     *
+     * @return number of queued frames, {@code 0} when no outbound queue limit is configured.
+     */
+    @Beta
+    public int getOutboundQueueFrames() {
+        final OutboundQueue outboundQueue = getOutboundQueue();
+        return outboundQueue == null ? 0 : outboundQueue.getQueuedFrames();
+    }
+
+    /**
+     * Get the number of outgoing messages discarded by {@link OutboundQueuePolicy#DROP_OLDEST}.
+     *
+     * @return number of discarded messages.
+     */
+    @Beta
+    public long getOutboundDroppedMessages() {
+        final OutboundQueue outboundQueue = getOutboundQueue();
+        return outboundQueue == null ? 0 : outboundQueue.getDroppedFrames();
+    }
+
+    /**
+     * Get the number of outgoing messages rejected because the outbound queue limits were exceeded.
+     *
+     * @return number of rejected messages.
+     */
+    @Beta
+    public long getOutboundRejectedMessages() {
+        final OutboundQueue outboundQueue = getOutboundQueue();
+        return outboundQueue == null ? 0 : outboundQueue.getRejectedFrames();
+    }
+
+    /**
+     * Send all the data from the stream as one binary message.
+     * <p>
+     * The message is sent as a sequence of fragments of {@link #getStreamFragmentSize()} bytes, without reading the
+     * whole stream into memory. Next fragment is read while the previous ones are being written, up to {@link
+     * #getMaxStreamFramesInFlight()} fragments. The method returns when the whole message is written.
+     *
+     * @param inputStream source of the message. The stream is not closed.
+     * @throws IOException when the stream cannot be read or the message cannot be sent.
+     */
+    @Beta
+    public void sendBinaryStream(InputStream inputStream) throws IOException {
+        createStreamSender().send(inputStream);
+    }
+
+    /**
+     * Send all the data from the channel (typically a {@link java.nio.channels.FileChannel}) as one binary message.
+     * <p>
+     * The message is sent in the same way as by {@link #sendBinaryStream(InputStream)}.
+     *
+     * @param channel source of the message, has to be in blocking mode. The channel is not closed.
+     * @throws IOException when the channel cannot be read or the message cannot be sent.
+     */
+    @Beta
+    public void sendBinaryStream(ReadableByteChannel channel) throws IOException {
+        createStreamSender().send(channel);
+    }
+
+    /**
+     * Send the remaining content of the buffer as one binary message.
+     * <p>
+     * The message is sent in the same way as by {@link #sendBinaryStream(InputStream)}, so only a few fragments of
+     * a large buffer are copied at a time. The buffer position is moved to its limit.
+     *
+     * @param buffer source of the message.
+     * @throws IOException when the message cannot be sent.
+     */
+    @Beta
+    public void sendBinaryStream(ByteBuffer buffer) throws IOException {
+        createStreamSender().send(buffer);
+    }
+
+    /**
+     * Get the size of fragments used by {@code sendBinaryStream} methods and by the stream returned from {@link
+     * javax.websocket.RemoteEndpoint.Basic#getSendStream()}.
+     * <p>
+     * The default value is 64 KiB.
+     *
+     * @return fragment size in bytes.
+     */
+    @Beta
+    public int getStreamFragmentSize() {
+        return streamFragmentSize;
+    }
+
+    /**
+     * Set the size of fragments used by {@code sendBinaryStream} methods and by the stream returned from {@link
+     * javax.websocket.RemoteEndpoint.Basic#getSendStream()}.
+     *
+     * @param streamFragmentSize fragment size in bytes, has to be positive.
+     */
+    @Beta
+    public void setStreamFragmentSize(int streamFragmentSize) {
+        if (streamFragmentSize <= 0) {
+            throw new IllegalArgumentException("streamFragmentSize");
+        }
+        this.streamFragmentSize = streamFragmentSize;
+    }
+
+    /**
+     * Get the maximal number of fragments of a streamed message which are not written yet.
+     * <p>
+     * The default value is 4.
+     *
+     * @return maximal number of fragments being written.
+     * @see #getStreamFragmentSize()
+     */
+    @Beta
+    public int getMaxStreamFramesInFlight() {
+        return maxStreamFramesInFlight;
+    }
+
+    /**
+     * Set the maximal number of fragments of a streamed message which are not written yet. Sending thread is blocked
+     * when the limit is reached.
+     *
+     * @param maxStreamFramesInFlight maximal number of fragments being written, has to be positive.
+     * @see #setStreamFragmentSize(int)
+     */
+    @Beta
+    public void setMaxStreamFramesInFlight(int maxStreamFramesInFlight) {
+        if (maxStreamFramesInFlight <= 0) {
+            throw new IllegalArgumentException("maxStreamFramesInFlight");
+        }
+        this.maxStreamFramesInFlight = maxStreamFramesInFlight;
+    }
+
+    private BinaryStreamSender createStreamSender() {
+        checkConnectionState(State.CLOSED);
+        return new BinaryStreamSender(socket, streamFragmentSize, maxStreamFramesInFlight);
+    }
+
+    private OutboundQueue getOutboundQueue() {
+        // the writer is set after the session is created on the client side.
+        return socket == null ? null : socket.getOutboundQueue();
+    }
+
     /**
      * Return an interval in milliseconds between scheduled periodic Pong messages.
      * A negative value or 0 means that sending of periodic Pong messages is not turned on.
@@ -493,34 +725,39 @@ public class TyrusSession implements Session, DistributedSession {
     public void setHeartbeatInterval(long heartbeatInterval) {
         checkConnectionState(State.CLOSED);
         this.heartbeatInterval = heartbeatInterval;
-        cancelHeartBeatTask();
+        // previously scheduled heartbeat is cancelled by replacing the reference.
+        heartbeat = null;
 
         if (heartbeatInterval < 1) {
             return;
         }
 
-        heartbeatTask = service.scheduleAtFixedRate(new HeartbeatCommand(), heartbeatInterval, heartbeatInterval,
-                                                    TimeUnit.MILLISECONDS);
+        final Heartbeat newHeartbeat = new Heartbeat(heartbeatInterval);
+        heartbeat = newHeartbeat;
+        timingWheel.schedule(newHeartbeat);
     }
 
-    void restartIdleTimeoutExecutor() {
-        if (this.maxIdleTimeout < 1) {
-            synchronized (idleTimeoutLock) {
-                if (idleTimeoutFuture != null) {
-                    idleTimeoutFuture.cancel(true);
-                }
-                return;
-            }
-        }
+    /**
+     * Record activity on the session, which postpones the idle timeout.
+     * <p>
+     * Idle timeout deadline is evaluated lazily by the {@link TimingWheel}, so this is just a volatile write.
+     */
+    void updateLastActivity() {
+        lastActivity = System.nanoTime();
+    }
 
-        synchronized (idleTimeoutLock) {
-            if (idleTimeoutFuture != null) {
-                idleTimeoutFuture.cancel(false);
-            }
+    private void scheduleIdleTimeout() {
+        updateLastActivity();
 
-            idleTimeoutFuture =
-                    service.schedule(new IdleTimeoutCommand(), this.getMaxIdleTimeout(), TimeUnit.MILLISECONDS);
+        if (maxIdleTimeout < 1) {
+            idleTimeout = null;
+            return;
         }
+
+        // previously scheduled idle timeout is cancelled by replacing the reference.
+        final IdleTimeout newIdleTimeout = new IdleTimeout();
+        idleTimeout = newIdleTimeout;
+        timingWheel.schedule(newIdleTimeout);
     }
 
     private void checkConnectionState(State... states) {
@@ -544,21 +781,27 @@ public class TyrusSession implements Session, DistributedSession {
         }
     }
 
-    void notifyMessageHandlers(Object message, List<CoderWrapper<Decoder>> availableDecoders) throws DecodeException,
-            IOException {
+    void notifyMessageHandlers(Object message, List<TyrusEndpointWrapper.CoderRoute<Decoder>> decoders)
+            throws DecodeException, IOException {
         boolean decoded = false;
-
-        if (availableDecoders.isEmpty()) {
-            LOGGER.warning(LocalizationMessages.NO_DECODER_FOUND());
-        }
+        boolean decoderFound = false;
 
         List<Map.Entry<Class<?>, MessageHandler>> orderedMessageHandlers;
         synchronized (handlerManager) {
             orderedMessageHandlers = handlerManager.getOrderedWholeMessageHandlers();
         }
 
-        for (CoderWrapper<Decoder> decoder : availableDecoders) {
-            for (Map.Entry<Class<?>, MessageHandler> entry : orderedMessageHandlers) {
+        // decoders are asked whether they will decode the message one by one, the first one with a matching handler
+        // wins; indexed loops, so that routing does not allocate.
+        for (int i = 0; i < decoders.size() && !decoded; i++) {
+            final TyrusEndpointWrapper.CoderRoute<Decoder> decoder = decoders.get(i);
+            if (!endpointWrapper.willDecode(this, decoder, message)) {
+                continue;
+            }
+            decoderFound = true;
+
+            for (int j = 0; j < orderedMessageHandlers.size(); j++) {
+                final Map.Entry<Class<?>, MessageHandler> entry = orderedMessageHandlers.get(j);
                 MessageHandler mh = entry.getValue();
 
                 Class<?> type = entry.getKey();
@@ -580,10 +823,22 @@ public class TyrusSession implements Session, DistributedSession {
                     }
                 }
             }
-            if (decoded) {
-                break;
-            }
         }
+
+        if (!decoderFound) {
+            LOGGER.warning(LocalizationMessages.NO_DECODER_FOUND());
+        }
+    }
+
+    /**
+     * Get instances of the coders registered by class on given endpoint, created for this session.
+     *
+     * @param endpointWrapper endpoint the coders are registered on.
+     * @return per-session coder instance cache, indexed by coder routes of the endpoint, or {@code null} if the
+     * session does not belong to the endpoint.
+     */
+    AtomicReferenceArray<Object> getCoderInstances(TyrusEndpointWrapper endpointWrapper) {
+        return this.endpointWrapper == endpointWrapper ? coderInstances : null;
     }
 
     <T> MessageHandler.Whole<T> getMessageHandler(Class<T> c) {
@@ -624,7 +879,7 @@ public class TyrusSession implements Session, DistributedSession {
 
         if (!handled) {
             if (message instanceof ByteBuffer) {
-                notifyMessageHandlers(((ByteBuffer) message).array(), last);
+                notifyMessageHandlers(Utils.getArray((ByteBuffer) message), last);
             } else {
                 LOGGER.warning(LocalizationMessages.UNHANDLED_TEXT_MESSAGE(this));
             }
@@ -737,12 +992,6 @@ public class TyrusSession implements Session, DistributedSession {
         state.compareAndSet(State.RECEIVING_TEXT, State.CLOSED);
     }
 
-    private void cancelHeartBeatTask() {
-        if (heartbeatTask != null && !heartbeatTask.isCancelled()) {
-            heartbeatTask.cancel(true);
-        }
-    }
-
     private void cleanAfterClose() {
         if (readerBuffer != null) {
             readerBuffer.onSessionClosed();
@@ -752,7 +1001,8 @@ public class TyrusSession implements Session, DistributedSession {
             inputStreamBuffer.onSessionClosed();
         }
 
-        cancelHeartBeatTask();
+        heartbeat = null;
+        idleTimeout = null;
     }
 
     /**
@@ -791,38 +1041,80 @@ public class TyrusSession implements Session, DistributedSession {
         CLOSED
     }
 
-    private class IdleTimeoutCommand implements Runnable {
+    private class IdleTimeout extends TimingWheel.Timeout {
+
+        @Override
+        long getDeadline() {
+            return lastActivity + TimeUnit.MILLISECONDS.toNanos(maxIdleTimeout);
+        }
+
+        @Override
+        boolean isCancelled() {
+            return idleTimeout != this || maxIdleTimeout < 1 || !isOpen();
+        }
 
         @Override
         public void run() {
-            TyrusSession session = TyrusSession.this;
-
-            // condition is required because scheduled task can be (for some reason) run even when it is cancelled.
-            if (session.getMaxIdleTimeout() > 0 && session.isOpen()) {
-                try {
-                    session.close(new CloseReason(CloseReason.CloseCodes.CLOSED_ABNORMALLY,
-                                                  LocalizationMessages.SESSION_CLOSED_IDLE_TIMEOUT()));
-                } catch (IOException e) {
-                    LOGGER.log(Level.FINE, "Session could not been closed. " + e.getMessage());
-                }
+            if (isCancelled()) {
+                return;
+            }
+
+            // there might have been some activity since the deadline was evaluated.
+            if (getDeadline() - System.nanoTime() > 0) {
+                timingWheel.schedule(this);
+                return;
+            }
+
+            try {
+                close(new CloseReason(CloseReason.CloseCodes.CLOSED_ABNORMALLY,
+                                      LocalizationMessages.SESSION_CLOSED_IDLE_TIMEOUT()));
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Session could not been closed. " + e.getMessage());
             }
         }
     }
 
-    private class HeartbeatCommand implements Runnable {
+    private class Heartbeat extends TimingWheel.Timeout {
+
+        private final long interval;
+        private volatile long deadline;
+
+        Heartbeat(long interval) {
+            this.interval = TimeUnit.MILLISECONDS.toNanos(interval);
+            this.deadline = System.nanoTime() + this.interval;
+        }
+
+        @Override
+        long getDeadline() {
+            return deadline;
+        }
+
+        @Override
+        boolean isCancelled() {
+            return heartbeat != this || !isOpen();
+        }
 
         @Override
         public void run() {
-            TyrusSession session = TyrusSession.this;
-            if (session.isOpen() && session.getHeartbeatInterval() > 0) {
-                try {
-                    session.getBasicRemote().sendPong(null);
-                } catch (IOException e) {
-                    LOGGER.log(Level.FINE, "Pong could not have been sent " + e.getMessage());
-                }
-            } else {
-                cancelHeartBeatTask();
+            if (isCancelled()) {
+                return;
             }
+
+            try {
+                getBasicRemote().sendPong(null);
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Pong could not have been sent " + e.getMessage());
+            }
+
+            // fixed rate; skip the missed periods if the wheel got behind.
+            final long now = System.nanoTime();
+            long next = deadline + interval;
+            if (next - now <= 0) {
+                next = now + interval;
+            }
+            deadline = next;
+
+            timingWheel.schedule(this);
         }
     }
 }
@@ -62,6 +62,7 @@ import org.glassfish.tyrus.core.frame.TextFrame;
 import org.glassfish.tyrus.core.frame.TyrusFrame;
 import org.glassfish.tyrus.core.l10n.LocalizationMessages;
 import org.glassfish.tyrus.core.monitoring.MessageEventListener;
+import org.glassfish.tyrus.spi.CompletionHandler;
 import org.glassfish.tyrus.spi.UpgradeRequest;
 
 /**
@@ -78,6 +79,8 @@ public class TyrusWebSocket {
     //TODO refactor to make this class immutable.
     private final AtomicReference<State> state = new AtomicReference<State>(State.NEW);
     private final Lock lock = new ReentrantLock();
+    private final OrderedExecutor dispatcher;
+    private final Utf8Decoder dispatchDecoder;
 
     private volatile MessageEventListener messageEventListener = MessageEventListener.NO_OP;
 
@@ -91,6 +94,16 @@ public class TyrusWebSocket {
                           final TyrusEndpointWrapper endpointWrapper) {
         this.protocolHandler = protocolHandler;
         this.endpointWrapper = endpointWrapper;
+
+        final int dispatchQueueDepth = protocolHandler.getOrderedDispatchQueueDepth();
+        if (dispatchQueueDepth > 0 && endpointWrapper != null) {
+            this.dispatcher = new OrderedExecutor(endpointWrapper.getDispatchExecutorService(), dispatchQueueDepth);
+            this.dispatchDecoder = new Utf8Decoder();
+        } else {
+            this.dispatcher = null;
+            this.dispatchDecoder = null;
+        }
+
         protocolHandler.setWebSocket(this);
     }
 
@@ -120,7 +133,21 @@ public class TyrusWebSocket {
      *
      * @param frame the close frame from the remote endpoint.
      */
-    public void onClose(CloseFrame frame) {
+    public void onClose(final CloseFrame frame) {
+        if (dispatcher != null) {
+            // endpoint is notified after all the messages received before, close must not wait for free queue slot.
+            dispatcher.executeUnbounded(new Runnable() {
+                @Override
+                public void run() {
+                    doClose(frame);
+                }
+            });
+        } else {
+            doClose(frame);
+        }
+    }
+
+    private void doClose(CloseFrame frame) {
         boolean locked = lock.tryLock();
         if (locked) {
             try {
@@ -169,10 +196,26 @@ public class TyrusWebSocket {
      * @param frame the binary data received from the remote endpoint.
      * @param last  flag indicating whether or not the payload received is the final fragment of a message.
      */
-    public void onFragment(BinaryFrame frame, boolean last) {
+    public void onFragment(BinaryFrame frame, final boolean last) {
         awaitOnConnect();
         if (endpointWrapper != null) {
-            endpointWrapper.onPartialMessage(this, ByteBuffer.wrap(frame.getPayloadData()), last);
+            if (dispatcher != null) {
+                final ByteBuffer payload = ByteBuffer.wrap(frame.getPayloadData());
+                final TyrusFrame.FrameType frameType = frame.getFrameType();
+                dispatcher.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final long start = handlingStarted();
+                        endpointWrapper.onPartialMessage(TyrusWebSocket.this, payload, last);
+                        handled(frameType, start);
+                    }
+                });
+            } else {
+                final ByteBuffer payload = getPayload(frame);
+                final long start = handlingStarted();
+                endpointWrapper.onPartialMessage(this, payload, last);
+                handled(frame.getFrameType(), start);
+            }
             messageEventListener.onFrameReceived(frame.getFrameType(), frame.getPayloadLength());
         }
     }
@@ -184,10 +227,35 @@ public class TyrusWebSocket {
      * @param frame the text received from the remote endpoint.
      * @param last  flag indicating whether or not the payload received is the final fragment of a message.
      */
-    public void onFragment(TextFrame frame, boolean last) {
+    public void onFragment(TextFrame frame, final boolean last) {
         awaitOnConnect();
         if (endpointWrapper != null) {
-            endpointWrapper.onPartialMessage(this, frame.getTextPayload(), last);
+            if (dispatcher != null) {
+                // payload is decoded lazily, so the frame is detached from the connection buffer and decoder and it
+                // is decoded by the dispatcher in the order of reception.
+                final Frame detached = Frame.builder(frame).payloadData(frame.getPayloadData()).build();
+                final boolean continuation = frame.getFrameType() == TyrusFrame.FrameType.TEXT_CONTINUATION;
+                dispatcher.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            final long start = handlingStarted();
+                            endpointWrapper.onPartialMessage(TyrusWebSocket.this,
+                                                             new TextFrame(detached, dispatchDecoder, continuation),
+                                                             last);
+                            handled(continuation ? TyrusFrame.FrameType.TEXT_CONTINUATION
+                                            : TyrusFrame.FrameType.TEXT, start);
+                        } catch (WebSocketException e) {
+                            // invalid payload fails the connection, same as when it is decoded by the reading thread.
+                            doClose(new CloseFrame(e.getCloseReason()));
+                        }
+                    }
+                });
+            } else {
+                final long start = handlingStarted();
+                endpointWrapper.onPartialMessage(this, frame, last);
+                handled(frame.getFrameType(), start);
+            }
             messageEventListener.onFrameReceived(frame.getFrameType(), frame.getPayloadLength());
         }
     }
@@ -200,7 +268,22 @@ public class TyrusWebSocket {
     public void onMessage(BinaryFrame frame) {
         awaitOnConnect();
         if (endpointWrapper != null) {
-            endpointWrapper.onMessage(this, ByteBuffer.wrap(frame.getPayloadData()));
+            if (dispatcher != null) {
+                final ByteBuffer payload = ByteBuffer.wrap(frame.getPayloadData());
+                dispatcher.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final long start = handlingStarted();
+                        endpointWrapper.onMessage(TyrusWebSocket.this, payload);
+                        handled(TyrusFrame.FrameType.BINARY, start);
+                    }
+                });
+            } else {
+                final ByteBuffer payload = getPayload(frame);
+                final long start = handlingStarted();
+                endpointWrapper.onMessage(this, payload);
+                handled(frame.getFrameType(), start);
+            }
             messageEventListener.onFrameReceived(frame.getFrameType(), frame.getPayloadLength());
         }
     }
@@ -213,7 +296,22 @@ public class TyrusWebSocket {
     public void onMessage(TextFrame frame) {
         awaitOnConnect();
         if (endpointWrapper != null) {
-            endpointWrapper.onMessage(this, frame.getTextPayload());
+            if (dispatcher != null) {
+                final String payload = frame.getTextPayload();
+                dispatcher.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final long start = handlingStarted();
+                        endpointWrapper.onMessage(TyrusWebSocket.this, payload);
+                        handled(TyrusFrame.FrameType.TEXT, start);
+                    }
+                });
+            } else {
+                final String payload = frame.getTextPayload();
+                final long start = handlingStarted();
+                endpointWrapper.onMessage(this, payload);
+                handled(frame.getFrameType(), start);
+            }
             messageEventListener.onFrameReceived(frame.getFrameType(), frame.getPayloadLength());
         }
     }
@@ -226,7 +324,7 @@ public class TyrusWebSocket {
     public void onPing(PingFrame frame) {
         awaitOnConnect();
         if (endpointWrapper != null) {
-            endpointWrapper.onPing(this, ByteBuffer.wrap(frame.getPayloadData()));
+            endpointWrapper.onPing(this, getPayload(frame));
             messageEventListener.onFrameReceived(frame.getFrameType(), frame.getPayloadLength());
         }
     }
@@ -240,7 +338,22 @@ public class TyrusWebSocket {
     public void onPong(PongFrame frame) {
         awaitOnConnect();
         if (endpointWrapper != null) {
-            endpointWrapper.onPong(this, ByteBuffer.wrap(frame.getPayloadData()));
+            if (dispatcher != null) {
+                final ByteBuffer payload = ByteBuffer.wrap(frame.getPayloadData());
+                dispatcher.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final long start = handlingStarted();
+                        endpointWrapper.onPong(TyrusWebSocket.this, payload);
+                        handled(TyrusFrame.FrameType.PONG, start);
+                    }
+                });
+            } else {
+                final ByteBuffer payload = getPayload(frame);
+                final long start = handlingStarted();
+                endpointWrapper.onPong(this, payload);
+                handled(frame.getFrameType(), start);
+            }
             messageEventListener.onFrameReceived(frame.getFrameType(), frame.getPayloadLength());
         }
     }
@@ -329,6 +442,17 @@ public class TyrusWebSocket {
         return protocolHandler.sendRawFrame(data);
     }
 
+    /**
+     * Send a frame to the remote endpoint.
+     *
+     * @param data              complete data frame.
+     * @param completionHandler completion handler notified about the write result.
+     */
+    void sendRawFrame(ByteBuffer data, CompletionHandler<Frame> completionHandler) {
+        checkConnectedState();
+        protocolHandler.sendRawFrame(data, completionHandler);
+    }
+
     /**
      * Sends a <code>ping</code> frame with the specified payload (if any).
      *
@@ -355,6 +479,40 @@ public class TyrusWebSocket {
         return send(new PongFrame(data));
     }
 
+    /**
+     * Get information whether the incoming messages are dispatched to the endpoint by an ordered executor.
+     *
+     * @return {@code true} when ordered dispatch is enabled, {@code false} when the endpoint is notified on the
+     * thread which passed the data to {@link ProtocolHandler}.
+     * @see ProtocolHandler#setOrderedDispatchQueueDepth(int)
+     */
+    boolean isOrderedDispatch() {
+        return dispatcher != null;
+    }
+
+    /**
+     * Get the queue enforcing limits of outgoing data.
+     *
+     * @return outbound queue or {@code null} when no limit is set.
+     * @see ProtocolHandler#setOutboundQueueLimits(int, int, OutboundQueuePolicy)
+     */
+    OutboundQueue getOutboundQueue() {
+        return protocolHandler.getOutboundQueue();
+    }
+
+    /**
+     * Get frame payload as it will be passed to the endpoint.
+     * <p>
+     * Payload views created by zero-copy decoding are passed directly, they are valid only during the message handler
+     * invocation (see {@link ProtocolHandler#setZeroCopyDecoding(boolean)}).
+     *
+     * @param frame received frame.
+     * @return frame payload.
+     */
+    private static ByteBuffer getPayload(Frame frame) {
+        return frame.isPayloadView() ? frame.getPayloadBuffer() : ByteBuffer.wrap(frame.getPayloadData());
+    }
+
     // return boolean, check return value
     private void awaitOnConnect() {
         try {
@@ -406,6 +564,18 @@ public class TyrusWebSocket {
         return protocolHandler.stream(last, bytes, off, len);
     }
 
+    /**
+     * Sends a fragment of a binary message without copying it.
+     *
+     * @param payload           the binary fragment to send. Must not be modified after it is passed to this method.
+     * @param last              boolean indicating if this message fragment is the last.
+     * @param completionHandler completion handler notified about the write result.
+     */
+    void streamBinary(byte[] payload, boolean last, CompletionHandler<Frame> completionHandler) {
+        checkConnectedState();
+        protocolHandler.stream(last, payload, completionHandler);
+    }
+
     ProtocolHandler getProtocolHandler() {
         return protocolHandler;
     }
@@ -429,6 +599,27 @@ public class TyrusWebSocket {
         return messageEventListener;
     }
 
+    /**
+     * Get the start time of an application handler invocation.
+     *
+     * @return current {@link System#nanoTime()} or {@code 0} when there is no message event listener to report to.
+     */
+    private long handlingStarted() {
+        return messageEventListener == MessageEventListener.NO_OP ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Report the duration of an application handler invocation started at {@link #handlingStarted()}.
+     *
+     * @param frameType type of the handled frame.
+     * @param start     start time returned by {@link #handlingStarted()}.
+     */
+    private void handled(TyrusFrame.FrameType frameType, long start) {
+        if (start != 0) {
+            messageEventListener.onMessageHandled(frameType, System.nanoTime() - start);
+        }
+    }
+
     private void checkConnectedState() {
         if (!isConnected()) {
             throw new RuntimeException(LocalizationMessages.SOCKET_NOT_CONNECTED());
@@ -48,7 +48,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -69,6 +68,7 @@ import org.glassfish.tyrus.core.monitoring.ApplicationEventListener;
 import org.glassfish.tyrus.core.monitoring.EndpointEventListener;
 import org.glassfish.tyrus.core.monitoring.MessageEventListener;
 import org.glassfish.tyrus.core.uri.Match;
+import org.glassfish.tyrus.core.uri.PathTrie;
 import org.glassfish.tyrus.core.wsadl.model.Application;
 import org.glassfish.tyrus.spi.Connection;
 import org.glassfish.tyrus.spi.ReadHandler;
@@ -164,7 +164,134 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
      */
     public static final String PARALLEL_BROADCAST_ENABLED = "org.glassfish.tyrus.server.parallelBroadcastEnabled";
 
-    private static final int BUFFER_STEP_SIZE = 256;
+    /**
+     * Zero-copy decoding of incoming frames.
+     * <p>
+     * When enabled, incoming frames are unmasked directly in the connection buffer and binary payloads are passed to
+     * the {@link javax.websocket.MessageHandler}s as read-only {@link java.nio.ByteBuffer} views over that buffer,
+     * which saves one payload copy per frame. The passed buffer is valid only during the message handler invocation,
+     * so the application has to copy the data if it needs to keep them. Tyrus itself copies the payload only when it
+     * needs to retain it, for example when assembling partial messages or when feeding
+     * {@link java.io.InputStream} handlers.
+     * <p>
+     * Expected value is {@code true} or {@code false} and the default value is {@code false}.
+     *
+     * @see org.glassfish.tyrus.core.ProtocolHandler#setZeroCopyDecoding(boolean)
+     */
+    @Beta
+    public static final String ZERO_COPY_DECODING = "org.glassfish.tyrus.server.zeroCopyDecoding";
+
+    /**
+     * Maximal size of the batch of outgoing frames in bytes.
+     * <p>
+     * Used when batching is allowed on {@link javax.websocket.RemoteEndpoint} (see {@link
+     * javax.websocket.RemoteEndpoint#setBatchingAllowed(boolean)}). The batch is written to the connection when its
+     * size reaches this value; frames bigger than this value are not batched.
+     * <p>
+     * The value must be positive {@link Integer}, the default value is {@value ProtocolHandler#DEFAULT_MAX_BATCH_SIZE}.
+     *
+     * @see BatchFlushCause#SIZE
+     */
+    @Beta
+    public static final String MAX_BATCH_SIZE = "org.glassfish.tyrus.maxBatchSize";
+
+    /**
+     * Maximal time in milliseconds a frame can wait in the batch of outgoing frames.
+     * <p>
+     * Used when batching is allowed on {@link javax.websocket.RemoteEndpoint} (see {@link
+     * javax.websocket.RemoteEndpoint#setBatchingAllowed(boolean)}). The batch is written to the connection when the
+     * first frame in it waits for the configured time. Value {@code 0} means that batch is written only when it is
+     * full or explicitly flushed.
+     * <p>
+     * The value must be {@link Long}, the default value is {@value ProtocolHandler#DEFAULT_MAX_BATCH_DELAY}.
+     *
+     * @see BatchFlushCause#DEADLINE
+     */
+    @Beta
+    public static final String MAX_BATCH_DELAY = "org.glassfish.tyrus.maxBatchDelay";
+
+    /**
+     * Pool of buffers used for incoming data of partially received frames.
+     * <p>
+     * Buffer is taken from the pool only when a frame is split between two or more reads and it is returned as soon as
+     * the frame is complete, so idle connections do not hold any incoming buffer. Direct (off-heap) buffers can be
+     * used by setting an instance of {@link SizeClassByteBufferPool} created with {@code direct} set to {@code true}.
+     * <p>
+     * The value must be an instance of {@link ByteBufferPool}, the default value is an instance of {@link
+     * SizeClassByteBufferPool} with heap buffers and default size classes, shared by all connections of the engine.
+     */
+    @Beta
+    public static final String INCOMING_BUFFER_POOL = "org.glassfish.tyrus.incomingBufferPool";
+
+    /**
+     * Ordered dispatch of incoming messages.
+     * <p>
+     * By default, message handlers are invoked on the thread which read the data from the connection, so a slow
+     * handler delays processing of all the connections served by that thread. When enabled, handlers of each session
+     * are invoked one at a time and in the order in which the messages were received, but on an executor instead of
+     * the transport thread. Virtual threads are used when the runtime supports them, a bounded thread pool otherwise.
+     * Incoming payloads are copied before they are handed over to the executor; {@link java.io.Reader} and {@link
+     * java.io.InputStream} handlers still receive data as it arrives.
+     * <p>
+     * Expected value is {@code true} or {@code false} and the default value is {@code false}.
+     *
+     * @see #ORDERED_DISPATCH_QUEUE_DEPTH
+     */
+    @Beta
+    public static final String ORDERED_DISPATCH = "org.glassfish.tyrus.orderedDispatch";
+
+    /**
+     * Maximal number of incoming messages of one session waiting for ordered dispatch.
+     * <p>
+     * When the limit is reached, reading from the connection is blocked until the session handlers catch up, which
+     * pushes back on the remote endpoint. Used only when {@link #ORDERED_DISPATCH} is enabled.
+     * <p>
+     * The value must be positive {@link Integer}, the default value is {@value #DEFAULT_ORDERED_DISPATCH_QUEUE_DEPTH}.
+     */
+    @Beta
+    public static final String ORDERED_DISPATCH_QUEUE_DEPTH = "org.glassfish.tyrus.orderedDispatchQueueDepth";
+
+    /**
+     * Default value of {@link #ORDERED_DISPATCH_QUEUE_DEPTH}.
+     */
+    public static final int DEFAULT_ORDERED_DISPATCH_QUEUE_DEPTH = 64;
+
+    /**
+     * Maximal number of outgoing bytes of one session handed over to the transport and not yet written.
+     * <p>
+     * When the limit is exceeded, {@link #OUTBOUND_QUEUE_POLICY} is applied. Producers can check {@link
+     * TyrusSession#isWritable()} or register {@link TyrusSession#onWritable(Runnable)} to avoid that.
+     * <p>
+     * The value must be positive {@link Integer}, no limit is applied by default.
+     *
+     * @see #OUTBOUND_QUEUE_MAX_FRAMES
+     */
+    @Beta
+    public static final String OUTBOUND_QUEUE_MAX_SIZE = "org.glassfish.tyrus.outboundQueueMaxSize";
+
+    /**
+     * Maximal number of outgoing frames of one session handed over to the transport and not yet written. A batch of
+     * frames (see {@link #MAX_BATCH_SIZE}) counts as one frame.
+     * <p>
+     * When the limit is exceeded, {@link #OUTBOUND_QUEUE_POLICY} is applied.
+     * <p>
+     * The value must be positive {@link Integer}, no limit is applied by default.
+     *
+     * @see #OUTBOUND_QUEUE_MAX_SIZE
+     */
+    @Beta
+    public static final String OUTBOUND_QUEUE_MAX_FRAMES = "org.glassfish.tyrus.outboundQueueMaxFrames";
+
+    /**
+     * Policy applied when {@link #OUTBOUND_QUEUE_MAX_SIZE} or {@link #OUTBOUND_QUEUE_MAX_FRAMES} is exceeded.
+     * <p>
+     * The value is expected to be string value of {@link OutboundQueuePolicy}.
+     * <p>
+     * The default value is {@link OutboundQueuePolicy#FAIL}.
+     */
+    @Beta
+    public static final String OUTBOUND_QUEUE_POLICY = "org.glassfish.tyrus.outboundQueuePolicy";
+
     private static final Logger LOGGER = Logger.getLogger(TyrusWebSocketEngine.class.getName());
 
     private static final UpgradeInfo NOT_APPLICABLE_UPGRADE_INFO =
@@ -177,6 +304,7 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
 
     private final Set<TyrusEndpointWrapper> endpointWrappers =
             Collections.newSetFromMap(new ConcurrentHashMap<TyrusEndpointWrapper, Boolean>());
+    private final PathTrie pathTrie = new PathTrie();
     private final ComponentProviderService componentProviderService = ComponentProviderService.create();
     private final WebSocketContainer webSocketContainer;
 
@@ -186,6 +314,14 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
     private final ApplicationEventListener applicationEventListener;
     private final TyrusEndpointWrapper.SessionListener sessionListener;
     private final Boolean parallelBroadcastEnabled;
+    private final boolean zeroCopyDecoding;
+    private final int maxBatchSize;
+    private final long maxBatchDelay;
+    private final ByteBufferPool incomingBufferPool;
+    private final int orderedDispatchQueueDepth;
+    private final int outboundQueueMaxSize;
+    private final int outboundQueueMaxFrames;
+    private final OutboundQueuePolicy outboundQueuePolicy;
 
     private final DebugContext.TracingType tracingType;
     private final DebugContext.TracingThreshold tracingThreshold;
@@ -217,18 +353,46 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
      * @param tracingType              type of tracing.
      * @param tracingThreshold         tracing threshold.
      * @param parallelBroadcastEnabled {@code true} if parallel broadcast should be enabled, {@code true} is default.
+     * @param zeroCopyDecoding         {@code true} if incoming frames should be decoded without copying the payload,
+     *                                 {@code false} is default.
+     * @param maxBatchSize             maximal size of the batch of outgoing frames. If {@code null}, default value
+     *                                 will be used.
+     * @param maxBatchDelay            maximal delay of a frame in the batch of outgoing frames. If {@code null},
+     *                                 default value will be used.
+     * @param incomingBufferPool       pool of buffers for partially received frames. If {@code null}, default pool
+     *                                 will be used.
+     * @param orderedDispatchQueueDepth maximal number of messages of a session waiting for ordered dispatch. If
+     *                                 {@code null}, ordered dispatch is disabled.
+     * @param outboundQueueMaxSize     maximal number of outgoing bytes of a session not yet written. If {@code null},
+     *                                 no limit is applied.
+     * @param outboundQueueMaxFrames   maximal number of outgoing frames of a session not yet written. If {@code null},
+     *                                 no limit is applied.
+     * @param outboundQueuePolicy      policy applied when the outbound limits are exceeded. If {@code null},
+     *                                 {@link OutboundQueuePolicy#FAIL} is used.
      */
     private TyrusWebSocketEngine(WebSocketContainer webSocketContainer, Integer incomingBufferSize,
                                  ClusterContext clusterContext, ApplicationEventListener applicationEventListener,
                                  final Integer maxSessionsPerApp, final Integer maxSessionsPerRemoteAddr,
                                  DebugContext.TracingType tracingType, DebugContext.TracingThreshold tracingThreshold,
-                                 Boolean parallelBroadcastEnabled) {
+                                 Boolean parallelBroadcastEnabled, Boolean zeroCopyDecoding, Integer maxBatchSize,
+                                 Long maxBatchDelay, ByteBufferPool incomingBufferPool,
+                                 Integer orderedDispatchQueueDepth, Integer outboundQueueMaxSize,
+                                 Integer outboundQueueMaxFrames, OutboundQueuePolicy outboundQueuePolicy) {
         if (incomingBufferSize != null) {
             this.incomingBufferSize = incomingBufferSize;
         }
         this.webSocketContainer = webSocketContainer;
         this.clusterContext = clusterContext;
         this.parallelBroadcastEnabled = parallelBroadcastEnabled;
+        this.zeroCopyDecoding = zeroCopyDecoding != null && zeroCopyDecoding;
+        this.maxBatchSize = maxBatchSize == null ? ProtocolHandler.DEFAULT_MAX_BATCH_SIZE : maxBatchSize;
+        this.maxBatchDelay = maxBatchDelay == null ? ProtocolHandler.DEFAULT_MAX_BATCH_DELAY : maxBatchDelay;
+        this.incomingBufferPool =
+                incomingBufferPool == null ? new SizeClassByteBufferPool(false) : incomingBufferPool;
+        this.orderedDispatchQueueDepth = orderedDispatchQueueDepth == null ? 0 : orderedDispatchQueueDepth;
+        this.outboundQueueMaxSize = outboundQueueMaxSize == null ? 0 : outboundQueueMaxSize;
+        this.outboundQueueMaxFrames = outboundQueueMaxFrames == null ? 0 : outboundQueueMaxFrames;
+        this.outboundQueuePolicy = outboundQueuePolicy == null ? OutboundQueuePolicy.FAIL : outboundQueuePolicy;
         if (applicationEventListener == null) {
             // create dummy instance in order not to have to check null pointer
             this.applicationEventListener = ApplicationEventListener.NO_OP;
@@ -243,68 +407,30 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         LOGGER.config("Max sessions per remote address: " + maxSessionsPerRemoteAddr);
         // parallel broadcast is enabled by default, so null means true
         LOGGER.config("Parallel broadcast enabled: " + (parallelBroadcastEnabled != null && parallelBroadcastEnabled));
+        LOGGER.config("Zero-copy decoding enabled: " + this.zeroCopyDecoding);
+        LOGGER.config("Max batch size: " + this.maxBatchSize);
+        LOGGER.config("Max batch delay: " + this.maxBatchDelay);
+        LOGGER.config("Incoming buffer pool: " + this.incomingBufferPool.getClass().getName());
+        LOGGER.config("Ordered dispatch enabled: " + (this.orderedDispatchQueueDepth > 0));
+        if (this.orderedDispatchQueueDepth > 0) {
+            LOGGER.config("Ordered dispatch queue depth: " + this.orderedDispatchQueueDepth);
+        }
+        if (this.outboundQueueMaxSize > 0 || this.outboundQueueMaxFrames > 0) {
+            LOGGER.config("Outbound queue max size: " + outboundQueueMaxSize);
+            LOGGER.config("Outbound queue max frames: " + outboundQueueMaxFrames);
+            LOGGER.config("Outbound queue policy: " + this.outboundQueuePolicy);
+        }
 
         this.tracingType = tracingType;
         this.tracingThreshold = tracingThreshold;
 
+        // admission decisions are reported to the application event listener, so the listener is needed even
+        // when no limit is set, unless nobody listens.
         this.sessionListener = maxSessionsPerApp == null && maxSessionsPerRemoteAddr == null
-                ? NO_OP_SESSION_LISTENER : new TyrusEndpointWrapper.SessionListener() {
-            // Implementation of {@link org.glassfish.tyrus.core.TyrusEndpointWrapper.SessionListener} counting
-            // sessions.
-
-            // limit per application counter
-            private final AtomicInteger counter = new AtomicInteger(0);
-            private final Object counterLock = new Object();
-
-            // limit per remote address counter
-            private final Map<String, AtomicInteger> remoteAddressCounters = new HashMap<String, AtomicInteger>();
-
-            @Override
-            public OnOpenResult onOpen(final TyrusSession session) {
-                if (maxSessionsPerApp != null) {
-                    synchronized (counterLock) {
-                        if (counter.get() >= maxSessionsPerApp) {
-                            return OnOpenResult.MAX_SESSIONS_PER_APP_EXCEEDED;
-                        } else {
-                            counter.incrementAndGet();
-                        }
-                    }
-                }
-
-                if (maxSessionsPerRemoteAddr != null) {
-                    synchronized (remoteAddressCounters) {
-                        AtomicInteger remoteAddressCounter = remoteAddressCounters.get(session.getRemoteAddr());
-                        if (remoteAddressCounter == null) {
-                            remoteAddressCounter = new AtomicInteger(1);
-                            remoteAddressCounters.put(session.getRemoteAddr(), remoteAddressCounter);
-                        } else if (remoteAddressCounter.get() >= maxSessionsPerRemoteAddr) {
-                            return OnOpenResult.MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED;
-                        } else {
-                            remoteAddressCounter.incrementAndGet();
-                        }
-                    }
-                }
-
-                return OnOpenResult.SESSION_ALLOWED;
-            }
-
-            @Override
-            public void onClose(final TyrusSession session, final CloseReason closeReason) {
-                if (maxSessionsPerApp != null) {
-                    synchronized (counterLock) {
-                        counter.decrementAndGet();
-                    }
-                }
-                if (maxSessionsPerRemoteAddr != null) {
-                    synchronized (remoteAddressCounters) {
-                        int remoteAddressCounter = remoteAddressCounters.get(session.getRemoteAddr()).decrementAndGet();
-                        if (remoteAddressCounter == 0) {
-                            remoteAddressCounters.remove(session.getRemoteAddr());
-                        }
-                    }
-                }
-            }
-        };
+                && this.applicationEventListener == ApplicationEventListener.NO_OP
+                ? NO_OP_SESSION_LISTENER
+                : new SessionAdmissionListener(maxSessionsPerApp, maxSessionsPerRemoteAddr,
+                                               this.applicationEventListener);
     }
 
     private static ProtocolHandler loadHandler(UpgradeRequest request) {
@@ -330,7 +456,7 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
 
         final String requestPath = request.getRequestUri();
 
-        for (Match m : Match.getAllMatches(requestPath, endpointWrappers, debugContext)) {
+        for (Match m : pathTrie.getAllMatches(requestPath, debugContext)) {
             final TyrusEndpointWrapper endpointWrapper = m.getEndpointWrapper();
 
             for (Map.Entry<String, String> parameter : m.getParameters().entrySet()) {
@@ -352,6 +478,8 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
 
     @Override
     public UpgradeInfo upgrade(final UpgradeRequest request, final UpgradeResponse response) {
+        final boolean timed = applicationEventListener != ApplicationEventListener.NO_OP;
+        final long handshakeStart = timed ? System.nanoTime() : 0;
 
         DebugContext debugContext = createDebugContext(request);
 
@@ -385,6 +513,13 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
                 return HANDSHAKE_FAILED_UPGRADE_INFO;
             }
 
+            // transport hands the data over to the read handler (see ReadHandler#handle(ByteBuffer)), so the buffer
+            // passed to ProtocolHandler#unframe(ByteBuffer) can be modified.
+            protocolHandler.setZeroCopyDecoding(zeroCopyDecoding);
+            protocolHandler.setBatchingConfiguration(maxBatchSize, maxBatchDelay);
+            protocolHandler.setOrderedDispatchQueueDepth(orderedDispatchQueueDepth);
+            protocolHandler.setOutboundQueueLimits(outboundQueueMaxSize, outboundQueueMaxFrames, outboundQueuePolicy);
+
             final ExtendedExtension.ExtensionContext extensionContext = new ExtendedExtension.ExtensionContext() {
 
                 private final Map<String, Object> properties = new HashMap<String, Object>();
@@ -424,8 +559,11 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
             }
 
             response.getHeaders().putAll(debugContext.getTracingHeaders());
-            return new SuccessfulUpgradeInfo(endpointWrapper, protocolHandler, incomingBufferSize, request, response,
-                                             extensionContext, debugContext);
+            if (timed) {
+                endpointWrapper.getEndpointEventListener().onHandshakeCompleted(System.nanoTime() - handshakeStart);
+            }
+            return new SuccessfulUpgradeInfo(endpointWrapper, protocolHandler, incomingBufferSize,
+                                             incomingBufferPool, request, response, extensionContext, debugContext);
         }
 
         response.setStatus(500);
@@ -498,19 +636,25 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         private final TyrusWebSocket socket;
         private final TyrusEndpointWrapper endpointWrapper;
         private final int incomingBufferSize;
+        private final ByteBufferPool bufferPool;
         private final ExtendedExtension.ExtensionContext extensionContext;
         private final DebugContext debugContext;
 
+        /**
+         * Data of a partially received frame, {@code null} when there is no such frame.
+         */
         private volatile ByteBuffer buffer;
 
         private TyrusReadHandler(ProtocolHandler protocolHandler, TyrusWebSocket socket,
                                  TyrusEndpointWrapper endpointWrapper, int incomingBufferSize,
-                                 ExtendedExtension.ExtensionContext extensionContext, DebugContext debugContext) {
+                                 ByteBufferPool bufferPool, ExtendedExtension.ExtensionContext extensionContext,
+                                 DebugContext debugContext) {
             this.extensionContext = extensionContext;
             this.protocolHandler = protocolHandler;
             this.socket = socket;
             this.endpointWrapper = endpointWrapper;
             this.incomingBufferSize = incomingBufferSize;
+            this.bufferPool = bufferPool;
             this.debugContext = debugContext;
         }
 
@@ -520,26 +664,16 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
                 if (data != null && data.hasRemaining()) {
 
                     if (buffer != null) {
-                        data = Utils.appendBuffers(buffer, data, incomingBufferSize, BUFFER_STEP_SIZE);
-                    } else {
-                        int newSize = data.remaining();
-                        if (newSize > incomingBufferSize) {
-                            throw new IllegalArgumentException(LocalizationMessages.BUFFER_OVERFLOW());
-                        } else {
-                            final int roundedSize = (newSize % BUFFER_STEP_SIZE) > 0
-                                    ? ((newSize / BUFFER_STEP_SIZE) + 1) * BUFFER_STEP_SIZE : newSize;
-                            final ByteBuffer result =
-                                    ByteBuffer.allocate(roundedSize > incomingBufferSize ? newSize : roundedSize);
-                            result.flip();
-                            data = Utils.appendBuffers(result, data, incomingBufferSize, BUFFER_STEP_SIZE);
-                        }
+                        data = appendToBuffer(data);
+                    } else if (data.remaining() > incomingBufferSize) {
+                        throw new IllegalArgumentException(LocalizationMessages.BUFFER_OVERFLOW());
                     }
 
                     do {
                         final Frame incomingFrame = protocolHandler.unframe(data);
 
                         if (incomingFrame == null) {
-                            buffer = data;
+                            retainRemainder(data);
                             break;
                         } else {
                             Frame frame = incomingFrame;
@@ -581,6 +715,71 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
                 }
             }
         }
+
+        /**
+         * Append data to the buffered data of a partially received frame.
+         * <p>
+         * Takes a bigger buffer from the pool, if the current one is too small.
+         *
+         * @param data data to be appended.
+         * @return buffer containing the data of the partially received frame followed by the appended data.
+         */
+        private ByteBuffer appendToBuffer(ByteBuffer data) {
+            final ByteBuffer pending = buffer;
+            final int limit = pending.limit();
+            final int remaining = pending.remaining();
+            final int len = data.remaining();
+
+            if (remaining + len > incomingBufferSize) {
+                throw new IllegalArgumentException(LocalizationMessages.BUFFER_OVERFLOW());
+            }
+
+            if (len <= pending.capacity() - limit) {
+                pending.mark();
+                pending.position(limit);
+                pending.limit(limit + len);
+                pending.put(data);
+                pending.reset();
+                return pending;
+            } else if (remaining + len <= pending.capacity()) {
+                pending.compact();
+                pending.put(data);
+                pending.flip();
+                return pending;
+            } else {
+                final ByteBuffer result = bufferPool.take(remaining + len);
+                result.put(pending);
+                result.put(data);
+                result.flip();
+                bufferPool.recycle(pending);
+                buffer = result;
+                return result;
+            }
+        }
+
+        /**
+         * Keep remaining data of a partially received frame until the rest of the frame is received.
+         * <p>
+         * Transport buffer is never retained; the data is copied to a buffer taken from the pool. Buffer is returned
+         * to the pool when all its data were consumed.
+         *
+         * @param data buffer containing data of a partially received frame (if any).
+         */
+        private void retainRemainder(ByteBuffer data) {
+            final ByteBuffer pending = buffer;
+
+            if (data == pending) {
+                if (!pending.hasRemaining()) {
+                    buffer = null;
+                    bufferPool.recycle(pending);
+                }
+            } else if (data.hasRemaining()) {
+                final ByteBuffer result = bufferPool.take(data.remaining());
+                result.put(data);
+                result.flip();
+                buffer = result;
+            }
+        }
     }
 
     /**
@@ -602,7 +801,12 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
      * @throws DeploymentException when added endpoint responds to same path as some already registered endpoint.
      */
     private void register(TyrusEndpointWrapper endpointWrapper) throws DeploymentException {
-        checkPath(endpointWrapper);
+        final TyrusEndpointWrapper equivalent = pathTrie.add(endpointWrapper);
+        if (equivalent != null) {
+            throw new DeploymentException(LocalizationMessages.EQUIVALENT_PATHS(endpointWrapper.getEndpointPath(),
+                                                                                equivalent.getEndpointPath()));
+        }
+
         LOGGER.log(Level.FINER, "Registered endpoint: " + endpointWrapper);
         endpointWrappers.add(endpointWrapper);
     }
@@ -622,8 +826,8 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
                 new TyrusEndpointWrapper(
                         endpoint, config, componentProviderService, webSocketContainer, contextPath,
                         config instanceof ServerEndpointConfig ? ((ServerEndpointConfig) config).getConfigurator()
-                                : null, sessionListener, clusterContext, endpointEventListenerWrapper,
-                        parallelBroadcastEnabled);
+                                : null, sessionListener, clusterContext,
+                        getEndpointEventListener(endpointEventListenerWrapper), parallelBroadcastEnabled);
 
         if (collector.isEmpty()) {
             register(endpointWrapper);
@@ -661,7 +865,8 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
             endpointWrapper = new TyrusEndpointWrapper((Class<? extends Endpoint>) endpointClass, serverConfig,
                                                        componentProviderService,
                                                        webSocketContainer, contextPath, serverConfig.getConfigurator(),
-                                                       sessionListener, clusterContext, endpointEventListenerWrapper,
+                                                       sessionListener, clusterContext,
+                                                       getEndpointEventListener(endpointEventListenerWrapper),
                                                        parallelBroadcastEnabled);
         } else {
             final ErrorCollector collector = new ErrorCollector();
@@ -674,7 +879,8 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
             endpointWrapper = new TyrusEndpointWrapper(
                     endpoint, config, componentProviderService, webSocketContainer, contextPath,
                     config instanceof ServerEndpointConfig ? ((ServerEndpointConfig) config).getConfigurator() : null,
-                    sessionListener, clusterContext, endpointEventListenerWrapper, parallelBroadcastEnabled);
+                    sessionListener, clusterContext, getEndpointEventListener(endpointEventListenerWrapper),
+                    parallelBroadcastEnabled);
 
             if (!collector.isEmpty()) {
                 throw collector.composeComprehensiveException();
@@ -687,13 +893,19 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         endpointEventListenerWrapper.setEndpointEventListener(endpointEventListener);
     }
 
-    private void checkPath(TyrusEndpointWrapper endpoint) throws DeploymentException {
-        for (TyrusEndpointWrapper endpointWrapper : endpointWrappers) {
-            if (Match.isEquivalent(endpoint.getEndpointPath(), endpointWrapper.getEndpointPath())) {
-                throw new DeploymentException(LocalizationMessages.EQUIVALENT_PATHS(endpoint.getEndpointPath(),
-                                                                                    endpointWrapper.getEndpointPath()));
-            }
-        }
+    /**
+     * Get the endpoint event listener to be passed to a new {@link TyrusEndpointWrapper}.
+     * <p>
+     * {@link EndpointEventListener#NO_OP} is used directly when no application event listener is registered, so the
+     * endpoint wrapper can recognize that its events are not monitored and skip timing them.
+     *
+     * @param endpointEventListenerWrapper wrapper of the endpoint event listener that is set after the registration.
+     * @return endpoint event listener for the endpoint wrapper.
+     */
+    private EndpointEventListener getEndpointEventListener(EndpointEventListenerWrapper endpointEventListenerWrapper) {
+        return applicationEventListener == ApplicationEventListener.NO_OP
+                ? EndpointEventListener.NO_OP
+                : endpointEventListenerWrapper;
     }
 
     /**
@@ -703,6 +915,7 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
      */
     public void unregister(TyrusEndpointWrapper endpointWrapper) {
         endpointWrappers.remove(endpointWrapper);
+        pathTrie.remove(endpointWrapper);
         applicationEventListener.onEndpointUnregistered(endpointWrapper.getEndpointPath());
     }
 
@@ -729,18 +942,20 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         private final TyrusEndpointWrapper endpointWrapper;
         private final ProtocolHandler protocolHandler;
         private final int incomingBufferSize;
+        private final ByteBufferPool incomingBufferPool;
         private final UpgradeRequest upgradeRequest;
         private final UpgradeResponse upgradeResponse;
         private final ExtendedExtension.ExtensionContext extensionContext;
         private final DebugContext debugContext;
 
         SuccessfulUpgradeInfo(TyrusEndpointWrapper endpointWrapper, ProtocolHandler protocolHandler,
-                              int incomingBufferSize,
+                              int incomingBufferSize, ByteBufferPool incomingBufferPool,
                               UpgradeRequest upgradeRequest, UpgradeResponse upgradeResponse,
                               ExtendedExtension.ExtensionContext extensionContext, DebugContext debugContext) {
             this.endpointWrapper = endpointWrapper;
             this.protocolHandler = protocolHandler;
             this.incomingBufferSize = incomingBufferSize;
+            this.incomingBufferPool = incomingBufferPool;
             this.upgradeRequest = upgradeRequest;
             this.upgradeResponse = upgradeResponse;
             this.extensionContext = extensionContext;
@@ -755,8 +970,9 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         @Override
         public Connection createConnection(Writer writer, Connection.CloseListener closeListener) {
             TyrusConnection tyrusConnection =
-                    new TyrusConnection(endpointWrapper, protocolHandler, incomingBufferSize, writer, closeListener,
-                                        upgradeRequest, upgradeResponse, extensionContext, debugContext);
+                    new TyrusConnection(endpointWrapper, protocolHandler, incomingBufferSize, incomingBufferPool, writer,
+                                        closeListener, upgradeRequest, upgradeResponse, extensionContext,
+                                        debugContext);
             debugContext.flush();
             return tyrusConnection;
         }
@@ -800,7 +1016,7 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         private final List<Extension> extensions;
 
         TyrusConnection(TyrusEndpointWrapper endpointWrapper, ProtocolHandler protocolHandler, int incomingBufferSize,
-                        Writer writer, CloseListener closeListener,
+                        ByteBufferPool incomingBufferPool, Writer writer, CloseListener closeListener,
                         UpgradeRequest upgradeRequest, UpgradeResponse upgradeResponse,
                         ExtendedExtension.ExtensionContext extensionContext, DebugContext debugContext) {
             protocolHandler.setWriter(writer);
@@ -822,8 +1038,8 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
                                   debugContext);
 
             this.readHandler =
-                    new TyrusReadHandler(protocolHandler, socket, endpointWrapper, incomingBufferSize, extensionContext,
-                                         debugContext);
+                    new TyrusReadHandler(protocolHandler, socket, endpointWrapper, incomingBufferSize,
+                                         incomingBufferPool, extensionContext, debugContext);
             this.writer = writer;
             this.closeListener = closeListener;
             this.extensionContext = extensionContext;
@@ -879,6 +1095,15 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         private DebugContext.TracingType tracingType = null;
         private DebugContext.TracingThreshold tracingThreshold = null;
         private Boolean parallelBroadcastEnabled = null;
+        private Boolean zeroCopyDecoding = null;
+        private Integer maxBatchSize = null;
+        private Long maxBatchDelay = null;
+        private ByteBufferPool incomingBufferPool = null;
+        private Boolean orderedDispatch = null;
+        private Integer orderedDispatchQueueDepth = null;
+        private Integer outboundQueueMaxSize = null;
+        private Integer outboundQueueMaxFrames = null;
+        private OutboundQueuePolicy outboundQueuePolicy = null;
 
         /**
          * Create new {@link org.glassfish.tyrus.core.TyrusWebSocketEngine} instance with current set of parameters.
@@ -899,6 +1124,12 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
                 maxSessionsPerRemoteAddr = null;
             }
 
+            if (maxBatchSize != null && maxBatchSize <= 0) {
+                LOGGER.log(Level.CONFIG, "Invalid configuration value " + MAX_BATCH_SIZE + " (" + maxBatchSize
+                        + "), expected value greater than 0.");
+                maxBatchSize = null;
+            }
+
             if (maxSessionsPerApp != null && maxSessionsPerRemoteAddr != null
                     && maxSessionsPerApp < maxSessionsPerRemoteAddr) {
                 LOGGER.log(Level.FINE,
@@ -907,9 +1138,38 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
                                          maxSessionsPerApp));
             }
 
+            if (orderedDispatchQueueDepth != null && orderedDispatchQueueDepth <= 0) {
+                LOGGER.log(Level.CONFIG, "Invalid configuration value " + ORDERED_DISPATCH_QUEUE_DEPTH + " ("
+                        + orderedDispatchQueueDepth + "), expected value greater than 0.");
+                orderedDispatchQueueDepth = null;
+            }
+
+            if (outboundQueueMaxSize != null && outboundQueueMaxSize <= 0) {
+                LOGGER.log(Level.CONFIG, "Invalid configuration value " + OUTBOUND_QUEUE_MAX_SIZE + " ("
+                        + outboundQueueMaxSize + "), expected value greater than 0.");
+                outboundQueueMaxSize = null;
+            }
+
+            if (outboundQueueMaxFrames != null && outboundQueueMaxFrames <= 0) {
+                LOGGER.log(Level.CONFIG, "Invalid configuration value " + OUTBOUND_QUEUE_MAX_FRAMES + " ("
+                        + outboundQueueMaxFrames + "), expected value greater than 0.");
+                outboundQueueMaxFrames = null;
+            }
+
+            final Integer dispatchQueueDepth;
+            if (orderedDispatch != null && orderedDispatch) {
+                dispatchQueueDepth = orderedDispatchQueueDepth == null
+                        ? DEFAULT_ORDERED_DISPATCH_QUEUE_DEPTH : orderedDispatchQueueDepth;
+            } else {
+                dispatchQueueDepth = null;
+            }
+
             return new TyrusWebSocketEngine(webSocketContainer, incomingBufferSize, clusterContext,
                                             applicationEventListener, maxSessionsPerApp, maxSessionsPerRemoteAddr,
-                                            tracingType, tracingThreshold, parallelBroadcastEnabled);
+                                            tracingType, tracingThreshold, parallelBroadcastEnabled,
+                                            zeroCopyDecoding, maxBatchSize, maxBatchDelay, incomingBufferPool,
+                                            dispatchQueueDepth, outboundQueueMaxSize, outboundQueueMaxFrames,
+                                            outboundQueuePolicy);
         }
 
         TyrusWebSocketEngineBuilder(WebSocketContainer webSocketContainer) {
@@ -1009,6 +1269,117 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
             this.parallelBroadcastEnabled = parallelBroadcastEnabled;
             return this;
         }
+
+        /**
+         * Set zero-copy decoding of incoming frames.
+         *
+         * @param zeroCopyDecoding {@code true} if incoming frames should be decoded without copying the payload. If
+         *                         {@code null}, zero-copy decoding is disabled.
+         * @return updated builder.
+         * @see TyrusWebSocketEngine#ZERO_COPY_DECODING
+         */
+        public TyrusWebSocketEngineBuilder zeroCopyDecoding(Boolean zeroCopyDecoding) {
+            this.zeroCopyDecoding = zeroCopyDecoding;
+            return this;
+        }
+
+        /**
+         * Set maximal size of the batch of outgoing frames.
+         *
+         * @param maxBatchSize maximal batch size in bytes. If {@code null}, default value will be used.
+         * @return updated builder.
+         * @see TyrusWebSocketEngine#MAX_BATCH_SIZE
+         */
+        public TyrusWebSocketEngineBuilder maxBatchSize(Integer maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Set maximal delay of a frame in the batch of outgoing frames.
+         *
+         * @param maxBatchDelay maximal batch delay in milliseconds. If {@code null}, default value will be used.
+         * @return updated builder.
+         * @see TyrusWebSocketEngine#MAX_BATCH_DELAY
+         */
+        public TyrusWebSocketEngineBuilder maxBatchDelay(Long maxBatchDelay) {
+            this.maxBatchDelay = maxBatchDelay;
+            return this;
+        }
+
+        /**
+         * Set pool of buffers used for incoming data of partially received frames.
+         *
+         * @param incomingBufferPool buffer pool. If {@code null}, default pool will be used.
+         * @return updated builder.
+         * @see TyrusWebSocketEngine#INCOMING_BUFFER_POOL
+         */
+        public TyrusWebSocketEngineBuilder incomingBufferPool(ByteBufferPool incomingBufferPool) {
+            this.incomingBufferPool = incomingBufferPool;
+            return this;
+        }
+
+        /**
+         * Set ordered dispatch of incoming messages.
+         *
+         * @param orderedDispatch {@code true} if message handlers should be invoked by a per-session ordered executor.
+         *                        If {@code null}, ordered dispatch is disabled.
+         * @return updated builder.
+         * @see TyrusWebSocketEngine#ORDERED_DISPATCH
+         */
+        public TyrusWebSocketEngineBuilder orderedDispatch(Boolean orderedDispatch) {
+            this.orderedDispatch = orderedDispatch;
+            return this;
+        }
+
+        /**
+         * Set maximal number of incoming messages of one session waiting for ordered dispatch.
+         *
+         * @param orderedDispatchQueueDepth maximal number of waiting messages. If {@code null}, default value will be
+         *                                  used.
+         * @return updated builder.
+         * @see TyrusWebSocketEngine#ORDERED_DISPATCH_QUEUE_DEPTH
+         */
+        public TyrusWebSocketEngineBuilder orderedDispatchQueueDepth(Integer orderedDispatchQueueDepth) {
+            this.orderedDispatchQueueDepth = orderedDispatchQueueDepth;
+            return this;
+        }
+
+        /**
+         * Set maximal number of outgoing bytes of one session not yet written.
+         *
+         * @param outboundQueueMaxSize maximal number of bytes. If {@code null}, no limit is applied.
+         * @return updated builder.
+         * @see TyrusWebSocketEngine#OUTBOUND_QUEUE_MAX_SIZE
+         */
+        public TyrusWebSocketEngineBuilder outboundQueueMaxSize(Integer outboundQueueMaxSize) {
+            this.outboundQueueMaxSize = outboundQueueMaxSize;
+            return this;
+        }
+
+        /**
+         * Set maximal number of outgoing frames of one session not yet written.
+         *
+         * @param outboundQueueMaxFrames maximal number of frames. If {@code null}, no limit is applied.
+         * @return updated builder.
+         * @see TyrusWebSocketEngine#OUTBOUND_QUEUE_MAX_FRAMES
+         */
+        public TyrusWebSocketEngineBuilder outboundQueueMaxFrames(Integer outboundQueueMaxFrames) {
+            this.outboundQueueMaxFrames = outboundQueueMaxFrames;
+            return this;
+        }
+
+        /**
+         * Set policy applied when the outbound queue limits are exceeded.
+         *
+         * @param outboundQueuePolicy policy. If {@code null}, {@link OutboundQueuePolicy#FAIL} is used.
+         * @return updated builder.
+         * @see TyrusWebSocketEngine#OUTBOUND_QUEUE_POLICY
+         */
+        public TyrusWebSocketEngineBuilder outboundQueuePolicy(OutboundQueuePolicy outboundQueuePolicy) {
+            this.outboundQueuePolicy = outboundQueuePolicy;
+            return this;
+        }
     }
 
     /**
@@ -1036,5 +1407,20 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         public void onError(String sessionId, Throwable t) {
             endpointEventListener.onError(sessionId, t);
         }
+
+        @Override
+        public void onBroadcastExtensionsProcessed(int processedCount, int reusedCount) {
+            endpointEventListener.onBroadcastExtensionsProcessed(processedCount, reusedCount);
+        }
+
+        @Override
+        public void onBroadcastSent(int recipientCount, long durationNanos) {
+            endpointEventListener.onBroadcastSent(recipientCount, durationNanos);
+        }
+
+        @Override
+        public void onHandshakeCompleted(long durationNanos) {
+            endpointEventListener.onHandshakeCompleted(durationNanos);
+        }
     }
 }
@@ -0,0 +1,177 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Strict UTF-8 decoder of incoming text messages.
+ * <p>
+ * One instance is used for all text messages received on a connection; the scratch buffers are reused and text
+ * containing only US-ASCII characters is converted without invoking the {@link CharsetDecoder}. Bytes of a character
+ * split between two fragments are kept until the next fragment is decoded.
+ * <p>
+ * Instances are not thread safe; frames of one connection are processed sequentially.
+ */
+public final class Utf8Decoder {
+
+    // bigger scratch buffers are not kept after decoding.
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    // incomplete UTF-8 sequence has at most three bytes.
+    private final byte[] remainder = new byte[3];
+    private final CharsetDecoder decoder = new StrictUtf8().newDecoder();
+
+    private int remainderLength = 0;
+    private byte[] bytes = null;
+    private char[] chars = null;
+
+    /**
+     * Discard the bytes of an incomplete character kept from the previous fragment.
+     * <p>
+     * Has to be invoked before a new message is decoded.
+     */
+    public void reset() {
+        remainderLength = 0;
+    }
+
+    /**
+     * Decode (part of) a text message.
+     *
+     * @param data bytes to be decoded. The buffer is consumed.
+     * @param last {@code true} if this is the last part of the message, {@code false} otherwise.
+     * @return decoded text.
+     * @throws Utf8DecodingException when the data are not a valid UTF-8 sequence.
+     */
+    public String decode(ByteBuffer data, boolean last) {
+        final int length = remainderLength + data.remaining();
+        final byte[] scratch = bytes(length);
+
+        System.arraycopy(remainder, 0, scratch, 0, remainderLength);
+        data.get(scratch, remainderLength, data.remaining());
+        remainderLength = 0;
+
+        try {
+            return decode(scratch, 0, length, last);
+        } finally {
+            if (scratch.length > MAX_RETAINED_CAPACITY) {
+                bytes = null;
+            }
+        }
+    }
+
+    /**
+     * Decode (part of) a text message.
+     *
+     * @param data   array containing bytes to be decoded.
+     * @param offset offset of the first byte.
+     * @param length number of bytes to be decoded.
+     * @param last   {@code true} if this is the last part of the message, {@code false} otherwise.
+     * @return decoded text.
+     * @throws Utf8DecodingException when the data are not a valid UTF-8 sequence.
+     */
+    public String decode(byte[] data, int offset, int length, boolean last) {
+        if (isAscii(data, offset, length)) {
+            return new String(data, offset, length, StandardCharsets.ISO_8859_1);
+        }
+
+        // number of chars is never greater than number of bytes.
+        final CharBuffer out = CharBuffer.wrap(chars(length));
+        final ByteBuffer in = ByteBuffer.wrap(data, offset, length);
+
+        try {
+            decoder.reset();
+            CoderResult result = decoder.decode(in, out, last);
+            if (last && !result.isError()) {
+                result = decoder.flush(out);
+            }
+            if (result.isError() || (last && in.hasRemaining()) || in.remaining() > remainder.length) {
+                throw new Utf8DecodingException();
+            }
+
+            if (in.hasRemaining()) {
+                remainderLength = in.remaining();
+                in.get(remainder, 0, remainderLength);
+            }
+
+            return new String(out.array(), 0, out.position());
+        } finally {
+            if (out.capacity() > MAX_RETAINED_CAPACITY) {
+                chars = null;
+            }
+        }
+    }
+
+    /**
+     * Check whether given bytes are all US-ASCII characters.
+     *
+     * @param data   array to be checked.
+     * @param offset offset of the first byte.
+     * @param length number of bytes to be checked.
+     * @return {@code true} if none of the bytes has the highest bit set, {@code false} otherwise.
+     */
+    static boolean isAscii(byte[] data, int offset, int length) {
+        final int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            if (data[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] bytes(int length) {
+        if (bytes == null || bytes.length < length) {
+            bytes = new byte[length];
+        }
+        return bytes;
+    }
+
+    private char[] chars(int length) {
+        if (chars == null || chars.length < length) {
+            chars = new char[length];
+        }
+        return chars;
+    }
+}
@@ -179,6 +179,25 @@ public class Utils {
         return ret;
     }
 
+    /**
+     * Get the bytes from the position to the limit of the {@link ByteBuffer}.
+     * <p>
+     * Backing array is returned directly when the buffer wraps the whole array, otherwise the bytes are copied (for
+     * example when the buffer is a read-only view created by zero-copy frame decoding). Position of the passed buffer
+     * is not changed.
+     *
+     * @param buffer where the bytes are taken from.
+     * @return array of bytes containing the bytes from the position to the limit of the {@link ByteBuffer}.
+     */
+    public static byte[] getArray(ByteBuffer buffer) {
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+                && buffer.remaining() == buffer.array().length) {
+            return buffer.array();
+        }
+
+        return getRemainingArray(buffer.duplicate());
+    }
+
     /**
      * Creates single {@link String} value from provided List by calling {@link Object#toString()} on each item
      * and separating existing ones with {@code ", "}.
@@ -46,6 +46,8 @@ import java.nio.ByteBuffer;
 import javax.websocket.DecodeException;
 import javax.websocket.Decoder;
 
+import org.glassfish.tyrus.core.Utils;
+
 /**
  * Built in {@link Decoder} for {@link java.io.InputStream}.
  *
@@ -59,6 +61,6 @@ public class InputStreamDecoder extends CoderAdapter implements Decoder.Binary<I
 
     @Override
     public InputStream decode(ByteBuffer bytes) throws DecodeException {
-        return new ByteArrayInputStream(bytes.array());
+        return new ByteArrayInputStream(Utils.getArray(bytes));
     }
 }
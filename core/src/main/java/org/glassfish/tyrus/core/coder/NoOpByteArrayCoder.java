@@ -46,6 +46,8 @@ import javax.websocket.Decoder;
 import javax.websocket.EncodeException;
 import javax.websocket.Encoder;
 
+import org.glassfish.tyrus.core.Utils;
+
 /**
  * {@link Encoder} and {@link Decoder} implementation for byte array.
  *
@@ -64,6 +66,6 @@ public class NoOpByteArrayCoder extends CoderAdapter implements Decoder.Binary<b
 
     @Override
     public byte[] decode(ByteBuffer bytes) throws DecodeException {
-        return bytes.array();
+        return Utils.getArray(bytes);
     }
 }
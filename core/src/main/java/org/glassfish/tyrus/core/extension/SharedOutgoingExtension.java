@@ -0,0 +1,67 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core.extension;
+
+import org.glassfish.tyrus.core.Beta;
+
+/**
+ * {@link ExtendedExtension} which can process the same outgoing frame only once for multiple connections.
+ * <p>
+ * When a message is broadcasted, the result of {@link #processOutgoing(ExtendedExtension.ExtensionContext,
+ * org.glassfish.tyrus.core.frame.Frame)} invoked for one connection is reused for all other connections with equal
+ * key returned from {@link #getSharedOutgoingKey(ExtendedExtension.ExtensionContext)}. This is only possible when
+ * outgoing processing does not depend on any per-connection state, for example when permessage-deflate extension
+ * is negotiated with "server_no_context_takeover" parameter.
+ */
+@Beta
+public interface SharedOutgoingExtension extends ExtendedExtension {
+
+    /**
+     * Get the key identifying configuration of outgoing frame processing.
+     * <p>
+     * Two connections with equal keys have to produce the same output for the same input frame. Returned instance has
+     * to implement {@link Object#equals(Object)} and {@link Object#hashCode()} accordingly.
+     *
+     * @param context per-connection/session context.
+     * @return key of the outgoing processing configuration or {@code null} when the outgoing processing depends on a
+     * per-connection state and its result cannot be shared.
+     */
+    Object getSharedOutgoingKey(ExtensionContext context);
+}
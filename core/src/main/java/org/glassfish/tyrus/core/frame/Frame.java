@@ -40,6 +40,8 @@
 
 package org.glassfish.tyrus.core.frame;
 
+import java.nio.ByteBuffer;
+
 /**
  * WebSocket frame representation.
  * <pre>TODO:
@@ -62,6 +64,7 @@ public class Frame {
     private final Integer maskingKey;
 
     private final byte[] payloadData;
+    private final ByteBuffer payloadBuffer;
 
     private final boolean controlFrame;
 
@@ -82,12 +85,13 @@ public class Frame {
         this.payloadLength = frame.payloadLength;
         this.maskingKey = frame.maskingKey;
         this.payloadData = frame.payloadData;
+        this.payloadBuffer = frame.payloadBuffer;
 
         this.controlFrame = (opcode & 0x08) == 0x08;
     }
 
     private Frame(boolean fin, boolean rsv1, boolean rsv2, boolean rsv3, boolean mask, byte opcode, long payloadLength,
-                  Integer maskingKey, byte[] payloadData) {
+                  Integer maskingKey, byte[] payloadData, ByteBuffer payloadBuffer) {
         this.fin = fin;
         this.rsv1 = rsv1;
         this.rsv2 = rsv2;
@@ -97,6 +101,7 @@ public class Frame {
         this.payloadLength = payloadLength;
         this.maskingKey = maskingKey;
         this.payloadData = payloadData;
+        this.payloadBuffer = payloadBuffer;
 
         this.controlFrame = (opcode & 0x08) == 0x08;
     }
@@ -184,10 +189,45 @@ public class Frame {
      */
     public byte[] getPayloadData() {
         byte[] tmp = new byte[(int) payloadLength];
-        System.arraycopy(payloadData, 0, tmp, 0, (int) payloadLength);
+        if (payloadBuffer != null) {
+            payloadBuffer.duplicate().get(tmp);
+        } else {
+            System.arraycopy(payloadData, 0, tmp, 0, (int) payloadLength);
+        }
         return tmp;
     }
 
+    /**
+     * Get payload data as {@link ByteBuffer} without copying it.
+     * <p>
+     * When {@link #isPayloadView()} returns {@code true}, the returned buffer is a read-only view which shares its
+     * content with the buffer the frame was decoded from and it is valid only until the frame is processed. Use {@link
+     * #getPayloadData()} when the payload needs to be retained. Otherwise the returned buffer is backed by the payload
+     * array of this frame, so that it can be written without copying; it must not be modified.
+     *
+     * @return buffer positioned at the start of the payload, its remaining length is always same as {@link
+     * #getPayloadLength()}.
+     */
+    public ByteBuffer getPayloadBuffer() {
+        if (payloadBuffer != null) {
+            final ByteBuffer result = payloadBuffer.duplicate();
+            result.limit((int) payloadLength);
+            return result;
+        } else {
+            return ByteBuffer.wrap(payloadData, 0, (int) payloadLength);
+        }
+    }
+
+    /**
+     * Get information about payload ownership.
+     *
+     * @return {@code true} when the payload is a view over a buffer not owned by this frame (see {@link
+     * Builder#payloadData(ByteBuffer)}), {@code false} otherwise.
+     */
+    public boolean isPayloadView() {
+        return payloadBuffer != null;
+    }
+
     /**
      * Get information about frame type.
      *
@@ -247,6 +287,7 @@ public class Frame {
         private Integer maskingKey = null;
 
         private byte[] payloadData;
+        private ByteBuffer payloadBuffer;
 
         /**
          * Constructor.
@@ -269,6 +310,7 @@ public class Frame {
             this.payloadLength = frame.payloadLength;
             this.maskingKey = frame.maskingKey;
             this.payloadData = frame.payloadData;
+            this.payloadBuffer = frame.payloadBuffer;
         }
 
         /**
@@ -277,7 +319,8 @@ public class Frame {
          * @return built frame.
          */
         public Frame build() {
-            return new Frame(fin, rsv1, rsv2, rsv3, mask, opcode, payloadLength, maskingKey, payloadData);
+            return new Frame(fin, rsv1, rsv2, rsv3, mask, opcode, payloadLength, maskingKey, payloadData,
+                             payloadBuffer);
         }
 
         /**
@@ -381,8 +424,27 @@ public class Frame {
          */
         public Builder payloadData(byte[] payloadData) {
             this.payloadData = payloadData;
+            this.payloadBuffer = null;
             this.payloadLength = payloadData.length;
             return this;
         }
+
+        /**
+         * Set payload data as a view over provided buffer. {@link #payloadLength(long)} is also updated with
+         * payloadData.remaining().
+         * <p>
+         * Payload is not copied; built frame will share the remaining content of provided buffer, see {@link
+         * Frame#isPayloadView()}.
+         *
+         * @param payloadData data to be set.
+         * @return updated {@link Builder} instance.
+         * @see #payloadLength(long)
+         */
+        public Builder payloadData(ByteBuffer payloadData) {
+            this.payloadBuffer = payloadData.slice().asReadOnlyBuffer();
+            this.payloadData = null;
+            this.payloadLength = payloadData.remaining();
+            return this;
+        }
     }
 }
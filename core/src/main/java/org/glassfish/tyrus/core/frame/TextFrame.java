@@ -44,12 +44,12 @@ import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
-import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
 
 import org.glassfish.tyrus.core.StrictUtf8;
 import org.glassfish.tyrus.core.TyrusWebSocket;
+import org.glassfish.tyrus.core.Utf8Decoder;
 import org.glassfish.tyrus.core.Utf8DecodingException;
 
 /**
@@ -59,36 +59,43 @@ import org.glassfish.tyrus.core.Utf8DecodingException;
  */
 public class TextFrame extends TyrusFrame {
 
-    private final Charset utf8 = new StrictUtf8();
-    private final CharsetDecoder currentDecoder = utf8.newDecoder();
-    private final String textPayload;
+    private static final Charset UTF8 = new StrictUtf8();
+
+    private final Utf8Decoder decoder;
     private final boolean continuation;
 
-    private ByteBuffer remainder;
+    private String textPayload;
 
     /**
      * Constructor.
+     * <p>
+     * Text payload is decoded when {@link #getTextPayload()} is invoked for the first time.
      *
-     * @param frame     original (text) frame.
-     * @param remainder UTF-8 decoding remainder from previously processed frame.
+     * @param frame   original (text) frame.
+     * @param decoder UTF-8 decoder shared by all the text frames of the connection.
      */
-    public TextFrame(Frame frame, ByteBuffer remainder) {
-        super(frame, FrameType.TEXT);
-        this.textPayload = utf8Decode(isFin(), getPayloadData(), remainder);
-        this.continuation = false;
+    public TextFrame(Frame frame, Utf8Decoder decoder) {
+        this(frame, decoder, false);
     }
 
     /**
      * Constructor.
+     * <p>
+     * Text payload is decoded when {@link #getTextPayload()} is invoked for the first time.
      *
      * @param frame        original (text) frame.
-     * @param remainder    UTF-8 decoding remainder from previously processed frame.
+     * @param decoder      UTF-8 decoder shared by all the text frames of the connection.
      * @param continuation {@code true} when this frame is continuation frame, {@code false} otherwise.
      */
-    public TextFrame(Frame frame, ByteBuffer remainder, boolean continuation) {
+    public TextFrame(Frame frame, Utf8Decoder decoder, boolean continuation) {
         super(frame, continuation ? FrameType.TEXT_CONTINUATION : FrameType.TEXT);
-        this.textPayload = utf8Decode(isFin(), getPayloadData(), remainder);
+        this.decoder = decoder;
         this.continuation = continuation;
+
+        if (!continuation) {
+            // new message; remainder of a previous message which was not decoded cannot be used.
+            decoder.reset();
+        }
     }
 
     /**
@@ -101,34 +108,33 @@ public class TextFrame extends TyrusFrame {
      */
     public TextFrame(String message, boolean continuation, boolean fin) {
         super(Frame.builder()
-                   .payloadData(encode(new StrictUtf8(), message))
+                   .payloadData(encode(UTF8, message))
                    .opcode(continuation ? (byte) 0x00 : (byte) 0x01)
                    .fin(fin)
                    .build(), continuation ? FrameType.TEXT_CONTINUATION : FrameType.TEXT);
+        this.decoder = null;
         this.continuation = continuation;
         this.textPayload = message;
     }
 
     /**
      * Get text payload.
+     * <p>
+     * Payload of a received frame is decoded by the first invocation, which has to happen while the frame is being
+     * processed (see {@link Frame#getPayloadBuffer()}) and in the order in which the frames were received. Frames of a
+     * partial message which payloads are not needed (for example, because the message is being buffered as bytes) do
+     * not have to be decoded at all.
      *
      * @return text payload.
+     * @throws Utf8DecodingException when the payload is not a valid UTF-8 sequence.
      */
     public String getTextPayload() {
+        if (textPayload == null) {
+            textPayload = decoder.decode(getPayloadBuffer(), isFin());
+        }
         return textPayload;
     }
 
-    /**
-     * Remainder after UTF-8 decoding.
-     * <p>
-     * This might be removed in the future, if encoding part will be separated from text frame impl.
-     *
-     * @return UTF-8 decoding remainder. Used internally to decoding next incoming frame.
-     */
-    public ByteBuffer getRemainder() {
-        return remainder;
-    }
-
     @Override
     public void respond(TyrusWebSocket socket) {
 
@@ -144,62 +150,12 @@ public class TextFrame extends TyrusFrame {
 
     }
 
-    private String utf8Decode(boolean finalFragment, byte[] data, ByteBuffer remainder) {
-        final ByteBuffer b = getByteBuffer(data, remainder);
-        int n = (int) (b.remaining() * currentDecoder.averageCharsPerByte());
-        CharBuffer cb = CharBuffer.allocate(n);
-        String res;
-        while (true) {
-            CoderResult result = currentDecoder.decode(b, cb, finalFragment);
-            if (result.isUnderflow()) {
-                if (finalFragment) {
-                    currentDecoder.flush(cb);
-                    if (b.hasRemaining()) {
-                        throw new IllegalStateException(
-                                "Final UTF-8 fragment received, but not all bytes consumed by decode process");
-                    }
-                    currentDecoder.reset();
-                } else {
-                    if (b.hasRemaining()) {
-                        this.remainder = b;
-                    }
-                }
-                cb.flip();
-                res = cb.toString();
-                break;
-            }
-            if (result.isOverflow()) {
-                CharBuffer tmp = CharBuffer.allocate(2 * n + 1);
-                cb.flip();
-                tmp.put(cb);
-                cb = tmp;
-                continue;
-            }
-            if (result.isError() || result.isMalformed()) {
-                throw new Utf8DecodingException();
-            }
-        }
-
-        return res;
-    }
-
-    private ByteBuffer getByteBuffer(final byte[] data, ByteBuffer remainder) {
-        if (remainder == null) {
-            return ByteBuffer.wrap(data);
-        } else {
-            final int rem = remainder.remaining();
-            final byte[] orig = remainder.array();
-            byte[] b = new byte[rem + data.length];
-            System.arraycopy(orig, orig.length - rem, b, 0, rem);
-            System.arraycopy(data, 0, b, rem, data.length);
-            return ByteBuffer.wrap(b);
-        }
-    }
-
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder(super.toString());
-        sb.append(", textPayload='").append(textPayload).append('\'');
+        if (textPayload != null) {
+            sb.append(", textPayload='").append(textPayload).append('\'');
+        }
         return sb.toString();
     }
 
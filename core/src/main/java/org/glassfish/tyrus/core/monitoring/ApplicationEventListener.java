@@ -95,6 +95,43 @@ public interface ApplicationEventListener {
      */
     void onEndpointUnregistered(String endpointPath);
 
+    /**
+     * Called when a new session has been admitted by the application-wide session limits.
+     */
+    default void onSessionAccepted() {
+        // do nothing
+    }
+
+    /**
+     * Called when opening of a new session has been refused because of a session limit.
+     *
+     * @param reason the limit which refused the session.
+     */
+    default void onSessionRejected(RejectionReason reason) {
+        // do nothing
+    }
+
+    /**
+     * Reason why opening of a session was refused.
+     */
+    public enum RejectionReason {
+
+        /**
+         * The maximal number of open sessions per application has been reached.
+         */
+        MAX_SESSIONS_PER_APP,
+
+        /**
+         * The maximal number of open sessions per remote address has been reached.
+         */
+        MAX_SESSIONS_PER_REMOTE_ADDR,
+
+        /**
+         * The maximal number of open sessions per endpoint has been reached.
+         */
+        MAX_SESSIONS_PER_ENDPOINT
+    }
+
     /**
      * An instance of @ApplicationEventListener that does not do anything.
      */
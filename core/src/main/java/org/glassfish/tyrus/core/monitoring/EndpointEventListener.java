@@ -78,6 +78,44 @@ public interface EndpointEventListener {
      */
     void onError(String sessionId, Throwable t);
 
+    /**
+     * Called when a broadcasted message has been processed by outgoing extensions of all the recipients with
+     * negotiated extensions.
+     * <p>
+     * Recipients with equivalent configuration of extensions (for instance permessage-deflate without server context
+     * takeover) share the processed frame, so the message is processed (compressed) only once per such a group.
+     *
+     * @param processedCount number of times the broadcasted message has been processed by outgoing extensions.
+     * @param reusedCount    number of recipients the broadcasted message has been sent to as processed for another
+     *                       recipient.
+     */
+    default void onBroadcastExtensionsProcessed(int processedCount, int reusedCount) {
+        // do nothing
+    }
+
+    /**
+     * Called when a broadcasted message has been handed over to all the recipients.
+     * <p>
+     * The duration covers the fan-out (serialization and submitting the message to all the open sessions), not
+     * the completion of the individual writes.
+     *
+     * @param recipientCount number of sessions the message has been submitted to.
+     * @param durationNanos  duration of the fan-out in nanoseconds.
+     */
+    default void onBroadcastSent(int recipientCount, long durationNanos) {
+        // do nothing
+    }
+
+    /**
+     * Called when an opening handshake for this endpoint has been completed.
+     *
+     * @param durationNanos time elapsed between receiving the upgrade request and sending the upgrade response in
+     *                      nanoseconds.
+     */
+    default void onHandshakeCompleted(long durationNanos) {
+        // do nothing
+    }
+
     /**
      * An instance of @EndpointEventListener that does not do anything.
      */
@@ -66,6 +66,31 @@ public interface MessageEventListener {
      */
     void onFrameReceived(TyrusFrame.FrameType frameType, long payloadLength);
 
+    /**
+     * Called when a received message or frame has been handled by the application.
+     * <p>
+     * The duration covers execution of the endpoint callback (message handler, {@code @OnMessage} method or
+     * {@link javax.websocket.PongMessage} handler) only; it does not include time spent waiting in the dispatch
+     * queue.
+     *
+     * @param frameType     type of the handled frame.
+     * @param durationNanos time spent in the application handler in nanoseconds.
+     */
+    default void onMessageHandled(TyrusFrame.FrameType frameType, long durationNanos) {
+        // do nothing
+    }
+
+    /**
+     * Called when a sent frame has been written to the underlying connection.
+     *
+     * @param frameType  type of the written frame.
+     * @param delayNanos time elapsed between submitting the frame for sending and completion of the write in
+     *                   nanoseconds.
+     */
+    default void onFrameWritten(TyrusFrame.FrameType frameType, long delayNanos) {
+        // do nothing
+    }
+
     /**
      * An instance of @MessageEventListener that does not do anything.
      */
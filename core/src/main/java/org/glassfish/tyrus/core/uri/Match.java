@@ -75,7 +75,7 @@ public class Match {
      *
      * @param endpointWrapper {@link TyrusEndpointWrapper} instance.
      */
-    private Match(TyrusEndpointWrapper endpointWrapper) {
+    Match(TyrusEndpointWrapper endpointWrapper) {
         this.endpointWrapper = endpointWrapper;
     }
 
@@ -180,9 +180,10 @@ public class Match {
         List<PathSegment> endpointPathSegments = UriComponent.decodePath(endpoint.getEndpointPath(), true);
 
         if (requestPathSegments.size() != endpointPathSegments.size()) {
-            debugContext
-                    .appendTraceMessage(LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN, "URIs ", requestPath, " and ",
-                                        endpoint.getEndpointPath(), " have different length");
+            if (debugContext.isEnabled(LOGGER, Level.FINE)) {
+                debugContext.appendTraceMessage(LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN, "URIs ", requestPath,
+                                                " and ", endpoint.getEndpointPath(), " have different length");
+            }
             return null;
         } else {
             Match m = new Match(endpoint);
@@ -74,9 +74,10 @@ class MatchComparator implements Comparator<Match>, Serializable {
 
         if (m1exact) {
             if (m2exact) { // both exact matches, no-one wins
-                debugContext
-                        .appendTraceMessage(LOGGER, Level.FINER, DebugContext.Type.MESSAGE_IN, "Both ", m1, " and ", m2,
-                                            " are exact matches");
+                if (debugContext.isEnabled(LOGGER, Level.FINER)) {
+                    debugContext.appendTraceMessage(LOGGER, Level.FINER, DebugContext.Type.MESSAGE_IN, "Both ", m1,
+                                                    " and ", m2, " are exact matches");
+                }
                 return 0;
             } else { // m2not exact, m1 is, m1 wins
                 debugContext.appendTraceMessage(LOGGER, Level.FINER, DebugContext.Type.MESSAGE_IN, m1,
@@ -0,0 +1,212 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core.uri;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.glassfish.tyrus.core.DebugContext;
+import org.glassfish.tyrus.core.TyrusEndpointWrapper;
+import org.glassfish.tyrus.core.uri.internal.PathSegment;
+import org.glassfish.tyrus.core.uri.internal.UriComponent;
+
+/**
+ * Segment trie over the paths of registered endpoints.
+ * <p>
+ * Endpoint path templates are decoded once, when the endpoint is added. Every node has children for exact segments
+ * and one child for a variable segment; equivalent paths (see {@link Match#isEquivalent(String, String)}) end in the
+ * same node. Matching the request path visits only the branches compatible with it, exact segments before the
+ * variable ones, which yields the matches in the order defined by {@link MatchComparator} without sorting them.
+ * <p>
+ * Endpoints can be added and removed concurrently with matching.
+ */
+public class PathTrie {
+
+    private static final Logger LOGGER = Logger.getLogger(PathTrie.class.getName());
+
+    private final Node root = new Node();
+
+    /**
+     * Add an endpoint.
+     *
+     * @param endpoint endpoint to be added.
+     * @return endpoint with an equivalent path, which is already present; {@code null} if the endpoint was added.
+     */
+    public synchronized TyrusEndpointWrapper add(TyrusEndpointWrapper endpoint) {
+        final List<PathSegment> segments = UriComponent.decodePath(endpoint.getEndpointPath(), true);
+
+        final List<Integer> variableIndices = new ArrayList<Integer>();
+        final List<String> variableNames = new ArrayList<String>();
+
+        Node node = root;
+        int i = 0;
+        for (PathSegment segment : segments) {
+            final String path = segment.getPath();
+            if (isVariable(path)) {
+                if (node.variable == null) {
+                    node.variable = new Node();
+                }
+                node = node.variable;
+                variableIndices.add(i);
+                variableNames.add(path.substring(1, path.length() - 1));
+            } else {
+                Node child = node.exact.get(path);
+                if (child == null) {
+                    child = new Node();
+                    node.exact.put(path, child);
+                }
+                node = child;
+            }
+            i++;
+        }
+
+        if (node.endpoint != null) {
+            return node.endpoint.wrapper;
+        }
+
+        node.endpoint = new Endpoint(endpoint, variableIndices, variableNames);
+        return null;
+    }
+
+    /**
+     * Remove an endpoint.
+     *
+     * @param endpoint endpoint to be removed.
+     */
+    public synchronized void remove(TyrusEndpointWrapper endpoint) {
+        Node node = root;
+        for (PathSegment segment : UriComponent.decodePath(endpoint.getEndpointPath(), true)) {
+            final String path = segment.getPath();
+            node = isVariable(path) ? node.variable : node.exact.get(path);
+            if (node == null) {
+                return;
+            }
+        }
+
+        if (node.endpoint != null && node.endpoint.wrapper == endpoint) {
+            node.endpoint = null;
+        }
+    }
+
+    /**
+     * Return a list of all endpoints with path matching the request path. The endpoints are in order of match
+     * preference, best match first.
+     *
+     * @param requestPath  request path.
+     * @param debugContext debug context.
+     * @return a list of all endpoints with path matching the request path. The endpoints are in order of match
+     * preference, best match first.
+     */
+    public List<Match> getAllMatches(String requestPath, DebugContext debugContext) {
+        final List<PathSegment> segments = UriComponent.decodePath(requestPath, true);
+        final String[] path = new String[segments.size()];
+        int i = 0;
+        for (PathSegment segment : segments) {
+            path[i++] = segment.getPath();
+        }
+
+        final List<Match> matches = new ArrayList<Match>(2);
+        collectMatches(root, path, 0, matches);
+
+        debugContext.appendTraceMessage(LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN,
+                                        "Endpoints matched to the request URI: ", matches);
+        return matches;
+    }
+
+    private static void collectMatches(Node node, String[] path, int index, List<Match> matches) {
+        if (index == path.length) {
+            final Endpoint endpoint = node.endpoint;
+            if (endpoint == null) {
+                return;
+            }
+
+            final Match match = new Match(endpoint.wrapper);
+            for (int i = 0; i < endpoint.variableIndices.length; i++) {
+                final int variableIndex = endpoint.variableIndices[i];
+                match.addParameter(endpoint.variableNames[i], path[variableIndex], variableIndex);
+            }
+
+            matches.add(match);
+            return;
+        }
+
+        // exact segment wins over a variable.
+        final Node exact = node.exact.get(path[index]);
+        if (exact != null) {
+            collectMatches(exact, path, index + 1, matches);
+        }
+
+        final Node variable = node.variable;
+        if (variable != null) {
+            collectMatches(variable, path, index + 1, matches);
+        }
+    }
+
+    private static boolean isVariable(String segment) {
+        return segment.startsWith("{") && segment.endsWith("}");
+    }
+
+    private static class Node {
+
+        private final ConcurrentHashMap<String, Node> exact = new ConcurrentHashMap<String, Node>();
+
+        private volatile Node variable;
+        private volatile Endpoint endpoint;
+    }
+
+    private static class Endpoint {
+
+        private final TyrusEndpointWrapper wrapper;
+        private final int[] variableIndices;
+        private final String[] variableNames;
+
+        private Endpoint(TyrusEndpointWrapper wrapper, List<Integer> variableIndices, List<String> variableNames) {
+            this.wrapper = wrapper;
+            this.variableIndices = new int[variableIndices.size()];
+            for (int i = 0; i < this.variableIndices.length; i++) {
+                this.variableIndices[i] = variableIndices.get(i);
+            }
+            this.variableNames = variableNames.toArray(new String[variableNames.size()]);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.tyrus.core.frame.Frame;
+import org.glassfish.tyrus.spi.CompletionHandler;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link BinaryStreamSender}.
+ */
+public class BinaryStreamSenderTest {
+
+    @Test
+    public void testInputStream() throws IOException {
+        final FragmentSocket socket = new FragmentSocket(true);
+        new BinaryStreamSender(socket, 4, 2).send(new ByteArrayInputStream(data(10)));
+
+        assertEquals(3, socket.fragments.size());
+        assertEquals(4, socket.fragments.get(0).length);
+        assertEquals(2, socket.fragments.get(2).length);
+        assertEquals(Collections.singletonList(2), socket.lastIndexes);
+        assertArrayEquals(data(10), socket.getBytes());
+    }
+
+    @Test
+    public void testFragmentSizeMultiple() throws IOException {
+        final FragmentSocket socket = new FragmentSocket(true);
+        new BinaryStreamSender(socket, 4, 2).send(Channels.newChannel(new ByteArrayInputStream(data(8))));
+
+        // end of the stream is detected before the last full fragment is sent.
+        assertEquals(2, socket.fragments.size());
+        assertEquals(Collections.singletonList(1), socket.lastIndexes);
+        assertArrayEquals(data(8), socket.getBytes());
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        final FragmentSocket socket = new FragmentSocket(true);
+        new BinaryStreamSender(socket, 4, 2).send(new ByteArrayInputStream(new byte[0]));
+
+        assertEquals(1, socket.fragments.size());
+        assertEquals(0, socket.fragments.get(0).length);
+        assertEquals(Collections.singletonList(0), socket.lastIndexes);
+    }
+
+    @Test
+    public void testByteBuffer() throws IOException {
+        final FragmentSocket socket = new FragmentSocket(true);
+        final ByteBuffer buffer = ByteBuffer.wrap(data(9));
+        new BinaryStreamSender(socket, 3, 1).send(buffer);
+
+        assertFalse(buffer.hasRemaining());
+        assertEquals(3, socket.fragments.size());
+        assertEquals(Collections.singletonList(2), socket.lastIndexes);
+        assertArrayEquals(data(9), socket.getBytes());
+    }
+
+    @Test
+    public void testFailure() {
+        final FragmentSocket socket = new FragmentSocket(true);
+        socket.failure = new IOException("test");
+
+        try {
+            new BinaryStreamSender(socket, 4, 2).send(new ByteArrayInputStream(data(16)));
+            fail();
+        } catch (IOException e) {
+            assertEquals("test", e.getMessage());
+        }
+
+        // sending stops at the first fragment, which finds out about the failure.
+        assertTrue(socket.fragments.size() < 4);
+    }
+
+    @Test
+    public void testFramesInFlight() throws InterruptedException {
+        final FragmentSocket socket = new FragmentSocket(false);
+        final BinaryStreamSender sender = new BinaryStreamSender(socket, 1, 2);
+        final CountDownLatch sent = new CountDownLatch(1);
+
+        final Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    sender.send(new ByteArrayInputStream(data(5)));
+                    sent.countDown();
+                } catch (IOException e) {
+                    // sent is not counted down.
+                }
+            }
+        };
+        thread.start();
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(socket.awaitPending(2));
+            assertFalse(sent.await(50, TimeUnit.MILLISECONDS));
+            socket.completeOldest();
+        }
+
+        assertTrue(sent.await(1, TimeUnit.SECONDS));
+        assertEquals(5, socket.fragments.size());
+    }
+
+    private static byte[] data(int length) {
+        final byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+
+    /**
+     * Socket recording the sent fragments.
+     */
+    private static class FragmentSocket extends TyrusWebSocket {
+
+        private final boolean complete;
+        private final List<byte[]> fragments = Collections.synchronizedList(new ArrayList<byte[]>());
+        private final List<Integer> lastIndexes = Collections.synchronizedList(new ArrayList<Integer>());
+        private final List<CompletionHandler<Frame>> pending = new ArrayList<CompletionHandler<Frame>>();
+        private volatile Throwable failure = null;
+
+        private FragmentSocket(boolean complete) {
+            super(new ProtocolHandler(false, null), null);
+            this.complete = complete;
+        }
+
+        @Override
+        void streamBinary(byte[] payload, boolean last, CompletionHandler<Frame> completionHandler) {
+            if (last) {
+                lastIndexes.add(fragments.size());
+            }
+            fragments.add(payload);
+
+            if (failure != null) {
+                completionHandler.failed(failure);
+            } else if (complete) {
+                completionHandler.completed(null);
+            } else {
+                synchronized (pending) {
+                    pending.add(completionHandler);
+                    pending.notifyAll();
+                }
+            }
+        }
+
+        boolean awaitPending(int count) throws InterruptedException {
+            final long deadline = System.currentTimeMillis() + 1000;
+            synchronized (pending) {
+                // the last fragment is awaited alone.
+                while (pending.size() < count && fragments.size() < 5) {
+                    final long timeout = deadline - System.currentTimeMillis();
+                    if (timeout <= 0) {
+                        return false;
+                    }
+                    pending.wait(timeout);
+                }
+                return !pending.isEmpty();
+            }
+        }
+
+        void completeOldest() {
+            final CompletionHandler<Frame> completionHandler;
+            synchronized (pending) {
+                completionHandler = pending.remove(0);
+            }
+            completionHandler.completed(null);
+        }
+
+        byte[] getBytes() {
+            int length = 0;
+            for (byte[] fragment : fragments) {
+                length += fragment.length;
+            }
+
+            final byte[] bytes = new byte[length];
+            int position = 0;
+            for (byte[] fragment : fragments) {
+                System.arraycopy(fragment, 0, bytes, position, fragment.length);
+                position += fragment.length;
+            }
+            return bytes;
+        }
+    }
+}
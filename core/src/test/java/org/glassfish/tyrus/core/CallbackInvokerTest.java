@@ -0,0 +1,192 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+
+import javax.websocket.Session;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link CallbackInvoker}.
+ */
+public class CallbackInvokerTest {
+
+    public static class Callbacks {
+
+        private static volatile Object staticReceived = null;
+
+        private Object received = null;
+        private boolean receivedLast = false;
+
+        public String onText(String message) {
+            return message + "-echo";
+        }
+
+        public String onTextWithSession(Session session, String message) {
+            received = session;
+            return message;
+        }
+
+        public void onBinary(ByteBuffer message) {
+            received = message;
+        }
+
+        public void onPartial(byte[] message, boolean last) {
+            received = message;
+            receivedLast = last;
+        }
+
+        public int onPrefixed(String prefix, String message) {
+            return (prefix + message).length();
+        }
+
+        public void onFailure(String message) throws IOException {
+            throw new IOException(message);
+        }
+
+        public static void onStatic(String message) {
+            staticReceived = message;
+        }
+    }
+
+    private final Callbacks callbacks = new Callbacks();
+
+    @Test
+    public void testWhole() throws Throwable {
+        final CallbackInvoker invoker = create("onText", String.class,
+                                               new AnnotatedEndpoint.ParamValue(0));
+
+        assertEquals("hello-echo", invoker.invoke(callbacks, null, "hello", null));
+    }
+
+    @Test
+    public void testWholeWithSession() throws Throwable {
+        final CallbackInvoker invoker = create("onTextWithSession", new Class<?>[]{Session.class, String.class},
+                                               AnnotatedEndpoint.SESSION_VALUE, new AnnotatedEndpoint.ParamValue(0));
+
+        final Session session = (Session) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{Session.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        return null;
+                    }
+                });
+        assertEquals("hello", invoker.invoke(callbacks, session, "hello", null));
+        assertSame(session, callbacks.received);
+    }
+
+    @Test
+    public void testVoid() throws Throwable {
+        final CallbackInvoker invoker = create("onBinary", ByteBuffer.class, new AnnotatedEndpoint.ParamValue(0));
+
+        final ByteBuffer message = ByteBuffer.wrap(new byte[]{1, 2, 3});
+        assertNull(invoker.invoke(callbacks, null, message, null));
+        assertSame(message, callbacks.received);
+    }
+
+    @Test
+    public void testPartial() throws Throwable {
+        final CallbackInvoker invoker = create("onPartial", new Class<?>[]{byte[].class, boolean.class},
+                                               new AnnotatedEndpoint.ParamValue(0),
+                                               new AnnotatedEndpoint.ParamValue(1));
+
+        invoker.invoke(callbacks, null, new byte[]{1, 2}, true);
+        assertArrayEquals(new byte[]{1, 2}, (byte[]) callbacks.received);
+        assertEquals(true, callbacks.receivedLast);
+    }
+
+    @Test
+    public void testExtractedParameter() throws Throwable {
+        final CallbackInvoker invoker = create("onPrefixed", new Class<?>[]{String.class, String.class},
+                                               new AnnotatedEndpoint.ParameterExtractor() {
+                                                   @Override
+                                                   public Object value(Session session, Object... paramValues) {
+                                                       return "prefix-";
+                                                   }
+                                               }, new AnnotatedEndpoint.ParamValue(0));
+
+        assertEquals("prefix-message".length(), invoker.invoke(callbacks, null, "message", null));
+    }
+
+    @Test
+    public void testStatic() throws Throwable {
+        final CallbackInvoker invoker = create("onStatic", String.class, new AnnotatedEndpoint.ParamValue(0));
+
+        invoker.invoke(callbacks, null, "static", null);
+        assertEquals("static", Callbacks.staticReceived);
+    }
+
+    @Test
+    public void testExceptionNotWrapped() throws Throwable {
+        final CallbackInvoker invoker = create("onFailure", String.class, new AnnotatedEndpoint.ParamValue(0));
+
+        try {
+            invoker.invoke(callbacks, null, "failure", null);
+            fail();
+        } catch (IOException e) {
+            assertEquals("failure", e.getMessage());
+        }
+    }
+
+    private static CallbackInvoker create(String name, Class<?> parameterType,
+                                          AnnotatedEndpoint.ParameterExtractor... extractors)
+            throws NoSuchMethodException {
+        return create(name, new Class<?>[]{parameterType}, extractors);
+    }
+
+    private static CallbackInvoker create(String name, Class<?>[] parameterTypes,
+                                          AnnotatedEndpoint.ParameterExtractor... extractors)
+            throws NoSuchMethodException {
+        final Method method = Callbacks.class.getMethod(name, parameterTypes);
+        return CallbackInvoker.create(method, extractors);
+    }
+}
@@ -0,0 +1,403 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.websocket.DecodeException;
+import javax.websocket.Decoder;
+import javax.websocket.DeploymentException;
+import javax.websocket.EncodeException;
+import javax.websocket.Encoder;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.Extension;
+import javax.websocket.MessageHandler;
+import javax.websocket.Session;
+import javax.websocket.server.ServerEndpointConfig;
+
+import org.glassfish.tyrus.core.coder.CoderAdapter;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests routing of messages to decoders and encoders registered on {@link TyrusEndpointWrapper}.
+ */
+public class CoderRoutingTest {
+
+    private static final AtomicInteger PREFIX_WILL_DECODE = new AtomicInteger();
+    private static final AtomicInteger ANY_WILL_DECODE = new AtomicInteger();
+    private static final AtomicInteger ENCODER_INSTANCES = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        PREFIX_WILL_DECODE.set(0);
+        ANY_WILL_DECODE.set(0);
+        ENCODER_INSTANCES.set(0);
+    }
+
+    @Test
+    public void testDecoderPrecedence() throws Exception {
+        final List<Object> received = new ArrayList<Object>();
+        final Connection connection = connect(
+                Arrays.<Class<? extends Decoder>>asList(PrefixDecoder.class, AnyDecoder.class),
+                Collections.<Class<? extends Encoder>>emptyList(), new TestHandler<Message>(received) {
+                });
+
+        // both decoders accept the message, the first declared one wins.
+        connection.onMessage("abc");
+        // the first decoder refuses the message, so the next one is used.
+        connection.onMessage("xyz");
+
+        assertEquals(Arrays.asList("prefix:abc", "any:xyz"), texts(received));
+    }
+
+    @Test
+    public void testLazyWillDecode() throws Exception {
+        final List<Object> received = new ArrayList<Object>();
+        final Connection connection = connect(
+                Arrays.<Class<? extends Decoder>>asList(PrefixDecoder.class, AnyDecoder.class),
+                Collections.<Class<? extends Encoder>>emptyList(), new TestHandler<Message>(received) {
+                });
+
+        connection.onMessage("abc");
+        connection.onMessage("abd");
+        // decoders after the one which decoded the message are not asked.
+        assertEquals(2, PREFIX_WILL_DECODE.get());
+        assertEquals(0, ANY_WILL_DECODE.get());
+
+        connection.onMessage("xyz");
+        assertEquals(3, PREFIX_WILL_DECODE.get());
+        assertEquals(1, ANY_WILL_DECODE.get());
+        assertEquals(3, received.size());
+    }
+
+    @Test
+    public void testPrimitiveFallback() throws Exception {
+        final List<Object> received = new ArrayList<Object>();
+        final Connection connection = connect(
+                Arrays.<Class<? extends Decoder>>asList(PrefixDecoder.class, AnyDecoder.class),
+                Collections.<Class<? extends Encoder>>emptyList(), new TestHandler<Integer>(received) {
+                });
+
+        // declared decoders are asked first, but decode different type, so built-in primitive decoder is used.
+        connection.onMessage("42");
+        assertEquals(Collections.<Object>singletonList(42), received);
+        assertEquals(1, PREFIX_WILL_DECODE.get());
+        assertEquals(1, ANY_WILL_DECODE.get());
+    }
+
+    @Test
+    public void testCustomDecoderBeforePrimitive() throws Exception {
+        final List<Object> received = new ArrayList<Object>();
+        final Connection connection = connect(
+                Collections.<Class<? extends Decoder>>singletonList(LengthDecoder.class),
+                Collections.<Class<? extends Encoder>>emptyList(), new TestHandler<Integer>(received) {
+                });
+
+        // declared decoder takes precedence over the built-in one.
+        connection.onMessage("12345678");
+        assertEquals(Collections.<Object>singletonList(8), received);
+    }
+
+    @Test
+    public void testBuiltInFallbacks() throws Exception {
+        final List<Object> received = new ArrayList<Object>();
+        final List<Class<? extends Decoder>> decoders =
+                Arrays.<Class<? extends Decoder>>asList(PrefixDecoder.class, AnyDecoder.class);
+
+        connect(decoders, Collections.<Class<? extends Encoder>>emptyList(),
+                new TestHandler<String>(received) {
+                }).onMessage("text");
+
+        connect(decoders, Collections.<Class<? extends Encoder>>emptyList(),
+                new TestHandler<byte[]>(received) {
+                }).onMessage(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+
+        connect(decoders, Collections.<Class<? extends Encoder>>emptyList(),
+                new MessageHandler.Whole<Reader>() {
+                    @Override
+                    public void onMessage(Reader reader) {
+                        try {
+                            final char[] buffer = new char[16];
+                            received.add(new String(buffer, 0, reader.read(buffer)));
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }).onMessage("reader");
+
+        assertEquals(3, received.size());
+        assertEquals("text", received.get(0));
+        assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) received.get(1));
+        assertEquals("reader", received.get(2));
+    }
+
+    @Test
+    public void testEncoderRoutes() throws Exception {
+        final List<Class<? extends Encoder>> encoders =
+                Arrays.<Class<? extends Encoder>>asList(AnimalEncoder.class, BaseEncoder.class);
+        final Connection connection = connect(Collections.<Class<? extends Decoder>>emptyList(), encoders,
+                                              new TestHandler<String>(new ArrayList<Object>()) {
+                                              });
+
+        for (int i = 0; i < 2; i++) {
+            // interface
+            assertEquals("animal", connection.encode(new Dog()));
+            // subclass
+            assertEquals("base", connection.encode(new Sub()));
+            // both apply, the first declared one wins.
+            assertEquals("animal", connection.encode(new SubDog()));
+            // no custom encoder applies.
+            assertEquals("plain", connection.encode(new Plain()));
+            assertEquals("text", connection.encode("text"));
+        }
+    }
+
+    @Test
+    public void testEncoderInstancePerSession() throws Exception {
+        final List<Class<? extends Encoder>> encoders =
+                Arrays.<Class<? extends Encoder>>asList(AnimalEncoder.class, BaseEncoder.class);
+        final Connection first = connect(Collections.<Class<? extends Decoder>>emptyList(), encoders,
+                                         new TestHandler<String>(new ArrayList<Object>()) {
+                                         });
+
+        first.encode(new Dog());
+        first.encode(new Dog());
+        first.encode(new SubDog());
+        assertEquals(1, ENCODER_INSTANCES.get());
+
+        // the route is cached by the endpoint, coder instances are per session.
+        final Connection second = first.connect();
+        second.encode(new Dog());
+        second.encode(new Dog());
+        assertEquals(2, ENCODER_INSTANCES.get());
+    }
+
+    private static List<String> texts(List<Object> messages) {
+        final List<String> texts = new ArrayList<String>();
+        for (Object message : messages) {
+            texts.add(((Message) message).text);
+        }
+        return texts;
+    }
+
+    private static Connection connect(List<Class<? extends Decoder>> decoders,
+                                      List<Class<? extends Encoder>> encoders,
+                                      final MessageHandler handler) throws DeploymentException {
+        final ServerEndpointConfig config = ServerEndpointConfig.Builder.create(TestEndpoint.class, "/routing")
+                                                                        .decoders(decoders).encoders(encoders)
+                                                                        .build();
+        final TyrusEndpointWrapper endpointWrapper = new TyrusEndpointWrapper(
+                new TestEndpoint(handler), config, ComponentProviderService.create(), null, "/", null,
+                new TyrusEndpointWrapper.SessionListener() {
+                }, null, null, null);
+        return new Connection(endpointWrapper);
+    }
+
+    /**
+     * Session of the tested endpoint.
+     */
+    private static class Connection {
+
+        private final TyrusEndpointWrapper endpointWrapper;
+        private final TyrusWebSocket socket;
+        private final Session session;
+
+        Connection(TyrusEndpointWrapper endpointWrapper) {
+            this.endpointWrapper = endpointWrapper;
+            this.socket = new TyrusWebSocket(new ProtocolHandler(false, null), endpointWrapper);
+            this.session = endpointWrapper.onConnect(
+                    socket, RequestContext.Builder.create().requestURI(URI.create("/routing")).build(), null,
+                    Collections.<Extension>emptyList(), null, new DebugContext());
+        }
+
+        Connection connect() {
+            return new Connection(endpointWrapper);
+        }
+
+        void onMessage(String message) {
+            endpointWrapper.onMessage(socket, message);
+        }
+
+        void onMessage(ByteBuffer message) {
+            endpointWrapper.onMessage(socket, message);
+        }
+
+        Object encode(Object message) throws EncodeException, IOException {
+            return endpointWrapper.doEncode(session, message);
+        }
+    }
+
+    public static class TestEndpoint extends Endpoint {
+
+        private final MessageHandler handler;
+
+        public TestEndpoint(MessageHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void onOpen(Session session, EndpointConfig config) {
+            session.addMessageHandler(handler);
+        }
+    }
+
+    /**
+     * Handler collecting the received messages; has to be subclassed, so that the message type can be resolved.
+     */
+    private abstract static class TestHandler<T> implements MessageHandler.Whole<T> {
+
+        private final List<Object> received;
+
+        TestHandler(List<Object> received) {
+            this.received = received;
+        }
+
+        @Override
+        public void onMessage(T message) {
+            received.add(message);
+        }
+    }
+
+    public static class Message {
+
+        private final String text;
+
+        Message(String text) {
+            this.text = text;
+        }
+    }
+
+    public static class PrefixDecoder extends CoderAdapter implements Decoder.Text<Message> {
+
+        @Override
+        public Message decode(String s) throws DecodeException {
+            return new Message("prefix:" + s);
+        }
+
+        @Override
+        public boolean willDecode(String s) {
+            PREFIX_WILL_DECODE.incrementAndGet();
+            return s.startsWith("a");
+        }
+    }
+
+    public static class AnyDecoder extends CoderAdapter implements Decoder.Text<Message> {
+
+        @Override
+        public Message decode(String s) throws DecodeException {
+            return new Message("any:" + s);
+        }
+
+        @Override
+        public boolean willDecode(String s) {
+            ANY_WILL_DECODE.incrementAndGet();
+            return true;
+        }
+    }
+
+    public static class LengthDecoder extends CoderAdapter implements Decoder.Text<Integer> {
+
+        @Override
+        public Integer decode(String s) throws DecodeException {
+            return s.length();
+        }
+
+        @Override
+        public boolean willDecode(String s) {
+            return true;
+        }
+    }
+
+    public interface Animal {
+    }
+
+    public static class Base {
+    }
+
+    public static class Dog implements Animal {
+    }
+
+    public static class Sub extends Base {
+    }
+
+    public static class SubDog extends Sub implements Animal {
+    }
+
+    public static class Plain {
+
+        @Override
+        public String toString() {
+            return "plain";
+        }
+    }
+
+    public static class AnimalEncoder extends CoderAdapter implements Encoder.Text<Animal> {
+
+        public AnimalEncoder() {
+            ENCODER_INSTANCES.incrementAndGet();
+        }
+
+        @Override
+        public String encode(Animal object) throws EncodeException {
+            return "animal";
+        }
+    }
+
+    public static class BaseEncoder extends CoderAdapter implements Encoder.Text<Base> {
+
+        @Override
+        public String encode(Base object) throws EncodeException {
+            return "base";
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests {@link DebugContext}.
+ */
+public class DebugContextTest {
+
+    private static final Logger LOGGER = Logger.getLogger(DebugContextTest.class.getName());
+
+    @Test
+    public void testNoAllocationWhenDisabled() {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        assumeTrue(allocationMXBean.isThreadAllocatedMemorySupported());
+        allocationMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        assertFalse(LOGGER.isLoggable(Level.FINE));
+
+        final DebugContext debugContext = new DebugContext();
+        final Object part = new Object();
+
+        // warm up, so that class loading is not counted.
+        log(debugContext, part, 1000);
+
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBefore = allocationMXBean.getThreadAllocatedBytes(threadId);
+        log(debugContext, part, 100000);
+        final long allocated = allocationMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // a single varargs array per call would be more than a megabyte.
+        assertTrue("Allocated " + allocated + " bytes", allocated < 10000);
+    }
+
+    @Test
+    public void testTracingIsIndependentOfLogging() {
+        final DebugContext debugContext = new DebugContext(DebugContext.TracingThreshold.SUMMARY);
+
+        assertTrue(debugContext.isEnabled(LOGGER, Level.FINE));
+        assertFalse(debugContext.isEnabled(LOGGER, Level.FINER));
+
+        debugContext.appendTraceMessage(LOGGER, Level.FINE, DebugContext.Type.OTHER, "a", 1, "b", 2);
+        debugContext.appendTraceMessage(LOGGER, Level.FINER, DebugContext.Type.OTHER, "not traced");
+        debugContext.appendTraceMessage(LOGGER, Level.FINE, DebugContext.Type.OTHER, "c", 3, "d", 4, "e");
+
+        assertEquals(2, debugContext.getTracingHeaders().size());
+        assertTrue(debugContext.getTracingHeaders().values().toString().contains("a1b2"));
+        assertTrue(debugContext.getTracingHeaders().values().toString().contains("c3d4e"));
+    }
+
+    private static void log(DebugContext debugContext, Object part, int count) {
+        for (int i = 0; i < count; i++) {
+            debugContext.appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_IN, "Received text message");
+            debugContext.appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_IN, "Decoding with ", part);
+            debugContext.appendTraceMessage(LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN, "Segment \"", part,
+                                            "\" does not match");
+            debugContext.appendTraceMessage(LOGGER, Level.FINER, DebugContext.Type.MESSAGE_IN, "Matching ", part,
+                                            " against ", part);
+        }
+    }
+}
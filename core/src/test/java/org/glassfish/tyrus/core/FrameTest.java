@@ -40,11 +40,13 @@
 
 package org.glassfish.tyrus.core;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import org.glassfish.tyrus.core.frame.Frame;
 
 import org.junit.Test;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -95,6 +97,33 @@ public class FrameTest {
 
     }
 
+    @Test
+    public void testPayloadBufferView() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.wrap(new byte[]{'x', '0', '1', '2', 'y'});
+        buffer.position(1);
+        buffer.limit(4);
+
+        final Frame frame = new Frame.Builder().payloadData(buffer).build();
+        assertTrue(frame.isPayloadView());
+        assertEquals(3, frame.getPayloadLength());
+        assertTrue(Arrays.equals(new byte[]{'0', '1', '2'}, frame.getPayloadData()));
+
+        final ByteBuffer payloadBuffer = frame.getPayloadBuffer();
+        assertTrue(payloadBuffer.isReadOnly());
+        assertEquals(3, payloadBuffer.remaining());
+
+        // payload is shared with the original buffer.
+        buffer.put(1, (byte) '9');
+        assertEquals('9', frame.getPayloadBuffer().get());
+        assertEquals('9', frame.getPayloadData()[0]);
+
+        // owned payload is written without copying.
+        assertTrue(new Frame.Builder().payloadData(new byte[]{'0'}).build().getPayloadBuffer().hasArray());
+
+        assertFalse(new Frame.Builder().payloadData(new byte[]{'0'}).build().isPayloadView());
+        assertFalse(Frame.builder(frame).payloadData(new byte[]{'0'}).build().isPayloadView());
+    }
+
     /**
      * TODO: test validation when added to Frame.
      */
@@ -0,0 +1,139 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests {@link Masker}.
+ */
+public class MaskerTest {
+
+    private static final byte[] MASK = {(byte) 0x12, (byte) 0xA4, (byte) 0x5F, (byte) 0xE1};
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void testMaskArray() {
+        for (int length = 0; length < 70; length++) {
+            for (int offset = 0; offset < 9; offset++) {
+                for (int maskIndex = 0; maskIndex < 4; maskIndex++) {
+                    final byte[] source = randomBytes(offset + length);
+                    final byte[] target = new byte[offset + length + 3];
+
+                    Masker.mask(MASK, maskIndex, source, offset, target, 3, length);
+
+                    assertArrayEquals(expected(source, offset, length, maskIndex),
+                                      Arrays.copyOfRange(target, 3, 3 + length));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMaskArrayInPlace() {
+        for (int length = 0; length < 70; length++) {
+            for (int offset = 0; offset < 9; offset++) {
+                final byte[] source = randomBytes(offset + length);
+                final byte[] expected = expected(source, offset, length, 1);
+
+                Masker.mask(MASK, 1, source, offset, source, offset, length);
+
+                assertArrayEquals(expected, Arrays.copyOfRange(source, offset, offset + length));
+            }
+        }
+    }
+
+    @Test
+    public void testMaskBuffer() {
+        for (int length = 0; length < 70; length++) {
+            for (int offset = 0; offset < 9; offset++) {
+                final byte[] source = randomBytes(offset + length);
+                final byte[] expected = expected(source, offset, length, 2);
+
+                final ByteBuffer buffer = ByteBuffer.allocateDirect(source.length);
+                buffer.put(source).flip();
+                Masker.mask(MASK, 2, buffer, offset, length);
+
+                assertEquals(0, buffer.position());
+                final byte[] actual = new byte[length];
+                buffer.position(offset);
+                buffer.get(actual);
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testUnmaskContinuesWithMaskIndex() {
+        final byte[] payload = randomBytes(37);
+        final ByteBuffer buffer = ByteBuffer.allocate(MASK.length + payload.length);
+        buffer.put(MASK).put(payload).flip();
+
+        final Masker masker = new Masker(buffer);
+        masker.readMask();
+        final byte[] first = masker.unmask(5);
+        final byte[] second = masker.unmask(32);
+
+        final byte[] expected = expected(payload, 0, payload.length, 0);
+        assertArrayEquals(Arrays.copyOfRange(expected, 0, 5), first);
+        assertArrayEquals(Arrays.copyOfRange(expected, 5, 37), second);
+    }
+
+    private byte[] randomBytes(int length) {
+        final byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] expected(byte[] source, int offset, int length, int maskIndex) {
+        final byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = (byte) (source[offset + i] ^ MASK[(maskIndex + i) % MASK.length]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link OrderedExecutor}.
+ */
+public class OrderedExecutorTest {
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testOrder() throws InterruptedException {
+        final OrderedExecutor orderedExecutor = new OrderedExecutor(executorService, 8);
+        final List<Integer> executed = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger maxRunning = new AtomicInteger(0);
+        final CountDownLatch done = new CountDownLatch(1);
+        final int count = 1000;
+
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            orderedExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final int current = running.incrementAndGet();
+                    if (current > maxRunning.get()) {
+                        maxRunning.set(current);
+                    }
+                    executed.add(index);
+                    running.decrementAndGet();
+                    if (index == count - 1) {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get());
+        assertEquals(count, executed.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, (int) executed.get(i));
+        }
+    }
+
+    @Test
+    public void testQueueDepth() throws InterruptedException {
+        final OrderedExecutor orderedExecutor = new OrderedExecutor(executorService, 2);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch submitted = new CountDownLatch(1);
+        final Runnable blocking = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    // do nothing.
+                }
+            }
+        };
+
+        orderedExecutor.execute(blocking);
+        orderedExecutor.execute(blocking);
+
+        final Thread reader = new Thread() {
+            @Override
+            public void run() {
+                orderedExecutor.execute(blocking);
+                submitted.countDown();
+            }
+        };
+        reader.start();
+
+        // third task has to wait until one of the first two is completed.
+        assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(2, orderedExecutor.getPendingCount());
+
+        release.countDown();
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        reader.join(5000);
+    }
+
+    @Test
+    public void testSubmitFromTask() throws InterruptedException {
+        final OrderedExecutor orderedExecutor = new OrderedExecutor(executorService, 1);
+        final CountDownLatch done = new CountDownLatch(1);
+
+        orderedExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                // queue is full, but the task cannot wait for itself.
+                orderedExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        done.countDown();
+                    }
+                });
+            }
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRejected() throws InterruptedException {
+        final AtomicInteger scheduled = new AtomicInteger(0);
+        // accepts the first drain only, as a saturated shared executor would.
+        final Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                if (scheduled.getAndIncrement() > 0) {
+                    throw new RejectedExecutionException();
+                }
+                executorService.execute(command);
+            }
+        };
+        final OrderedExecutor orderedExecutor = new OrderedExecutor(executor, 64);
+        final List<Integer> executed = Collections.synchronizedList(new ArrayList<Integer>());
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        final int count = 40;
+
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            orderedExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        // do nothing.
+                    }
+                    executed.add(index);
+                    threads.add(Thread.currentThread());
+                    if (index == count - 1) {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, scheduled.get());
+        assertEquals(count, executed.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, (int) executed.get(i));
+            // tasks rejected after the first batch are run by the thread which tried to reschedule them.
+            assertSame(threads.get(0), threads.get(i));
+        }
+    }
+}
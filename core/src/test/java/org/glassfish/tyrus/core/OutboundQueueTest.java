@@ -0,0 +1,365 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Writer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link OutboundQueue}.
+ */
+public class OutboundQueueTest {
+
+    @Test
+    public void testFail() {
+        final PendingWriter writer = new PendingWriter();
+        final OutboundQueue queue = new OutboundQueue(writer, 0, 2, OutboundQueuePolicy.FAIL, null);
+
+        final ResultHandler first = write(queue, frame(0x01, true, 10));
+        write(queue, frame(0x02, true, 10));
+        assertFalse(queue.isWritable());
+
+        final ResultHandler rejected = write(queue, frame(0x01, true, 10));
+        assertTrue(rejected.failure instanceof OutboundQueueFullException);
+        assertEquals(1, queue.getRejectedFrames());
+
+        // control frames are never rejected.
+        final ResultHandler ping = write(queue, frame(0x09, true, 0));
+        assertNull(ping.failure);
+        assertEquals(3, writer.pending.size());
+        assertEquals(3, queue.getQueuedFrames());
+
+        writer.complete(0);
+        writer.complete(0);
+        assertTrue(first.completed);
+        assertTrue(queue.isWritable());
+        assertEquals(1, queue.getQueuedFrames());
+        assertEquals(2, queue.getQueuedBytes());
+    }
+
+    @Test
+    public void testSizeLimit() {
+        final PendingWriter writer = new PendingWriter();
+        final OutboundQueue queue = new OutboundQueue(writer, 100, 0, OutboundQueuePolicy.FAIL, null);
+
+        // the first write is always accepted.
+        assertNull(write(queue, frame(0x02, true, 200)).failure);
+        assertTrue(write(queue, frame(0x02, true, 10)).failure instanceof OutboundQueueFullException);
+
+        writer.complete(0);
+        assertNull(write(queue, frame(0x02, true, 50)).failure);
+        assertNull(write(queue, frame(0x02, true, 40)).failure);
+        assertEquals(94, queue.getQueuedBytes());
+    }
+
+    @Test
+    public void testDropOldest() {
+        final PendingWriter writer = new PendingWriter();
+        final OutboundQueue queue = new OutboundQueue(writer, 0, 1, OutboundQueuePolicy.DROP_OLDEST, null);
+
+        write(queue, frame(0x01, true, 1));
+        final ResultHandler dropped = write(queue, frame(0x01, true, 2));
+        final ByteBuffer latest = frame(0x01, true, 3);
+        final ResultHandler last = write(queue, latest);
+
+        assertTrue(dropped.failure instanceof OutboundQueueFullException);
+        assertEquals(1, queue.getDroppedFrames());
+        assertEquals(1, writer.pending.size());
+        assertEquals(2, queue.getQueuedFrames());
+
+        writer.complete(0);
+        assertEquals(1, writer.pending.size());
+        assertSame(latest, writer.buffers.get(1));
+
+        writer.complete(0);
+        assertTrue(last.completed);
+        assertTrue(queue.isWritable());
+    }
+
+    @Test
+    public void testDropOldestKeepsFragments() {
+        final PendingWriter writer = new PendingWriter();
+        final OutboundQueue queue = new OutboundQueue(writer, 0, 1, OutboundQueuePolicy.DROP_OLDEST, null);
+
+        write(queue, frame(0x01, true, 1));
+        final ResultHandler fragment = write(queue, frame(0x01, false, 2));
+        final ResultHandler rejected = write(queue, frame(0x01, true, 3));
+
+        assertNull(fragment.failure);
+        assertTrue(rejected.failure instanceof OutboundQueueFullException);
+        assertEquals(0, queue.getDroppedFrames());
+        assertEquals(1, queue.getRejectedFrames());
+
+        writer.complete(0);
+        writer.complete(0);
+        assertTrue(fragment.completed);
+    }
+
+    @Test
+    public void testFragmentsOfStartedMessage() {
+        final PendingWriter writer = new PendingWriter();
+        final OutboundQueue queue = new OutboundQueue(writer, 0, 1, OutboundQueuePolicy.FAIL, null);
+
+        assertNull(write(queue, frame(0x01, false, 10)).failure);
+        // the rest of the started message is accepted even though the queue is full.
+        final ResultHandler continuation = write(queue, frame(0x00, false, 10));
+        final ResultHandler last = write(queue, frame(0x00, true, 10));
+        assertNull(continuation.failure);
+        assertNull(last.failure);
+        assertEquals(3, writer.pending.size());
+
+        // next message is limited again.
+        assertTrue(write(queue, frame(0x01, true, 10)).failure instanceof OutboundQueueFullException);
+
+        writer.complete(0);
+        writer.complete(0);
+        writer.complete(0);
+        assertTrue(continuation.completed);
+        assertTrue(last.completed);
+    }
+
+    @Test
+    public void testRejectedFragmentedMessage() {
+        final PendingWriter writer = new PendingWriter();
+        final OutboundQueue queue = new OutboundQueue(writer, 0, 1, OutboundQueuePolicy.FAIL, null);
+
+        write(queue, frame(0x02, true, 10));
+
+        // the first frame does not fit, so the rest of the message must not be sent either.
+        assertTrue(write(queue, frame(0x02, false, 10)).failure instanceof OutboundQueueFullException);
+        assertTrue(write(queue, frame(0x00, true, 10)).failure instanceof OutboundQueueFullException);
+        assertEquals(2, queue.getRejectedFrames());
+
+        writer.complete(0);
+        assertEquals(1, writer.buffers.size());
+        assertNull(write(queue, frame(0x02, true, 10)).failure);
+    }
+
+    @Test
+    public void testBatch() {
+        final PendingWriter writer = new PendingWriter();
+        final OutboundQueue queue = new OutboundQueue(writer, 0, 1, OutboundQueuePolicy.DROP_OLDEST, null);
+
+        write(queue, frame(0x02, true, 10));
+        final ResultHandler waiting = write(queue, frame(0x02, true, 10));
+
+        // batched frames were already reported as sent - the batch is neither rejected nor dropped.
+        final ResultHandler batch = new ResultHandler();
+        queue.writeBatch(frame(0x01, true, 10), batch);
+        final ResultHandler latest = write(queue, frame(0x02, true, 10));
+        assertNull(batch.failure);
+        assertTrue(waiting.failure instanceof OutboundQueueFullException);
+        assertTrue(latest.failure instanceof OutboundQueueFullException);
+        assertEquals(1, queue.getDroppedFrames());
+        assertEquals(1, queue.getRejectedFrames());
+
+        writer.complete(0);
+        writer.complete(0);
+        assertTrue(batch.completed);
+    }
+
+    @Test
+    public void testFragmenting() {
+        assertTrue(OutboundQueue.isFragmenting(frame(0x01, false, 10), false));
+        assertFalse(OutboundQueue.isFragmenting(frame(0x00, true, 10), true));
+        // control frames do not change the state.
+        assertTrue(OutboundQueue.isFragmenting(frame(0x09, true, 0), true));
+
+        // batch - the last data frame is inspected.
+        final ByteBuffer batch = ByteBuffer.allocate(100);
+        batch.put(frame(0x01, false, 10)).put(frame(0x00, true, 10)).put(frame(0x02, false, 10)).flip();
+        assertTrue(OutboundQueue.isFragmenting(batch, false));
+        assertEquals(0, batch.position());
+
+        // header only.
+        final ByteBuffer header = frame(0x02, false, 300);
+        header.limit(4);
+        assertTrue(OutboundQueue.isFragmenting(header, false));
+    }
+
+    @Test
+    public void testClose() {
+        final PendingWriter writer = new PendingWriter();
+        final AtomicInteger closed = new AtomicInteger(0);
+        final OutboundQueue queue = new OutboundQueue(writer, 0, 1, OutboundQueuePolicy.CLOSE, new Runnable() {
+            @Override
+            public void run() {
+                closed.incrementAndGet();
+            }
+        });
+
+        write(queue, frame(0x02, true, 1));
+        assertTrue(write(queue, frame(0x02, true, 1)).failure instanceof OutboundQueueFullException);
+        assertTrue(write(queue, frame(0x02, true, 1)).failure instanceof OutboundQueueFullException);
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    public void testOnWritable() throws IOException {
+        final PendingWriter writer = new PendingWriter();
+        final OutboundQueue queue = new OutboundQueue(writer, 0, 1, OutboundQueuePolicy.DROP_OLDEST, null);
+        final AtomicInteger notified = new AtomicInteger(0);
+        final Runnable listener = new Runnable() {
+            @Override
+            public void run() {
+                notified.incrementAndGet();
+            }
+        };
+
+        queue.onWritable(listener);
+        assertEquals(1, notified.get());
+
+        write(queue, frame(0x02, true, 1));
+        write(queue, frame(0x02, true, 1));
+        queue.onWritable(listener);
+        assertEquals(1, notified.get());
+
+        // the waiting message is written, so the queue is still full.
+        writer.complete(0);
+        assertEquals(1, notified.get());
+
+        writer.complete(0);
+        assertEquals(2, notified.get());
+
+        // waiting messages fail when the connection is closed.
+        write(queue, frame(0x02, true, 1));
+        final ResultHandler waiting = write(queue, frame(0x02, true, 1));
+        queue.close();
+        assertTrue(waiting.failure instanceof IOException);
+        assertTrue(writer.closed);
+    }
+
+    @Test
+    public void testWholeMessage() {
+        assertTrue(OutboundQueue.isWholeMessage(frame(0x01, true, 10), 12));
+        assertTrue(OutboundQueue.isWholeMessage(frame(0x02, true, 300), 304));
+        assertTrue(OutboundQueue.isWholeMessage(frame(0x02, true, 70000), 70010));
+        assertFalse(OutboundQueue.isWholeMessage(frame(0x01, false, 10), 12));
+        assertFalse(OutboundQueue.isWholeMessage(frame(0x00, true, 10), 12));
+        assertFalse(OutboundQueue.isWholeMessage(frame(0x09, true, 10), 12));
+        // batch of two frames.
+        assertFalse(OutboundQueue.isWholeMessage(frame(0x01, true, 10), 24));
+
+        final ByteBuffer masked = frame(0x01, true, 10);
+        masked.put(1, (byte) (masked.get(1) | 0x80));
+        assertTrue(OutboundQueue.isWholeMessage(masked, 16));
+    }
+
+    private static ResultHandler write(OutboundQueue queue, ByteBuffer buffer) {
+        final ResultHandler handler = new ResultHandler();
+        queue.write(buffer, handler);
+        return handler;
+    }
+
+    /**
+     * Create a buffer containing the frame header followed by given number of bytes.
+     */
+    private static ByteBuffer frame(int opcode, boolean fin, int payloadLength) {
+        final ByteBuffer buffer = ByteBuffer.allocate(10 + payloadLength);
+        buffer.put((byte) ((fin ? 0x80 : 0x00) | opcode));
+        if (payloadLength < 126) {
+            buffer.put((byte) payloadLength);
+        } else if (payloadLength < 65536) {
+            buffer.put((byte) 126);
+            buffer.putShort((short) payloadLength);
+        } else {
+            buffer.put((byte) 127);
+            buffer.putLong(payloadLength);
+        }
+        buffer.position(buffer.position() + payloadLength);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static class ResultHandler extends CompletionHandler<ByteBuffer> {
+
+        private volatile boolean completed = false;
+        private volatile Throwable failure = null;
+
+        @Override
+        public void failed(Throwable throwable) {
+            failure = throwable;
+        }
+
+        @Override
+        public void completed(ByteBuffer result) {
+            completed = true;
+        }
+    }
+
+    /**
+     * Writer which completes the writes only when asked to.
+     */
+    private static class PendingWriter extends Writer {
+
+        private final List<CompletionHandler<ByteBuffer>> pending = new ArrayList<CompletionHandler<ByteBuffer>>();
+        private final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+        private boolean closed = false;
+
+        @Override
+        public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+            buffers.add(buffer);
+            pending.add(completionHandler);
+        }
+
+        void complete(int index) {
+            pending.remove(index).completed(null);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
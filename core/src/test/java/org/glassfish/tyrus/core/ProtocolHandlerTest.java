@@ -0,0 +1,393 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.glassfish.tyrus.core.frame.BinaryFrame;
+import org.glassfish.tyrus.core.frame.Frame;
+import org.glassfish.tyrus.core.frame.TextFrame;
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Writer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link ProtocolHandler} framing and unframing.
+ */
+public class ProtocolHandlerTest {
+
+    private static final byte[] PAYLOAD = "Lorem ipsum dolor sit amet, consectetur adipiscing elit.".getBytes();
+
+    @Test
+    public void testUnframeCopy() {
+        final ProtocolHandler client = new ProtocolHandler(true, null);
+        final ProtocolHandler server = new ProtocolHandler(false, null);
+
+        final ByteBuffer buffer = client.frame(new BinaryFrame(PAYLOAD, false, true));
+        final Frame frame = server.unframe(buffer);
+
+        assertFalse(frame.isPayloadView());
+        assertTrue(Arrays.equals(PAYLOAD, frame.getPayloadData()));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testUnframeZeroCopy() {
+        final ProtocolHandler client = new ProtocolHandler(true, null);
+        final ProtocolHandler server = new ProtocolHandler(false, null);
+        server.setZeroCopyDecoding(true);
+
+        final ByteBuffer first = client.frame(new BinaryFrame(PAYLOAD, false, true));
+        final ByteBuffer second = client.frame(new TextFrame("second", false, true));
+        final ByteBuffer buffer = ByteBuffer.allocate(first.remaining() + second.remaining());
+        buffer.put(first).put(second).flip();
+
+        final Frame frame = server.unframe(buffer);
+        assertTrue(frame.isPayloadView());
+        assertEquals(PAYLOAD.length, frame.getPayloadLength());
+        assertTrue(Arrays.equals(PAYLOAD, frame.getPayloadData()));
+
+        // payload was unmasked in place.
+        final byte[] unmasked = new byte[PAYLOAD.length];
+        final ByteBuffer view = buffer.duplicate();
+        view.position(buffer.position() - PAYLOAD.length);
+        view.get(unmasked);
+        assertTrue(Arrays.equals(PAYLOAD, unmasked));
+
+        final Frame secondFrame = server.unframe(buffer);
+        assertTrue(secondFrame.isPayloadView());
+        assertEquals("second", new TextFrame(secondFrame, new Utf8Decoder()).getTextPayload());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testUnframeZeroCopyIncompleteFrame() {
+        final ProtocolHandler client = new ProtocolHandler(true, null);
+        final ProtocolHandler server = new ProtocolHandler(false, null);
+        server.setZeroCopyDecoding(true);
+
+        final ByteBuffer framed = client.frame(new BinaryFrame(PAYLOAD, false, true));
+        final ByteBuffer buffer = ByteBuffer.allocate(framed.remaining());
+        framed.limit(framed.limit() - 10);
+        buffer.put(framed).flip();
+
+        assertNull(server.unframe(buffer));
+
+        framed.limit(framed.capacity());
+        buffer.compact();
+        buffer.put(framed).flip();
+
+        final Frame frame = server.unframe(buffer);
+        assertTrue(frame.isPayloadView());
+        assertTrue(Arrays.equals(PAYLOAD, frame.getPayloadData()));
+    }
+
+    @Test
+    public void testEncodeServerPayloadNotCopied() {
+        final ProtocolHandler server = new ProtocolHandler(false, null);
+        final byte[] payload = Arrays.copyOf(PAYLOAD, PAYLOAD.length);
+
+        final ByteBuffer[] encoded = server.encode(new BinaryFrame(payload, false, true));
+        assertEquals(2, encoded.length);
+        assertEquals(2, encoded[0].remaining());
+        assertEquals(payload.length, encoded[1].remaining());
+
+        // payload buffer is a view of the sent data, backed by its array.
+        assertTrue(encoded[1].hasArray());
+        payload[0] = 'x';
+        assertEquals('x', encoded[1].get(encoded[1].position()));
+    }
+
+    @Test
+    public void testEncodeUnmasked() {
+        final ProtocolHandler server = new ProtocolHandler(false, null);
+        final TextFrame frame = new TextFrame("Lorem ipsum", false, true);
+
+        final ByteBuffer shared = ProtocolHandler.encodeUnmasked(frame);
+        assertTrue(shared.hasArray());
+        assertEquals(server.frame(frame), shared);
+
+        // each session gets its own duplicate, consuming it does not affect the shared buffer.
+        final ByteBuffer duplicate = shared.duplicate();
+        duplicate.position(duplicate.limit());
+        assertEquals(server.frame(frame), shared);
+    }
+
+    @Test
+    public void testGatheringWrite() throws Exception {
+        final ProtocolHandler client = new ProtocolHandler(true, null);
+        final ProtocolHandler server = new ProtocolHandler(false, null);
+
+        final List<ByteBuffer[]> written = new ArrayList<ByteBuffer[]>();
+        client.setWriter(new Writer() {
+            @Override
+            public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+                fail("Gathering write expected.");
+            }
+
+            @Override
+            public void write(ByteBuffer[] buffers, CompletionHandler<ByteBuffer[]> completionHandler) {
+                written.add(buffers);
+                completionHandler.completed(buffers);
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        final byte[] payload = new byte[70000];
+        Arrays.fill(payload, (byte) 42);
+        client.send(payload).get();
+
+        assertEquals(1, written.size());
+        final ByteBuffer[] buffers = written.get(0);
+        assertEquals(2, buffers.length);
+        // 1 byte opcode, 1 + 8 bytes length, 4 bytes masking key
+        assertEquals(14, buffers[0].remaining());
+
+        final ByteBuffer buffer = ByteBuffer.allocate(buffers[0].remaining() + buffers[1].remaining());
+        buffer.put(buffers[0]).put(buffers[1]).flip();
+        final Frame frame = server.unframe(buffer);
+        assertTrue(Arrays.equals(payload, frame.getPayloadData()));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testGatheringWriteDefaultImplementation() {
+        final List<ByteBuffer> written = new ArrayList<ByteBuffer>();
+        final Writer writer = new Writer() {
+            @Override
+            public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+                written.add(buffer);
+                completionHandler.completed(buffer);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        final ByteBuffer[] encoded = new ProtocolHandler(false, null).encode(new BinaryFrame(PAYLOAD, false, true));
+        final ByteBuffer[][] completed = new ByteBuffer[1][];
+        writer.write(encoded, new CompletionHandler<ByteBuffer[]>() {
+            @Override
+            public void completed(ByteBuffer[] result) {
+                completed[0] = result;
+            }
+        });
+
+        assertEquals(1, written.size());
+        assertEquals(2 + PAYLOAD.length, written.get(0).remaining());
+        assertTrue(encoded == completed[0]);
+    }
+
+    @Test
+    public void testBatchingSizeAndExplicitFlush() throws Exception {
+        final ProtocolHandler client = new ProtocolHandler(true, null);
+        final ProtocolHandler server = new ProtocolHandler(false, null);
+        final List<ByteBuffer> written = new ArrayList<ByteBuffer>();
+        client.setWriter(new CollectingWriter(written));
+
+        // 2 B header + 4 B mask + 10 B payload = 16 B per frame
+        client.setBatchingConfiguration(40, 0);
+        client.setBatchingAllowed(true, null);
+
+        final byte[] payload = new byte[10];
+        // sends are completed as soon as frames are in the batch.
+        client.send(payload).get();
+        client.send(payload).get();
+        assertEquals(0, written.size());
+
+        // third frame does not fit, so the batch is flushed.
+        client.send(payload).get();
+        assertEquals(1, written.size());
+        assertEquals(32, written.get(0).remaining());
+        assertEquals(1, client.getBatchFlushCount(BatchFlushCause.SIZE));
+
+        client.flushBatch().get();
+        assertEquals(2, written.size());
+        assertEquals(16, written.get(1).remaining());
+        assertEquals(1, client.getBatchFlushCount(BatchFlushCause.EXPLICIT));
+
+        // flushing empty batch does not write anything.
+        client.flushBatch().get();
+        assertEquals(2, written.size());
+
+        for (ByteBuffer buffer : written) {
+            while (buffer.hasRemaining()) {
+                assertTrue(Arrays.equals(payload, server.unframe(buffer).getPayloadData()));
+            }
+        }
+    }
+
+    @Test
+    public void testBatchingNonBatchedFrame() throws Exception {
+        final ProtocolHandler server = new ProtocolHandler(false, null);
+        final List<ByteBuffer> written = new ArrayList<ByteBuffer>();
+        server.setWriter(new CollectingWriter(written));
+
+        server.setBatchingConfiguration(100, 0);
+        server.setBatchingAllowed(true, null);
+
+        server.send("first").get();
+        server.send(new byte[200]).get();
+
+        // batch was written before the big frame.
+        assertEquals(2, written.size());
+        assertEquals(7, written.get(0).remaining());
+        assertEquals(204, written.get(1).remaining());
+        assertEquals(1, server.getBatchFlushCount(BatchFlushCause.NON_BATCHED_FRAME));
+
+        server.send("second").get();
+        server.setBatchingAllowed(false, null);
+        assertFalse(server.isBatchingAllowed());
+        server.send("third").get();
+        assertEquals(4, written.size());
+        assertEquals(8, written.get(2).remaining());
+        assertEquals(7, written.get(3).remaining());
+    }
+
+    @Test
+    public void testBatchingDeadline() throws Exception {
+        final ProtocolHandler server = new ProtocolHandler(false, null);
+        final List<ByteBuffer> written = new ArrayList<ByteBuffer>();
+        server.setWriter(new CollectingWriter(written));
+
+        final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+        try {
+            server.setBatchingConfiguration(1000, 50);
+            server.setBatchingAllowed(true, executorService);
+
+            server.send("first").get();
+            server.send("second").get();
+            synchronized (written) {
+                assertEquals(0, written.size());
+            }
+
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (server.getBatchFlushCount(BatchFlushCause.DEADLINE) == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(1, server.getBatchFlushCount(BatchFlushCause.DEADLINE));
+            synchronized (written) {
+                assertEquals(1, written.size());
+                assertEquals(15, written.get(0).remaining());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBatchingWriteFailure() throws Exception {
+        final ProtocolHandler server = new ProtocolHandler(false, null);
+        final IOException failure = new IOException();
+        final AtomicBoolean closed = new AtomicBoolean(false);
+        server.setWriter(new Writer() {
+            @Override
+            public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+                completionHandler.failed(failure);
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        });
+
+        server.setBatchingConfiguration(10, 0);
+        server.setBatchingAllowed(true, null);
+
+        // sending is completed when the frame is added to the batch.
+        server.send("first").get();
+        assertFalse(closed.get());
+
+        // the batch is written before the second frame is added and the failure closes the connection.
+        server.send("second").get();
+        assertEquals(1, server.getBatchFlushCount(BatchFlushCause.SIZE));
+        assertTrue(closed.get());
+
+        // the next explicit flush reports the lost frames.
+        try {
+            server.flushBatch().get();
+            fail("ExecutionException expected.");
+        } catch (ExecutionException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    private static class CollectingWriter extends Writer {
+
+        private final List<ByteBuffer> written;
+
+        private CollectingWriter(List<ByteBuffer> written) {
+            this.written = written;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+            synchronized (written) {
+                written.add(buffer);
+            }
+            completionHandler.completed(buffer);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
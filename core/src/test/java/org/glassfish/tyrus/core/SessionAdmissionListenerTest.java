@@ -0,0 +1,239 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.websocket.CloseReason;
+import javax.websocket.DeploymentException;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.Session;
+
+import org.glassfish.tyrus.core.monitoring.ApplicationEventListener;
+import org.glassfish.tyrus.core.monitoring.EndpointEventListener;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link SessionAdmissionListener}.
+ */
+public class SessionAdmissionListenerTest {
+
+    private static final CloseReason CLOSE_REASON =
+            new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, "Normal closure.");
+
+    private final TyrusEndpointWrapper endpointWrapper;
+
+    public SessionAdmissionListenerTest() throws DeploymentException {
+        endpointWrapper = new TyrusEndpointWrapper(EchoEndpoint.class, null, ComponentProviderService.create(), null,
+                                                   null, null, null, null, null, null);
+    }
+
+    @Test
+    public void testMaxSessionsPerApp() {
+        CountingApplicationEventListener eventListener = new CountingApplicationEventListener();
+        SessionAdmissionListener listener = new SessionAdmissionListener(2, null, eventListener);
+
+        TyrusSession session1 = createSession("10.0.0.1");
+        TyrusSession session2 = createSession("10.0.0.2");
+
+        assertEquals(TyrusEndpointWrapper.SessionListener.OnOpenResult.SESSION_ALLOWED, listener.onOpen(session1));
+        assertEquals(TyrusEndpointWrapper.SessionListener.OnOpenResult.SESSION_ALLOWED, listener.onOpen(session2));
+        assertEquals(TyrusEndpointWrapper.SessionListener.OnOpenResult.MAX_SESSIONS_PER_APP_EXCEEDED,
+                     listener.onOpen(createSession("10.0.0.3")));
+        assertEquals(2, listener.getOpenSessionsCount());
+
+        listener.onClose(session1, CLOSE_REASON);
+        assertEquals(TyrusEndpointWrapper.SessionListener.OnOpenResult.SESSION_ALLOWED,
+                     listener.onOpen(createSession("10.0.0.3")));
+
+        assertEquals(3, eventListener.accepted.get());
+        assertEquals(1, eventListener.getRejected(ApplicationEventListener.RejectionReason.MAX_SESSIONS_PER_APP));
+    }
+
+    @Test
+    public void testMaxSessionsPerRemoteAddr() {
+        CountingApplicationEventListener eventListener = new CountingApplicationEventListener();
+        SessionAdmissionListener listener = new SessionAdmissionListener(10, 1, eventListener);
+
+        TyrusSession session = createSession("10.0.0.1");
+
+        assertEquals(TyrusEndpointWrapper.SessionListener.OnOpenResult.SESSION_ALLOWED, listener.onOpen(session));
+        assertEquals(TyrusEndpointWrapper.SessionListener.OnOpenResult.MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED,
+                     listener.onOpen(createSession("10.0.0.1")));
+        assertEquals(TyrusEndpointWrapper.SessionListener.OnOpenResult.SESSION_ALLOWED,
+                     listener.onOpen(createSession("10.0.0.2")));
+
+        // refused session must not hold the application slot.
+        assertEquals(2, listener.getOpenSessionsCount());
+        assertEquals(1, listener.getOpenSessionsCount("10.0.0.1"));
+
+        listener.onClose(session, CLOSE_REASON);
+        assertEquals(0, listener.getOpenSessionsCount("10.0.0.1"));
+        assertEquals(TyrusEndpointWrapper.SessionListener.OnOpenResult.SESSION_ALLOWED,
+                     listener.onOpen(createSession("10.0.0.1")));
+
+        listener.onOpenRefused(createSession("10.0.0.3"),
+                               TyrusEndpointWrapper.SessionListener.OnOpenResult.MAX_SESSIONS_PER_ENDPOINT_EXCEEDED);
+
+        assertEquals(3, eventListener.accepted.get());
+        assertEquals(1, eventListener.getRejected(
+                ApplicationEventListener.RejectionReason.MAX_SESSIONS_PER_REMOTE_ADDR));
+        assertEquals(1, eventListener.getRejected(ApplicationEventListener.RejectionReason.MAX_SESSIONS_PER_ENDPOINT));
+    }
+
+    @Test
+    public void testConcurrentOpenClose() throws InterruptedException {
+        final int threads = 8;
+        final int iterations = 2000;
+        final int maxSessionsPerRemoteAddr = 3;
+
+        final SessionAdmissionListener listener =
+                new SessionAdmissionListener(threads, maxSessionsPerRemoteAddr, ApplicationEventListener.NO_OP);
+        final AtomicInteger violations = new AtomicInteger(0);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+
+        for (int i = 0; i < threads; i++) {
+            // two remote addresses shared by all the threads.
+            final TyrusSession session = createSession(i % 2 == 0 ? "10.0.0.1" : "10.0.0.2");
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < iterations; j++) {
+                            if (listener.onOpen(session)
+                                    == TyrusEndpointWrapper.SessionListener.OnOpenResult.SESSION_ALLOWED) {
+                                if (listener.getOpenSessionsCount(session.getRemoteAddr()) > maxSessionsPerRemoteAddr) {
+                                    violations.incrementAndGet();
+                                }
+                                listener.onClose(session, CLOSE_REASON);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        // do nothing.
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+
+        start.countDown();
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+
+        assertEquals(0, violations.get());
+        assertEquals(0, listener.getOpenSessionsCount());
+        assertEquals(0, listener.getOpenSessionsCount("10.0.0.1"));
+        assertEquals(0, listener.getOpenSessionsCount("10.0.0.2"));
+    }
+
+    private TyrusSession createSession(String remoteAddr) {
+        return new TyrusSession(null, new TestRemoteEndpoint(), endpointWrapper, null, null, false, null, null, null,
+                                null, new HashMap<String, List<String>>(), null, null, remoteAddr, new DebugContext());
+    }
+
+    public static class EchoEndpoint extends Endpoint {
+
+        @Override
+        public void onOpen(Session session, EndpointConfig config) {
+        }
+    }
+
+    private static class TestRemoteEndpoint extends TyrusWebSocket {
+
+        private TestRemoteEndpoint() {
+            super(new ProtocolHandler(false, null), null);
+        }
+    }
+
+    private static class CountingApplicationEventListener implements ApplicationEventListener {
+
+        private final AtomicInteger accepted = new AtomicInteger(0);
+        private final Map<RejectionReason, AtomicInteger> rejected = new HashMap<RejectionReason, AtomicInteger>();
+
+        private CountingApplicationEventListener() {
+            for (RejectionReason reason : RejectionReason.values()) {
+                rejected.put(reason, new AtomicInteger(0));
+            }
+        }
+
+        int getRejected(RejectionReason reason) {
+            return rejected.get(reason).get();
+        }
+
+        @Override
+        public void onApplicationInitialized(String applicationName) {
+        }
+
+        @Override
+        public void onApplicationDestroyed() {
+        }
+
+        @Override
+        public EndpointEventListener onEndpointRegistered(String endpointPath, Class<?> endpointClass) {
+            return EndpointEventListener.NO_OP;
+        }
+
+        @Override
+        public void onEndpointUnregistered(String endpointPath) {
+        }
+
+        @Override
+        public void onSessionAccepted() {
+            accepted.incrementAndGet();
+        }
+
+        @Override
+        public void onSessionRejected(RejectionReason reason) {
+            rejected.get(reason).incrementAndGet();
+        }
+    }
+}
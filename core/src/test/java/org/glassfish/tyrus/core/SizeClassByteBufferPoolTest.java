@@ -0,0 +1,121 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link SizeClassByteBufferPool}.
+ */
+public class SizeClassByteBufferPoolTest {
+
+    @Test
+    public void testSizeClasses() {
+        final SizeClassByteBufferPool pool = new SizeClassByteBufferPool(512, 4096, 10, false);
+
+        assertEquals(512, pool.take(1).capacity());
+        assertEquals(512, pool.take(512).capacity());
+        assertEquals(1024, pool.take(513).capacity());
+        assertEquals(4096, pool.take(4096).capacity());
+
+        // not pooled
+        assertEquals(4097, pool.take(4097).capacity());
+    }
+
+    @Test
+    public void testRecycle() {
+        final SizeClassByteBufferPool pool = new SizeClassByteBufferPool(512, 4096, 10, false);
+
+        final ByteBuffer buffer = pool.take(600);
+        buffer.put((byte) 1);
+        buffer.flip();
+        pool.recycle(buffer);
+        assertEquals(1, pool.getPooledBuffersCount());
+
+        final ByteBuffer taken = pool.take(700);
+        assertSame(buffer, taken);
+        assertEquals(0, taken.position());
+        assertEquals(taken.capacity(), taken.limit());
+        assertEquals(0, pool.getPooledBuffersCount());
+
+        // different size class
+        pool.recycle(taken);
+        assertEquals(2048, pool.take(2000).capacity());
+        assertEquals(1, pool.getPooledBuffersCount());
+    }
+
+    @Test
+    public void testRecycleForeignBuffers() {
+        final SizeClassByteBufferPool pool = new SizeClassByteBufferPool(512, 4096, 10, false);
+
+        pool.recycle(ByteBuffer.allocate(1000));
+        pool.recycle(ByteBuffer.allocate(8192));
+        pool.recycle(ByteBuffer.allocateDirect(1024));
+        pool.recycle(ByteBuffer.allocate(1024).asReadOnlyBuffer());
+
+        assertEquals(0, pool.getPooledBuffersCount());
+    }
+
+    @Test
+    public void testMaxBuffersPerClass() {
+        final SizeClassByteBufferPool pool = new SizeClassByteBufferPool(512, 4096, 2, false);
+
+        for (int i = 0; i < 5; i++) {
+            pool.recycle(ByteBuffer.allocate(512));
+        }
+
+        assertEquals(2, pool.getPooledBuffersCount());
+    }
+
+    @Test
+    public void testDirect() {
+        final SizeClassByteBufferPool pool = new SizeClassByteBufferPool(true);
+
+        assertTrue(pool.take(100).isDirect());
+        assertTrue(pool.take(1000000).isDirect());
+        assertFalse(new SizeClassByteBufferPool(false).take(100).isDirect());
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link TimingWheel}.
+ */
+public class TimingWheelTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+    private final TimingWheel timingWheel = new TimingWheel(new ExecutorServiceProvider() {
+        @Override
+        public ExecutorService getExecutorService() {
+            return scheduler;
+        }
+
+        @Override
+        public ScheduledExecutorService getScheduledExecutorService() {
+            return scheduler;
+        }
+    });
+
+    @After
+    public void tearDown() {
+        timingWheel.stop();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testExpiration() throws InterruptedException {
+        final long start = System.nanoTime();
+        final TestTimeout timeout = new TestTimeout(start + TimeUnit.MILLISECONDS.toNanos(50));
+        timingWheel.schedule(timeout);
+
+        assertTrue(timeout.latch.await(5, TimeUnit.SECONDS));
+        assertTrue(timeout.executedAt - timeout.deadline >= 0);
+    }
+
+    @Test
+    public void testPostponedDeadline() throws InterruptedException {
+        final long start = System.nanoTime();
+        final TestTimeout timeout = new TestTimeout(start + TimeUnit.MILLISECONDS.toNanos(20));
+        timingWheel.schedule(timeout);
+
+        // deadline is evaluated lazily.
+        timeout.deadline = start + TimeUnit.MILLISECONDS.toNanos(200);
+
+        assertTrue(timeout.latch.await(5, TimeUnit.SECONDS));
+        assertTrue(timeout.executedAt - timeout.deadline >= 0);
+    }
+
+    @Test
+    public void testCancelled() throws InterruptedException {
+        final TestTimeout cancelled = new TestTimeout(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(20));
+        final TestTimeout timeout = new TestTimeout(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100));
+        timingWheel.schedule(cancelled);
+        timingWheel.schedule(timeout);
+
+        cancelled.cancelled = true;
+
+        assertTrue(timeout.latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, cancelled.latch.getCount());
+    }
+
+    @Test
+    public void testRestartAfterStop() throws InterruptedException {
+        final TestTimeout discarded = new TestTimeout(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50));
+        timingWheel.schedule(discarded);
+        timingWheel.stop();
+
+        final TestTimeout timeout = new TestTimeout(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100));
+        timingWheel.schedule(timeout);
+
+        assertTrue(timeout.latch.await(5, TimeUnit.SECONDS));
+        assertFalse(discarded.latch.getCount() == 0);
+    }
+
+    @Test
+    public void testIdleStop() throws InterruptedException {
+        final TestTimeout first = new TestTimeout(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(20));
+        timingWheel.schedule(first);
+        assertTrue(timingWheel.isRunning());
+        assertTrue(first.latch.await(5, TimeUnit.SECONDS));
+
+        // empty wheel does not tick.
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (timingWheel.isRunning() && System.nanoTime() - deadline < 0) {
+            Thread.sleep(10);
+        }
+        assertFalse(timingWheel.isRunning());
+
+        final TestTimeout second = new TestTimeout(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(20));
+        timingWheel.schedule(second);
+        assertTrue(timingWheel.isRunning());
+        assertTrue(second.latch.await(5, TimeUnit.SECONDS));
+    }
+
+    private static class TestTimeout extends TimingWheel.Timeout {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        private volatile long deadline;
+        private volatile boolean cancelled = false;
+        private volatile long executedAt;
+
+        TestTimeout(long deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        long getDeadline() {
+            return deadline;
+        }
+
+        @Override
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void run() {
+            executedAt = System.nanoTime();
+            latch.countDown();
+        }
+    }
+}
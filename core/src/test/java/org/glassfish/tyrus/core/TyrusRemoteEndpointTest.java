@@ -71,6 +71,7 @@ import javax.websocket.Session;
 import javax.websocket.server.ServerEndpoint;
 
 import org.glassfish.tyrus.core.frame.Frame;
+import org.glassfish.tyrus.spi.CompletionHandler;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -107,13 +108,16 @@ public class TyrusRemoteEndpointTest {
             stream.write(b);
         }
 
+        // bytes are collected into a fragment, not sent one by one.
+        Assert.assertEquals(0, tre.getSentFragmentCount());
         stream.flush();
-
-        // Assert.assertArrayEquals("Writing bytes one by one to stream and flushing.", sentBytes, tre
-        // .getBytesAndClearBuffer());
+        Assert.assertEquals(1, tre.getSentFragmentCount());
+        Assert.assertEquals(3, tre.getLastSentMessageSize());
 
         stream.write(sentBytes);
         stream.close();
+        Assert.assertEquals(2, tre.getSentFragmentCount());
+        Assert.assertTrue(tre.isLastSent());
 
         Assert.assertArrayEquals("Writing byte[] to stream and flushing.", sentBytesComplete,
                                  tre.getBytesAndClearBuffer());
@@ -128,9 +132,11 @@ public class TyrusRemoteEndpointTest {
         OutputStream stream = rew.getSendStream();
 
         stream.write(sentBytesComplete);
-        Assert.assertEquals(6, tre.getLastSentMessageSize());
+        Assert.assertEquals(0, tre.getSentFragmentCount());
         stream.close();
-        Assert.assertEquals(0, tre.getLastSentMessageSize());
+        Assert.assertEquals(1, tre.getSentFragmentCount());
+        Assert.assertEquals(6, tre.getLastSentMessageSize());
+        Assert.assertTrue(tre.isLastSent());
 
         Assert.assertArrayEquals("Writing byte[] to stream and flushing.", sentBytesComplete,
                                  tre.getBytesAndClearBuffer());
@@ -142,14 +148,19 @@ public class TyrusRemoteEndpointTest {
         TestRemoteEndpoint tre = new TestRemoteEndpoint();
         TyrusSession testSession = createTestSession(tre, endpointWrapper);
         TyrusRemoteEndpoint.Basic rew = new TyrusRemoteEndpoint.Basic(testSession, tre, endpointWrapper);
+        testSession.setStreamFragmentSize(4);
         OutputStream stream = rew.getSendStream();
 
         stream.write(sentBytes);
-        Assert.assertEquals(3, tre.getLastSentMessageSize());
+        Assert.assertEquals(0, tre.getSentFragmentCount());
         stream.write(sentBytes);
-        Assert.assertEquals(3, tre.getLastSentMessageSize());
+        Assert.assertEquals(1, tre.getSentFragmentCount());
+        Assert.assertEquals(4, tre.getLastSentMessageSize());
+        Assert.assertFalse(tre.isLastSent());
         stream.close();
-        Assert.assertEquals(0, tre.getLastSentMessageSize());
+        Assert.assertEquals(2, tre.getSentFragmentCount());
+        Assert.assertEquals(2, tre.getLastSentMessageSize());
+        Assert.assertTrue(tre.isLastSent());
 
         Assert.assertArrayEquals("Writing byte[] to stream and flushing.", sentBytesComplete,
                                  tre.getBytesAndClearBuffer());
@@ -331,6 +342,8 @@ public class TyrusRemoteEndpointTest {
         private final ArrayList<Byte> bytesToSend = new ArrayList<Byte>();
         StringBuilder builder = new StringBuilder();
         private int lastSentMessageSize;
+        private int sentFragmentCount;
+        private boolean lastSent;
 
         private TestRemoteEndpoint() {
             super(new ProtocolHandler(false, null), null);
@@ -403,6 +416,25 @@ public class TyrusRemoteEndpointTest {
             };
         }
 
+        @Override
+        void streamBinary(byte[] payload, boolean last, CompletionHandler<Frame> completionHandler) {
+            lastSentMessageSize = payload.length;
+            lastSent = last;
+            sentFragmentCount++;
+            for (byte b : payload) {
+                bytesToSend.add(b);
+            }
+            completionHandler.completed(null);
+        }
+
+        public int getSentFragmentCount() {
+            return sentFragmentCount;
+        }
+
+        public boolean isLastSent() {
+            return lastSent;
+        }
+
         public byte[] getBytesAndClearBuffer() {
             byte[] result = new byte[bytesToSend.size()];
 
@@ -0,0 +1,118 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests {@link Utf8Decoder} and {@link TextBuffer}.
+ */
+public class Utf8DecoderTest {
+
+    private static final String TEXT = "price: 10\u20ac, \ud83d\ude00 ok";
+
+    @Test
+    public void testAscii() {
+        final Utf8Decoder decoder = new Utf8Decoder();
+        assertEquals("{\"a\":1}", decoder.decode(ByteBuffer.wrap("{\"a\":1}".getBytes(StandardCharsets.UTF_8)), true));
+    }
+
+    @Test
+    public void testFragmentedCharacters() {
+        final byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+
+        // split the message after every byte, so that all the multi-byte characters are fragmented.
+        final Utf8Decoder decoder = new Utf8Decoder();
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < bytes.length; i++) {
+            sb.append(decoder.decode(ByteBuffer.wrap(bytes, i, 1), i == bytes.length - 1));
+        }
+
+        assertEquals(TEXT, sb.toString());
+    }
+
+    @Test
+    public void testResetDiscardsRemainder() {
+        final Utf8Decoder decoder = new Utf8Decoder();
+        assertEquals("", decoder.decode(ByteBuffer.wrap(new byte[]{(byte) 0xE2, (byte) 0x82}), false));
+
+        decoder.reset();
+        assertEquals("next", decoder.decode(ByteBuffer.wrap("next".getBytes(StandardCharsets.UTF_8)), true));
+    }
+
+    @Test(expected = Utf8DecodingException.class)
+    public void testInvalidSequence() {
+        // encoded surrogate is not a valid UTF-8.
+        new Utf8Decoder().decode(ByteBuffer.wrap(new byte[]{'a', (byte) 0xED, (byte) 0xA0, (byte) 0x80}), false);
+    }
+
+    @Test(expected = Utf8DecodingException.class)
+    public void testIncompleteLastFragment() {
+        new Utf8Decoder().decode(ByteBuffer.wrap(new byte[]{'a', (byte) 0xE2, (byte) 0x82}), true);
+    }
+
+    @Test
+    public void testTextBuffer() {
+        final byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+
+        final TextBuffer textBuffer = new TextBuffer();
+        textBuffer.resetBuffer(TEXT.length());
+        textBuffer.appendMessagePart(ByteBuffer.wrap(bytes, 0, 13));
+        textBuffer.appendMessagePart(ByteBuffer.wrap(bytes, 13, bytes.length - 13));
+        assertEquals(TEXT, textBuffer.getBufferedContent());
+
+        // buffer is reused for the next message.
+        textBuffer.resetBuffer(10);
+        textBuffer.appendMessagePart(ByteBuffer.wrap("ascii".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("ascii", textBuffer.getBufferedContent());
+    }
+
+    @Test(expected = MessageTooBigException.class)
+    public void testTextBufferOverflow() {
+        final TextBuffer textBuffer = new TextBuffer();
+        textBuffer.resetBuffer(5);
+        textBuffer.appendMessagePart(ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8)));
+        textBuffer.appendMessagePart(ByteBuffer.wrap("def".getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -175,6 +175,8 @@ public class BestMatchTest {
         Match m = getBestMatch(testedUri, new HashSet<TyrusEndpointWrapper>(endpoints));
         System.out.println("  Match for " + testedUri + " calculated is: " + m);
 
+        verifyPathTrie(endpoints, testedUri);
+
         if (expectedMatchedPath != null) {
             assertNotNull("Was expecting a match on " + expectedMatchedPath + ", but didn't get one.", m);
             assertEquals("Wrong path matched.", expectedMatchedPath, m.getEndpointWrapper().getEndpointPath());
@@ -183,6 +185,32 @@ public class BestMatchTest {
         }
     }
 
+    /**
+     * {@link PathTrie} has to return the same matches in the same order as {@link Match#getAllMatches(String, Set,
+     * DebugContext)}.
+     */
+    private void verifyPathTrie(List<TestWebSocketEndpoint> endpoints, String testedUri) {
+        final PathTrie pathTrie = new PathTrie();
+        for (TestWebSocketEndpoint endpoint : endpoints) {
+            assertNull(pathTrie.add(endpoint));
+        }
+
+        final List<Match> expected =
+                Match.getAllMatches(testedUri, new HashSet<TyrusEndpointWrapper>(endpoints), new DebugContext());
+        final List<Match> actual = pathTrie.getAllMatches(testedUri, new DebugContext());
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getEndpointWrapper(), actual.get(i).getEndpointWrapper());
+            assertEquals(expected.get(i).getParameters(), actual.get(i).getParameters());
+        }
+
+        for (TestWebSocketEndpoint endpoint : endpoints) {
+            pathTrie.remove(endpoint);
+        }
+        assertEquals(0, pathTrie.getAllMatches(testedUri, new DebugContext()).size());
+    }
+
     private Match getBestMatch(String incoming, Set<TyrusEndpointWrapper> thingsWithPath) {
         List<Match> sortedMatches = Match.getAllMatches(incoming, thingsWithPath, new DebugContext());
         if (sortedMatches.isEmpty()) {
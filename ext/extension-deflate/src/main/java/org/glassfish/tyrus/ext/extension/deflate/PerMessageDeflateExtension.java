@@ -37,35 +37,48 @@
  * only if the new code is made subject to such option by the copyright
  * holder.
  */
-
 package org.glassfish.tyrus.ext.extension.deflate;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
 
-import org.glassfish.tyrus.core.extension.ExtendedExtension;
+import org.glassfish.tyrus.core.TyrusExtension;
+import org.glassfish.tyrus.core.extension.SharedOutgoingExtension;
 import org.glassfish.tyrus.core.frame.Frame;
 
 /**
- * Compression Extensions for WebSocket draft-ietf-hybi-permessage-compression-15
+ * Compression Extensions for WebSocket (RFC 7692).
+ * <p>
+ * https://tools.ietf.org/html/rfc7692
+ * <p>
+ * Supported extension parameters:
+ * <ul>
+ * <li>"server_no_context_takeover" and "client_no_context_takeover" - compression context of the respective side is
+ * reset after each message. Server accepts both when offered; they can be also requested by {@link
+ * #setServerNoContextTakeover(boolean)} and {@link #setClientNoContextTakeover(boolean)}. Compressed messages do not
+ * depend on the previous ones when the context is not taken over, so a broadcasted message is compressed only once
+ * for all such connections.</li>
+ * <li>"server_max_window_bits" and "client_max_window_bits" - {@link Deflater} always uses 32 KB window, so when the
+ * peer limits the window of this side, the limit is accepted and messages are sent uncompressed.</li>
+ * </ul>
+ * {@link Deflater} and {@link Inflater} instances are pooled per extension instance. When the context is not taken
+ * over, they are held by a connection only while a message is being compressed or decompressed; otherwise they are
+ * held for the whole life of the connection.
  * <p>
- * http://tools.ietf.org/html/draft-ietf-hybi-permessage-compression-15
- * <pre>TODO:
- * - parameters (window sizes, context takeovers).
- * - context (some utility methods to get the typed params - T getParam(Class&lt;T&gt;))
- * </pre>
+ * Compression level, strategy and the minimal size of compressed messages can be configured; configuration has to be
+ * done before the extension is used for the first time.
  *
  * @author Pavel Bucek (pavel.bucek at oracle.com)
  */
-public class PerMessageDeflateExtension implements ExtendedExtension {
+public class PerMessageDeflateExtension implements SharedOutgoingExtension {
 
     private static final Pool<byte[]> BYTE_ARRAY_POOL = new Pool<byte[]>() {
         @Override
@@ -74,32 +87,208 @@ public class PerMessageDeflateExtension implements ExtendedExtension {
         }
     };
 
-    private static final String INFLATER = PerMessageDeflateExtension.class.getName() + ".INFLATER";
-    private static final String DEFLATER = PerMessageDeflateExtension.class.getName() + ".DEFLATER";
+    private static final String STATE = PerMessageDeflateExtension.class.getName() + ".STATE";
+
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+    private static final String CLIENT_NO_CONTEXT_TAKEOVER = "client_no_context_takeover";
+    private static final String SERVER_MAX_WINDOW_BITS = "server_max_window_bits";
+    private static final String CLIENT_MAX_WINDOW_BITS = "client_max_window_bits";
+
+    // window size used by java.util.zip
+    private static final int MAX_WINDOW_BITS = 15;
+    private static final int MIN_WINDOW_BITS = 8;
+
+    private static final int MAX_POOLED_CODECS = 4 * Runtime.getRuntime().availableProcessors();
 
     private static final Logger LOGGER = Logger.getLogger(PerMessageDeflateExtension.class.getName());
     private static final boolean DEBUG = LOGGER.isLoggable(Level.FINE);
 
     private static final byte[] TAIL = {0x00, 0x00, (byte) 0xff, (byte) 0xff};
 
+    private final CodecPool<Deflater> deflaterPool = new CodecPool<Deflater>() {
+        @Override
+        Deflater create() {
+            final Deflater deflater = new Deflater(compressionLevel, true);
+            deflater.setStrategy(compressionStrategy);
+            return deflater;
+        }
+
+        @Override
+        void reset(Deflater deflater) {
+            deflater.reset();
+        }
+
+        @Override
+        void end(Deflater deflater) {
+            deflater.end();
+        }
+    };
+
+    private final CodecPool<Inflater> inflaterPool = new CodecPool<Inflater>() {
+        @Override
+        Inflater create() {
+            return new Inflater(true);
+        }
+
+        @Override
+        void reset(Inflater inflater) {
+            inflater.reset();
+        }
+
+        @Override
+        void end(Inflater inflater) {
+            inflater.end();
+        }
+    };
+
+    private volatile boolean serverNoContextTakeover;
+    private volatile boolean clientNoContextTakeover = false;
+    private volatile int compressionLevel = Deflater.BEST_COMPRESSION;
+    private volatile int compressionStrategy = Deflater.DEFAULT_STRATEGY;
+    private volatile int compressionThreshold = 0;
+
+    /**
+     * Create new permessage-deflate extension.
+     */
+    public PerMessageDeflateExtension() {
+        this(false);
+    }
+
+    /**
+     * Create new permessage-deflate extension.
+     *
+     * @param requestServerNoContextTakeover {@code true} if the client should request the server not to use
+     *                                       compression context of previous messages ("server_no_context_takeover"
+     *                                       parameter). On the server side, {@code true} means that the parameter is
+     *                                       always present in the handshake response.
+     * @see #setServerNoContextTakeover(boolean)
+     */
+    public PerMessageDeflateExtension(boolean requestServerNoContextTakeover) {
+        this.serverNoContextTakeover = requestServerNoContextTakeover;
+    }
+
+    /**
+     * Set whether the server compression context is reset after each message ("server_no_context_takeover").
+     * <p>
+     * Client requests the parameter in the negotiation offer. Server includes it in the negotiation response even when
+     * the client did not offer it. The server always accepts the parameter when it is offered by the client.
+     *
+     * @param serverNoContextTakeover {@code true} if the parameter should be negotiated.
+     * @return updated extension.
+     */
+    public PerMessageDeflateExtension setServerNoContextTakeover(boolean serverNoContextTakeover) {
+        this.serverNoContextTakeover = serverNoContextTakeover;
+        return this;
+    }
+
+    /**
+     * Set whether the client compression context is reset after each message ("client_no_context_takeover").
+     * <p>
+     * Client offers the parameter and does not take over the compression context even when the server does not
+     * accept it. Server includes it in the negotiation response, so the client must not take over the compression
+     * context and the server does not have to hold an {@link Inflater} between messages. The server also includes the
+     * parameter when it is offered by the client.
+     *
+     * @param clientNoContextTakeover {@code true} if the parameter should be negotiated.
+     * @return updated extension.
+     */
+    public PerMessageDeflateExtension setClientNoContextTakeover(boolean clientNoContextTakeover) {
+        this.clientNoContextTakeover = clientNoContextTakeover;
+        return this;
+    }
+
+    /**
+     * Set compression level.
+     * <p>
+     * Default value is {@link Deflater#BEST_COMPRESSION}.
+     *
+     * @param compressionLevel compression level (0-9) or {@link Deflater#DEFAULT_COMPRESSION}.
+     * @return updated extension.
+     * @throws IllegalArgumentException when the level is not valid.
+     */
+    public PerMessageDeflateExtension setCompressionLevel(int compressionLevel) {
+        if ((compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)
+                && compressionLevel != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
+        }
+
+        this.compressionLevel = compressionLevel;
+        return this;
+    }
+
+    /**
+     * Set compression strategy.
+     * <p>
+     * Default value is {@link Deflater#DEFAULT_STRATEGY}.
+     *
+     * @param compressionStrategy {@link Deflater#DEFAULT_STRATEGY}, {@link Deflater#FILTERED} or {@link
+     *                            Deflater#HUFFMAN_ONLY}.
+     * @return updated extension.
+     * @throws IllegalArgumentException when the strategy is not valid.
+     */
+    public PerMessageDeflateExtension setCompressionStrategy(int compressionStrategy) {
+        if (compressionStrategy != Deflater.DEFAULT_STRATEGY && compressionStrategy != Deflater.FILTERED
+                && compressionStrategy != Deflater.HUFFMAN_ONLY) {
+            throw new IllegalArgumentException("Invalid compression strategy: " + compressionStrategy);
+        }
+
+        this.compressionStrategy = compressionStrategy;
+        return this;
+    }
+
+    /**
+     * Set minimal payload size of compressed messages.
+     * <p>
+     * Messages sent in one frame with smaller payload are sent uncompressed. Fragmented messages are always compressed.
+     * Default value is {@code 0}, all messages are compressed.
+     *
+     * @param compressionThreshold minimal payload size in bytes.
+     * @return updated extension.
+     * @throws IllegalArgumentException when the threshold is negative.
+     */
+    public PerMessageDeflateExtension setCompressionThreshold(int compressionThreshold) {
+        if (compressionThreshold < 0) {
+            throw new IllegalArgumentException("Invalid compression threshold: " + compressionThreshold);
+        }
+
+        this.compressionThreshold = compressionThreshold;
+        return this;
+    }
+
     @Override
     public Frame processIncoming(ExtensionContext context, Frame frame) {
-        final Inflater decompresser = (Inflater) context.getProperties().get(INFLATER);
-
         if (DEBUG) {
             LOGGER.fine("Incoming frame: " + frame);
         }
 
-        // per-message-deflate draft, chapter 8.2.3.1:
-        // "Note that the RSV1 bit is set only on the first frame."
-        if ((frame.isRsv1() || frame.getOpcode() == 0x00) && !frame.isControlFrame()) {
+        if (frame.isControlFrame()) {
+            return frame;
+        }
+
+        final State state = getState(context);
+
+        // RFC 7692, chapter 6: "... the RSV1 bit is set only on the first frame."
+        final boolean continuation = frame.getOpcode() == 0x00;
+        if (!continuation) {
+            state.incomingCompressed = frame.isRsv1();
+        }
+
+        if (!state.incomingCompressed) {
+            return frame;
+        }
+
+        if (state.inflater == null) {
+            state.inflater = inflaterPool.take();
+        }
+
+        try {
             // Decompress the bytes
             final int payloadLength = (int) frame.getPayloadLength();
 
             List<PartialResultWithLength<byte[]>> wholeResult = new ArrayList<PartialResultWithLength<byte[]>>();
             int wholeResultLength = 0;
 
-            int tmp = processCompressed(decompresser, frame.getPayloadData(), payloadLength, wholeResult);
+            int tmp = processCompressed(state.inflater, frame.getPayloadData(), payloadLength, wholeResult);
             if (tmp == -1) {
                 return frame;
             } else {
@@ -107,7 +296,7 @@ public class PerMessageDeflateExtension implements ExtendedExtension {
             }
 
             if (frame.isFin()) {
-                tmp = processCompressed(decompresser, TAIL, 4, wholeResult);
+                tmp = processCompressed(state.inflater, TAIL, 4, wholeResult);
                 if (tmp == -1) {
                     return frame;
                 } else {
@@ -126,8 +315,11 @@ public class PerMessageDeflateExtension implements ExtendedExtension {
             }
 
             return Frame.builder(frame).payloadData(completeResult).rsv1(false).build();
-        } else {
-            return frame;
+        } finally {
+            if (frame.isFin() && state.peerNoContextTakeover) {
+                inflaterPool.recycle(state.inflater);
+                state.inflater = null;
+            }
         }
     }
 
@@ -158,17 +350,50 @@ public class PerMessageDeflateExtension implements ExtendedExtension {
 
     @Override
     public Frame processOutgoing(ExtensionContext context, Frame frame) {
-        final Deflater compresser = (Deflater) context.getProperties().get(DEFLATER);
-
         if (DEBUG) {
             LOGGER.fine("Outgoing frame: " + frame);
         }
 
-        if (!frame.isControlFrame()) {
+        if (frame.isControlFrame()) {
+            return frame;
+        }
+
+        final State state = getState(context);
+        final boolean continuation = frame.getOpcode() == 0x00;
+        final boolean fin = frame.isFin();
 
-            List<PartialResultWithLength<byte[]>> wholeResult = new ArrayList<PartialResultWithLength<byte[]>>();
-            int wholeResultLength = 0;
+        final boolean compress;
+        if (continuation) {
+            compress = state.outgoingCompressed;
+        } else {
+            compress = state.compressOutgoing && !(fin && frame.getPayloadLength() < compressionThreshold);
+            if (!fin) {
+                // not written for single frame messages, which can be processed for multiple connections.
+                state.outgoingCompressed = compress;
+            }
+        }
+
+        if (!compress) {
+            return frame;
+        }
+
+        // message in single frame without context takeover does not need any connection state, so the frame can be
+        // processed for multiple connections (see #getSharedOutgoingKey).
+        final boolean standalone = !continuation && fin && state.noContextTakeover;
+        final Deflater compresser;
+        if (standalone) {
+            compresser = deflaterPool.take();
+        } else {
+            if (state.deflater == null) {
+                state.deflater = deflaterPool.take();
+            }
+            compresser = state.deflater;
+        }
+
+        List<PartialResultWithLength<byte[]>> wholeResult = new ArrayList<PartialResultWithLength<byte[]>>();
+        int wholeResultLength = 0;
 
+        try {
             // Compress the bytes
             final int payloadLength = (int) frame.getPayloadLength();
             compresser.setInput(frame.getPayloadData(), 0, payloadLength);
@@ -185,71 +410,131 @@ public class PerMessageDeflateExtension implements ExtendedExtension {
                     BYTE_ARRAY_POOL.recycle(output);
                 }
             } while (compressedDataLength > 0);
-
-            byte[] completeResult = new byte[wholeResultLength];
-            wholeResultLength = 0;
-            for (PartialResultWithLength<byte[]> partialResult : wholeResult) {
-                int tmp = partialResult.getLength();
-                final byte[] result = partialResult.getResult();
-                System.arraycopy(result, 0, completeResult, wholeResultLength, tmp);
-                BYTE_ARRAY_POOL.recycle(result);
-                wholeResultLength += tmp;
-            }
-
-            boolean strip = false;
-            if (completeResult.length >= 4
-                    && completeResult[completeResult.length - 4] == TAIL[0]
-                    && completeResult[completeResult.length - 3] == TAIL[1]
-                    && completeResult[completeResult.length - 2] == TAIL[2]
-                    && completeResult[completeResult.length - 1] == TAIL[3]) {
-                strip = true;
+        } finally {
+            if (standalone) {
+                deflaterPool.recycle(compresser);
+            } else if (fin && state.noContextTakeover) {
+                deflaterPool.recycle(compresser);
+                state.deflater = null;
             }
-
-            return Frame.builder(frame)
-                        .payloadData(completeResult)
-                        .payloadLength(strip ? completeResult.length - 4 : completeResult.length)
-                        .rsv1(true).build();
-        } else {
-            return frame;
         }
-    }
 
-    private void init(ExtensionContext context) {
-        // TODO: configurable compression level
-        Deflater compresser = new Deflater(9, true);
-        Inflater decompresser = new Inflater(true);
+        byte[] completeResult = new byte[wholeResultLength];
+        wholeResultLength = 0;
+        for (PartialResultWithLength<byte[]> partialResult : wholeResult) {
+            int tmp = partialResult.getLength();
+            final byte[] result = partialResult.getResult();
+            System.arraycopy(result, 0, completeResult, wholeResultLength, tmp);
+            BYTE_ARRAY_POOL.recycle(result);
+            wholeResultLength += tmp;
+        }
 
-        compresser.setStrategy(Deflater.DEFAULT_STRATEGY);
+        // RFC 7692, chapter 7.2.1: tail is removed from the end of the compressed message.
+        boolean strip = false;
+        if (fin && completeResult.length >= 4
+                && completeResult[completeResult.length - 4] == TAIL[0]
+                && completeResult[completeResult.length - 3] == TAIL[1]
+                && completeResult[completeResult.length - 2] == TAIL[2]
+                && completeResult[completeResult.length - 1] == TAIL[3]) {
+            strip = true;
+        }
 
-        context.getProperties().put(INFLATER, decompresser);
-        context.getProperties().put(DEFLATER, compresser);
+        return Frame.builder(frame)
+                    .payloadData(completeResult)
+                    .payloadLength(strip ? completeResult.length - 4 : completeResult.length)
+                    .rsv1(!continuation).build();
     }
 
     @Override
     public List<Parameter> onExtensionNegotiation(ExtensionContext context, List<Parameter> requestedParameters) {
-        init(context);
-        return Collections.<Parameter>emptyList();
+        // parameters are not passed when the response header is created, see Handshake#respond.
+        if (requestedParameters == null && context.getProperties().get(STATE) != null) {
+            return getState(context).responseParameters;
+        }
+
+        final State state = new State();
+        final List<Parameter> response = new ArrayList<Parameter>();
+
+        boolean serverNoContextTakeoverRequested = serverNoContextTakeover;
+        boolean clientNoContextTakeoverRequested = clientNoContextTakeover;
+
+        if (requestedParameters != null) {
+            for (Parameter parameter : requestedParameters) {
+                final String name = parameter.getName();
+                if (SERVER_NO_CONTEXT_TAKEOVER.equals(name)) {
+                    serverNoContextTakeoverRequested = true;
+                } else if (CLIENT_NO_CONTEXT_TAKEOVER.equals(name)) {
+                    // client is not going to use context takeover anyway.
+                    clientNoContextTakeoverRequested = true;
+                } else if (SERVER_MAX_WINDOW_BITS.equals(name)) {
+                    final int windowBits = parseWindowBits(parameter);
+                    if (windowBits != -1) {
+                        // accepted by including the same value.
+                        response.add(new TyrusExtension.TyrusParameter(SERVER_MAX_WINDOW_BITS,
+                                                                       Integer.toString(windowBits)));
+                        state.compressOutgoing = windowBits >= MAX_WINDOW_BITS;
+                    }
+                } else if (!CLIENT_MAX_WINDOW_BITS.equals(name)) {
+                    // client window size is not limited, Inflater can handle any window size.
+                    LOGGER.fine("Unknown permessage-deflate parameter ignored: " + name);
+                }
+            }
+        }
+
+        if (serverNoContextTakeoverRequested) {
+            state.noContextTakeover = true;
+            response.add(new TyrusExtension.TyrusParameter(SERVER_NO_CONTEXT_TAKEOVER, null));
+        }
+
+        if (clientNoContextTakeoverRequested) {
+            state.peerNoContextTakeover = true;
+            response.add(new TyrusExtension.TyrusParameter(CLIENT_NO_CONTEXT_TAKEOVER, null));
+        }
+
+        state.responseParameters = response;
+        context.getProperties().put(STATE, state);
+
+        return response;
     }
 
     @Override
     public void onHandshakeResponse(ExtensionContext context, List<Parameter> responseParameters) {
-        init(context);
+        final State state = new State();
+
+        // client does not take over the context when it offered not to.
+        state.noContextTakeover = clientNoContextTakeover;
+
+        if (responseParameters != null) {
+            for (Parameter parameter : responseParameters) {
+                final String name = parameter.getName();
+                if (SERVER_NO_CONTEXT_TAKEOVER.equals(name)) {
+                    state.peerNoContextTakeover = true;
+                } else if (CLIENT_NO_CONTEXT_TAKEOVER.equals(name)) {
+                    state.noContextTakeover = true;
+                } else if (CLIENT_MAX_WINDOW_BITS.equals(name)) {
+                    final int windowBits = parseWindowBits(parameter);
+                    state.compressOutgoing = windowBits == -1 || windowBits >= MAX_WINDOW_BITS;
+                }
+            }
+        }
+
+        context.getProperties().put(STATE, state);
     }
 
     @Override
     public void destroy(ExtensionContext context) {
-        final Inflater decompresser = (Inflater) context.getProperties().get(INFLATER);
-        final Deflater compresser = (Deflater) context.getProperties().get(DEFLATER);
-
-        context.getProperties().remove(DEFLATER);
-        context.getProperties().remove(INFLATER);
+        final State state = (State) context.getProperties().remove(STATE);
 
-        if (decompresser != null) {
-            decompresser.end();
-        }
+        if (state != null) {
+            if (state.inflater != null) {
+                inflaterPool.recycle(state.inflater);
+                state.inflater = null;
+            }
 
-        if (compresser != null) {
-            compresser.end();
+            if (state.deflater != null) {
+                deflaterPool.recycle(state.deflater);
+                state.deflater = null;
+            }
         }
     }
 
@@ -260,9 +545,130 @@ public class PerMessageDeflateExtension implements ExtendedExtension {
 
     @Override
     public List<Parameter> getParameters() {
-        return Collections.<Parameter>emptyList();
+        final List<Parameter> parameters = new ArrayList<Parameter>();
+
+        if (serverNoContextTakeover) {
+            parameters.add(new TyrusExtension.TyrusParameter(SERVER_NO_CONTEXT_TAKEOVER, null));
+        }
+
+        if (clientNoContextTakeover) {
+            parameters.add(new TyrusExtension.TyrusParameter(CLIENT_NO_CONTEXT_TAKEOVER, null));
+        }
+
+        return parameters;
     }
 
+    @Override
+    public Object getSharedOutgoingKey(ExtensionContext context) {
+        // compressed message depends on the previously sent ones, unless the context is reset after each of them.
+        final State state = getState(context);
+        if (!state.compressOutgoing) {
+            return getName() + "; uncompressed";
+        } else if (state.noContextTakeover) {
+            return getName() + "; " + SERVER_NO_CONTEXT_TAKEOVER + "; level=" + compressionLevel + "; strategy="
+                    + compressionStrategy + "; threshold=" + compressionThreshold;
+        }
+
+        return null;
+    }
+
+    private static State getState(ExtensionContext context) {
+        final State state = (State) context.getProperties().get(STATE);
+        if (state == null) {
+            // negotiation was not invoked (should not happen); use defaults.
+            final State defaultState = new State();
+            context.getProperties().put(STATE, defaultState);
+            return defaultState;
+        }
+
+        return state;
+    }
+
+    private static int parseWindowBits(Parameter parameter) {
+        String value = parameter.getValue();
+        if (value == null) {
+            return -1;
+        }
+
+        // value can be a quoted string.
+        if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+
+        try {
+            final int windowBits = Integer.parseInt(value);
+            if (windowBits >= MIN_WINDOW_BITS && windowBits <= MAX_WINDOW_BITS) {
+                return windowBits;
+            }
+        } catch (NumberFormatException e) {
+            // invalid value.
+        }
+
+        LOGGER.fine("Invalid permessage-deflate parameter ignored: " + parameter.getName() + "=" + value);
+        return -1;
+    }
+
+    /**
+     * Per-connection state, stored in {@link ExtensionContext}.
+     */
+    private static class State {
+
+        // outgoing messages can be compressed (window size of this side is not limited).
+        private boolean compressOutgoing = true;
+        // compression context of this side is reset after each message.
+        private boolean noContextTakeover = false;
+        // compression context of the other side is reset after each message.
+        private boolean peerNoContextTakeover = false;
+
+        private List<Parameter> responseParameters;
+
+        private Deflater deflater;
+        private Inflater inflater;
+
+        // current fragmented message is compressed.
+        private boolean incomingCompressed;
+        private boolean outgoingCompressed;
+    }
+
+    /**
+     * Bounded pool of {@link Deflater} or {@link Inflater} instances.
+     * <p>
+     * Instances hold native memory, so they are ended when the pool is full.
+     *
+     * @param <T> pooled type.
+     */
+    private abstract static class CodecPool<T> {
+
+        private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<T>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        final T take() {
+            final T t = queue.poll();
+            if (t == null) {
+                return create();
+            }
+
+            size.decrementAndGet();
+            return t;
+        }
+
+        final void recycle(T t) {
+            reset(t);
+
+            if (size.incrementAndGet() <= MAX_POOLED_CODECS) {
+                queue.offer(t);
+            } else {
+                size.decrementAndGet();
+                end(t);
+            }
+        }
+
+        abstract T create();
+
+        abstract void reset(T t);
+
+        abstract void end(T t);
+    }
 
     /**
      * Generic pool that instances of T which are expensive to create.
@@ -0,0 +1,214 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.ext.extension.deflate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.websocket.ClientEndpointConfig;
+import javax.websocket.DeploymentException;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.Extension;
+import javax.websocket.MessageHandler;
+import javax.websocket.Session;
+import javax.websocket.server.ServerEndpointConfig;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.core.TyrusSession;
+import org.glassfish.tyrus.core.monitoring.ApplicationEventListener;
+import org.glassfish.tyrus.core.monitoring.EndpointEventListener;
+import org.glassfish.tyrus.core.monitoring.MessageEventListener;
+import org.glassfish.tyrus.server.Server;
+import org.glassfish.tyrus.server.TyrusServerConfiguration;
+import org.glassfish.tyrus.test.tools.TestContainer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that a broadcasted message is compressed only once for all the sessions which negotiated permessage-deflate
+ * extension without server context takeover.
+ */
+public class PerMessageDeflateBroadcastTest extends TestContainer {
+
+    private static final String MESSAGE = "Always pass on what you have learned.";
+    private static final int SESSIONS = 3;
+
+    public static class ServerDeployApplicationConfig extends TyrusServerConfiguration {
+        public ServerDeployApplicationConfig() {
+            super(Collections.<Class<?>>emptySet(), new HashSet<ServerEndpointConfig>() {
+                {
+                    add(ServerEndpointConfig.Builder.create(BroadcastEndpoint.class, "/compressionBroadcastTest")
+                                                    .extensions(
+                                                            Arrays.<Extension>asList(new PerMessageDeflateExtension()))
+                                                    .build());
+                }
+
+                private static final long serialVersionUID = 8237446392766398512L;
+            });
+        }
+    }
+
+    public static class BroadcastEndpoint extends Endpoint {
+
+        @Override
+        public void onOpen(final Session session, EndpointConfig config) {
+            session.addMessageHandler(new MessageHandler.Whole<byte[]>() {
+                @Override
+                public void onMessage(byte[] message) {
+                    // second message verifies the compression context was reset.
+                    ((TyrusSession) session).broadcast(ByteBuffer.wrap(message));
+                    ((TyrusSession) session).broadcast(ByteBuffer.wrap(message));
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testBroadcastServerNoContextTakeover() throws DeploymentException {
+        final CountDownLatch messageLatch = new CountDownLatch(2 * SESSIONS);
+        final CountDownLatch broadcastLatch = new CountDownLatch(2);
+        final AtomicInteger processedCount = new AtomicInteger(0);
+        final AtomicInteger reusedCount = new AtomicInteger(0);
+
+        getServerProperties().put(ApplicationEventListener.APPLICATION_EVENT_LISTENER,
+                                  new BroadcastEventListener(processedCount, reusedCount, broadcastLatch));
+        Server server = startServer(ServerDeployApplicationConfig.class);
+
+        try {
+            final ClientEndpointConfig clientConfiguration =
+                    ClientEndpointConfig.Builder.create()
+                                                .extensions(Arrays.<Extension>asList(
+                                                        new PerMessageDeflateExtension(true)))
+                                                .build();
+
+            ClientManager client = createClient();
+            Session session = null;
+            for (int i = 0; i < SESSIONS; i++) {
+                session = client.connectToServer(new Endpoint() {
+                    @Override
+                    public void onOpen(Session session, EndpointConfig config) {
+                        session.addMessageHandler(new MessageHandler.Whole<byte[]>() {
+                            @Override
+                            public void onMessage(byte[] message) {
+                                if (MESSAGE.equals(new String(message, Charset.forName("UTF-8")))) {
+                                    messageLatch.countDown();
+                                }
+                            }
+                        });
+                    }
+                }, clientConfiguration, getURI("/compressionBroadcastTest"));
+            }
+
+            session.getBasicRemote().sendBinary(ByteBuffer.wrap(MESSAGE.getBytes(Charset.forName("UTF-8"))));
+
+            assertTrue(messageLatch.await(3, TimeUnit.SECONDS));
+            assertTrue(broadcastLatch.await(3, TimeUnit.SECONDS));
+
+            // each broadcasted message is compressed once and reused for the remaining sessions.
+            assertEquals(2, processedCount.get());
+            assertEquals(2 * (SESSIONS - 1), reusedCount.get());
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage(), e);
+        } finally {
+            stopServer(server);
+        }
+    }
+
+    private static class BroadcastEventListener implements ApplicationEventListener {
+
+        private final AtomicInteger processedCount;
+        private final AtomicInteger reusedCount;
+        private final CountDownLatch broadcastLatch;
+
+        BroadcastEventListener(AtomicInteger processedCount, AtomicInteger reusedCount,
+                               CountDownLatch broadcastLatch) {
+            this.processedCount = processedCount;
+            this.reusedCount = reusedCount;
+            this.broadcastLatch = broadcastLatch;
+        }
+
+        @Override
+        public void onApplicationInitialized(String applicationName) {
+        }
+
+        @Override
+        public void onApplicationDestroyed() {
+        }
+
+        @Override
+        public EndpointEventListener onEndpointRegistered(String endpointPath, Class<?> endpointClass) {
+            return new EndpointEventListener() {
+                @Override
+                public MessageEventListener onSessionOpened(String sessionId) {
+                    return MessageEventListener.NO_OP;
+                }
+
+                @Override
+                public void onSessionClosed(String sessionId) {
+                }
+
+                @Override
+                public void onError(String sessionId, Throwable t) {
+                }
+
+                @Override
+                public void onBroadcastExtensionsProcessed(int processed, int reused) {
+                    processedCount.addAndGet(processed);
+                    reusedCount.addAndGet(reused);
+                    broadcastLatch.countDown();
+                }
+            };
+        }
+
+        @Override
+        public void onEndpointUnregistered(String endpointPath) {
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.ext.extension.deflate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.websocket.Extension;
+
+import org.glassfish.tyrus.core.TyrusExtension;
+import org.glassfish.tyrus.core.extension.ExtendedExtension;
+import org.glassfish.tyrus.core.frame.Frame;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests parameter negotiation and message processing of {@link PerMessageDeflateExtension} without a container.
+ */
+public class PerMessageDeflateNegotiationTest {
+
+    private static final byte[] MESSAGE = ("Always pass on what you have learned. Always pass on what you have learned. "
+            + "Always pass on what you have learned.").getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testServerNegotiation() {
+        final PerMessageDeflateExtension server = new PerMessageDeflateExtension();
+        final Context context = new Context();
+
+        final List<Extension.Parameter> response = server.onExtensionNegotiation(context, Arrays.asList(
+                parameter("server_no_context_takeover", null), parameter("client_no_context_takeover", null),
+                parameter("client_max_window_bits", null)));
+
+        assertEquals("[server_no_context_takeover, client_no_context_takeover]", toString(response));
+        // parameters are queried again when the response header is created.
+        assertEquals(response, server.onExtensionNegotiation(context, null));
+        assertNotNull(server.getSharedOutgoingKey(context));
+    }
+
+    @Test
+    public void testServerNegotiationContextTakeover() {
+        final PerMessageDeflateExtension server = new PerMessageDeflateExtension().setClientNoContextTakeover(true);
+        final Context context = new Context();
+
+        final List<Extension.Parameter> response =
+                server.onExtensionNegotiation(context, Collections.<Extension.Parameter>emptyList());
+
+        assertEquals("[client_no_context_takeover]", toString(response));
+        assertNull(server.getSharedOutgoingKey(context));
+    }
+
+    @Test
+    public void testLimitedServerWindow() {
+        final PerMessageDeflateExtension server = new PerMessageDeflateExtension();
+        final Context context = new Context();
+
+        final List<Extension.Parameter> response = server.onExtensionNegotiation(
+                context, Collections.singletonList(parameter("server_max_window_bits", "10")));
+        assertEquals("[server_max_window_bits=10]", toString(response));
+
+        // Deflater cannot limit the window, so the messages are not compressed.
+        final Frame frame = server.processOutgoing(context, frame((byte) 0x01, true, MESSAGE));
+        assertFalse(frame.isRsv1());
+        assertArrayEquals(MESSAGE, frame.getPayloadData());
+    }
+
+    @Test
+    public void testCompressionThreshold() {
+        final PerMessageDeflateExtension server =
+                new PerMessageDeflateExtension().setCompressionThreshold(MESSAGE.length + 1).setCompressionLevel(1);
+        final PerMessageDeflateExtension client = new PerMessageDeflateExtension(true);
+        final Context serverContext = new Context();
+        final Context clientContext = new Context();
+
+        negotiate(server, serverContext, client, clientContext);
+
+        final Frame small = server.processOutgoing(serverContext, frame((byte) 0x01, true, MESSAGE));
+        assertFalse(small.isRsv1());
+
+        final Frame received = client.processIncoming(clientContext, small);
+        assertArrayEquals(MESSAGE, received.getPayloadData());
+    }
+
+    @Test
+    public void testFragmentedMessage() {
+        final PerMessageDeflateExtension server = new PerMessageDeflateExtension();
+        final PerMessageDeflateExtension client = new PerMessageDeflateExtension(true);
+        final Context serverContext = new Context();
+        final Context clientContext = new Context();
+
+        negotiate(server, serverContext, client, clientContext);
+
+        for (int i = 0; i < 3; i++) {
+            final Frame first = server.processOutgoing(serverContext, frame((byte) 0x01, false, MESSAGE));
+            final Frame last = server.processOutgoing(serverContext, frame((byte) 0x00, true, MESSAGE));
+
+            // RSV1 is set only on the first frame of the message.
+            assertTrue(first.isRsv1());
+            assertFalse(last.isRsv1());
+            assertTrue(last.getPayloadLength() < MESSAGE.length);
+
+            assertArrayEquals(MESSAGE, client.processIncoming(clientContext, first).getPayloadData());
+            assertArrayEquals(MESSAGE, client.processIncoming(clientContext, last).getPayloadData());
+        }
+
+        server.destroy(serverContext);
+        client.destroy(clientContext);
+    }
+
+    private static void negotiate(PerMessageDeflateExtension server, Context serverContext,
+                                  PerMessageDeflateExtension client, Context clientContext) {
+        final List<Extension.Parameter> response = server.onExtensionNegotiation(serverContext,
+                                                                                 client.getParameters());
+        client.onHandshakeResponse(clientContext, response);
+    }
+
+    private static Frame frame(byte opcode, boolean fin, byte[] payload) {
+        return Frame.builder().opcode(opcode).fin(fin).payloadData(payload).build();
+    }
+
+    private static Extension.Parameter parameter(String name, String value) {
+        return new TyrusExtension.TyrusParameter(name, value);
+    }
+
+    private static String toString(List<Extension.Parameter> parameters) {
+        final List<String> result = new ArrayList<String>();
+        for (Extension.Parameter parameter : parameters) {
+            result.add(parameter.getValue() == null ? parameter.getName()
+                               : parameter.getName() + "=" + parameter.getValue());
+        }
+        return result.toString();
+    }
+
+    private static class Context implements ExtendedExtension.ExtensionContext {
+
+        private final Map<String, Object> properties = new HashMap<String, Object>();
+
+        @Override
+        public Map<String, Object> getProperties() {
+            return properties;
+        }
+    }
+}
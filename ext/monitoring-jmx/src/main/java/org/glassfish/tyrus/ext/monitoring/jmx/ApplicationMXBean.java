@@ -40,17 +40,18 @@
 package org.glassfish.tyrus.ext.monitoring.jmx;
 
 import java.util.List;
+import java.util.Map;
 
 import org.glassfish.tyrus.core.Beta;
 
 /**
  * MXBean used for accessing monitored application properties - registered endpoints, number of currently open sessions,
- * maximal number of open sessions since the start of the monitoring and message statistics.
+ * maximal number of open sessions since the start of the monitoring, message and latency statistics.
  *
  * @author Petr Janouch (petr.janouch at oracle.com)
  */
 @Beta
-public interface ApplicationMXBean extends BaseMXBean {
+public interface ApplicationMXBean extends BaseMXBean, LatencyStatisticsMXBean {
     /**
      * Get endpoint paths and class names for currently registered endpoints.
      *
@@ -79,6 +80,23 @@ public interface ApplicationMXBean extends BaseMXBean {
      */
     public int getMaximalOpenSessionsCount();
 
+    /**
+     * Get the number of sessions admitted by the application-wide session limits since the start of monitoring.
+     *
+     * @return the number of admitted sessions.
+     */
+    public long getAcceptedSessionsCount();
+
+    /**
+     * Get the number of sessions refused because of a session limit since the start of monitoring.
+     * <p>
+     * The counts are keyed by the rejection reason name, e.g. {@code MAX_SESSIONS_PER_APP}; reasons that have not
+     * refused any session are not present.
+     *
+     * @return the number of refused sessions per reason.
+     */
+    public Map<String, Long> getRejectedSessionsCounts();
+
     /**
      * Get list of MXBeans representing registered endpoints.
      *
@@ -42,6 +42,7 @@ package org.glassfish.tyrus.ext.monitoring.jmx;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -57,21 +58,30 @@ class ApplicationMXBeanImpl extends BaseMXBeanImpl implements ApplicationMXBean,
             new ConcurrentHashMap<String, EndpointMXBean>();
     private final Callable<Integer> openSessionsCount;
     private final Callable<Integer> maxOpenSessionsCount;
+    private final Callable<Long> acceptedSessionsCount;
+    private final Callable<Map<String, Long>> rejectedSessionsCounts;
+    private final LatencyHistograms latencyHistograms;
 
     public ApplicationMXBeanImpl(MessageStatisticsSource sentMessageStatistics,
                                  MessageStatisticsSource receivedMessageStatistics,
                                  Callable<List<EndpointClassNamePathPair>> endpoints,
                                  Callable<List<String>> endpointPaths, Callable<Integer> openSessionsCount,
-                                 Callable<Integer> maxOpenSessionsCount, Callable<List<ErrorCount>> errorCounts,
+                                 Callable<Integer> maxOpenSessionsCount, Callable<Long> acceptedSessionsCount,
+                                 Callable<Map<String, Long>> rejectedSessionsCounts,
+                                 Callable<List<ErrorCount>> errorCounts,
                                  MessageStatisticsMXBean textMessageStatisticsMXBean,
                                  MessageStatisticsMXBean binaryMessageStatisticsMXBean,
-                                 MessageStatisticsMXBean controlMessageStatisticsMXBean) {
+                                 MessageStatisticsMXBean controlMessageStatisticsMXBean,
+                                 LatencyHistograms latencyHistograms) {
         super(sentMessageStatistics, receivedMessageStatistics, errorCounts, textMessageStatisticsMXBean,
               binaryMessageStatisticsMXBean, controlMessageStatisticsMXBean);
         this.endpoints = endpoints;
         this.endpointPaths = endpointPaths;
         this.openSessionsCount = openSessionsCount;
         this.maxOpenSessionsCount = maxOpenSessionsCount;
+        this.acceptedSessionsCount = acceptedSessionsCount;
+        this.rejectedSessionsCounts = rejectedSessionsCounts;
+        this.latencyHistograms = latencyHistograms;
     }
 
     @Override
@@ -99,6 +109,36 @@ class ApplicationMXBeanImpl extends BaseMXBeanImpl implements ApplicationMXBean,
         return maxOpenSessionsCount.call();
     }
 
+    @Override
+    public long getAcceptedSessionsCount() {
+        return acceptedSessionsCount.call();
+    }
+
+    @Override
+    public Map<String, Long> getRejectedSessionsCounts() {
+        return rejectedSessionsCounts.call();
+    }
+
+    @Override
+    public LatencyStatistics getMessageHandlingLatency() {
+        return latencyHistograms.getMessageHandlingLatency();
+    }
+
+    @Override
+    public LatencyStatistics getFrameWriteLatency() {
+        return latencyHistograms.getFrameWriteLatency();
+    }
+
+    @Override
+    public LatencyStatistics getBroadcastLatency() {
+        return latencyHistograms.getBroadcastLatency();
+    }
+
+    @Override
+    public LatencyStatistics getHandshakeLatency() {
+        return latencyHistograms.getHandshakeLatency();
+    }
+
     void putEndpointMXBean(String endpointPath, EndpointMXBean endpointMXBean) {
         endpointMXBeans.put(endpointPath, endpointMXBean);
     }
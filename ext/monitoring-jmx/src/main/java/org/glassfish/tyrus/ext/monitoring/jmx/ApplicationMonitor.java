@@ -40,10 +40,13 @@
 package org.glassfish.tyrus.ext.monitoring.jmx;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.glassfish.tyrus.core.monitoring.ApplicationEventListener;
 import org.glassfish.tyrus.core.monitoring.EndpointEventListener;
@@ -70,6 +73,9 @@ class ApplicationMonitor extends BaseMonitor implements ApplicationEventListener
     private final AtomicInteger openSessionsCount = new AtomicInteger(0);
     private final Object maxOpenSessionsCountLock = new Object();
     private final boolean monitorOnSessionLevel;
+    private final AtomicLong acceptedSessionsCount = new AtomicLong(0);
+    private final Map<RejectionReason, AtomicLong> rejectedSessionsCounts =
+            new EnumMap<RejectionReason, AtomicLong>(RejectionReason.class);
 
     private final ConcurrentMessageStatistics sentTextMessageStatistics = new ConcurrentMessageStatistics();
     private final ConcurrentMessageStatistics sentBinaryMessageStatistics = new ConcurrentMessageStatistics();
@@ -79,6 +85,8 @@ class ApplicationMonitor extends BaseMonitor implements ApplicationEventListener
     private final ConcurrentMessageStatistics receivedBinaryMessageStatistics = new ConcurrentMessageStatistics();
     private final ConcurrentMessageStatistics receivedControlMessageStatistics = new ConcurrentMessageStatistics();
 
+    private final LatencyHistograms latencyHistograms = new LatencyHistograms();
+
     private volatile int maxOpenSessionCount = 0;
     private volatile String applicationName;
     private volatile ApplicationMXBeanImpl applicationMXBean;
@@ -93,6 +101,10 @@ class ApplicationMonitor extends BaseMonitor implements ApplicationEventListener
      */
     ApplicationMonitor(boolean monitorOnSessionLevel) {
         this.monitorOnSessionLevel = monitorOnSessionLevel;
+        // the map is fully populated here and never modified afterwards, so it can be read without locking.
+        for (RejectionReason reason : RejectionReason.values()) {
+            rejectedSessionsCounts.put(reason, new AtomicLong(0));
+        }
     }
 
     @Override
@@ -115,8 +127,9 @@ class ApplicationMonitor extends BaseMonitor implements ApplicationEventListener
         applicationMXBean =
                 new ApplicationMXBeanImpl(sentTotalStatistics, receivedTotalStatistics, getEndpoints(),
                                           getEndpointPaths(), getOpenSessionsCount(), getMaxOpenSessionsCount(),
+                                          getAcceptedSessionsCount(), getRejectedSessionsCounts(),
                                           getErrorCounts(), textMessagesMXBean, binaryMessagesMXBean,
-                                          controlMessagesMXBean);
+                                          controlMessagesMXBean, latencyHistograms);
 
         MBeanPublisher.registerApplicationMXBeans(applicationName, applicationMXBean, textMessagesMXBean,
                                                   binaryMessagesMXBean, controlMessagesMXBean);
@@ -148,6 +161,16 @@ class ApplicationMonitor extends BaseMonitor implements ApplicationEventListener
         endpoint.unregister();
     }
 
+    @Override
+    public void onSessionAccepted() {
+        acceptedSessionsCount.incrementAndGet();
+    }
+
+    @Override
+    public void onSessionRejected(RejectionReason reason) {
+        rejectedSessionsCounts.get(reason).incrementAndGet();
+    }
+
     /**
      * Get a {@link Callable} that will provide list of endpoint paths and endpoint
      * class names for currently registered endpoints.
@@ -209,6 +232,42 @@ class ApplicationMonitor extends BaseMonitor implements ApplicationEventListener
         };
     }
 
+    /**
+     * Get a {@link Callable} that will provide the number of sessions admitted since the start of monitoring.
+     *
+     * @return {@link Callable} returning the number of admitted sessions.
+     */
+    private Callable<Long> getAcceptedSessionsCount() {
+        return new Callable<Long>() {
+            @Override
+            public Long call() {
+                return acceptedSessionsCount.get();
+            }
+        };
+    }
+
+    /**
+     * Get a {@link Callable} that will provide the number of refused sessions per reason since the start of
+     * monitoring.
+     *
+     * @return {@link Callable} returning the number of refused sessions per reason.
+     */
+    private Callable<Map<String, Long>> getRejectedSessionsCounts() {
+        return new Callable<Map<String, Long>>() {
+            @Override
+            public Map<String, Long> call() {
+                Map<String, Long> result = new HashMap<String, Long>();
+                for (Map.Entry<RejectionReason, AtomicLong> entry : rejectedSessionsCounts.entrySet()) {
+                    long count = entry.getValue().get();
+                    if (count > 0) {
+                        result.put(entry.getKey().name(), count);
+                    }
+                }
+                return result;
+            }
+        };
+    }
+
     void onSessionOpened() {
         openSessionsCount.incrementAndGet();
         if (openSessionsCount.get() > maxOpenSessionCount) {
@@ -224,6 +283,14 @@ class ApplicationMonitor extends BaseMonitor implements ApplicationEventListener
         openSessionsCount.decrementAndGet();
     }
 
+    void onBroadcastSent(long durationNanos) {
+        latencyHistograms.onBroadcastSent(durationNanos);
+    }
+
+    void onHandshakeCompleted(long durationNanos) {
+        latencyHistograms.onHandshakeCompleted(durationNanos);
+    }
+
     @Override
     public void onTextMessageSent(long length) {
         sentTextMessageStatistics.onMessage(length);
@@ -253,4 +320,14 @@ class ApplicationMonitor extends BaseMonitor implements ApplicationEventListener
     public void onControlMessageReceived(long length) {
         receivedControlMessageStatistics.onMessage(length);
     }
+
+    @Override
+    public void onMessageHandled(long durationNanos) {
+        latencyHistograms.onMessageHandled(durationNanos);
+    }
+
+    @Override
+    public void onFrameWritten(long delayNanos) {
+        latencyHistograms.onFrameWritten(delayNanos);
+    }
 }
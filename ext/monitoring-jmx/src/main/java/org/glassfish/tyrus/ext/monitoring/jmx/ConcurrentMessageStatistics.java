@@ -40,11 +40,16 @@
 package org.glassfish.tyrus.ext.monitoring.jmx;
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.LongAccumulator;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
 
 /**
  * An implementation of {@link org.glassfish.tyrus.ext.monitoring.jmx.MessageStatisticsSource} that allows concurrent
  * updates by many threads.
+ * <p>
+ * No update takes a lock; extremes are maintained by {@link LongAccumulator}, which spreads contended updates over
+ * cells the same way {@link LongAdder} does.
  *
  * @author Petr Janouch (petr.janouch at oracle.com)
  */
@@ -54,29 +59,16 @@ class ConcurrentMessageStatistics implements MessageStatisticsSource, Serializab
 
     private final LongAdder messagesCount = new LongAdder();
     private final LongAdder messagesSize = new LongAdder();
-    private final Object minimalMessageSizeLock = new Object();
-    private final Object maximalMessageSizeLock = new Object();
-
-    private volatile long minimalMessageSize = Long.MAX_VALUE;
-    private volatile long maximalMessageSize = 0;
+    private final LongAccumulator minimalMessageSize = new LongAccumulator(new Min(), Long.MAX_VALUE);
+    private final LongAccumulator maximalMessageSize = new LongAccumulator(new Max(), 0);
+    private final MessageRateCounter rateCounter = new MessageRateCounter(true);
 
     void onMessage(long size) {
         messagesCount.increment();
         messagesSize.add(size);
-        if (minimalMessageSize > size) {
-            synchronized (minimalMessageSizeLock) {
-                if (minimalMessageSize > size) {
-                    minimalMessageSize = size;
-                }
-            }
-        }
-        if (maximalMessageSize < size) {
-            synchronized (maximalMessageSizeLock) {
-                if (maximalMessageSize < size) {
-                    maximalMessageSize = size;
-                }
-            }
-        }
+        minimalMessageSize.accumulate(size);
+        maximalMessageSize.accumulate(size);
+        rateCounter.onMessage(size);
     }
 
     @Override
@@ -91,14 +83,45 @@ class ConcurrentMessageStatistics implements MessageStatisticsSource, Serializab
 
     @Override
     public long getMinMessageSize() {
-        if (minimalMessageSize == Long.MAX_VALUE) {
+        final long min = minimalMessageSize.get();
+        if (min == Long.MAX_VALUE) {
             return 0;
         }
-        return minimalMessageSize;
+        return min;
     }
 
     @Override
     public long getMaxMessageSize() {
-        return maximalMessageSize;
+        return maximalMessageSize.get();
+    }
+
+    @Override
+    public WindowedRate getMessagesRate() {
+        return rateCounter.getMessagesRate();
+    }
+
+    @Override
+    public WindowedRate getBytesRate() {
+        return rateCounter.getBytesRate();
+    }
+
+    private static class Min implements LongBinaryOperator, Serializable {
+
+        private static final long serialVersionUID = 4385934474960441213L;
+
+        @Override
+        public long applyAsLong(long left, long right) {
+            return Math.min(left, right);
+        }
+    }
+
+    private static class Max implements LongBinaryOperator, Serializable {
+
+        private static final long serialVersionUID = -1309834316128451947L;
+
+        @Override
+        public long applyAsLong(long left, long right) {
+            return Math.max(left, right);
+        }
     }
 }
@@ -45,13 +45,13 @@ import org.glassfish.tyrus.core.Beta;
 
 /**
  * MXBean used for accessing monitored endpoint properties - endpoint path and class name, number of currently open
- * sessions, maximal number of open sessions since the start of monitoring, and message statistics.
+ * sessions, maximal number of open sessions since the start of monitoring, message and latency statistics.
  *
  * @author Petr Janouch (petr.janouch at oracle.com)
  * @see MessageStatisticsMXBean
  */
 @Beta
-public interface EndpointMXBean extends BaseMXBean {
+public interface EndpointMXBean extends BaseMXBean, LatencyStatisticsMXBean {
 
     /**
      * Get the path the endpoint is registered on.
@@ -81,6 +81,14 @@ public interface EndpointMXBean extends BaseMXBean {
      */
     public int getMaximalOpenSessionsCount();
 
+    /**
+     * Get the ratio of broadcast recipients with negotiated extensions that were sent a message already processed by
+     * extensions for another recipient (for instance compressed only once by permessage-deflate extension).
+     *
+     * @return number between 0 and 1, 0 if no message has been broadcasted to a session with negotiated extensions.
+     */
+    public double getBroadcastExtensionsReuseRatio();
+
     /**
      * Get list of MXBeans representing currently open sessions. Return an empty list if monitoring is conducted only on
      * endpoint level.
@@ -56,20 +56,25 @@ class EndpointMXBeanImpl extends BaseMXBeanImpl implements EndpointMXBean, Seria
     private final String endpointClassName;
     private final Callable<Integer> openSessionsCount;
     private final Callable<Integer> maxOpenSessionsCount;
+    private final Callable<Double> broadcastExtensionsReuseRatio;
+    private final LatencyHistograms latencyHistograms;
     private final Map<String, SessionMXBean> sessionMXBeans = new ConcurrentHashMap<String, SessionMXBean>();
 
     public EndpointMXBeanImpl(
             MessageStatisticsSource sentMessageStatistics, MessageStatisticsSource receivedMessageStatistics,
             String endpointPath, String endpointClassName, Callable<Integer> openSessionsCount,
-            Callable<Integer> maxOpenSessionsCount, Callable<List<ErrorCount>> errorCounts,
+            Callable<Integer> maxOpenSessionsCount, Callable<Double> broadcastExtensionsReuseRatio,
+            Callable<List<ErrorCount>> errorCounts,
             MessageStatisticsMXBean textMessageStatisticsMXBean, MessageStatisticsMXBean binaryMessageStatisticsMXBean,
-            MessageStatisticsMXBean controlMessageStatisticsMXBean) {
+            MessageStatisticsMXBean controlMessageStatisticsMXBean, LatencyHistograms latencyHistograms) {
         super(sentMessageStatistics, receivedMessageStatistics, errorCounts, textMessageStatisticsMXBean,
               binaryMessageStatisticsMXBean, controlMessageStatisticsMXBean);
         this.endpointPath = endpointPath;
         this.endpointClassName = endpointClassName;
         this.openSessionsCount = openSessionsCount;
         this.maxOpenSessionsCount = maxOpenSessionsCount;
+        this.broadcastExtensionsReuseRatio = broadcastExtensionsReuseRatio;
+        this.latencyHistograms = latencyHistograms;
     }
 
     @Override
@@ -92,6 +97,31 @@ class EndpointMXBeanImpl extends BaseMXBeanImpl implements EndpointMXBean, Seria
         return maxOpenSessionsCount.call();
     }
 
+    @Override
+    public double getBroadcastExtensionsReuseRatio() {
+        return broadcastExtensionsReuseRatio.call();
+    }
+
+    @Override
+    public LatencyStatistics getMessageHandlingLatency() {
+        return latencyHistograms.getMessageHandlingLatency();
+    }
+
+    @Override
+    public LatencyStatistics getFrameWriteLatency() {
+        return latencyHistograms.getFrameWriteLatency();
+    }
+
+    @Override
+    public LatencyStatistics getBroadcastLatency() {
+        return latencyHistograms.getBroadcastLatency();
+    }
+
+    @Override
+    public LatencyStatistics getHandshakeLatency() {
+        return latencyHistograms.getHandshakeLatency();
+    }
+
     @Override
     public List<SessionMXBean> getSessionMXBeans() {
         return new ArrayList<SessionMXBean>(sessionMXBeans.values());
@@ -39,6 +39,8 @@
  */
 package org.glassfish.tyrus.ext.monitoring.jmx;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.glassfish.tyrus.core.monitoring.EndpointEventListener;
 
 /**
@@ -68,6 +70,11 @@ abstract class EndpointMonitor extends BaseMonitor implements EndpointEventListe
     private final ConcurrentMessageStatistics receivedBinaryMessageStatistics = new ConcurrentMessageStatistics();
     private final ConcurrentMessageStatistics receivedControlMessageStatistics = new ConcurrentMessageStatistics();
 
+    private final AtomicLong broadcastExtensionsProcessedCount = new AtomicLong(0);
+    private final AtomicLong broadcastExtensionsReusedCount = new AtomicLong(0);
+
+    private final LatencyHistograms latencyHistograms = new LatencyHistograms();
+
     protected volatile int maxOpenSessionsCount = 0;
 
     EndpointMonitor(ApplicationMonitor applicationMonitor, ApplicationMXBeanImpl applicationMXBean,
@@ -92,8 +99,10 @@ abstract class EndpointMonitor extends BaseMonitor implements EndpointEventListe
                                                 receivedControlMessageStatistics);
         endpointMXBean =
                 new EndpointMXBeanImpl(sentTotalStatistics, receivedTotalStatistics, endpointPath, endpointClassName,
-                                       getOpenSessionsCount(), getMaxOpenSessionsCount(), getErrorCounts(),
-                                       textMessagesMXBean, binaryMessagesMXBean, controlMessagesMXBean);
+                                       getOpenSessionsCount(), getMaxOpenSessionsCount(),
+                                       getBroadcastExtensionsReuseRatio(), getErrorCounts(),
+                                       textMessagesMXBean, binaryMessagesMXBean, controlMessagesMXBean,
+                                       latencyHistograms);
 
         MBeanPublisher.registerEndpointMXBeans(applicationName, endpointPath, endpointMXBean, textMessagesMXBean,
                                                binaryMessagesMXBean, controlMessagesMXBean);
@@ -132,6 +141,42 @@ abstract class EndpointMonitor extends BaseMonitor implements EndpointEventListe
         };
     }
 
+    /**
+     * Get a {@link Callable} that will provide the ratio of broadcast recipients with negotiated extensions, which
+     * were sent a message processed by extensions for another recipient.
+     *
+     * @return {@link Callable} returning the broadcast extensions reuse ratio.
+     */
+    private Callable<Double> getBroadcastExtensionsReuseRatio() {
+        return new Callable<Double>() {
+            @Override
+            public Double call() {
+                // not atomic, but good enough for monitoring.
+                final long reused = broadcastExtensionsReusedCount.get();
+                final long total = broadcastExtensionsProcessedCount.get() + reused;
+                return total == 0 ? 0 : (double) reused / total;
+            }
+        };
+    }
+
+    @Override
+    public void onBroadcastExtensionsProcessed(int processedCount, int reusedCount) {
+        broadcastExtensionsProcessedCount.addAndGet(processedCount);
+        broadcastExtensionsReusedCount.addAndGet(reusedCount);
+    }
+
+    @Override
+    public void onBroadcastSent(int recipientCount, long durationNanos) {
+        latencyHistograms.onBroadcastSent(durationNanos);
+        applicationMonitor.onBroadcastSent(durationNanos);
+    }
+
+    @Override
+    public void onHandshakeCompleted(long durationNanos) {
+        latencyHistograms.onHandshakeCompleted(durationNanos);
+        applicationMonitor.onHandshakeCompleted(durationNanos);
+    }
+
     @Override
     public void onTextMessageSent(long length) {
         sentTextMessageStatistics.onMessage(length);
@@ -167,4 +212,16 @@ abstract class EndpointMonitor extends BaseMonitor implements EndpointEventListe
         receivedControlMessageStatistics.onMessage(length);
         applicationMonitor.onControlMessageReceived(length);
     }
+
+    @Override
+    public void onMessageHandled(long durationNanos) {
+        latencyHistograms.onMessageHandled(durationNanos);
+        applicationMonitor.onMessageHandled(durationNanos);
+    }
+
+    @Override
+    public void onFrameWritten(long delayNanos) {
+        latencyHistograms.onFrameWritten(delayNanos);
+        applicationMonitor.onFrameWritten(delayNanos);
+    }
 }
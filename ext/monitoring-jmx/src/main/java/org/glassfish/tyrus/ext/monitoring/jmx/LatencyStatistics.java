@@ -0,0 +1,105 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.ext.monitoring.jmx;
+
+import java.beans.ConstructorProperties;
+import java.io.Serializable;
+
+import org.glassfish.tyrus.core.Beta;
+
+/**
+ * Number of measured operations and percentiles of their latency in nanoseconds.
+ * <p>
+ * Percentiles are approximate, the reported value is at most 1/16 higher than the actual one.
+ */
+@Beta
+public class LatencyStatistics implements Serializable {
+
+    private static final long serialVersionUID = 2942386421478823640L;
+
+    private final long count;
+    private final long p50;
+    private final long p99;
+    private final long p999;
+
+    @ConstructorProperties({"count", "p50", "p99", "p999"})
+    public LatencyStatistics(long count, long p50, long p99, long p999) {
+        this.count = count;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.p999 = p999;
+    }
+
+    /**
+     * The number of measured operations.
+     *
+     * @return the number of measured operations.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Median latency.
+     *
+     * @return 50th percentile of the latency in nanoseconds, 0 if nothing has been measured.
+     */
+    public long getP50() {
+        return p50;
+    }
+
+    /**
+     * 99th percentile of the latency.
+     *
+     * @return 99th percentile of the latency in nanoseconds, 0 if nothing has been measured.
+     */
+    public long getP99() {
+        return p99;
+    }
+
+    /**
+     * 99.9th percentile of the latency.
+     *
+     * @return 99.9th percentile of the latency in nanoseconds, 0 if nothing has been measured.
+     */
+    public long getP999() {
+        return p999;
+    }
+}
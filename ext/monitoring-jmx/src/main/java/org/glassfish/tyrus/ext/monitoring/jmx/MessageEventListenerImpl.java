@@ -80,4 +80,14 @@ class MessageEventListenerImpl implements MessageEventListener {
             messageListener.onControlMessageReceived(payloadLength);
         }
     }
+
+    @Override
+    public void onMessageHandled(TyrusFrame.FrameType frameType, long durationNanos) {
+        messageListener.onMessageHandled(durationNanos);
+    }
+
+    @Override
+    public void onFrameWritten(TyrusFrame.FrameType frameType, long delayNanos) {
+        messageListener.onFrameWritten(delayNanos);
+    }
 }
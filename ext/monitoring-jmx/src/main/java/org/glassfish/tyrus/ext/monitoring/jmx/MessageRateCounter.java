@@ -0,0 +1,171 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.ext.monitoring.jmx;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts messages and their sizes in time slots of ring buffers, so that sliding-window rates over the last second,
+ * minute and five minutes can be computed.
+ * <p>
+ * Seconds are counted in a ring of 1 second slots, five minutes in a ring of 10 second slots; a window always consists
+ * of complete slots, the slot currently being filled is not included. Concurrent updates are spread over stripes
+ * selected by the updating thread, each stripe has its own pair of rings. A slot is cleared by the first update in a new
+ * time slot; an update racing with the clearing can be lost, which is acceptable for monitoring.
+ */
+class MessageRateCounter implements Serializable {
+
+    private static final long serialVersionUID = -6183750277394616108L;
+
+    private static final int MAX_STRIPES = 4;
+
+    private final Ring[] fineRings;
+    private final Ring[] coarseRings;
+    private final int stripeMask;
+
+    /**
+     * Create a counter.
+     *
+     * @param concurrent {@code true} if the counter is updated concurrently by many threads.
+     */
+    MessageRateCounter(boolean concurrent) {
+        this(concurrent ? stripeCount() : 1);
+    }
+
+    private MessageRateCounter(int stripes) {
+        fineRings = new Ring[stripes];
+        coarseRings = new Ring[stripes];
+        for (int i = 0; i < stripes; i++) {
+            fineRings[i] = new Ring(1000, 60);
+            coarseRings[i] = new Ring(10000, 30);
+        }
+        stripeMask = stripes - 1;
+    }
+
+    private static int stripeCount() {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = 1;
+        while (stripes < processors && stripes < MAX_STRIPES) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    void onMessage(long size) {
+        onMessage(System.currentTimeMillis(), size);
+    }
+
+    void onMessage(long now, long size) {
+        final int stripe = (int) Thread.currentThread().getId() & stripeMask;
+        fineRings[stripe].add(now, size);
+        coarseRings[stripe].add(now, size);
+    }
+
+    WindowedRate getMessagesRate() {
+        return getRate(System.currentTimeMillis(), false);
+    }
+
+    WindowedRate getBytesRate() {
+        return getRate(System.currentTimeMillis(), true);
+    }
+
+    WindowedRate getRate(long now, boolean bytes) {
+        long lastSecond = 0;
+        long lastMinute = 0;
+        long lastFiveMinutes = 0;
+        for (int i = 0; i < fineRings.length; i++) {
+            lastSecond += fineRings[i].sum(now, 1, bytes);
+            lastMinute += fineRings[i].sum(now, 60, bytes);
+            lastFiveMinutes += coarseRings[i].sum(now, 30, bytes);
+        }
+        return new WindowedRate(lastSecond, lastMinute / 60d, lastFiveMinutes / 300d);
+    }
+
+    /**
+     * Ring buffer of time slots. Slot {@code i} holds the values for the time slot, whose number (time divided by slot
+     * length) is stored in {@code slots[i]}.
+     */
+    private static class Ring implements Serializable {
+
+        private static final long serialVersionUID = 5212478869131305523L;
+
+        private final long slotMillis;
+        // one extra slot for the slot being filled.
+        private final int size;
+        private final AtomicLongArray slots;
+        private final AtomicLongArray counts;
+        private final AtomicLongArray bytes;
+
+        Ring(long slotMillis, int windowSlots) {
+            this.slotMillis = slotMillis;
+            this.size = windowSlots + 1;
+            this.slots = new AtomicLongArray(size);
+            this.counts = new AtomicLongArray(size);
+            this.bytes = new AtomicLongArray(size);
+        }
+
+        void add(long now, long length) {
+            final long slot = now / slotMillis;
+            final int index = (int) (slot % size);
+
+            final long current = slots.get(index);
+            if (current < slot && slots.compareAndSet(index, current, slot)) {
+                counts.set(index, 0);
+                bytes.set(index, 0);
+            }
+
+            counts.incrementAndGet(index);
+            bytes.addAndGet(index, length);
+        }
+
+        long sum(long now, int windowSlots, boolean sumBytes) {
+            final long currentSlot = now / slotMillis;
+            long result = 0;
+            for (long slot = currentSlot - windowSlots; slot < currentSlot; slot++) {
+                final int index = (int) (slot % size);
+                if (slots.get(index) == slot) {
+                    result += sumBytes ? bytes.get(index) : counts.get(index);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -91,4 +91,22 @@ class MessageStatisticsAggregator implements MessageStatisticsSource, Serializab
         }
         return result;
     }
+
+    @Override
+    public WindowedRate getMessagesRate() {
+        WindowedRate[] rates = new WindowedRate[messageStatisticsSources.length];
+        for (int i = 0; i < messageStatisticsSources.length; i++) {
+            rates[i] = messageStatisticsSources[i].getMessagesRate();
+        }
+        return WindowedRate.sum(rates);
+    }
+
+    @Override
+    public WindowedRate getBytesRate() {
+        WindowedRate[] rates = new WindowedRate[messageStatisticsSources.length];
+        for (int i = 0; i < messageStatisticsSources.length; i++) {
+            rates[i] = messageStatisticsSources[i].getBytesRate();
+        }
+        return WindowedRate.sum(rates);
+    }
 }
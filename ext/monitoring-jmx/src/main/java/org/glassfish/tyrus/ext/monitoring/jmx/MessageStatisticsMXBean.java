@@ -45,6 +45,9 @@ import org.glassfish.tyrus.core.Beta;
 
 /**
  * MXBean used for exposing message-level statistics.
+ * <p>
+ * Sliding-window rates of a session are counted only since any of the rates of the session has been read for the first
+ * time, so that sessions which nobody watches do not pay for them; endpoint and application rates are always counted.
  *
  * @author Petr Janouch (petr.janouch at oracle.com)
  */
@@ -86,6 +89,20 @@ public interface MessageStatisticsMXBean extends Serializable {
      */
     public long getSentMessagesCountPerSecond();
 
+    /**
+     * Get the number of sent messages per second over the last second, minute and five minutes.
+     *
+     * @return sliding-window rates of sent messages.
+     */
+    public WindowedRate getSentMessagesRate();
+
+    /**
+     * Get the number of sent bytes (message payload) per second over the last second, minute and five minutes.
+     *
+     * @return sliding-window rates of sent bytes.
+     */
+    public WindowedRate getSentBytesRate();
+
     /**
      * Get the total number of messages received since the start of monitoring.
      *
@@ -120,4 +137,18 @@ public interface MessageStatisticsMXBean extends Serializable {
      * @return the average number of received messages per second.
      */
     public long getReceivedMessagesCountPerSecond();
+
+    /**
+     * Get the number of received messages per second over the last second, minute and five minutes.
+     *
+     * @return sliding-window rates of received messages.
+     */
+    public WindowedRate getReceivedMessagesRate();
+
+    /**
+     * Get the number of received bytes (message payload) per second over the last second, minute and five minutes.
+     *
+     * @return sliding-window rates of received bytes.
+     */
+    public WindowedRate getReceivedBytesRate();
 }
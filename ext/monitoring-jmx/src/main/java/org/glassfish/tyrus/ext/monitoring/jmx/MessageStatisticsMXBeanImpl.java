@@ -91,6 +91,16 @@ class MessageStatisticsMXBeanImpl implements MessageStatisticsMXBean, Serializab
         return getSentMessagesCount() / time;
     }
 
+    @Override
+    public WindowedRate getSentMessagesRate() {
+        return sentMessageStatistics.getMessagesRate();
+    }
+
+    @Override
+    public WindowedRate getSentBytesRate() {
+        return sentMessageStatistics.getBytesRate();
+    }
+
     @Override
     public long getReceivedMessagesCount() {
         return receivedMessageStatistics.getMessagesCount();
@@ -123,6 +133,16 @@ class MessageStatisticsMXBeanImpl implements MessageStatisticsMXBean, Serializab
         return getReceivedMessagesCount() / time;
     }
 
+    @Override
+    public WindowedRate getReceivedMessagesRate() {
+        return receivedMessageStatistics.getMessagesRate();
+    }
+
+    @Override
+    public WindowedRate getReceivedBytesRate() {
+        return receivedMessageStatistics.getBytesRate();
+    }
+
     private long getTimeSinceBeginningInSeconds() {
         long time = System.currentTimeMillis() - monitoringStart;
         return time / 1000;
@@ -53,4 +53,8 @@ interface MessageStatisticsSource {
     long getMinMessageSize();
 
     long getMaxMessageSize();
+
+    WindowedRate getMessagesRate();
+
+    WindowedRate getBytesRate();
 }
@@ -137,6 +137,16 @@ class SessionMonitor extends BaseMonitor implements MessageListener {
         messageListener.onControlMessageReceived(length);
     }
 
+    @Override
+    public void onMessageHandled(long durationNanos) {
+        messageListener.onMessageHandled(durationNanos);
+    }
+
+    @Override
+    public void onFrameWritten(long delayNanos) {
+        messageListener.onFrameWritten(delayNanos);
+    }
+
     private static class MessageStatistics implements MessageStatisticsSource {
 
         /*
@@ -146,6 +156,10 @@ class SessionMonitor extends BaseMonitor implements MessageListener {
         private volatile long messagesSize = 0;
         private volatile long minimalMessageSize = Long.MAX_VALUE;
         private volatile long maximalMessageSize = 0;
+        /*
+        created when the rates are read for the first time, rings of all the sessions would take too much memory
+         */
+        private volatile MessageRateCounter rateCounter = null;
 
         void onMessage(long size) {
             messagesCount.incrementAndGet();
@@ -156,6 +170,10 @@ class SessionMonitor extends BaseMonitor implements MessageListener {
             if (maximalMessageSize < size) {
                 maximalMessageSize = size;
             }
+            final MessageRateCounter counter = rateCounter;
+            if (counter != null) {
+                counter.onMessage(size);
+            }
         }
 
         @Override
@@ -180,5 +198,29 @@ class SessionMonitor extends BaseMonitor implements MessageListener {
         public long getMaxMessageSize() {
             return maximalMessageSize;
         }
+
+        @Override
+        public WindowedRate getMessagesRate() {
+            return getRateCounter().getMessagesRate();
+        }
+
+        @Override
+        public WindowedRate getBytesRate() {
+            return getRateCounter().getBytesRate();
+        }
+
+        private MessageRateCounter getRateCounter() {
+            MessageRateCounter counter = rateCounter;
+            if (counter == null) {
+                synchronized (this) {
+                    counter = rateCounter;
+                    if (counter == null) {
+                        counter = new MessageRateCounter(false);
+                        rateCounter = counter;
+                    }
+                }
+            }
+            return counter;
+        }
     }
 }
@@ -0,0 +1,110 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.ext.monitoring.jmx;
+
+import java.beans.ConstructorProperties;
+import java.io.Serializable;
+
+import org.glassfish.tyrus.core.Beta;
+
+/**
+ * Average rate per second over the last second, minute and five minutes.
+ */
+@Beta
+public class WindowedRate implements Serializable {
+
+    private static final long serialVersionUID = -3290245170127693015L;
+
+    private final double lastSecond;
+    private final double lastMinute;
+    private final double lastFiveMinutes;
+
+    @ConstructorProperties({"lastSecond", "lastMinute", "lastFiveMinutes"})
+    public WindowedRate(double lastSecond, double lastMinute, double lastFiveMinutes) {
+        this.lastSecond = lastSecond;
+        this.lastMinute = lastMinute;
+        this.lastFiveMinutes = lastFiveMinutes;
+    }
+
+    /**
+     * Rate during the last complete second.
+     *
+     * @return the rate per second during the last complete second.
+     */
+    public double getLastSecond() {
+        return lastSecond;
+    }
+
+    /**
+     * Average rate per second during the last minute.
+     *
+     * @return the average rate per second during the last minute.
+     */
+    public double getLastMinute() {
+        return lastMinute;
+    }
+
+    /**
+     * Average rate per second during the last five minutes.
+     *
+     * @return the average rate per second during the last five minutes.
+     */
+    public double getLastFiveMinutes() {
+        return lastFiveMinutes;
+    }
+
+    /**
+     * Sum of the rates, used when aggregating statistics.
+     *
+     * @param rates rates to be summed.
+     * @return rate with every window summed.
+     */
+    static WindowedRate sum(WindowedRate... rates) {
+        double lastSecond = 0;
+        double lastMinute = 0;
+        double lastFiveMinutes = 0;
+        for (WindowedRate rate : rates) {
+            lastSecond += rate.lastSecond;
+            lastMinute += rate.lastMinute;
+            lastFiveMinutes += rate.lastFiveMinutes;
+        }
+        return new WindowedRate(lastSecond, lastMinute, lastFiveMinutes);
+    }
+}
@@ -145,6 +145,11 @@ public class BroadcastTest extends TestContainer {
 
             EndpointMXBean endpointMXBean = endpointMXBeans.get(0);
 
+            // handshakes are reported before the handshake response is sent
+            assertEquals(sessionsCount, applicationMXBean.getHandshakeLatency().getCount());
+            assertEquals(sessionsCount, endpointMXBean.getHandshakeLatency().getCount());
+            assertTrue(endpointMXBean.getHandshakeLatency().getP50() > 0);
+
             assertEquals(9, endpointMXBean.getSentMessagesCount());
             assertEquals(3, endpointMXBean.getBinaryMessageStatisticsMXBean().getSentMessagesCount());
             assertEquals(6, endpointMXBean.getTextMessageStatisticsMXBean().getSentMessagesCount());
@@ -0,0 +1,125 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.ext.monitoring.jmx;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests {@link ConcurrentMessageStatistics} and {@link MessageRateCounter}.
+ */
+public class ConcurrentMessageStatisticsTest {
+
+    @Test
+    public void testConcurrentUpdates() throws InterruptedException {
+        final ConcurrentMessageStatistics statistics = new ConcurrentMessageStatistics();
+        final int threadCount = 4;
+        final int messagesPerThread = 10000;
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < threadCount; i++) {
+            final int offset = i;
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 1; j <= messagesPerThread; j++) {
+                        statistics.onMessage(j + offset);
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threadCount * messagesPerThread, statistics.getMessagesCount());
+        assertEquals(1, statistics.getMinMessageSize());
+        assertEquals(messagesPerThread + threadCount - 1, statistics.getMaxMessageSize());
+    }
+
+    @Test
+    public void testEmpty() {
+        ConcurrentMessageStatistics statistics = new ConcurrentMessageStatistics();
+
+        assertEquals(0, statistics.getMinMessageSize());
+        assertEquals(0, statistics.getMaxMessageSize());
+        assertEquals(0, statistics.getMessagesRate().getLastMinute(), 0);
+    }
+
+    @Test
+    public void testWindowedRates() {
+        MessageRateCounter counter = new MessageRateCounter(true);
+        long start = 1000000000000L;
+
+        // 10 messages of 100 bytes every second for two minutes
+        for (int second = 0; second < 120; second++) {
+            for (int i = 0; i < 10; i++) {
+                counter.onMessage(start + second * 1000L + i, 100);
+            }
+        }
+
+        long now = start + 120 * 1000L;
+        WindowedRate messagesRate = counter.getRate(now, false);
+        assertEquals(10, messagesRate.getLastSecond(), 0);
+        assertEquals(10, messagesRate.getLastMinute(), 0);
+        // only two of the last five minutes have had any messages
+        assertEquals(10 * 120 / 300d, messagesRate.getLastFiveMinutes(), 0.001);
+
+        WindowedRate bytesRate = counter.getRate(now, true);
+        assertEquals(1000, bytesRate.getLastSecond(), 0);
+        assertEquals(1000, bytesRate.getLastMinute(), 0);
+
+        // slots are reused after the window passes
+        now += 10 * 60 * 1000L;
+        counter.onMessage(now, 100);
+        messagesRate = counter.getRate(now + 1000, false);
+        assertEquals(1, messagesRate.getLastSecond(), 0);
+        assertEquals(1 / 60d, messagesRate.getLastMinute(), 0.001);
+        // five minutes window consists of 10 second slots
+        assertEquals(1 / 300d, counter.getRate(now + 10 * 1000L, false).getLastFiveMinutes(), 0.001);
+    }
+}
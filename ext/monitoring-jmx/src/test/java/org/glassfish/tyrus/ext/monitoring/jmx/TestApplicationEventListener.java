@@ -104,6 +104,16 @@ class TestApplicationEventListener implements ApplicationEventListener {
         applicationEventListener.onEndpointUnregistered(endpointPath);
     }
 
+    @Override
+    public void onSessionAccepted() {
+        applicationEventListener.onSessionAccepted();
+    }
+
+    @Override
+    public void onSessionRejected(RejectionReason reason) {
+        applicationEventListener.onSessionRejected(reason);
+    }
+
     private class TestEndpointEventListener implements EndpointEventListener {
 
         private final EndpointEventListener endpointEventListener;
@@ -150,6 +160,21 @@ class TestApplicationEventListener implements ApplicationEventListener {
                 errorLatch.countDown();
             }
         }
+
+        @Override
+        public void onBroadcastExtensionsProcessed(int processedCount, int reusedCount) {
+            endpointEventListener.onBroadcastExtensionsProcessed(processedCount, reusedCount);
+        }
+
+        @Override
+        public void onBroadcastSent(int recipientCount, long durationNanos) {
+            endpointEventListener.onBroadcastSent(recipientCount, durationNanos);
+        }
+
+        @Override
+        public void onHandshakeCompleted(long durationNanos) {
+            endpointEventListener.onHandshakeCompleted(durationNanos);
+        }
     }
 
     private class TestMessageEventListener implements MessageEventListener {
@@ -180,5 +205,15 @@ class TestApplicationEventListener implements ApplicationEventListener {
                 messageReceivedLatch.countDown();
             }
         }
+
+        @Override
+        public void onMessageHandled(TyrusFrame.FrameType frameType, long durationNanos) {
+            messageEventListener.onMessageHandled(frameType, durationNanos);
+        }
+
+        @Override
+        public void onFrameWritten(TyrusFrame.FrameType frameType, long delayNanos) {
+            messageEventListener.onFrameWritten(frameType, delayNanos);
+        }
     }
 }
@@ -60,6 +60,10 @@ public interface ReadHandler {
      * remaining data in the buffer, transport needs pass those bytes in
      * more call (along with more data) in the same byte buffer or in a newer
      * byte buffer.
+     * <p>
+     * Tyrus runtime consumes all the passed data and keeps its own copy of a partially received frame, it does not
+     * retain the passed buffer after this method returns. The transport can reuse the buffer for next reads, but must
+     * not rely on its content, which might be modified during the processing.
      *
      * @param data websocket data of a connection.
      */
@@ -65,4 +65,61 @@ public abstract class Writer implements Closeable {
      * @param completionHandler completion handler to know the write status.
      */
     public abstract void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler);
+
+    /**
+     * Tyrus runtime calls this method to handover the data for a connection
+     * to the transport as a sequence of buffers, which should be written in the
+     * same order as they are present in the passed array. Transports which support
+     * gathering (vectored) writes should override this method and write all the
+     * buffers at once without merging them.
+     * <p>
+     * Default implementation copies all the buffers into a single one and passes
+     * it to {@link #write(ByteBuffer, CompletionHandler)}. Tyrus runtime must not
+     * use any of the buffers until the write is completed.
+     *
+     * @param buffers           bytes to write.
+     * @param completionHandler completion handler to know the write status.
+     */
+    public void write(final ByteBuffer[] buffers, final CompletionHandler<ByteBuffer[]> completionHandler) {
+        int length = 0;
+        for (ByteBuffer buffer : buffers) {
+            length += buffer.remaining();
+        }
+
+        final ByteBuffer merged = ByteBuffer.allocate(length);
+        for (ByteBuffer buffer : buffers) {
+            merged.put(buffer.duplicate());
+        }
+        merged.flip();
+
+        write(merged, new CompletionHandler<ByteBuffer>() {
+            @Override
+            public void cancelled() {
+                if (completionHandler != null) {
+                    completionHandler.cancelled();
+                }
+            }
+
+            @Override
+            public void failed(Throwable throwable) {
+                if (completionHandler != null) {
+                    completionHandler.failed(throwable);
+                }
+            }
+
+            @Override
+            public void completed(ByteBuffer result) {
+                if (completionHandler != null) {
+                    completionHandler.completed(buffers);
+                }
+            }
+
+            @Override
+            public void updated(ByteBuffer result) {
+                if (completionHandler != null) {
+                    completionHandler.updated(buffers);
+                }
+            }
+        });
+    }
 }
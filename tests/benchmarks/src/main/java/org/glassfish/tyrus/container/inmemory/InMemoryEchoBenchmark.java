@@ -0,0 +1,175 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.container.inmemory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.websocket.ClientEndpointConfig;
+import javax.websocket.DeploymentException;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.MessageHandler;
+import javax.websocket.OnMessage;
+import javax.websocket.Session;
+import javax.websocket.server.ServerEndpoint;
+import javax.websocket.server.ServerEndpointConfig;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.server.TyrusServerConfiguration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end echo round trip through the client and the server runtime, connected by {@link InMemoryClientContainer}.
+ * <p>
+ * Each invocation sends one message from the client and waits until the echo is received, so the result includes
+ * client framing and masking, server unframing, endpoint dispatch (including decoding and encoding of the
+ * message) and the way back.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InMemoryEchoBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    private int messageSize;
+
+    private Session session;
+    private String text;
+    private ByteBuffer binary;
+    private volatile long received;
+
+    @Setup
+    public void setup() throws IOException, DeploymentException {
+        final char[] chars = new char[messageSize];
+        final byte[] bytes = new byte[messageSize];
+        for (int i = 0; i < messageSize; i++) {
+            chars[i] = (char) ('a' + i % 26);
+            bytes[i] = (byte) i;
+        }
+        text = new String(chars);
+        binary = ByteBuffer.wrap(bytes);
+
+        final ClientEndpointConfig cec = ClientEndpointConfig.Builder.create().build();
+        cec.getUserProperties().put(InMemoryClientContainer.SERVER_CONFIG, new TyrusServerConfiguration(
+                Collections.<Class<?>>singleton(EchoEndpoint.class), Collections.<ServerEndpointConfig>emptySet()));
+
+        final ClientManager client = ClientManager.createClient(InMemoryClientContainer.class.getName());
+        // "inmemory" acts here as a hostname, it is removed by InMemoryClientContainer.
+        session = client.connectToServer(new Endpoint() {
+            @Override
+            public void onOpen(Session session, EndpointConfig config) {
+                session.addMessageHandler(new MessageHandler.Whole<String>() {
+                    @Override
+                    public void onMessage(String message) {
+                        received++;
+                    }
+                });
+                session.addMessageHandler(new MessageHandler.Whole<ByteBuffer>() {
+                    @Override
+                    public void onMessage(ByteBuffer message) {
+                        received++;
+                    }
+                });
+            }
+        }, cec, URI.create("ws://inmemory/echo"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        session.close();
+    }
+
+    @Benchmark
+    public long echoText() throws IOException {
+        final long expected = received + 1;
+        session.getBasicRemote().sendText(text);
+        return awaitEcho(expected);
+    }
+
+    @Benchmark
+    public long echoBinary() throws IOException {
+        final long expected = received + 1;
+        session.getBasicRemote().sendBinary(binary.duplicate());
+        return awaitEcho(expected);
+    }
+
+    private long awaitEcho(long expected) {
+        // the in-memory transport delivers synchronously, the echo is normally received before send returns.
+        long current;
+        while ((current = received) < expected) {
+            Thread.yield();
+        }
+        return current;
+    }
+
+    @ServerEndpoint("/echo")
+    public static class EchoEndpoint {
+
+        @OnMessage
+        public String onMessage(String message) {
+            return message;
+        }
+
+        @OnMessage
+        public ByteBuffer onMessage(ByteBuffer message) {
+            return message;
+        }
+    }
+}
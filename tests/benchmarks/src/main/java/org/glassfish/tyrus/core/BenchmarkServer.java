@@ -0,0 +1,153 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+import javax.websocket.CloseReason;
+import javax.websocket.DeploymentException;
+import javax.websocket.server.HandshakeRequest;
+import javax.websocket.server.ServerEndpointConfig;
+
+import org.glassfish.tyrus.server.TyrusServerContainer;
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Connection;
+import org.glassfish.tyrus.spi.UpgradeRequest;
+import org.glassfish.tyrus.spi.WebSocketEngine;
+import org.glassfish.tyrus.spi.Writer;
+
+/**
+ * Server side {@link TyrusWebSocketEngine} used by the benchmarks.
+ * <p>
+ * Connections are upgraded directly through the engine, without any network transport; everything the server writes
+ * is discarded.
+ */
+class BenchmarkServer {
+
+    private static final Writer DISCARDING_WRITER = new Writer() {
+        @Override
+        public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+            completionHandler.completed(buffer);
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+    };
+
+    private static final Connection.CloseListener NO_OP_CLOSE_LISTENER = new Connection.CloseListener() {
+        @Override
+        public void close(CloseReason reason) {
+        }
+    };
+
+    private final TyrusServerContainer container;
+    private final TyrusWebSocketEngine engine;
+
+    /**
+     * Create the server and deploy an endpoint.
+     *
+     * @param endpointClass            annotated endpoint class.
+     * @param parallelBroadcastEnabled whether broadcast should process sessions in parallel.
+     * @throws DeploymentException when the endpoint cannot be deployed.
+     */
+    BenchmarkServer(Class<?> endpointClass, boolean parallelBroadcastEnabled) throws DeploymentException {
+        container = new TyrusServerContainer(Collections.<Class<?>>emptySet()) {
+            @Override
+            public void register(Class<?> endpointClass) throws DeploymentException {
+                getWebSocketEngine().register(endpointClass, "");
+            }
+
+            @Override
+            public void register(ServerEndpointConfig serverEndpointConfig) throws DeploymentException {
+                getWebSocketEngine().register(serverEndpointConfig, "");
+            }
+
+            @Override
+            public WebSocketEngine getWebSocketEngine() {
+                return engine;
+            }
+        };
+        engine = TyrusWebSocketEngine.builder(container).parallelBroadcastEnabled(parallelBroadcastEnabled).build();
+        engine.register(endpointClass, "");
+    }
+
+    /**
+     * Create a valid version 13 upgrade request.
+     *
+     * @param path request path.
+     * @return upgrade request.
+     */
+    static RequestContext createUpgradeRequest(String path) {
+        final RequestContext request = RequestContext.Builder.create().requestURI(URI.create(path)).build();
+        request.getHeaders().put(UpgradeRequest.HOST, Collections.singletonList("localhost"));
+        request.getHeaders().put(UpgradeRequest.UPGRADE, Collections.singletonList(UpgradeRequest.WEBSOCKET));
+        request.getHeaders().put(UpgradeRequest.CONNECTION, Collections.singletonList(UpgradeRequest.UPGRADE));
+        request.getHeaders().put(HandshakeRequest.SEC_WEBSOCKET_KEY,
+                                 Collections.singletonList("dGhlIHNhbXBsZSBub25jZQ=="));
+        request.getHeaders().put(HandshakeRequest.SEC_WEBSOCKET_VERSION, Collections.singletonList("13"));
+        return request;
+    }
+
+    /**
+     * Perform the opening handshake and open the connection.
+     *
+     * @param request upgrade request.
+     * @return opened connection.
+     */
+    Connection connect(RequestContext request) {
+        final WebSocketEngine.UpgradeInfo upgradeInfo = engine.upgrade(request, new TyrusUpgradeResponse());
+        if (upgradeInfo.getStatus() != WebSocketEngine.UpgradeStatus.SUCCESS) {
+            throw new IllegalStateException("Upgrade failed: " + upgradeInfo.getStatus());
+        }
+        return upgradeInfo.createConnection(DISCARDING_WRITER, NO_OP_CLOSE_LISTENER);
+    }
+
+    /**
+     * Stop the server.
+     */
+    void stop() {
+        container.stop();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.websocket.CloseReason;
+import javax.websocket.DeploymentException;
+import javax.websocket.OnOpen;
+import javax.websocket.Session;
+import javax.websocket.server.ServerEndpoint;
+
+import org.glassfish.tyrus.spi.Connection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link TyrusSession#broadcast(String)} and {@link TyrusSession#broadcastAsync(ByteBuffer)} to all the
+ * sessions connected to an endpoint.
+ * <p>
+ * Sessions are opened directly through the engine and whatever they write is discarded, so the benchmark measures
+ * framing, per-session dispatch and bookkeeping, not the transport.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastBenchmark {
+
+    private static final CloseReason CLOSE_REASON = new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, null);
+
+    // the session of the last opened connection, used as the broadcast source.
+    private static volatile TyrusSession lastOpened;
+
+    @Param({"16", "1024"})
+    private int sessions;
+
+    @Param({"64", "4096"})
+    private int messageSize;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private BenchmarkServer server;
+    private final List<Connection> connections = new ArrayList<Connection>();
+    private TyrusSession session;
+    private String text;
+    private ByteBuffer binary;
+
+    @Setup
+    public void setup() throws DeploymentException {
+        server = new BenchmarkServer(BroadcastEndpoint.class, parallel);
+        for (int i = 0; i < sessions; i++) {
+            connections.add(server.connect(BenchmarkServer.createUpgradeRequest("/broadcast")));
+        }
+        session = lastOpened;
+
+        final char[] chars = new char[messageSize];
+        final byte[] bytes = new byte[messageSize];
+        for (int i = 0; i < messageSize; i++) {
+            chars[i] = (char) ('a' + i % 26);
+            bytes[i] = (byte) i;
+        }
+        text = new String(chars);
+        binary = ByteBuffer.wrap(bytes);
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (Connection connection : connections) {
+            connection.close(CLOSE_REASON);
+        }
+        connections.clear();
+        server.stop();
+    }
+
+    @Benchmark
+    public Map<Session, Future<?>> broadcastText() {
+        return session.broadcast(text);
+    }
+
+    @Benchmark
+    public Integer broadcastBinaryAsync() throws ExecutionException, InterruptedException {
+        return session.broadcastAsync(binary.duplicate()).get();
+    }
+
+    @ServerEndpoint("/broadcast")
+    public static class BroadcastEndpoint {
+
+        @OnOpen
+        public void onOpen(Session session) {
+            lastOpened = (TyrusSession) session;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Masker} throughput for payloads from 16 B to 16 MB.
+ * <p>
+ * {@link #byteAtATime()} is the reference byte-by-byte implementation Tyrus used before masking was done eight bytes at
+ * a time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaskerBenchmark {
+
+    private static final byte[] MASK = {(byte) 0x12, (byte) 0xA4, (byte) 0x5F, (byte) 0xE1};
+
+    @Param({"16", "1024", "65536", "1048576", "16777216"})
+    private int payloadSize;
+
+    private byte[] source;
+    private byte[] target;
+    private ByteBuffer directBuffer;
+    private int index;
+
+    @Setup
+    public void setup() {
+        source = new byte[payloadSize];
+        for (int i = 0; i < source.length; i++) {
+            source[i] = (byte) i;
+        }
+        target = new byte[payloadSize];
+        directBuffer = ByteBuffer.allocateDirect(payloadSize);
+        directBuffer.put(source).flip();
+    }
+
+    @Benchmark
+    public byte[] byteAtATime() {
+        index = 0;
+        for (int i = 0; i < payloadSize; i++) {
+            target[i] = (byte) (source[i] ^ MASK[index++ % ProtocolHandler.MASK_SIZE]);
+        }
+        return target;
+    }
+
+    @Benchmark
+    public byte[] array() {
+        Masker.mask(MASK, 0, source, 0, target, 0, payloadSize);
+        return target;
+    }
+
+    @Benchmark
+    public byte[] arrayUnaligned() {
+        Masker.mask(MASK, 1, source, 1, target, 3, payloadSize - 3);
+        return target;
+    }
+
+    @Benchmark
+    public ByteBuffer directBuffer() {
+        Masker.mask(MASK, 0, directBuffer, 0, payloadSize);
+        return directBuffer;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.tyrus.core.frame.BinaryFrame;
+import org.glassfish.tyrus.core.frame.Frame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link ProtocolHandler#unframe(ByteBuffer)} with and without zero-copy decoding.
+ * <p>
+ * Each invocation decodes one masked binary frame (as sent by the client) and obtains the payload in the form which
+ * would be passed to the endpoint, see {@link TyrusWebSocket#onMessage(org.glassfish.tyrus.core.frame.BinaryFrame)}.
+ * Run with {@code -prof gc} to see the allocation rate.
+ *
+ * @see TyrusWebSocketEngine#ZERO_COPY_DECODING
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnframeBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    private int payloadSize;
+
+    @Param({"false", "true"})
+    private boolean zeroCopy;
+
+    private ProtocolHandler protocolHandler;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        final byte[] payload = new byte[payloadSize];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+
+        final ByteBuffer framed = new ProtocolHandler(true, null).frame(new BinaryFrame(payload, false, true));
+        buffer = ByteBuffer.allocate(framed.remaining());
+        buffer.put(framed);
+
+        protocolHandler = new ProtocolHandler(false, null);
+        protocolHandler.setZeroCopyDecoding(zeroCopy);
+    }
+
+    @Benchmark
+    public ByteBuffer unframe() {
+        // zero-copy decoding unmasks in place, so the content alternates between masked and unmasked state; that
+        // does not influence the measured work.
+        buffer.clear();
+        final Frame frame = protocolHandler.unframe(buffer);
+        return frame.isPayloadView() ? frame.getPayloadBuffer() : ByteBuffer.wrap(frame.getPayloadData());
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures UTF-8 decoding of incoming text payloads by {@link Utf8Decoder} and encoding of outgoing text by
+ * {@link StrictUtf8}.
+ * <p>
+ * {@link #decodeStrictUtf8()} is the plain {@link CharsetDecoder} path used before {@link Utf8Decoder}, {@link
+ * #decodeJdk()} is the (non-validating) JDK decoder for reference. Payloads are either pure ASCII or mixed text with
+ * two and three byte sequences.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Utf8Benchmark {
+
+    private static final Charset JDK_UTF8 = Charset.forName("UTF-8");
+    private static final String MIXED = "P\u0159\u00edli\u0161 \u017elu\u0165ou\u010dk\u00fd"
+            + " k\u016f\u0148 \u00fap\u011bl \u010f\u00e1belsk\u00e9 \u00f3dy - \u20ac ";
+
+    @Param({"16", "1024", "65536"})
+    private int length;
+
+    @Param({"true", "false"})
+    private boolean ascii;
+
+    private final Charset strictUtf8 = new StrictUtf8();
+    private final CharsetDecoder strictDecoder = strictUtf8.newDecoder();
+    private final Utf8Decoder utf8Decoder = new Utf8Decoder();
+
+    private String text;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        final String pattern = ascii ? "The quick brown fox jumps over the lazy dog. " : MIXED;
+        final StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(pattern);
+        }
+        sb.setLength(length);
+        text = sb.toString();
+        bytes = text.getBytes(JDK_UTF8);
+    }
+
+    @Benchmark
+    public String decodeUtf8Decoder() {
+        utf8Decoder.reset();
+        return utf8Decoder.decode(bytes, 0, bytes.length, true);
+    }
+
+    @Benchmark
+    public String decodeStrictUtf8() throws CharacterCodingException {
+        strictDecoder.reset();
+        return strictDecoder.decode(ByteBuffer.wrap(bytes)).toString();
+    }
+
+    @Benchmark
+    public String decodeJdk() {
+        return new String(bytes, JDK_UTF8);
+    }
+
+    @Benchmark
+    public byte[] encodeStrictUtf8() {
+        return text.getBytes(strictUtf8);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core.uri;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.websocket.DeploymentException;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.Session;
+import javax.websocket.server.ServerEndpointConfig;
+
+import org.glassfish.tyrus.core.ComponentProviderService;
+import org.glassfish.tyrus.core.DebugContext;
+import org.glassfish.tyrus.core.TyrusEndpointWrapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares endpoint lookup done during the handshake by {@link PathTrie} with the linear scan done by {@link
+ * Match#getAllMatches(String, Set, DebugContext)}.
+ * <p>
+ * Every endpoint has a path template with two variables and an exact path; the request path matches the template of
+ * the last registered endpoint.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EndpointMatchBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int endpoints;
+
+    private final Set<TyrusEndpointWrapper> endpointWrappers = new HashSet<TyrusEndpointWrapper>();
+    private final PathTrie pathTrie = new PathTrie();
+    private final DebugContext debugContext = new DebugContext();
+
+    private String requestPath;
+
+    @Setup
+    public void setup() throws DeploymentException {
+        final ComponentProviderService componentProvider = ComponentProviderService.create();
+
+        for (int i = 0; i < endpoints; i++) {
+            for (String path : new String[]{"/service" + i + "/{tenant}/items/{id}", "/service" + i + "/status"}) {
+                final TyrusEndpointWrapper endpointWrapper = new TyrusEndpointWrapper(
+                        TestEndpoint.class, ServerEndpointConfig.Builder.create(TestEndpoint.class, path).build(),
+                        componentProvider, null, "/app", null, null, null, null, null);
+                endpointWrappers.add(endpointWrapper);
+                pathTrie.add(endpointWrapper);
+            }
+        }
+
+        requestPath = "/app/service" + (endpoints - 1) + "/acme/items/42";
+    }
+
+    @Benchmark
+    public List<Match> linear() {
+        return Match.getAllMatches(requestPath, endpointWrappers, debugContext);
+    }
+
+    @Benchmark
+    public List<Match> trie() {
+        return pathTrie.getAllMatches(requestPath, debugContext);
+    }
+
+    public static class TestEndpoint extends Endpoint {
+        @Override
+        public void onOpen(Session session, EndpointConfig config) {
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.test.e2e.non_deployable;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.websocket.ClientEndpointConfig;
+import javax.websocket.DeploymentException;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.MessageHandler;
+import javax.websocket.OnMessage;
+import javax.websocket.Session;
+import javax.websocket.server.ServerEndpoint;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.client.ClientProperties;
+import org.glassfish.tyrus.container.grizzly.server.GrizzlyServerContainer;
+import org.glassfish.tyrus.server.Server;
+import org.glassfish.tyrus.test.tools.TestContainer;
+
+import org.glassfish.grizzly.strategies.SameThreadIOStrategy;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
+
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link GrizzlyServerContainer#IO_STRATEGY}.
+ */
+public class GrizzlyServerIOStrategyTest extends TestContainer {
+
+    private static final String SELECTOR_THREAD_NAME = "tyrus-test-selector-";
+
+    public GrizzlyServerIOStrategyTest() {
+        final Map<String, Object> properties = getServerProperties();
+
+        properties.put(GrizzlyServerContainer.IO_STRATEGY, SameThreadIOStrategy.getInstance());
+        properties.put(GrizzlyServerContainer.SELECTOR_THREAD_POOL_CONFIG,
+                       ThreadPoolConfig.defaultConfig().setThreadFactory(new ThreadFactory() {
+                           private final AtomicInteger counter = new AtomicInteger();
+
+                           @Override
+                           public Thread newThread(Runnable r) {
+                               final Thread thread = new Thread(r, SELECTOR_THREAD_NAME + counter.incrementAndGet());
+                               thread.setDaemon(true);
+                               return thread;
+                           }
+                       }));
+    }
+
+    @Test
+    public void testSameThreadIOStrategy() throws DeploymentException, InterruptedException, IOException {
+        if (System.getProperties().getProperty(ClientProperties.SHARED_CONTAINER) != null) {
+            // test not valid with shared container.
+            return;
+        }
+
+        Server server = startServer(ThreadNameEndpoint.class);
+
+        try {
+            final CountDownLatch messageLatch = new CountDownLatch(1);
+            final AtomicReference<String> threadName = new AtomicReference<String>();
+
+            ClientManager client = createClient();
+            final Session session = client.connectToServer(new Endpoint() {
+                @Override
+                public void onOpen(Session session, EndpointConfig config) {
+                    session.addMessageHandler(new MessageHandler.Whole<String>() {
+                        @Override
+                        public void onMessage(String message) {
+                            threadName.set(message);
+                            messageLatch.countDown();
+                        }
+                    });
+                }
+            }, ClientEndpointConfig.Builder.create().build(), getURI(ThreadNameEndpoint.class));
+
+            session.getBasicRemote().sendText("thread?");
+
+            assertTrue(messageLatch.await(3, TimeUnit.SECONDS));
+            // message is processed without handing it over to a worker thread.
+            assertTrue(threadName.get(), threadName.get().startsWith(SELECTOR_THREAD_NAME));
+            session.close();
+        } finally {
+            stopServer(server);
+        }
+    }
+
+    @ServerEndpoint(value = "/threadname")
+    public static class ThreadNameEndpoint {
+
+        @OnMessage
+        public String onMessage(String message) {
+            return Thread.currentThread().getName();
+        }
+    }
+}
@@ -42,6 +42,7 @@ package org.glassfish.tyrus.test.standard_config;
 
 import java.io.IOException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import javax.websocket.ClientEndpointConfig;
@@ -60,6 +61,7 @@ import org.glassfish.tyrus.server.Server;
 import org.glassfish.tyrus.test.tools.TestContainer;
 
 import org.junit.Test;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -148,9 +150,49 @@ public class BroadcasterTest extends TestContainer {
         }
     }
 
+    @Test
+    public void testTyrusBroadcastAsync() throws DeploymentException {
+        final CountDownLatch messageLatch = new CountDownLatch(3);
+        Server server = startServer(TyrusBroadcastAsyncTestEndpoint.class);
+
+        try {
+            final TEndpointAdapter ea1 = new TEndpointAdapter(messageLatch);
+            final TEndpointAdapter ea2 = new TEndpointAdapter(messageLatch);
+
+            final ClientManager client1 = createClient();
+            client1.connectToServer(ea1, cec, getURI(TyrusBroadcastAsyncTestEndpoint.class));
+            final ClientManager client2 = createClient();
+            client2.connectToServer(ea2, cec, getURI(TyrusBroadcastAsyncTestEndpoint.class));
+
+            synchronized (ea1) {
+                if (ea1.peer == null) {
+                    ea1.wait();
+                }
+            }
+
+            synchronized (ea2) {
+                if (ea2.peer == null) {
+                    ea2.wait();
+                }
+            }
+
+            ea1.peer.sendText(SENT_MESSAGE);
+
+            assertTrue("Timeout reached. Message latch value: " + messageLatch.getCount(),
+                       messageLatch.await(5, TimeUnit.SECONDS));
+            assertEquals("2", ea1.lastMessage);
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage(), e);
+        } finally {
+            stopServer(server);
+        }
+    }
+
     private static class TEndpointAdapter extends TestEndpointAdapter {
         private final CountDownLatch messageLatch;
         public RemoteEndpoint.Basic peer;
+        public volatile String lastMessage;
 
         TEndpointAdapter(CountDownLatch messageLatch) {
             this.messageLatch = messageLatch;
@@ -176,6 +218,7 @@ public class BroadcasterTest extends TestContainer {
 
         @Override
         public void onMessage(String message) {
+            lastMessage = message;
             messageLatch.countDown();
         }
     }
@@ -203,4 +246,15 @@ public class BroadcasterTest extends TestContainer {
             ((TyrusSession) session).broadcast(message);
         }
     }
+
+    @ServerEndpoint(value = "/tyrus-broadcast-async")
+    public static class TyrusBroadcastAsyncTestEndpoint {
+
+        @OnMessage
+        public void message(String message, Session session) throws Exception {
+            Future<Integer> sent = ((TyrusSession) session).broadcastAsync(message);
+            // reply with the number of sessions the message was written to.
+            session.getBasicRemote().sendText(String.valueOf(sent.get(5, TimeUnit.SECONDS)));
+        }
+    }
 }